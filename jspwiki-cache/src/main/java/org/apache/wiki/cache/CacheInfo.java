@@ -16,32 +16,85 @@
     specific language governing permissions and limitations
     under the License.
  */
-
 package org.apache.wiki.cache;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
 /**
- * Simple pojo that holds cache information.
+ * Simple pojo that holds cache information. Counters may be updated concurrently from any number of threads.
  */
 public class CacheInfo {
 
+    /** Value returned by {@link #getEntries()}, {@link #getBytes()} and {@link #getMaxElementsAllowed()} when the cache can't tell. */
+    public static final long UNKNOWN = -1L;
+
     private final String name;
     private final long maxElementsAllowed;
-    private long misses;
-    private long hits;
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder secondTierHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+    private final LongSupplier entries;
+    private final LongSupplier bytes;
 
     public CacheInfo( final String name, final long maxElementsAllowed ) {
+        this( name, maxElementsAllowed, () -> UNKNOWN, () -> UNKNOWN );
+    }
+
+    /**
+     * @param name cache name.
+     * @param maxElementsAllowed max number of elements the cache can hold, {@link #UNKNOWN} if bounded by the size of its elements.
+     * @param entries current number of elements on the cache.
+     * @param bytes current estimated size, in bytes, of the elements on the cache.
+     */
+    public CacheInfo( final String name, final long maxElementsAllowed, final LongSupplier entries, final LongSupplier bytes ) {
         this.name = name;
         this.maxElementsAllowed = maxElementsAllowed;
-        this.hits = 0L;
-        this.misses = 0L;
+        this.entries = entries;
+        this.bytes = bytes;
     }
 
     public void hit() {
-        hits++;
+        hits.increment();
     }
 
+    /** A requested element wasn't on the cache, so it was requested to the cached service, whether it was found there or not. */
     public void miss() {
-        misses++;
+        misses.increment();
+    }
+
+    /** A requested element was recently found to be missing on the cached service, so it wasn't requested again. */
+    public void negativeHit() {
+        negativeHits.increment();
+    }
+
+    /** A requested element was being retrieved by another thread, whose result was reused. */
+    public void coalescedLoad() {
+        coalescedLoads.increment();
+    }
+
+    /** A requested element wasn't on the cache, but on its second tier, from which it was promoted back to the cache. */
+    public void secondTierHit() {
+        secondTierHits.increment();
+    }
+
+    /** An element was removed from the cache to make room for others, or because it expired. */
+    public void eviction() {
+        evictions.increment();
+    }
+
+    /**
+     * Accounts the time spent retrieving a missing element from the cached service.
+     *
+     * @param nanos time spent, in nanoseconds.
+     */
+    public void loadTime( final long nanos ) {
+        loadTime.add( nanos );
     }
 
     public String getName() {
@@ -49,14 +102,56 @@ public class CacheInfo {
     }
 
     public long getMisses() {
-        return misses;
+        return misses.sum();
     }
 
     public long getHits() {
-        return hits;
+        return hits.sum();
     }
 
+    public long getNegativeHits() {
+        return negativeHits.sum();
+    }
+
+    public long getCoalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    public long getSecondTierHits() {
+        return secondTierHits.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** @return total time spent retrieving missing elements from the cached service, in milliseconds. */
+    public long getLoadTime() {
+        return TimeUnit.NANOSECONDS.toMillis( loadTime.sum() );
+    }
+
+    /** @return current number of elements on the cache, or {@link #UNKNOWN}. */
+    public long getEntries() {
+        return entries.getAsLong();
+    }
+
+    /** @return current estimated size, in bytes, of the elements on the cache, or {@link #UNKNOWN}. */
+    public long getBytes() {
+        return bytes.getAsLong();
+    }
+
+    /** @return max number of elements the cache can hold, or {@link #UNKNOWN} if the cache is bounded by the size of its elements. */
     public long getMaxElementsAllowed() {
         return maxElementsAllowed;
     }
+
+    /**
+     * Tells whether the cache is bounded by the estimated size of its elements rather than by their number, so there's no telling
+     * how many of them it can hold.
+     *
+     * @return {@code true} if the cache is bounded by the size of its elements, {@code false} otherwise.
+     */
+    public boolean isBoundedByWeight() {
+        return maxElementsAllowed == UNKNOWN;
+    }
 }
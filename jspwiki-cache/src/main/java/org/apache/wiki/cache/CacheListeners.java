@@ -0,0 +1,81 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+
+/**
+ * Listeners registered through {@link CachingManager#registerListener(String, String, Object...)}.
+ */
+class CacheListeners {
+
+    private final Map< String, List< AtomicBoolean > > expired = new ConcurrentHashMap<>();
+    private final Map< String, List< Consumer< Serializable > > > invalidated = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a listener.
+     *
+     * @param cacheName cache name.
+     * @param listener kind of listener.
+     * @param args listener arguments.
+     * @return {@code true} if the listener has been registered, {@code false} if the kind of listener isn't known.
+     */
+    @SuppressWarnings( "unchecked" )
+    boolean register( final String cacheName, final String listener, final Object... args ) {
+        if( "expired".equals( listener ) ) {
+            return expired.computeIfAbsent( cacheName, k -> new CopyOnWriteArrayList<>() ).add( ( AtomicBoolean )args[ 0 ] );
+        } else if( "invalidated".equals( listener ) ) {
+            return invalidated.computeIfAbsent( cacheName, k -> new CopyOnWriteArrayList<>() ).add( ( Consumer< Serializable > )args[ 0 ] );
+        }
+        return false;
+    }
+
+    /**
+     * Lets the "expired" listeners know that the cache no longer holds all the items put on it.
+     *
+     * @param cacheName cache name.
+     */
+    void expired( final String cacheName ) {
+        expired.getOrDefault( cacheName, List.of() ).forEach( allRequested -> allRequested.set( false ) );
+    }
+
+    /**
+     * Lets the listeners know that another node has removed the given key.
+     *
+     * @param cacheName cache name.
+     * @param key removed key.
+     */
+    void invalidated( final String cacheName, final Serializable key ) {
+        expired( cacheName );
+        invalidated.getOrDefault( cacheName, List.of() ).forEach( listener -> listener.accept( key ) );
+    }
+
+    void clear() {
+        expired.clear();
+        invalidated.clear();
+    }
+
+}
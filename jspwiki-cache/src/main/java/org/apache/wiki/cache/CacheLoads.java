@@ -0,0 +1,202 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.apache.wiki.util.CheckedSupplier;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+
+/**
+ * Coordinates the loads of the missing elements of a cache:
+ * <ul>
+ *   <li>concurrent loads of the same key are coalesced, so only one of the callers runs its supplier, while the others wait
+ *   for its result, even if it is {@code null}. Should that load fail, the waiting callers run their own suppliers.</li>
+ *   <li>optionally, keys whose supplier returned {@code null} are remembered for a short period of time, so the cached
+ *   service is not asked again for them until that period expires, or the key is put on / removed from the cache.</li>
+ * </ul>
+ */
+class CacheLoads {
+
+    /** Result handed to the callers waiting on a load which didn't find the element on the cached service. */
+    private static final Object NOT_FOUND = new Object();
+
+    private final Map< Serializable, Load > inFlight = new ConcurrentHashMap<>();
+    private final Map< Serializable, Long > missing = new ConcurrentHashMap<>();
+    private final long negativeTtl;
+    private final long maxMissing;
+
+    /**
+     * @param negativeTtl time, in milliseconds, to remember keys not found on the cached service; {@code 0} or less disables it.
+     * @param maxMissing max number of keys not found on the cached service to remember.
+     */
+    CacheLoads( final long negativeTtl, final long maxMissing ) {
+        this.negativeTtl = negativeTtl;
+        this.maxMissing = maxMissing;
+    }
+
+    /**
+     * Retrieves a missing element from the given supplier, unless another thread is already doing so, in which case its result
+     * is reused.
+     *
+     * @param key item's identifier.
+     * @param info statistics of the cache.
+     * @param supplier retrieves the element from the cached service.
+     * @param store puts the retrieved element in the cache.
+     * @return the requested item or {@code null} if it isn't present on the cached service.
+     * @throws E the supplier may throw a checked exception, which is propagated upwards.
+     */
+    @SuppressWarnings( "unchecked" )
+    < T, E extends Exception > T load( final Serializable key,
+                                       final CacheInfo info,
+                                       final CheckedSupplier< T, E > supplier,
+                                       final Consumer< T > store ) throws E {
+        if( isMissing( key ) ) {
+            info.negativeHit();
+            return null;
+        }
+        final Load load = new Load();
+        final Load running = inFlight.putIfAbsent( key, load );
+        if( running != null ) {
+            if( running.loader != Thread.currentThread() ) {
+                final Object value = running.await();
+                if( value != null ) {
+                    info.coalescedLoad();
+                    return value == NOT_FOUND ? null : ( T )value;
+                }
+            }
+            // nothing to reuse: the other load failed or became outdated while running
+            return timedGet( info, supplier );
+        }
+
+        T value = null;
+        boolean loaded = false;
+        try {
+            value = timedGet( info, supplier );
+            loaded = true;
+            synchronized( load ) { // checked and stored at once, so forget() can't slip in between
+                if( !load.outdated ) { // don't cache anything if the key was put or removed while loading it
+                    if( value != null ) {
+                        store.accept( value );
+                    } else {
+                        rememberMissing( key );
+                    }
+                }
+            }
+            return value;
+        } finally {
+            inFlight.remove( key, load );
+            if( loaded && !load.outdated ) {
+                load.complete( value != null ? value : NOT_FOUND );
+            } else {
+                load.complete( null );
+            }
+        }
+    }
+
+    /**
+     * Returns the number of callers waiting on the ongoing load of the given key.
+     *
+     * @param key item's identifier.
+     * @return number of callers waiting for the key to be loaded, {@code 0} if it isn't being loaded.
+     */
+    int waiting( final Serializable key ) {
+        final Load load = inFlight.get( key );
+        return load != null ? load.getNumberOfDependents() : 0;
+    }
+
+    < T, E extends Exception > T timedGet( final CacheInfo info, final CheckedSupplier< T, E > supplier ) throws E {
+        info.miss();
+        final long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            info.loadTime( System.nanoTime() - start );
+        }
+    }
+
+    /**
+     * Forgets anything known about the given key, to be called right before its cache entry is put or removed. Once this
+     * method returns, an ongoing load of the key has either stored its value already, so the put or removal replaces it, or
+     * won't store it at all.
+     *
+     * @param key item's identifier.
+     */
+    void forget( final Serializable key ) {
+        missing.remove( key );
+        final Load load = inFlight.get( key );
+        if( load != null ) {
+            synchronized( load ) {
+                load.outdated = true;
+            }
+        }
+    }
+
+    boolean isMissing( final Serializable key ) {
+        final Long expiry = missing.get( key );
+        if( expiry == null ) {
+            return false;
+        }
+        if( expiry > System.currentTimeMillis() ) {
+            return true;
+        }
+        missing.remove( key, expiry );
+        return false;
+    }
+
+    void rememberMissing( final Serializable key ) {
+        if( negativeTtl <= 0 ) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        if( missing.size() >= maxMissing ) {
+            missing.values().removeIf( expiry -> expiry <= now );
+            if( missing.size() >= maxMissing ) {
+                return;
+            }
+        }
+        missing.put( key, now + negativeTtl );
+    }
+
+    /**
+     * An ongoing load, which other threads can wait on.
+     */
+    private static final class Load extends CompletableFuture< Object > {
+
+        final Thread loader = Thread.currentThread();
+        volatile boolean outdated;
+
+        Object await() {
+            try {
+                return get();
+            } catch( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch( final ExecutionException e ) {
+                return null;
+            }
+        }
+    }
+
+}
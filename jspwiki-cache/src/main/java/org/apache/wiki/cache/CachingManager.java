@@ -23,6 +23,8 @@ import org.apache.wiki.util.CheckedSupplier;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Cache manager abstraction.
@@ -39,9 +41,22 @@ public interface CachingManager {
     /** The property value for setting the cache on/off.  Value is {@value}. */
     String PROP_CACHE_ENABLE = "jspwiki.cache.enable";
 
+    /**
+     * The property value with the {@code CachingManager} implementation to use, either a fully qualified class name or a class
+     * from this package, f.ex., {@code CaffeineCachingManager}. Defaults to the class mapped in {@code ini/classmappings.xml}.
+     * Value is {@value}.
+     */
+    String PROP_CACHE_MANAGER_IMPL = "jspwiki.cache.manager";
+
     /** The property value with the location of the cache configuration file.  Value is {@value}. */
     String PROP_CACHE_CONF_FILE = "jspwiki.cache.config-file";
 
+    /**
+     * The property value with the time, in seconds, during which a key not found on the cached service is not requested again to it.
+     * Defaults to {@code 0}, which disables caching of not found keys.  Value is {@value}.
+     */
+    String PROP_CACHE_NEGATIVE_TTL = "jspwiki.cache.negative-ttl";
+
     /** Name of the attachment cache. */
     String CACHE_ATTACHMENTS = "jspwiki.attachmentsCache";
 
@@ -63,6 +78,9 @@ public interface CachingManager {
     /** Name of the rendering cache. */
     String CACHE_DOCUMENTS = "jspwiki.renderingCache";
 
+    /** Name of the page differences cache. */
+    String CACHE_DIFFS = "jspwiki.diffCache";
+
     /**
      * Shuts down the underlying cache manager
      */
@@ -76,6 +94,19 @@ public interface CachingManager {
      */
     boolean enabled( String cacheName );
 
+    /**
+     * Returns the names of the enabled caches.
+     *
+     * @return the names of the enabled caches, sorted.
+     */
+    default List< String > names() {
+        return Stream.of( CACHE_ATTACHMENTS, CACHE_ATTACHMENTS_COLLECTION, CACHE_ATTACHMENTS_DYNAMIC, CACHE_DIFFS, CACHE_DOCUMENTS,
+                          CACHE_PAGES, CACHE_PAGES_HISTORY, CACHE_PAGES_TEXT )
+                     .filter( this::enabled )
+                     .sorted()
+                     .collect( Collectors.toList() );
+    }
+
     /**
      * Retrieves cache usage information.
      *
@@ -92,9 +123,23 @@ public interface CachingManager {
      */
     < T extends Serializable > List< T > keys( String cacheName );
 
+    /**
+     * Returns an item from a cache, without retrieving it from the cached service if it is not found on the cache. Unlike
+     * {@link #get(String, Serializable, CheckedSupplier)}, not finding the item doesn't remember the key as missing.
+     *
+     * @param cacheName The cache in which the item lives.
+     * @param key item's identifier.
+     * @return The requested item or {@code null} if either the cache is not enabled or the item is not present on the cache.
+     */
+    < T > T get( String cacheName, Serializable key );
+
     /**
      * Returns an item from a cache. If it is not found on the cache, try to retrieve from the provided supplier. If
      * found there, put the value in the cache, and return it. Otherwise, return {@code null}.
+     * <p>
+     * Implementations may coalesce concurrent retrievals of the same key, and may remember for a while (see
+     * {@link #PROP_CACHE_NEGATIVE_TTL}) that the supplier returned {@code null} for a given key, until that key is put on or
+     * removed from the cache.
      *
      * @param cacheName The cache in which the item lives.
      * @param key item's identifier.
@@ -105,7 +150,8 @@ public interface CachingManager {
     < T, E extends Exception > T get( String cacheName, Serializable key, CheckedSupplier< T, E > supplier ) throws E;
 
     /**
-     * Puts an item on a cache.
+     * Puts an item on a cache. Unlike {@link #remove(String, Serializable)}, this doesn't affect other nodes' caches, so
+     * updates of the cached service should remove the affected items first.
      *
      * @param cacheName The cache in which the item will live.
      * @param key item's identifier.
@@ -114,7 +160,7 @@ public interface CachingManager {
     void put( String cacheName, Serializable key, Object val );
 
     /**
-     * Removes an item from a cache.
+     * Removes an item from a cache. If an {@link InvalidationBus} is set up, the item is also removed from the other nodes' caches.
      *
      * @param cacheName The cache in which the item to be removed lives.
      * @param key item's identifier.
@@ -122,7 +168,14 @@ public interface CachingManager {
     void remove( String cacheName, Serializable key );
 
     /**
-     * Register a listener associated with the given cache and type of listener.
+     * Register a listener associated with the given cache and type of listener. Supported listeners are:
+     * <ul>
+     *   <li>{@code expired}: expects an {@code AtomicBoolean}, set to {@code false} whenever the cache stops holding all the
+     *   items put on it, because they've expired, been evicted, or removed by another node.</li>
+     *   <li>{@code invalidated}: expects a {@code Consumer< Serializable >}, which receives the keys removed by other nodes,
+     *   once they've been removed from this node's cache.</li>
+     * </ul>
+     *
      * @param cacheName the name of the cache where the listener will be registered.
      * @param listener the kind of listener to be registered
      * @param args arguments needed to instantiate and register the listener.
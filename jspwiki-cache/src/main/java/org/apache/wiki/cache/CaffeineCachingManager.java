@@ -0,0 +1,302 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.api.engine.Initializable;
+import org.apache.wiki.api.exceptions.WikiException;
+import org.apache.wiki.util.CheckedSupplier;
+import org.apache.wiki.util.TextUtil;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+
+/**
+ * Caffeine-based {@link CachingManager}.
+ * <p>
+ * Unlike {@link EhcacheCachingManager}, which holds up to a given number of elements per cache and evicts the least recently
+ * used ones, caches here are bounded by the estimated size of their elements, and use Caffeine's W-TinyLFU policy, which
+ * only admits a new element in the cache if it is likely to be requested more often than the one it would evict. That keeps
+ * frequently requested pages in the cache when scan-like workloads (reindexing, listing all pages, crawlers) go through
+ * the whole repository.
+ * <p>
+ * To use it, set {@value CachingManager#PROP_CACHE_MANAGER_IMPL} to {@code CaffeineCachingManager}. Each cache holds up to
+ * {@value #PROP_CACHE_MAX_BYTES} bytes (16MB by default), which can be set on a per-cache basis through
+ * {@value #PROP_CACHE_MAX_BYTES}{@code .<cache name>}, f.ex., {@code jspwiki.cache.max-bytes.jspwiki.pageTextCache}.
+ */
+public class CaffeineCachingManager implements CachingManager, Initializable {
+
+    private static final Logger LOG = LogManager.getLogger( CaffeineCachingManager.class );
+
+    /** The property value with the maximum, estimated, size in bytes of each cache.  Value is {@value}. */
+    public static final String PROP_CACHE_MAX_BYTES = "jspwiki.cache.max-bytes";
+
+    private static final int DEFAULT_CACHE_MAX_BYTES = 16 * 1024 * 1024;
+
+    /** Caffeine doesn't allow {@code null} values, but callers may cache them to signal known missing elements. */
+    private static final Object NULL = new Object();
+
+    final Map< String, Cache< Serializable, Object > > cacheMap = new ConcurrentHashMap<>();
+    final Map< String, CacheInfo > cacheStats = new ConcurrentHashMap<>();
+    final Map< String, CacheLoads > cacheLoads = new ConcurrentHashMap<>();
+    final Map< String, OffHeapTier > secondTiers = new ConcurrentHashMap<>();
+    final CacheListeners listeners = new CacheListeners();
+    Engine engine;
+    Properties props;
+    InvalidationBus invalidationBus;
+    long negativeTtl;
+
+    /** {@inheritDoc} */
+    @Override
+    public void shutdown() {
+        if( invalidationBus != null ) {
+            invalidationBus.shutdown();
+            invalidationBus = null;
+        }
+        cacheMap.values().forEach( Cache::invalidateAll );
+        cacheMap.clear();
+        cacheStats.clear();
+        cacheLoads.clear();
+        secondTiers.values().forEach( OffHeapTier::close );
+        secondTiers.clear();
+        listeners.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings( "deprecation" ) // jspwiki.usePageCache is still honoured
+    public void initialize( final Engine engine, final Properties props ) throws WikiException {
+        final String cacheEnabled = TextUtil.getStringProperty( props, PROP_CACHE_ENABLE, PROP_USECACHE_DEPRECATED, "true" );
+        final boolean useCache = "true".equalsIgnoreCase( cacheEnabled );
+        this.engine = engine;
+        this.props = props;
+        negativeTtl = TextUtil.getIntegerProperty( props, PROP_CACHE_NEGATIVE_TTL, 0 ) * 1_000L;
+        if( useCache ) {
+            registerCache( CACHE_ATTACHMENTS );
+            registerCache( CACHE_ATTACHMENTS_COLLECTION );
+            registerCache( CACHE_ATTACHMENTS_DYNAMIC );
+            registerCache( CACHE_DIFFS );
+            registerCache( CACHE_DOCUMENTS );
+            registerCache( CACHE_PAGES );
+            registerCache( CACHE_PAGES_HISTORY );
+            registerCache( CACHE_PAGES_TEXT );
+            invalidationBus = InvalidationBuses.create( props );
+            if( invalidationBus != null ) {
+                invalidationBus.subscribe( this::invalidate );
+            }
+        }
+    }
+
+    void registerCache( final String cacheName ) {
+        final int defaultMaxBytes = TextUtil.getIntegerProperty( props, PROP_CACHE_MAX_BYTES, DEFAULT_CACHE_MAX_BYTES );
+        final int maxBytes = TextUtil.getIntegerProperty( props, PROP_CACHE_MAX_BYTES + "." + cacheName, defaultMaxBytes );
+        LOG.info( "cache {} will hold up to {} bytes", cacheName, maxBytes );
+        final AtomicReference< CacheInfo > info = new AtomicReference<>();
+        final OffHeapTier secondTier = OffHeapTier.create( engine, props, cacheName );
+        final Cache< Serializable, Object > cache = Caffeine.newBuilder()
+                                                            .maximumWeight( maxBytes )
+                                                            .weigher( Weights::of )
+                                                            .evictionListener( ( key, value, cause ) -> {
+                                                                info.get().eviction();
+                                                                listeners.expired( cacheName );
+                                                                if( secondTier != null && cause == RemovalCause.SIZE ) {
+                                                                    secondTier.put( ( Serializable )key, value );
+                                                                }
+                                                            } )
+                                                            .build();
+        if( secondTier != null ) {
+            secondTiers.put( cacheName, secondTier );
+        }
+        // there's no maximum number of elements, the eviction listeners let know when the cache no longer holds all of them
+        info.set( new CacheInfo( cacheName, CacheInfo.UNKNOWN, cache::estimatedSize, () -> weightedSize( cache ) ) );
+        cacheMap.put( cacheName, cache );
+        cacheStats.put( cacheName, info.get() );
+        cacheLoads.put( cacheName, new CacheLoads( negativeTtl, Math.max( maxBytes / Weights.PAGE, 1_000 ) ) );
+    }
+
+    static long weightedSize( final Cache< Serializable, Object > cache ) {
+        return cache.policy().eviction().map( eviction -> eviction.weightedSize().orElse( CacheInfo.UNKNOWN ) ).orElse( CacheInfo.UNKNOWN );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean enabled( final String cacheName ) {
+        return cacheMap.get( cacheName ) != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List< String > names() {
+        return cacheMap.keySet().stream().sorted().collect( Collectors.toList() );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CacheInfo info( final String cacheName ) {
+        if( enabled( cacheName ) ) {
+            return cacheStats.get( cacheName );
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public < T extends Serializable > List< T > keys( final String cacheName ) {
+        if( enabled( cacheName ) ) {
+            return new ArrayList<>( ( Collection< T > )( Collection< ? > )cacheMap.get( cacheName ).asMap().keySet() );
+        }
+        return Collections.emptyList();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public < T > T get( final String cacheName, final Serializable key ) {
+        if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            final Object value = cached( cacheName, key );
+            if( value == null ) {
+                cacheStats.get( cacheName ).miss();
+            }
+            return value == NULL ? null : ( T )value;
+        }
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public < T, E extends Exception > T get( final String cacheName, final Serializable key, final CheckedSupplier< T, E > supplier ) throws E {
+        if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            final Object value = cached( cacheName, key );
+            if( value != null ) {
+                return value == NULL ? null : ( T )value;
+            }
+            // element doesn't exist in cache, try to retrieve from the cached service instead.
+            final Cache< Serializable, Object > cache = cacheMap.get( cacheName );
+            return cacheLoads.get( cacheName ).load( key, cacheStats.get( cacheName ), supplier, loaded -> cache.put( key, loaded ) );
+        }
+        return null;
+    }
+
+    /** Looks up an element on the cache, or on its second tier, promoting it back to the cache if found there. */
+    Object cached( final String cacheName, final Serializable key ) {
+        final Cache< Serializable, Object > cache = cacheMap.get( cacheName );
+        final Object value = cache.getIfPresent( key );
+        if( value != null ) {
+            cacheStats.get( cacheName ).hit();
+            return value;
+        }
+        final OffHeapTier secondTier = secondTiers.get( cacheName );
+        if( secondTier == null ) {
+            return null;
+        }
+        final long removals = secondTier.removals();
+        final Object demoted = secondTier.take( key );
+        if( demoted == null ) {
+            return null;
+        }
+        cacheStats.get( cacheName ).secondTierHit();
+        final Object current = cache.asMap().putIfAbsent( key, demoted );
+        if( current != null ) { // put meanwhile
+            return current;
+        }
+        if( secondTier.removals() != removals ) { // key may have been removed meanwhile, don't keep a stale value
+            cache.asMap().remove( key, demoted );
+        }
+        return demoted;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void put( final String cacheName, final Serializable key, final Object val ) {
+        if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            removeFromSecondTier( cacheName, key );
+            cacheLoads.get( cacheName ).forget( key );
+            cacheMap.get( cacheName ).put( key, val != null ? val : NULL );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void remove( final String cacheName, final Serializable key ) {
+        if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            removeFromSecondTier( cacheName, key );
+            cacheLoads.get( cacheName ).forget( key );
+            cacheMap.get( cacheName ).invalidate( key );
+            if( invalidationBus != null && InvalidationBuses.isShared( cacheName, key ) ) {
+                invalidationBus.publish( cacheName, ( String )key );
+            }
+        }
+    }
+
+    /**
+     * Removes an item which another node has removed from its cache.
+     *
+     * @param cacheName The cache in which the item to be removed lives.
+     * @param key item's identifier.
+     */
+    void invalidate( final String cacheName, final String key ) {
+        if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            removeFromSecondTier( cacheName, key );
+            cacheLoads.get( cacheName ).forget( key );
+            cacheMap.get( cacheName ).invalidate( key );
+            listeners.invalidated( cacheName, key );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As elements only leave the caches when evicted or removed, "expired" listeners are also notified on every eviction.
+     */
+    @Override
+    public boolean registerListener( final String cacheName, final String listener, final Object... args ) {
+        return enabled( cacheName ) && listeners.register( cacheName, listener, args );
+    }
+
+    /** Called before putting or removing a key, so that a promotion of the key from the second tier running meanwhile can tell. */
+    void removeFromSecondTier( final String cacheName, final Serializable key ) {
+        final OffHeapTier secondTier = secondTiers.get( cacheName );
+        if( secondTier != null ) {
+            secondTier.remove( key );
+        }
+    }
+
+    boolean keyAndCacheAreNotNull( final String cacheName, final Serializable key ) {
+        return enabled( cacheName ) && key != null;
+    }
+
+}
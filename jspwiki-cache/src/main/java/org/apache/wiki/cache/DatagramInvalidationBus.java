@@ -0,0 +1,191 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.util.TextUtil;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+
+/**
+ * {@link InvalidationBus} which sends each invalidation as an UDP datagram to every other node.
+ * <p>
+ * Delivery is best effort: a lost datagram leaves the affected element on the receiving node's cache until it gets evicted,
+ * so this transport suits nodes on the same host or network. {@link FileInvalidationBus} doesn't lose invalidations. Datagrams
+ * are signed with a secret shared by all nodes, and those without a valid signature are dropped.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@value #PROP_PORT}: port on which invalidations are received.</li>
+ *   <li>{@value #PROP_BIND}: address on which invalidations are received; defaults to the loopback address, so it has to be
+ *       set when nodes run on different hosts.</li>
+ *   <li>{@value #PROP_PEERS}: comma separated list of {@code host:port} of the other nodes.</li>
+ *   <li>{@value #PROP_SECRET}: secret shared by all nodes, used to sign the datagrams; required.</li>
+ * </ul>
+ */
+public class DatagramInvalidationBus implements InvalidationBus {
+
+    private static final Logger LOG = LogManager.getLogger( DatagramInvalidationBus.class );
+
+    /** The property value with the port on which invalidations are received.  Value is {@value}. */
+    public static final String PROP_PORT = "jspwiki.cache.invalidation.port";
+
+    /** The property value with the address on which invalidations are received.  Value is {@value}. */
+    public static final String PROP_BIND = "jspwiki.cache.invalidation.bind";
+
+    /** The property value with the {@code host:port} of the other nodes.  Value is {@value}. */
+    public static final String PROP_PEERS = "jspwiki.cache.invalidation.peers";
+
+    /** The property value with the secret shared by all nodes, used to sign the datagrams.  Value is {@value}. */
+    public static final String PROP_SECRET = "jspwiki.cache.invalidation.secret";
+
+    private static final int MAX_DATAGRAM_SIZE = 8 * 1024;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    private final String nodeId = InvalidationBuses.newNodeId();
+    private final List< BiConsumer< String, String > > listeners = new CopyOnWriteArrayList<>();
+    private final List< InetSocketAddress > peers = new ArrayList<>();
+    private SecretKeySpec secret;
+    private DatagramSocket socket;
+    private Thread receiver;
+
+    /** {@inheritDoc} */
+    @Override
+    public void initialize( final Properties props ) throws IOException {
+        final String sharedSecret = TextUtil.getStringProperty( props, PROP_SECRET, null );
+        if( sharedSecret == null || sharedSecret.isEmpty() ) {
+            throw new IOException( PROP_SECRET + " has not been set" );
+        }
+        secret = new SecretKeySpec( sharedSecret.getBytes( StandardCharsets.UTF_8 ), MAC_ALGORITHM );
+        final int port = TextUtil.getIntegerProperty( props, PROP_PORT, 0 );
+        final String bind = TextUtil.getStringProperty( props, PROP_BIND, null );
+        socket = new DatagramSocket( port, bind != null ? InetAddress.getByName( bind ) : InetAddress.getLoopbackAddress() );
+        for( final String peer : TextUtil.getStringProperty( props, PROP_PEERS, "" ).split( "," ) ) {
+            final int colon = peer.lastIndexOf( ':' );
+            if( colon > 0 ) {
+                peers.add( new InetSocketAddress( peer.substring( 0, colon ).trim(), Integer.parseInt( peer.substring( colon + 1 ).trim() ) ) );
+            }
+        }
+        receiver = new Thread( this::receive, "JSPWiki cache invalidations receiver" );
+        receiver.setDaemon( true );
+        receiver.start();
+        LOG.info( "Receiving cache invalidations on {}, sending them to {}", socket.getLocalSocketAddress(), peers );
+    }
+
+    /** @return the port on which invalidations are received. */
+    int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void publish( final String cacheName, final String key ) {
+        final byte[] encoded = InvalidationBuses.encode( nodeId, cacheName, key ).getBytes( StandardCharsets.UTF_8 );
+        if( MAC_LENGTH + encoded.length > MAX_DATAGRAM_SIZE ) {
+            LOG.warn( "Not publishing invalidation of {} on {}, key too long", key, cacheName );
+            return;
+        }
+        final byte[] message = new byte[ MAC_LENGTH + encoded.length ];
+        System.arraycopy( sign( encoded, 0, encoded.length ), 0, message, 0, MAC_LENGTH );
+        System.arraycopy( encoded, 0, message, MAC_LENGTH, encoded.length );
+        for( final InetSocketAddress peer : peers ) {
+            try {
+                socket.send( new DatagramPacket( message, message.length, peer ) );
+            } catch( final IOException e ) {
+                LOG.warn( "Unable to send invalidation of {} on {} to {}: {}", key, cacheName, peer, e.getMessage() );
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void subscribe( final BiConsumer< String, String > listener ) {
+        listeners.add( listener );
+    }
+
+    void receive() {
+        final byte[] buffer = new byte[ MAX_DATAGRAM_SIZE ];
+        while( !socket.isClosed() ) {
+            try {
+                final DatagramPacket packet = new DatagramPacket( buffer, buffer.length );
+                socket.receive( packet );
+                if( !isSigned( packet ) ) {
+                    LOG.warn( "Dropping cache invalidation from {} without a valid signature", packet.getSocketAddress() );
+                    continue;
+                }
+                final String message = new String( packet.getData(), packet.getOffset() + MAC_LENGTH, packet.getLength() - MAC_LENGTH, StandardCharsets.UTF_8 );
+                listeners.forEach( listener -> InvalidationBuses.decode( nodeId, message, listener ) );
+            } catch( final IOException e ) {
+                if( !socket.isClosed() ) {
+                    LOG.warn( "Unable to receive cache invalidation: {}", e.getMessage() );
+                }
+            } catch( final RuntimeException e ) {
+                LOG.warn( "Unable to process cache invalidation: {}", e.getMessage(), e );
+            }
+        }
+    }
+
+    /** Checks that the datagram starts with the signature of the rest of its contents. */
+    boolean isSigned( final DatagramPacket packet ) {
+        if( packet.getLength() < MAC_LENGTH ) {
+            return false;
+        }
+        final byte[] data = packet.getData();
+        final byte[] signature = Arrays.copyOfRange( data, packet.getOffset(), packet.getOffset() + MAC_LENGTH );
+        return MessageDigest.isEqual( signature, sign( data, packet.getOffset() + MAC_LENGTH, packet.getLength() - MAC_LENGTH ) );
+    }
+
+    byte[] sign( final byte[] data, final int offset, final int length ) {
+        try {
+            final Mac mac = Mac.getInstance( MAC_ALGORITHM ); // not thread safe, so one per message
+            mac.init( secret );
+            mac.update( data, offset, length );
+            return mac.doFinal();
+        } catch( final GeneralSecurityException e ) {
+            throw new IllegalStateException( MAC_ALGORITHM + " is not available: " + e.getMessage(), e );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void shutdown() {
+        if( socket != null ) {
+            socket.close();
+        }
+    }
+
+}
@@ -38,7 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 
 /**
@@ -52,24 +52,43 @@ public class EhcacheCachingManager implements CachingManager, Initializable {
 
     final Map< String, Cache > cacheMap = new ConcurrentHashMap<>();
     final Map< String, CacheInfo > cacheStats = new ConcurrentHashMap<>();
+    final Map< String, CacheLoads > cacheLoads = new ConcurrentHashMap<>();
+    final Map< String, OffHeapTier > secondTiers = new ConcurrentHashMap<>();
+    final CacheListeners listeners = new CacheListeners();
+    Engine engine;
+    Properties props;
     CacheManager cacheManager;
+    InvalidationBus invalidationBus;
+    long negativeTtl;
 
     /** {@inheritDoc} */
     @Override
     public void shutdown() {
+        if( invalidationBus != null ) {
+            invalidationBus.shutdown();
+            invalidationBus = null;
+        }
         if(!cacheMap.isEmpty()) {
             CacheManager.getInstance().shutdown();
             cacheMap.clear();
             cacheStats.clear();
+            cacheLoads.clear();
+            secondTiers.values().forEach( OffHeapTier::close );
+            secondTiers.clear();
+            listeners.clear();
         }
     }
 
     /** {@inheritDoc} */
     @Override
+    @SuppressWarnings( "deprecation" ) // jspwiki.usePageCache is still honoured
     public void initialize( final Engine engine, final Properties props ) throws WikiException {
         final String cacheEnabled = TextUtil.getStringProperty( props, PROP_CACHE_ENABLE, PROP_USECACHE_DEPRECATED, "true" );
         final boolean useCache = "true".equalsIgnoreCase( cacheEnabled );
         final String confLocation = "/" + TextUtil.getStringProperty( props, PROP_CACHE_CONF_FILE, "ehcache-jspwiki.xml" );
+        negativeTtl = TextUtil.getIntegerProperty( props, PROP_CACHE_NEGATIVE_TTL, 0 ) * 1_000L;
+        this.engine = engine;
+        this.props = props;
         if( useCache ) {
             final URL location = this.getClass().getResource( confLocation );
             LOG.info( "Reading ehcache configuration file from classpath on /{}", location );
@@ -77,10 +96,15 @@ public class EhcacheCachingManager implements CachingManager, Initializable {
             registerCache( CACHE_ATTACHMENTS );
             registerCache( CACHE_ATTACHMENTS_COLLECTION );
             registerCache( CACHE_ATTACHMENTS_DYNAMIC );
+            registerCache( CACHE_DIFFS );
             registerCache( CACHE_DOCUMENTS );
             registerCache( CACHE_PAGES );
             registerCache( CACHE_PAGES_HISTORY );
             registerCache( CACHE_PAGES_TEXT );
+            invalidationBus = InvalidationBuses.create( props );
+            if( invalidationBus != null ) {
+                invalidationBus.subscribe( this::invalidate );
+            }
         }
     }
 
@@ -93,8 +117,41 @@ public class EhcacheCachingManager implements CachingManager, Initializable {
             cache = new Cache( cacheName, DEFAULT_CACHE_SIZE, false, false, DEFAULT_CACHE_EXPIRY_PERIOD, DEFAULT_CACHE_EXPIRY_PERIOD );
             cacheManager.addCache( cache );
         }
+        final OffHeapTier secondTier = OffHeapTier.create( engine, props, cacheName );
+        final CacheInfo info = new CacheInfo( cacheName, cache.getCacheConfiguration().getMaxEntriesLocalHeap(), cache::getSize, () -> estimatedBytes( cache ) );
+        cache.getCacheEventNotificationService().registerListener( new CacheEventListenerAdapter() {
+            @Override
+            public void notifyElementExpired( final Ehcache cache, final Element element ) {
+                info.eviction();
+                listeners.expired( cacheName ); // signal that the cache no longer contains all elements...
+            }
+
+            @Override
+            public void notifyElementEvicted( final Ehcache cache, final Element element ) {
+                info.eviction();
+                if( secondTier != null && element.getObjectKey() instanceof Serializable ) {
+                    secondTier.put( ( Serializable )element.getObjectKey(), element.getObjectValue() );
+                }
+            }
+        } );
+        if( secondTier != null ) {
+            secondTiers.put( cacheName, secondTier );
+        }
         cacheMap.put( cacheName, cache );
-        cacheStats.put( cacheName, new CacheInfo( cacheName, cache.getCacheConfiguration().getMaxEntriesLocalHeap() ) );
+        cacheStats.put( cacheName, info );
+        cacheLoads.put( cacheName, new CacheLoads( negativeTtl, Math.max( cache.getCacheConfiguration().getMaxEntriesLocalHeap(), DEFAULT_CACHE_SIZE ) ) );
+    }
+
+    /** Ehcache can only measure its size through a java agent, so this walks the cache adding up the weights of its elements. */
+    static long estimatedBytes( final Ehcache cache ) {
+        long bytes = 0;
+        for( final Object key : cache.getKeys() ) {
+            final Element element = cache.getQuiet( key );
+            if( element != null ) {
+                bytes += Weights.of( key, element.getObjectValue() );
+            }
+        }
+        return bytes;
     }
 
     /** {@inheritDoc} */
@@ -103,6 +160,12 @@ public class EhcacheCachingManager implements CachingManager, Initializable {
         return cacheMap.get( cacheName ) != null;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public List< String > names() {
+        return cacheMap.keySet().stream().sorted().collect( Collectors.toList() );
+    }
+
     /** {@inheritDoc} */
     @Override
     public CacheInfo info( final String cacheName ) {
@@ -124,32 +187,71 @@ public class EhcacheCachingManager implements CachingManager, Initializable {
         return Collections.emptyList();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public < T > T get( final String cacheName, final Serializable key ) {
+        if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            final Object value = cached( cacheName, key );
+            if( value == null ) {
+                cacheStats.get( cacheName ).miss();
+            }
+            return ( T )value;
+        }
+        return null;
+    }
+
     /** {@inheritDoc} */
     @Override
     @SuppressWarnings( "unchecked" )
     public < T, E extends Exception > T get( final String cacheName, final Serializable key, final CheckedSupplier< T, E > supplier ) throws E {
         if( keyAndCacheAreNotNull( cacheName, key ) ) {
-            final Element element = cacheMap.get( cacheName ).get( key );
-            if( element != null ) {
-                cacheStats.get( cacheName ).hit();
-                return ( T )element.getObjectValue();
-            } else {
-                // element doesn't exist in cache, try to retrieve from the cached service instead.
-                final T value = supplier.get();
-                if( value != null ) {
-                    cacheStats.get( cacheName ).miss();
-                    cacheMap.get( cacheName ).put( new Element( key, value ) );
-                }
-                return value;
+            final Object value = cached( cacheName, key );
+            if( value != null ) {
+                return ( T )value;
             }
+            // element doesn't exist in cache, try to retrieve from the cached service instead.
+            final Cache cache = cacheMap.get( cacheName );
+            return cacheLoads.get( cacheName ).load( key, cacheStats.get( cacheName ), supplier, loaded -> cache.put( new Element( key, loaded ) ) );
         }
         return null;
     }
 
+    /** Looks up an element on the cache, or on its second tier, promoting it back to the cache if found there. */
+    Object cached( final String cacheName, final Serializable key ) {
+        final Cache cache = cacheMap.get( cacheName );
+        final Element element = cache.get( key );
+        if( element != null ) {
+            cacheStats.get( cacheName ).hit();
+            return element.getObjectValue();
+        }
+        final OffHeapTier secondTier = secondTiers.get( cacheName );
+        if( secondTier == null ) {
+            return null;
+        }
+        final long removals = secondTier.removals();
+        final Object demoted = secondTier.take( key );
+        if( demoted == null ) {
+            return null;
+        }
+        cacheStats.get( cacheName ).secondTierHit();
+        final Element promoted = new Element( key, demoted );
+        final Element current = cache.putIfAbsent( promoted );
+        if( current != null ) { // put meanwhile
+            return current.getObjectValue();
+        }
+        if( secondTier.removals() != removals ) { // key may have been removed meanwhile, don't keep a stale value
+            cache.removeElement( promoted );
+        }
+        return demoted;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void put( final String cacheName, final Serializable key, final Object val ) {
         if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            removeFromSecondTier( cacheName, key );
+            cacheLoads.get( cacheName ).forget( key );
             cacheMap.get( cacheName ).put( new Element( key, val ) );
         }
     }
@@ -158,24 +260,42 @@ public class EhcacheCachingManager implements CachingManager, Initializable {
     @Override
     public void remove( final String cacheName, final Serializable key ) {
         if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            removeFromSecondTier( cacheName, key );
+            cacheLoads.get( cacheName ).forget( key );
             cacheMap.get( cacheName ).remove( key );
+            if( invalidationBus != null && InvalidationBuses.isShared( cacheName, key ) ) {
+                invalidationBus.publish( cacheName, ( String )key );
+            }
+        }
+    }
+
+    /**
+     * Removes an item which another node has removed from its cache.
+     *
+     * @param cacheName The cache in which the item to be removed lives.
+     * @param key item's identifier.
+     */
+    void invalidate( final String cacheName, final String key ) {
+        if( keyAndCacheAreNotNull( cacheName, key ) ) {
+            removeFromSecondTier( cacheName, key );
+            cacheLoads.get( cacheName ).forget( key );
+            cacheMap.get( cacheName ).remove( key );
+            listeners.invalidated( cacheName, key );
         }
     }
 
     /** {@inheritDoc} */
     @Override
     public boolean registerListener( final String cacheName, final String listener, final Object... args ) {
-        if( enabled( cacheName ) && "expired".equals( listener ) ) {
-            final AtomicBoolean allRequested = ( AtomicBoolean )args[0];
-            final CacheEventListenerAdapter expiredCacheListenerAdapter = new CacheEventListenerAdapter() {
-                @Override
-                public void notifyElementExpired( final Ehcache cache, final Element element ) {
-                    allRequested.set( false ); // signal that the cache no longer contains all elements...
-                }
-            };
-            return cacheMap.get( cacheName ).getCacheEventNotificationService().registerListener( expiredCacheListenerAdapter );
+        return enabled( cacheName ) && listeners.register( cacheName, listener, args );
+    }
+
+    /** Called before putting or removing a key, so that a promotion of the key from the second tier running meanwhile can tell. */
+    void removeFromSecondTier( final String cacheName, final Serializable key ) {
+        final OffHeapTier secondTier = secondTiers.get( cacheName );
+        if( secondTier != null ) {
+            secondTier.remove( key );
         }
-        return false;
     }
 
     boolean keyAndCacheAreNotNull( final String cacheName, final Serializable key ) {
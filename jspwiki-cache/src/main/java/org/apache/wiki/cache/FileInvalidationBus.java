@@ -0,0 +1,213 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.util.TextUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+
+/**
+ * {@link InvalidationBus} which exchanges invalidations through a directory shared by all nodes.
+ * <p>
+ * Each node appends its invalidations to its own log file on that directory, and periodically reads what other nodes have
+ * appended to theirs since the last time. Log files are rotated once they grow past a few hundred KB, and removed on shutdown.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@value #PROP_DIR}: shared directory, required. It shouldn't be inside the page repository, so the logs aren't taken
+ *       for wiki content.</li>
+ *   <li>{@value #PROP_POLL_INTERVAL}: milliseconds between reads of the other nodes' logs; defaults to {@code 1000}.</li>
+ * </ul>
+ */
+public class FileInvalidationBus implements InvalidationBus {
+
+    private static final Logger LOG = LogManager.getLogger( FileInvalidationBus.class );
+
+    /** The property value with the directory shared by all nodes.  Value is {@value}. */
+    public static final String PROP_DIR = "jspwiki.cache.invalidation.dir";
+
+    /** The property value with the milliseconds between reads of the other nodes' logs.  Value is {@value}. */
+    public static final String PROP_POLL_INTERVAL = "jspwiki.cache.invalidation.poll-interval";
+
+    private static final String SUFFIX = ".log";
+    private static final long MAX_LOG_SIZE = 256 * 1024;
+    private static final long STALE_LOG_AGE = TimeUnit.DAYS.toMillis( 1 );
+
+    private final String nodeId = InvalidationBuses.newNodeId();
+    private final List< BiConsumer< String, String > > listeners = new CopyOnWriteArrayList<>();
+    private final Map< Path, Long > offsets = new HashMap<>();
+    private Path dir;
+    private Path log;
+    private Path previousLog;
+    private int rotations;
+    private ScheduledExecutorService poller;
+
+    /** {@inheritDoc} */
+    @Override
+    public void initialize( final Properties props ) throws IOException {
+        final String dirName = TextUtil.getStringProperty( props, PROP_DIR, null );
+        if( dirName == null || dirName.isEmpty() ) {
+            throw new IOException( PROP_DIR + " has not been set" );
+        }
+        dir = Files.createDirectories( Paths.get( dirName ) );
+        log = dir.resolve( nodeId + SUFFIX );
+
+        // only new invalidations are of interest
+        final long now = System.currentTimeMillis();
+        for( final Path other : logs() ) {
+            if( now - Files.getLastModifiedTime( other ).toMillis() > STALE_LOG_AGE ) {
+                Files.deleteIfExists( other ); // left behind by a node which didn't shut down cleanly
+            } else {
+                offsets.put( other, Files.size( other ) );
+            }
+        }
+
+        final int pollInterval = TextUtil.getIntegerProperty( props, PROP_POLL_INTERVAL, 1_000 );
+        poller = Executors.newSingleThreadScheduledExecutor( r -> {
+            final Thread t = new Thread( r, "JSPWiki cache invalidations poller" );
+            t.setDaemon( true );
+            return t;
+        } );
+        poller.scheduleWithFixedDelay( this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS );
+        LOG.info( "Exchanging cache invalidations through {}, every {}ms", dir, pollInterval );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void publish( final String cacheName, final String key ) {
+        final String line = InvalidationBuses.encode( nodeId, cacheName, key ) + "\n";
+        try {
+            if( Files.exists( log ) && Files.size( log ) > MAX_LOG_SIZE ) {
+                rotate();
+            }
+            Files.write( log, line.getBytes( StandardCharsets.UTF_8 ), StandardOpenOption.CREATE, StandardOpenOption.APPEND );
+        } catch( final IOException e ) {
+            LOG.warn( "Unable to publish invalidation of {} on {}: {}", key, cacheName, e.getMessage() );
+        }
+    }
+
+    /** Starts a new log; the previous one is kept until the next rotation, so other nodes get the chance to finish reading it. */
+    void rotate() throws IOException {
+        if( previousLog != null ) {
+            Files.deleteIfExists( previousLog );
+        }
+        previousLog = log;
+        log = dir.resolve( nodeId + "." + ( ++rotations ) + SUFFIX );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void subscribe( final BiConsumer< String, String > listener ) {
+        listeners.add( listener );
+    }
+
+    /** Reads the invalidations appended by other nodes since the last poll. */
+    synchronized void poll() {
+        try {
+            final Set< Path > current = new HashSet<>();
+            for( final Path other : logs() ) {
+                if( !other.getFileName().toString().startsWith( nodeId ) ) {
+                    current.add( other );
+                    offsets.put( other, read( other, offsets.getOrDefault( other, 0L ) ) );
+                }
+            }
+            offsets.keySet().retainAll( current );
+        } catch( final IOException e ) {
+            LOG.warn( "Unable to read cache invalidations from {}: {}", dir, e.getMessage() );
+        }
+    }
+
+    /** Reads the complete lines from the given offset onwards, returning the offset of the first line not read. */
+    long read( final Path other, final long offset ) throws IOException {
+        try( final SeekableByteChannel channel = Files.newByteChannel( other, StandardOpenOption.READ ) ) {
+            final long size = channel.size();
+            if( size == offset ) {
+                return offset;
+            }
+            final long from = size < offset ? 0 : offset; // log has been replaced
+            final ByteBuffer buffer = ByteBuffer.allocate( ( int )Math.min( size - from, Integer.MAX_VALUE ) );
+            channel.position( from );
+            while( buffer.hasRemaining() && channel.read( buffer ) > 0 ) {
+                // keep reading
+            }
+            final byte[] bytes = buffer.array();
+            int lineStart = 0;
+            for( int i = 0; i < buffer.position(); i++ ) {
+                if( bytes[ i ] == '\n' ) {
+                    final String line = new String( bytes, lineStart, i - lineStart, StandardCharsets.UTF_8 );
+                    listeners.forEach( listener -> InvalidationBuses.decode( nodeId, line, listener ) );
+                    lineStart = i + 1;
+                }
+            }
+            return from + lineStart;
+        } catch( final NoSuchFileException e ) {
+            return 0; // removed in between
+        }
+    }
+
+    private List< Path > logs() throws IOException {
+        final List< Path > logs = new ArrayList<>();
+        try( final DirectoryStream< Path > stream = Files.newDirectoryStream( dir, "*" + SUFFIX ) ) {
+            stream.forEach( logs::add );
+        }
+        return logs;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void shutdown() {
+        if( poller != null ) {
+            poller.shutdownNow();
+            poller = null;
+        }
+        try {
+            Files.deleteIfExists( log );
+            if( previousLog != null ) {
+                Files.deleteIfExists( previousLog );
+            }
+        } catch( final IOException e ) {
+            LOG.warn( "Unable to remove cache invalidations log {}: {}", log, e.getMessage() );
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Propagates cache invalidations between the JSPWiki nodes sharing a page repository, so each node's caches don't keep serving
+ * pages, attachments or rendered documents which have been changed through another node.
+ * <p>
+ * {@link CachingManager}s publish the keys removed from their caches, and remove from their caches the keys published by other
+ * nodes. The implementation to use is set through {@value #PROP_INVALIDATION_BUS}; if it isn't set, invalidations aren't
+ * propagated.
+ */
+public interface InvalidationBus {
+
+    /**
+     * The property value with the {@code InvalidationBus} implementation to use, either a fully qualified class name or a class
+     * from this package, f.ex., {@code FileInvalidationBus}. Value is {@value}.
+     */
+    String PROP_INVALIDATION_BUS = "jspwiki.cache.invalidation-bus";
+
+    /**
+     * Sets up the bus.
+     *
+     * @param props wiki properties.
+     * @throws IOException if the bus can't be set up.
+     */
+    void initialize( Properties props ) throws IOException;
+
+    /**
+     * Lets the other nodes know that the given key has been removed from the given cache.
+     *
+     * @param cacheName cache name.
+     * @param key removed key.
+     */
+    void publish( String cacheName, String key );
+
+    /**
+     * Registers a listener which will receive the cache name and key of every invalidation published by other nodes.
+     *
+     * @param listener invalidations listener.
+     */
+    void subscribe( BiConsumer< String, String > listener );
+
+    /** Releases any resource held by the bus. */
+    void shutdown();
+
+}
@@ -0,0 +1,118 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.apache.wiki.api.exceptions.WikiException;
+import org.apache.wiki.util.ClassUtil;
+import org.apache.wiki.util.TextUtil;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Helpers shared by {@link InvalidationBus} implementations and users.
+ */
+final class InvalidationBuses {
+
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * Caches whose contents are derived on each node: rendered documents are flushed by each node when it's told about the page
+     * changes, and dynamic attachments are only known by the node which generated them.
+     */
+    private static final Set< String > LOCAL_CACHES = Set.of( CachingManager.CACHE_DOCUMENTS, CachingManager.CACHE_ATTACHMENTS_DYNAMIC );
+
+    private InvalidationBuses() {
+    }
+
+    /**
+     * Builds the {@link InvalidationBus} set on the given properties.
+     *
+     * @param props wiki properties.
+     * @return the initialized {@link InvalidationBus}, or {@code null} if none has been set.
+     * @throws WikiException if the bus can't be built or initialized.
+     */
+    static InvalidationBus create( final Properties props ) throws WikiException {
+        final String busClassName = TextUtil.getStringProperty( props, InvalidationBus.PROP_INVALIDATION_BUS, null );
+        if( busClassName == null || busClassName.isEmpty() ) {
+            return null;
+        }
+        try {
+            final InvalidationBus bus = ClassUtil.buildInstance( InvalidationBuses.class.getPackage().getName(), busClassName );
+            bus.initialize( props );
+            return bus;
+        } catch( final ReflectiveOperationException | IOException e ) {
+            throw new WikiException( "Unable to set up cache invalidation bus " + busClassName + ": " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Checks if the removal of the given key from the given cache has to be published to other nodes.
+     *
+     * @param cacheName cache name.
+     * @param key removed key.
+     * @return {@code true} if other nodes have to know about the removal, {@code false} otherwise.
+     */
+    static boolean isShared( final String cacheName, final Serializable key ) {
+        return key instanceof String && !LOCAL_CACHES.contains( cacheName );
+    }
+
+    /** @return a new, random, node identifier, used to discard the messages sent by the node itself. */
+    static String newNodeId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Encodes an invalidation as a single line of text.
+     *
+     * @param nodeId node publishing the invalidation.
+     * @param cacheName cache name.
+     * @param key removed key.
+     * @return encoded invalidation, without line terminator.
+     */
+    static String encode( final String nodeId, final String cacheName, final String key ) {
+        return nodeId + SEPARATOR + cacheName + SEPARATOR + URLEncoder.encode( key, StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Decodes an invalidation encoded by {@link #encode(String, String, String)}, passing it to the given listener unless it
+     * was sent by the given node or it is malformed.
+     *
+     * @param nodeId node receiving the invalidation.
+     * @param message encoded invalidation.
+     * @param listener invalidations listener.
+     */
+    static void decode( final String nodeId, final String message, final BiConsumer< String, String > listener ) {
+        final int cacheStart = message.indexOf( SEPARATOR );
+        final int keyStart = message.indexOf( SEPARATOR, cacheStart + 1 );
+        if( cacheStart < 0 || keyStart < 0 || message.startsWith( nodeId + SEPARATOR ) ) {
+            return;
+        }
+        listener.accept( message.substring( cacheStart + 1, keyStart ), URLDecoder.decode( message.substring( keyStart + 1 ), StandardCharsets.UTF_8 ) );
+    }
+
+}
@@ -0,0 +1,376 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.util.TextUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+/**
+ * Second tier of a cache, holding the elements evicted from the first one, serialized outside the java heap. Elements found
+ * on this tier are promoted back to the first one, so it only holds the less requested elements, at a fraction of their heap size.
+ * <p>
+ * Elements are appended to a fixed-size buffer, either a direct {@link ByteBuffer} or a memory-mapped file, which is reused
+ * from the beginning once it fills up, discarding the oldest elements. Strings, such as page texts, are stored as is, and other
+ * {@link Serializable} values, such as rendered documents, using java serialization, compressing both when large enough.
+ * <p>
+ * Only the caches whose values are known to be serializable can have a second tier: those holding page texts, rendered documents
+ * and differences between page versions. The rest of caches, holding pages and attachments, can't have one.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@value #PROP_MAX_BYTES}: size, in bytes, of the second tier of each of the caches above; {@code 0}, the default,
+ *   disables it. It may also be set on a per-cache basis, through {@value #PROP_MAX_BYTES}{@code .<cache name>}.</li>
+ *   <li>{@value #PROP_MMAP}: {@code true} to keep the second tiers on memory-mapped files under the work directory, instead of
+ *   direct memory. Defaults to {@code false}.</li>
+ * </ul>
+ */
+class OffHeapTier {
+
+    private static final Logger LOG = LogManager.getLogger( OffHeapTier.class );
+
+    /** The property value with the size, in bytes, of the second tier of each cache.  Value is {@value}. */
+    static final String PROP_MAX_BYTES = "jspwiki.cache.second-tier.max-bytes";
+
+    /** The property value to keep the second tiers on memory-mapped files.  Value is {@value}. */
+    static final String PROP_MMAP = "jspwiki.cache.second-tier.mmap";
+
+    /** Caches whose values are known to be serializable, and so can have a second tier. */
+    static final Set< String > TIERABLE_CACHES = Set.of( CachingManager.CACHE_PAGES_TEXT, CachingManager.CACHE_DOCUMENTS, CachingManager.CACHE_DIFFS );
+
+    private static final byte STRING = 0;
+    private static final byte DEFLATED_STRING = 1;
+    private static final byte SERIALIZED = 2;
+    private static final byte DEFLATED_SERIALIZED = 3;
+    private static final int MIN_DEFLATED_LENGTH = 256;
+
+    private final ByteBuffer buffer;
+    private final Path file;
+    private final Map< Serializable, Slot > index = new HashMap<>();
+    private final Deque< Slot > slots = new ArrayDeque<>();
+    private long head;
+    private long bytes;
+    private long removals;
+
+    /**
+     * @param capacity size of the tier, in bytes.
+     * @param file memory-mapped file backing the tier, or {@code null} to use direct memory instead.
+     * @throws IOException if the file can't be mapped.
+     */
+    OffHeapTier( final int capacity, final Path file ) throws IOException {
+        this.file = file;
+        if( file != null ) {
+            Files.createDirectories( file.getParent() );
+            try( final FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+                buffer = channel.map( FileChannel.MapMode.READ_WRITE, 0, capacity );
+            }
+        } else {
+            buffer = ByteBuffer.allocateDirect( capacity );
+        }
+    }
+
+    /**
+     * Builds the second tier of the given cache, if it has been set up.
+     *
+     * @param engine wiki engine, may be {@code null}.
+     * @param props wiki properties.
+     * @param cacheName cache name.
+     * @return the second tier of the given cache, or {@code null} if it hasn't been set up, can't be created, or the cache
+     * can't have one.
+     */
+    static OffHeapTier create( final Engine engine, final Properties props, final String cacheName ) {
+        final boolean tierable = TIERABLE_CACHES.contains( cacheName );
+        final int defaultMaxBytes = tierable ? TextUtil.getIntegerProperty( props, PROP_MAX_BYTES, 0 ) : 0;
+        final int maxBytes = TextUtil.getIntegerProperty( props, PROP_MAX_BYTES + "." + cacheName, defaultMaxBytes );
+        if( maxBytes <= 0 ) {
+            return null;
+        }
+        if( !tierable ) {
+            LOG.warn( "Ignoring {}.{}, cache {} can't have a second tier as its elements aren't serializable", PROP_MAX_BYTES, cacheName, cacheName );
+            return null;
+        }
+        Path file = null;
+        if( TextUtil.getBooleanProperty( props, PROP_MMAP, false ) ) {
+            final String workDir = engine != null ? engine.getWorkDir() : System.getProperty( "java.io.tmpdir" );
+            file = Paths.get( workDir, "cache", cacheName + ".tier" );
+        }
+        try {
+            LOG.info( "cache {} will keep up to {} bytes of evicted elements on {}", cacheName, maxBytes, file != null ? file : "direct memory" );
+            return new OffHeapTier( maxBytes, file );
+        } catch( final IOException | RuntimeException e ) {
+            LOG.warn( "Unable to create the second tier of cache {}: {}", cacheName, e.getMessage() );
+            return null;
+        }
+    }
+
+    /**
+     * Stores an element, if it can be serialized and fits in the tier.
+     *
+     * @param key element's key.
+     * @param value element's value.
+     * @return {@code true} if the element has been stored, {@code false} otherwise.
+     */
+    boolean put( final Serializable key, final Object value ) {
+        final byte[] data = encode( value );
+        if( data == null || data.length > buffer.capacity() / 4 ) {
+            return false;
+        }
+        synchronized( this ) {
+            long start = head;
+            final int position = ( int )( start % buffer.capacity() );
+            if( position + data.length > buffer.capacity() ) {
+                start += buffer.capacity() - position; // doesn't fit at the end, start over
+            }
+            final long end = start + data.length;
+            while( !slots.isEmpty() && slots.peekFirst().start < end - buffer.capacity() ) {
+                discard( slots.pollFirst() ); // about to be overwritten
+            }
+            final ByteBuffer target = buffer.duplicate();
+            target.position( ( int )( start % buffer.capacity() ) );
+            target.put( data );
+            final Slot slot = new Slot( key, start, data.length );
+            slots.addLast( slot );
+            discard( index.put( key, slot ) );
+            bytes += data.length;
+            head = end;
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves an element.
+     *
+     * @param key element's key.
+     * @return the element, or {@code null} if it isn't on the tier.
+     */
+    Object get( final Serializable key ) {
+        final byte[] data;
+        synchronized( this ) {
+            final Slot slot = index.get( key );
+            if( slot == null ) {
+                return null;
+            }
+            data = new byte[ slot.length ];
+            final ByteBuffer source = buffer.duplicate();
+            source.position( ( int )( slot.start % buffer.capacity() ) );
+            source.get( data );
+        }
+        return decode( data );
+    }
+
+    /**
+     * Retrieves and removes an element, so only one caller gets to promote it back to the first tier.
+     *
+     * @param key element's key.
+     * @return the element, or {@code null} if it isn't on the tier.
+     */
+    Object take( final Serializable key ) {
+        final byte[] data;
+        synchronized( this ) {
+            final Slot slot = index.get( key );
+            if( slot == null ) {
+                return null;
+            }
+            data = new byte[ slot.length ];
+            final ByteBuffer source = buffer.duplicate();
+            source.position( ( int )( slot.start % buffer.capacity() ) );
+            source.get( data );
+            discard( slot );
+        }
+        return decode( data );
+    }
+
+    /**
+     * Removes an element, if present.
+     *
+     * @param key element's key.
+     */
+    synchronized void remove( final Serializable key ) {
+        removals++;
+        discard( index.remove( key ) );
+    }
+
+    /**
+     * Counts the calls to {@link #remove(Serializable)}, so that a caller promoting an element can tell if it might have been
+     * removed meanwhile.
+     *
+     * @return number of removals so far.
+     */
+    synchronized long removals() {
+        return removals;
+    }
+
+    /** @return number of elements on the tier. */
+    synchronized long entries() {
+        return index.size();
+    }
+
+    /** @return size, in bytes, of the elements on the tier. */
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    /** Discards all elements, releasing the memory-mapped file, if any. */
+    synchronized void close() {
+        index.clear();
+        slots.clear();
+        bytes = 0;
+        if( file != null ) {
+            try {
+                Files.deleteIfExists( file );
+            } catch( final IOException e ) {
+                LOG.warn( "Unable to remove {}: {}", file, e.getMessage() );
+            }
+        }
+    }
+
+    private void discard( final Slot slot ) {
+        if( slot != null && !slot.discarded ) {
+            slot.discarded = true;
+            bytes -= slot.length;
+            index.remove( slot.key, slot );
+        }
+    }
+
+    static byte[] encode( final Object value ) {
+        try {
+            if( value instanceof String ) {
+                final byte[] utf8 = ( ( String )value ).getBytes( StandardCharsets.UTF_8 );
+                return deflated( STRING, DEFLATED_STRING, utf8 );
+            } else if( value instanceof Serializable ) {
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                try( final ObjectOutputStream oos = new ObjectOutputStream( baos ) ) {
+                    oos.writeObject( value );
+                }
+                return deflated( SERIALIZED, DEFLATED_SERIALIZED, baos.toByteArray() );
+            }
+        } catch( final IOException e ) {
+            LOG.debug( "Unable to serialize {}: {}", value.getClass().getName(), e.getMessage() );
+        }
+        return null;
+    }
+
+    /** Tags the given data, compressing it if it's large enough and shrinks when compressed. */
+    private static byte[] deflated( final byte tag, final byte deflatedTag, final byte[] data ) {
+        if( data.length < MIN_DEFLATED_LENGTH ) {
+            return tagged( tag, data, data.length );
+        }
+        final Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+        try {
+            deflater.setInput( data );
+            deflater.finish();
+            final byte[] deflated = new byte[ data.length + 64 ];
+            final int length = deflater.deflate( deflated );
+            return deflater.finished() ? tagged( deflatedTag, deflated, length ) : tagged( tag, data, data.length );
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static Object decode( final byte[] data ) {
+        try {
+            switch( data[ 0 ] ) {
+                case STRING:
+                    return new String( data, 1, data.length - 1, StandardCharsets.UTF_8 );
+                case DEFLATED_STRING:
+                    return new String( inflated( data ), StandardCharsets.UTF_8 );
+                case DEFLATED_SERIALIZED:
+                    return deserialize( inflated( data ), 0 );
+                default:
+                    return deserialize( data, 1 );
+            }
+        } catch( final IOException | ClassNotFoundException | DataFormatException e ) {
+            LOG.warn( "Unable to read element from cache second tier: {}", e.getMessage() );
+            return null;
+        }
+    }
+
+    private static byte[] inflated( final byte[] data ) throws DataFormatException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput( data, 1, data.length - 1 );
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream( data.length * 4 );
+            final byte[] chunk = new byte[ 8 * 1024 ];
+            while( !inflater.finished() ) {
+                final int length = inflater.inflate( chunk );
+                if( length == 0 && ( inflater.needsInput() || inflater.needsDictionary() ) ) {
+                    break;
+                }
+                baos.write( chunk, 0, length );
+            }
+            return baos.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Object deserialize( final byte[] data, final int offset ) throws IOException, ClassNotFoundException {
+        try( final ObjectInputStream ois = new ObjectInputStream( new ByteArrayInputStream( data, offset, data.length - offset ) ) ) {
+            return ois.readObject();
+        }
+    }
+
+    private static byte[] tagged( final byte tag, final byte[] data, final int length ) {
+        final byte[] tagged = new byte[ length + 1 ];
+        tagged[ 0 ] = tag;
+        System.arraycopy( data, 0, tagged, 1, length );
+        return tagged;
+    }
+
+    /** Position of an element on the buffer; positions grow indefinitely, each lap over the buffer adds its capacity. */
+    private static final class Slot {
+
+        final Serializable key;
+        final long start;
+        final int length;
+        boolean discarded;
+
+        Slot( final Serializable key, final long start, final int length ) {
+            this.key = key;
+            this.start = start;
+            this.length = length;
+        }
+    }
+
+}
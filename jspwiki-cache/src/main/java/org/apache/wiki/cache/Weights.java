@@ -0,0 +1,89 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.apache.wiki.api.core.Page;
+
+import java.util.Collection;
+import java.util.Map;
+
+
+/**
+ * Cheap estimations of the heap used by cached elements. They don't need to be exact, just proportional to the real sizes, so
+ * caches can be sized in bytes instead of number of elements.
+ */
+final class Weights {
+
+    /** Rough size of an object header plus a few fields. */
+    static final int OBJECT = 64;
+
+    /** Rough size of a wiki page or attachment, excluding its name and attributes. */
+    static final int PAGE = 256;
+
+    /** Weight of any object we don't know about, mostly rendered documents, which are much bigger than their page text. */
+    static final int UNKNOWN = 16 * 1024;
+
+    private static final int MAX_DEPTH = 3;
+
+    private Weights() {
+    }
+
+    /**
+     * Estimates the heap used by a cache entry.
+     *
+     * @param key entry's key.
+     * @param value entry's value.
+     * @return estimated size, in bytes.
+     */
+    static int of( final Object key, final Object value ) {
+        final long weight = of( key, 0 ) + of( value, 0 );
+        return ( int )Math.min( weight, Integer.MAX_VALUE );
+    }
+
+    static long of( final Object o, final int depth ) {
+        if( o == null ) {
+            return 0;
+        } else if( o instanceof CharSequence ) {
+            return OBJECT + 2L * ( ( CharSequence )o ).length();
+        } else if( o instanceof byte[] ) {
+            return OBJECT + ( ( byte[] )o ).length;
+        } else if( o instanceof Number || o instanceof Boolean || o instanceof Character ) {
+            return OBJECT / 4;
+        } else if( depth >= MAX_DEPTH ) {
+            return OBJECT;
+        } else if( o instanceof Page ) {
+            final Page page = ( Page )o;
+            return PAGE + of( page.getName(), depth + 1 ) + of( page.getAuthor(), depth + 1 ) + of( page.getAttributes(), depth + 1 );
+        } else if( o instanceof Collection ) {
+            long weight = OBJECT;
+            for( final Object element : ( Collection< ? > )o ) {
+                weight += OBJECT / 2 + of( element, depth + 1 );
+            }
+            return weight;
+        } else if( o instanceof Map ) {
+            long weight = OBJECT;
+            for( final Map.Entry< ?, ? > entry : ( ( Map< ?, ? > )o ).entrySet() ) {
+                weight += OBJECT / 2 + of( entry.getKey(), depth + 1 ) + of( entry.getValue(), depth + 1 );
+            }
+            return weight;
+        }
+        return UNKNOWN;
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.apache.wiki.api.engine.Initializable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares {@link CachingManager} implementations on a trace of page text requests: most of them follow a Zipfian
+ * distribution, as page views do, interleaved with sequential scans of the whole repository, as reindexing or crawlers do.
+ * Both caches are sized to hold ~1.000 pages. Besides throughput, {@code hits} and {@code misses} report the hit ratio.
+ * <p>
+ * Not run as part of the test suite. To run it, compile the test classes and launch JMH from the {@code jspwiki-cache} folder:
+ * <pre>
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main CachingManagerBenchmark
+ * </pre>
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Threads( 4 )
+@Fork( 1 )
+public class CachingManagerBenchmark {
+
+    static final int PAGES = 20_000;
+    static final int TRACE_LENGTH = 1 << 20;
+    static final double ZIPF_EXPONENT = 0.9;
+    static final double SCAN_RATIO = 0.2;
+    static final String TEXT = "x".repeat( 2_000 );
+
+    @Param( { "EhcacheCachingManager", "CaffeineCachingManager" } )
+    public String impl;
+
+    CachingManager cachingManager;
+    final String[] trace = new String[ TRACE_LENGTH ];
+
+    @Setup( Level.Trial )
+    public void setUp() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( CaffeineCachingManager.PROP_CACHE_MAX_BYTES, String.valueOf( 1_000 * Weights.of( "page" + PAGES, TEXT ) ) );
+        cachingManager = ( CachingManager )Class.forName( CachingManager.class.getPackage().getName() + "." + impl ).getDeclaredConstructor().newInstance();
+        ( ( Initializable )cachingManager ).initialize( null, props );
+
+        final double[] cdf = new double[ PAGES ];
+        double sum = 0;
+        for( int i = 0; i < PAGES; i++ ) {
+            sum += 1 / Math.pow( i + 1, ZIPF_EXPONENT );
+            cdf[ i ] = sum;
+        }
+        final Random random = new Random( 42 );
+        int scanned = 0;
+        for( int i = 0; i < TRACE_LENGTH; i++ ) {
+            final int page;
+            if( random.nextDouble() < SCAN_RATIO ) {
+                page = scanned++ % PAGES;
+            } else {
+                final int found = Arrays.binarySearch( cdf, random.nextDouble() * sum );
+                page = found >= 0 ? found : -found - 1;
+            }
+            trace[ i ] = "page" + page;
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() {
+        cachingManager.shutdown();
+    }
+
+    /** Position of each thread on the trace, and its hit ratio. */
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.EVENTS )
+    public static class Requests {
+        int next;
+        public long hits;
+        public long misses;
+
+        @Setup( Level.Trial )
+        public void setUp() {
+            next = new Random().nextInt( TRACE_LENGTH );
+        }
+    }
+
+    @Benchmark
+    public String getPageText( final Requests requests ) {
+        final String key = trace[ requests.next++ & ( TRACE_LENGTH - 1 ) ];
+        final boolean[] missed = { false };
+        final String text = cachingManager.get( CachingManager.CACHE_PAGES_TEXT, key, () -> { missed[ 0 ] = true; return TEXT; } );
+        if( missed[ 0 ] ) {
+            requests.misses++;
+        } else {
+            requests.hits++;
+        }
+        return text;
+    }
+
+    public static void main( final String[] args ) throws Exception {
+        org.openjdk.jmh.Main.main( new String[] { CachingManagerBenchmark.class.getSimpleName() } );
+    }
+
+}
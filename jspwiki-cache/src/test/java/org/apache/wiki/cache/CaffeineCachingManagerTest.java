@@ -0,0 +1,134 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class CaffeineCachingManagerTest {
+
+    static CaffeineCachingManager ccm = new CaffeineCachingManager();
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        ccm.initialize( null, new Properties() );
+    }
+
+    @Test
+    void testInitAndShutdown() throws Exception {
+        final Properties props = new Properties();
+        CaffeineCachingManager ccm = new CaffeineCachingManager();
+        ccm.initialize( null, props );
+        Assertions.assertEquals( 8, ccm.cacheMap.size() );
+
+        ccm.registerCache( "anotherCache" );
+        Assertions.assertEquals( 9, ccm.cacheMap.size() );
+
+        ccm.shutdown();
+        ccm.shutdown(); // does nothing if already shutdown
+        Assertions.assertEquals( 0, ccm.cacheMap.size() );
+
+        props.setProperty( CachingManager.PROP_CACHE_ENABLE, "false" ); ccm = new CaffeineCachingManager();
+        ccm.initialize( null, props );
+        Assertions.assertEquals( 0, ccm.cacheMap.size() );
+    }
+
+    @Test
+    void testEnabledAndInfo() {
+        Assertions.assertTrue( ccm.enabled( CachingManager.CACHE_PAGES ) );
+        Assertions.assertFalse( ccm.enabled( "Trucutru" ) );
+        Assertions.assertNotNull( ccm.info( CachingManager.CACHE_PAGES ) );
+        Assertions.assertNull( ccm.info( "Trucutru" ) );
+    }
+
+    @Test
+    void testPutGetRemoveAndKeys() {
+        final String retrieveFromBackend = "item";
+        ccm.put( CachingManager.CACHE_PAGES, "key", "test" );
+        ccm.put( "trucutru", "key", "test" );
+        Assertions.assertEquals( "test", ccm.get( CachingManager.CACHE_PAGES, "key", () -> retrieveFromBackend ) );
+        ccm.remove( CachingManager.CACHE_PAGES, "key" );
+        ccm.remove( CachingManager.CACHE_PAGES, null );
+        Assertions.assertEquals( "item", ccm.get( CachingManager.CACHE_PAGES, "key", () -> retrieveFromBackend ) );
+        Assertions.assertEquals( 1, ccm.keys( CachingManager.CACHE_PAGES ).size() );
+        Assertions.assertEquals( 0, ccm.keys( "trucutru" ).size() );
+
+        ccm.put( CachingManager.CACHE_PAGES, "null", null );
+        Assertions.assertNull( ccm.get( CachingManager.CACHE_PAGES, "null", () -> retrieveFromBackend ) );
+
+        Assertions.assertNull( ccm.get( CachingManager.CACHE_PAGES, null,  () -> retrieveFromBackend ) );
+        Assertions.assertNull( ccm.get( "trucutru", "key",  () -> retrieveFromBackend ) );
+    }
+
+    @Test
+    void testConcurrentLoadsAreCoalesced() throws Exception {
+        final CaffeineCachingManager coalescing = new CaffeineCachingManager();
+        coalescing.initialize( null, new Properties() );
+        final CacheLoads loads = coalescing.cacheLoads.get( CachingManager.CACHE_PAGES_TEXT );
+        EhcacheCachingManagerTest.assertConcurrentLoadsAreCoalesced( coalescing, loads, "coalesced", "loaded" );
+        EhcacheCachingManagerTest.assertConcurrentLoadsAreCoalesced( coalescing, loads, "missing", null );
+        Assertions.assertEquals( 2, coalescing.info( CachingManager.CACHE_PAGES_TEXT ).getCoalescedLoads() );
+    }
+
+    @Test
+    void testPlainGetsDontRememberMissingKeys() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( CachingManager.PROP_CACHE_NEGATIVE_TTL, "60" );
+        final CaffeineCachingManager negative = new CaffeineCachingManager();
+        negative.initialize( null, props );
+        Assertions.assertNull( negative.get( CachingManager.CACHE_DOCUMENTS, "document" ) );
+        Assertions.assertEquals( "loaded", negative.get( CachingManager.CACHE_DOCUMENTS, "document", () -> "loaded" ) );
+        Assertions.assertEquals( "loaded", negative.get( CachingManager.CACHE_DOCUMENTS, "document" ) );
+        Assertions.assertEquals( 0, negative.info( CachingManager.CACHE_DOCUMENTS ).getNegativeHits() );
+    }
+
+    @Test
+    void testCachesAreBoundedBySize() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( CaffeineCachingManager.PROP_CACHE_MAX_BYTES, "1000000" );
+        props.setProperty( CaffeineCachingManager.PROP_CACHE_MAX_BYTES + "." + CachingManager.CACHE_PAGES_TEXT, "10000" );
+        final CaffeineCachingManager bounded = new CaffeineCachingManager();
+        bounded.initialize( null, props );
+        final AtomicBoolean allRequestsCached = new AtomicBoolean( true );
+        Assertions.assertTrue( bounded.registerListener( CachingManager.CACHE_PAGES_TEXT, "expired", allRequestsCached ) );
+        Assertions.assertFalse( bounded.registerListener( CachingManager.CACHE_PAGES_TEXT, "trucutru", allRequestsCached ) );
+
+        final String text = "a".repeat( 1_000 ); // ~2KB each
+        for( int i = 0; i < 20; i++ ) {
+            bounded.put( CachingManager.CACHE_PAGES_TEXT, "page" + i, text );
+            bounded.put( CachingManager.CACHE_PAGES, "page" + i, text );
+        }
+        bounded.cacheMap.values().forEach( Cache::cleanUp );
+        Assertions.assertTrue( bounded.keys( CachingManager.CACHE_PAGES_TEXT ).size() < 20 );
+        Assertions.assertEquals( 20, bounded.keys( CachingManager.CACHE_PAGES ).size() );
+        Assertions.assertFalse( allRequestsCached.get() );
+
+        final CacheInfo info = bounded.info( CachingManager.CACHE_PAGES_TEXT );
+        Assertions.assertTrue( info.getEvictions() > 0 );
+        Assertions.assertEquals( bounded.keys( CachingManager.CACHE_PAGES_TEXT ).size(), info.getEntries() );
+        Assertions.assertTrue( info.getBytes() > 0 && info.getBytes() <= 10000 );
+    }
+
+}
@@ -22,7 +22,17 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 public class EhcacheCachingManagerTest {
@@ -40,10 +50,10 @@ public class EhcacheCachingManagerTest {
         props.setProperty( CachingManager.PROP_CACHE_CONF_FILE, "ehcache-jspwiki-test.xml" );
         EhcacheCachingManager ecm = new EhcacheCachingManager();
         ecm.initialize( null, props );
-        Assertions.assertEquals( 7, ecm.cacheMap.size() );
+        Assertions.assertEquals( 8, ecm.cacheMap.size() );
 
         ecm.registerCache( "anotherCache" );
-        Assertions.assertEquals( 8, ecm.cacheMap.size() );
+        Assertions.assertEquals( 9, ecm.cacheMap.size() );
 
         ecm.shutdown();
         ecm.shutdown(); // does nothing if already shutdown
@@ -82,4 +92,101 @@ public class EhcacheCachingManagerTest {
         Assertions.assertNull( ecm.get( "trucutru", "key",  () -> retrieveFromBackend ) );
     }
 
+    @Test
+    void testConcurrentLoadsAreCoalesced() throws Exception {
+        final EhcacheCachingManager coalescing = new EhcacheCachingManager();
+        coalescing.initialize( null, new Properties() );
+        assertConcurrentLoadsAreCoalesced( coalescing, coalescing.cacheLoads.get( CachingManager.CACHE_PAGES_TEXT ), "coalesced", "loaded" );
+        assertConcurrentLoadsAreCoalesced( coalescing, coalescing.cacheLoads.get( CachingManager.CACHE_PAGES_TEXT ), "missing", null );
+        Assertions.assertEquals( 2, coalescing.info( CachingManager.CACHE_PAGES_TEXT ).getCoalescedLoads() );
+    }
+
+    /**
+     * Blocks a load until a second caller for the same key is waiting on it, then checks that the second caller gets the
+     * result of the first load, without running its own supplier.
+     */
+    static void assertConcurrentLoadsAreCoalesced( final CachingManager cm,
+                                                   final CacheLoads cacheLoads,
+                                                   final String key,
+                                                   final String value ) throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loading = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try {
+            final Future< String > first = executor.submit( () -> cm.get( CachingManager.CACHE_PAGES_TEXT, key, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return value;
+            } ) );
+            Assertions.assertTrue( loading.await( 10, TimeUnit.SECONDS ) );
+            final Future< String > second = executor.submit( () -> cm.get( CachingManager.CACHE_PAGES_TEXT, key, () -> {
+                loads.incrementAndGet();
+                return "loaded again";
+            } ) );
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10 );
+            while( cacheLoads.waiting( key ) == 0 && !second.isDone() && System.nanoTime() < deadline ) {
+                Thread.yield();
+            }
+            Assertions.assertEquals( 1, cacheLoads.waiting( key ), "second caller should be waiting on the first load" );
+            release.countDown();
+            Assertions.assertEquals( value, first.get( 10, TimeUnit.SECONDS ) );
+            Assertions.assertEquals( value, second.get( 10, TimeUnit.SECONDS ) );
+            Assertions.assertEquals( 1, loads.get() );
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testNegativeCaching() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( CachingManager.PROP_CACHE_CONF_FILE, "ehcache-jspwiki-test.xml" );
+        props.setProperty( CachingManager.PROP_CACHE_NEGATIVE_TTL, "60" );
+        final EhcacheCachingManager negative = new EhcacheCachingManager();
+        negative.initialize( null, props );
+        final AtomicInteger loads = new AtomicInteger();
+        Assertions.assertNull( negative.get( CachingManager.CACHE_PAGES, "missing", () -> { loads.incrementAndGet(); return null; } ) );
+        Assertions.assertNull( negative.get( CachingManager.CACHE_PAGES, "missing", () -> { loads.incrementAndGet(); return "found"; } ) );
+        Assertions.assertEquals( 1, loads.get() );
+        Assertions.assertEquals( 1, negative.info( CachingManager.CACHE_PAGES ).getNegativeHits() );
+        Assertions.assertEquals( 1, negative.info( CachingManager.CACHE_PAGES ).getMisses() );
+        Assertions.assertFalse( negative.keys( CachingManager.CACHE_PAGES ).contains( "missing" ) );
+
+        negative.remove( CachingManager.CACHE_PAGES, "missing" ); // i.e., page has been created
+        Assertions.assertEquals( "found", negative.get( CachingManager.CACHE_PAGES, "missing", () -> { loads.incrementAndGet(); return "found"; } ) );
+        Assertions.assertEquals( 2, loads.get() );
+
+        // plain lookups don't remember missing keys, so a later load isn't skipped
+        Assertions.assertNull( negative.get( CachingManager.CACHE_PAGES, "looked up" ) );
+        Assertions.assertEquals( "found", negative.get( CachingManager.CACHE_PAGES, "looked up", () -> { loads.incrementAndGet(); return "found"; } ) );
+        Assertions.assertEquals( 3, loads.get() );
+    }
+
+    @Test
+    void testRemovalDuringStoreOfLoadedValueIsntLost() throws Exception {
+        final CacheLoads cacheLoads = new CacheLoads( 0, 10 );
+        final Map< Serializable, String > cache = new ConcurrentHashMap<>();
+        final AtomicReference< Thread > remover = new AtomicReference<>();
+        final String loaded = cacheLoads.load( "key", new CacheInfo( "test", 10 ), () -> "stale", value -> {
+            // the key is removed, as the cache managers do, right when the loaded value is about to be stored
+            remover.set( new Thread( () -> {
+                cacheLoads.forget( "key" );
+                cache.remove( "key" );
+            } ) );
+            remover.get().start();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10 );
+            while( remover.get().isAlive() && remover.get().getState() != Thread.State.BLOCKED && System.nanoTime() < deadline ) {
+                Thread.yield();
+            }
+            cache.put( "key", value );
+        } );
+        remover.get().join( 10_000 );
+        Assertions.assertEquals( "stale", loaded );
+        Assertions.assertFalse( remover.get().isAlive() );
+        Assertions.assertFalse( cache.containsKey( "key" ), "removal must not be overwritten by the value loaded before it" );
+    }
+
 }
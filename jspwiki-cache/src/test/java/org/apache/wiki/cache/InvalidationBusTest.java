@@ -0,0 +1,134 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+
+public class InvalidationBusTest {
+
+    @TempDir
+    Path shared;
+
+    @Test
+    void testDatagramBus() throws Exception {
+        final DatagramInvalidationBus receiver = new DatagramInvalidationBus();
+        final DatagramInvalidationBus sender = new DatagramInvalidationBus();
+        final DatagramInvalidationBus forger = new DatagramInvalidationBus();
+        try {
+            final Properties props = new Properties();
+            props.setProperty( DatagramInvalidationBus.PROP_SECRET, "shared secret" );
+            receiver.initialize( props );
+            props.setProperty( DatagramInvalidationBus.PROP_PEERS, "127.0.0.1:" + receiver.getPort() );
+            sender.initialize( props );
+            props.setProperty( DatagramInvalidationBus.PROP_SECRET, "another secret" );
+            forger.initialize( props );
+
+            final BlockingQueue< String > received = new LinkedBlockingQueue<>();
+            receiver.subscribe( ( cache, key ) -> received.add( cache + "/" + key ) );
+            forger.publish( CachingManager.CACHE_PAGES, "Forged" );
+            sender.publish( CachingManager.CACHE_PAGES, "Main Page\twith\ntabs" );
+            Assertions.assertEquals( CachingManager.CACHE_PAGES + "/Main Page\twith\ntabs", received.poll( 10, TimeUnit.SECONDS ) );
+            Assertions.assertNull( received.poll( 200, TimeUnit.MILLISECONDS ), "datagrams signed with other secrets are dropped" );
+        } finally {
+            forger.shutdown();
+            sender.shutdown();
+            receiver.shutdown();
+        }
+    }
+
+    @Test
+    void testBusesRequireTheirSettings() {
+        Assertions.assertThrows( IOException.class, () -> new DatagramInvalidationBus().initialize( new Properties() ) );
+        Assertions.assertThrows( IOException.class, () -> new FileInvalidationBus().initialize( new Properties() ) );
+    }
+
+    @Test
+    void testFileBusRotatesLogs() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( FileInvalidationBus.PROP_DIR, shared.toString() );
+        props.setProperty( FileInvalidationBus.PROP_POLL_INTERVAL, "60000" ); // polled by hand
+        final FileInvalidationBus receiver = new FileInvalidationBus();
+        final FileInvalidationBus sender = new FileInvalidationBus();
+        try {
+            receiver.initialize( props );
+            sender.initialize( props );
+            final BlockingQueue< String > received = new LinkedBlockingQueue<>();
+            receiver.subscribe( ( cache, key ) -> received.add( key ) );
+
+            sender.publish( CachingManager.CACHE_PAGES, "Before" );
+            receiver.poll();
+            Assertions.assertEquals( "Before", received.poll() );
+            sender.rotate();
+            sender.publish( CachingManager.CACHE_PAGES, "After" );
+            receiver.poll();
+            receiver.poll();
+            Assertions.assertEquals( "After", received.poll() );
+            Assertions.assertNull( received.poll() );
+        } finally {
+            sender.shutdown();
+            receiver.shutdown();
+        }
+    }
+
+    @Test
+    void testRemovalsArePropagatedBetweenNodes() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( InvalidationBus.PROP_INVALIDATION_BUS, "FileInvalidationBus" );
+        props.setProperty( FileInvalidationBus.PROP_DIR, shared.toString() );
+        props.setProperty( FileInvalidationBus.PROP_POLL_INTERVAL, "20" );
+        final CaffeineCachingManager node1 = new CaffeineCachingManager();
+        final CaffeineCachingManager node2 = new CaffeineCachingManager();
+        try {
+            node1.initialize( null, props );
+            node2.initialize( null, props );
+            final AtomicBoolean allRequested = new AtomicBoolean( true );
+            final BlockingQueue< Serializable > invalidated = new LinkedBlockingQueue<>();
+            node2.registerListener( CachingManager.CACHE_PAGES, "expired", allRequested );
+            node2.registerListener( CachingManager.CACHE_PAGES, "invalidated", ( Consumer< Serializable > )invalidated::add );
+            for( final CaffeineCachingManager node : new CaffeineCachingManager[] { node1, node2 } ) {
+                node.put( CachingManager.CACHE_PAGES, "Shared", "page" );
+                node.put( CachingManager.CACHE_DOCUMENTS, "Shared::-1::true", "document" );
+            }
+
+            node1.remove( CachingManager.CACHE_DOCUMENTS, "Shared::-1::true" ); // derived on each node, not propagated
+            node1.remove( CachingManager.CACHE_PAGES, "Shared" );
+            Assertions.assertEquals( "Shared", invalidated.poll( 10, TimeUnit.SECONDS ) );
+            Assertions.assertNull( node2.get( CachingManager.CACHE_PAGES, "Shared", () -> null ) );
+            Assertions.assertEquals( "document", node2.get( CachingManager.CACHE_DOCUMENTS, "Shared::-1::true", () -> null ) );
+            Assertions.assertFalse( allRequested.get() );
+        } finally {
+            node1.shutdown();
+            node2.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+public class OffHeapTierTest {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void testPutGetRemove() throws Exception {
+        final OffHeapTier tier = new OffHeapTier( 64 * 1024, null );
+        final String text = "Some page text, repeated. ".repeat( 200 );
+        Assertions.assertTrue( tier.put( "Page", text ) );
+        Assertions.assertTrue( tier.bytes() < text.length() / 4 ); // compressed
+        Assertions.assertTrue( tier.put( "Short", "short" ) );
+        Assertions.assertTrue( tier.put( "List", new ArrayList<>( List.of( "a", "b" ) ) ) );
+        Assertions.assertFalse( tier.put( "Object", new Object() ) );
+        Assertions.assertEquals( 3, tier.entries() );
+
+        Assertions.assertEquals( text, tier.get( "Page" ) );
+        Assertions.assertEquals( "short", tier.get( "Short" ) );
+        Assertions.assertEquals( List.of( "a", "b" ), tier.get( "List" ) );
+        Assertions.assertNull( tier.get( "Object" ) );
+
+        tier.remove( "Page" );
+        Assertions.assertNull( tier.get( "Page" ) );
+        Assertions.assertEquals( 2, tier.entries() );
+    }
+
+    @Test
+    void testTake() throws Exception {
+        final OffHeapTier tier = new OffHeapTier( 64 * 1024, null );
+        Assertions.assertTrue( tier.put( "Page", "text" ) );
+        Assertions.assertEquals( "text", tier.take( "Page" ) );
+        Assertions.assertNull( tier.take( "Page" ) );
+        Assertions.assertEquals( 0, tier.entries() );
+        Assertions.assertEquals( 0, tier.bytes() );
+
+        Assertions.assertEquals( 0, tier.removals() );
+        tier.remove( "Page" );
+        Assertions.assertEquals( 1, tier.removals() );
+    }
+
+    @Test
+    void testOnlyCachesWithSerializableElementsAreTiered() {
+        final Properties props = new Properties();
+        props.setProperty( OffHeapTier.PROP_MAX_BYTES, "65536" );
+        props.setProperty( OffHeapTier.PROP_MAX_BYTES + "." + CachingManager.CACHE_PAGES, "65536" );
+        for( final String cacheName : List.of( CachingManager.CACHE_PAGES_TEXT, CachingManager.CACHE_DOCUMENTS, CachingManager.CACHE_DIFFS ) ) {
+            final OffHeapTier tier = OffHeapTier.create( null, props, cacheName );
+            Assertions.assertNotNull( tier, cacheName );
+            tier.close();
+        }
+        Assertions.assertNull( OffHeapTier.create( null, props, CachingManager.CACHE_PAGES_HISTORY ), "global setting doesn't apply" );
+        Assertions.assertNull( OffHeapTier.create( null, props, CachingManager.CACHE_PAGES ), "per-cache setting is rejected" );
+        Assertions.assertNull( OffHeapTier.create( null, new Properties(), CachingManager.CACHE_PAGES_TEXT ) );
+    }
+
+    @Test
+    void testLargeSerializedElementsAreCompressed() throws Exception {
+        final OffHeapTier tier = new OffHeapTier( 64 * 1024, null );
+        final ArrayList< String > list = new ArrayList<>( List.of( "Some list element, repeated. ".repeat( 200 ) ) );
+        Assertions.assertTrue( tier.put( "List", list ) );
+        Assertions.assertTrue( tier.bytes() < list.get( 0 ).length() / 4 );
+        Assertions.assertEquals( list, tier.get( "List" ) );
+    }
+
+    @Test
+    void testMemoryMappedFile() throws Exception {
+        final Path file = workDir.resolve( "cache" ).resolve( CachingManager.CACHE_PAGES_TEXT + ".tier" );
+        final OffHeapTier tier = new OffHeapTier( 64 * 1024, file );
+        Assertions.assertTrue( Files.exists( file ) );
+        Assertions.assertTrue( tier.put( "Page", "text" ) );
+        Assertions.assertEquals( "text", tier.get( "Page" ) );
+        tier.close();
+        Assertions.assertFalse( Files.exists( file ) );
+    }
+
+    @Test
+    void testOldestElementsAreOverwritten() throws Exception {
+        final OffHeapTier tier = new OffHeapTier( 4 * 1024, null );
+        for( int i = 0; i < 500; i++ ) {
+            Assertions.assertTrue( tier.put( "Page" + i, "text of page " + i ) );
+        }
+        Assertions.assertTrue( tier.bytes() <= 4 * 1024 );
+        Assertions.assertNull( tier.get( "Page0" ) );
+        Assertions.assertEquals( "text of page 499", tier.get( "Page499" ) );
+        final StringBuilder huge = new StringBuilder(); // random, so it doesn't shrink when deflated
+        while( huge.length() < 2 * 1024 ) {
+            huge.append( UUID.randomUUID() );
+        }
+        Assertions.assertFalse( tier.put( "Huge", huge.toString() ) ); // doesn't fit
+    }
+
+    @Test
+    void testEvictedElementsArePromotedBack() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( CaffeineCachingManager.PROP_CACHE_MAX_BYTES, "20000" );
+        props.setProperty( OffHeapTier.PROP_MAX_BYTES + "." + CachingManager.CACHE_PAGES_TEXT, "1000000" );
+        final CaffeineCachingManager ccm = new CaffeineCachingManager();
+        try {
+            ccm.initialize( null, props );
+            final String text = "Page text ".repeat( 200 ); // ~4KB on heap
+            for( int i = 0; i < 50; i++ ) {
+                ccm.put( CachingManager.CACHE_PAGES_TEXT, "Page" + i, text + i );
+            }
+            ccm.cacheMap.get( CachingManager.CACHE_PAGES_TEXT ).cleanUp();
+            for( int i = 0; i < 50; i++ ) {
+                Assertions.assertEquals( text + i, ccm.get( CachingManager.CACHE_PAGES_TEXT, "Page" + i, () -> null ) );
+            }
+            Assertions.assertTrue( ccm.info( CachingManager.CACHE_PAGES_TEXT ).getSecondTierHits() > 0 );
+            Assertions.assertEquals( 0, ccm.info( CachingManager.CACHE_PAGES_TEXT ).getMisses() );
+        } finally {
+            ccm.shutdown();
+        }
+    }
+
+    @Test
+    void testPromotionsDontBringBackStaleValues() throws Exception {
+        assertPromotionDoesntBringBackStaleValue( true );
+        assertPromotionDoesntBringBackStaleValue( false );
+    }
+
+    /** Puts or removes a key while it's being promoted from the second tier, once the demoted value has been read. */
+    void assertPromotionDoesntBringBackStaleValue( final boolean update ) throws Exception {
+        final CountDownLatch read = new CountDownLatch( 1 );
+        final CountDownLatch changed = new CountDownLatch( 1 );
+        final OffHeapTier tier = new OffHeapTier( 64 * 1024, null ) {
+
+            @Override
+            Object get( final Serializable key ) {
+                return paused( super.get( key ) );
+            }
+
+            @Override
+            Object take( final Serializable key ) {
+                return paused( super.take( key ) );
+            }
+
+            Object paused( final Object value ) {
+                if( value != null ) {
+                    read.countDown();
+                    try {
+                        changed.await( 10, TimeUnit.SECONDS );
+                    } catch( final InterruptedException e ) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return value;
+            }
+        };
+        final CaffeineCachingManager ccm = new CaffeineCachingManager();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ccm.initialize( null, new Properties() );
+            ccm.secondTiers.put( CachingManager.CACHE_PAGES_TEXT, tier );
+            tier.put( "Page", "stale" ); // as if evicted from the cache
+            final Future< Object > promotion = executor.submit( () -> ccm.get( CachingManager.CACHE_PAGES_TEXT, "Page" ) );
+            Assertions.assertTrue( read.await( 10, TimeUnit.SECONDS ) );
+            if( update ) {
+                ccm.put( CachingManager.CACHE_PAGES_TEXT, "Page", "fresh" );
+            } else {
+                ccm.remove( CachingManager.CACHE_PAGES_TEXT, "Page" );
+            }
+            changed.countDown();
+            promotion.get( 10, TimeUnit.SECONDS );
+            Assertions.assertEquals( update ? "fresh" : null, ccm.get( CachingManager.CACHE_PAGES_TEXT, "Page" ) );
+        } finally {
+            changed.countDown();
+            executor.shutdownNow();
+            ccm.shutdown();
+        }
+    }
+
+}
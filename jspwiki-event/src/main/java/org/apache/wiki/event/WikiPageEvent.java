@@ -163,6 +163,10 @@ public class WikiPageEvent extends WikiEvent {
     /** Indicates a wiki page reindex event (a page was changed when requested to a provided) */
     public static final int PAGE_REINDEX         = 28;
 
+    /** Indicates that a new version of a wiki page or attachment has been stored in the repository. This is based on events
+     *  generated by {@link org.apache.wiki.pages.PageManager} and {@link org.apache.wiki.attachment.AttachmentManager}. */
+    public static final int PAGE_STORED          = 29;
+
     private final String m_pagename;
 
     // ............
@@ -227,6 +231,7 @@ public class WikiPageEvent extends WikiEvent {
 
             case PAGE_DELETE_REQUEST:  return "PAGE_DELETE_REQUEST";
             case PAGE_DELETED:         return "PAGE_DELETED";
+            case PAGE_STORED:          return "PAGE_STORED";
 
             default:                   return super.eventName();
         }
@@ -264,6 +269,7 @@ public class WikiPageEvent extends WikiEvent {
 
             case PAGE_DELETE_REQUEST:  return "page delete request event";
             case PAGE_DELETED:         return "page deleted event";
+            case PAGE_STORED:          return "page stored event";
 
             default:                   return super.getTypeDescription();
         }
@@ -29,9 +29,8 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.Strings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.wiki.InternalWikiException;
 import org.apache.wiki.WatchDog;
-import org.apache.wiki.WikiBackgroundThread;
+import org.apache.wiki.WikiBackgroundJob;
 import org.apache.wiki.api.core.Attachment;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Engine;
@@ -453,30 +452,21 @@ public class KendraSearchProvider implements SearchProvider {
     /**
      * Updater thread that updates Kendra indexes.
      */
-    private static final class KendraUpdater extends WikiBackgroundThread {
+    private static final class KendraUpdater extends WikiBackgroundJob {
         static final int INDEX_DELAY = 5;
         static final int INITIAL_DELAY = 10;
         private final KendraSearchProvider provider;
 
-        private final int initialDelay;
-
-        private WatchDog watchdog;
-
         private KendraUpdater( final Engine engine, final KendraSearchProvider provider, final int initialDelay, final int indexDelay ) {
-            super( engine, indexDelay );
+            super( engine, indexDelay, initialDelay );
             this.provider = provider;
-            this.initialDelay = initialDelay;
             setName( "JSPWiki Kendra Indexer" );
         }
 
         @Override
         public void startupTask() throws Exception {
-            watchdog = WatchDog.getCurrentWatchDog( getEngine() );
-            try {
-                Thread.sleep( initialDelay * 1000L );
-            } catch ( final InterruptedException e ) {
-                throw new InternalWikiException( "Interrupted while waiting to start.", e );
-            }
+            // background tasks may run on a different thread each time, so their watchdog can't be kept between runs
+            final WatchDog watchdog = WatchDog.getCurrentWatchDog( getEngine() );
             watchdog.enterState( "Full reindex" );
             provider.initializeIndexAndDataSource();
             provider.doFullReindex();
@@ -485,6 +475,7 @@ public class KendraSearchProvider implements SearchProvider {
 
         @Override
         public void backgroundTask() {
+            final WatchDog watchdog = WatchDog.getCurrentWatchDog( getEngine() );
             watchdog.enterState( "Reindexing ...", 60 );
             provider.doPartialReindex();
             watchdog.exitState();
@@ -55,7 +55,7 @@ public final class WatchDog {
     private static final Logger LOG = LogManager.getLogger( WatchDog.class );
 
     private static final Map< Integer, WeakReference< WatchDog > > c_kennel = new ConcurrentHashMap<>();
-    private static WikiBackgroundThread c_watcherThread;
+    private static WikiBackgroundJob c_watcherThread;
 
     /**
      *  Returns the current watchdog for the current thread. This is the preferred method of getting you a Watchdog, since it
@@ -316,7 +316,7 @@ public final class WatchDog {
     /**
      *  This is the chief watchdog thread.
      */
-    private static class WatchDogThread extends WikiBackgroundThread {
+    private static class WatchDogThread extends WikiBackgroundJob {
         /** How often the watchdog thread should wake up (in seconds) */
         private static final int CHECK_INTERVAL = 30;
 
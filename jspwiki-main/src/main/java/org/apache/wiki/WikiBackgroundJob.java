@@ -0,0 +1,241 @@
+/* 
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.  
+ */
+package org.apache.wiki;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.event.WikiEngineEvent;
+import org.apache.wiki.event.WikiEvent;
+import org.apache.wiki.event.WikiEventListener;
+import org.apache.wiki.scheduler.ScheduledJob;
+import org.apache.wiki.scheduler.SchedulerManager;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Background job that runs periodically on the engine's {@link SchedulerManager}, until the {@link WikiEngineEvent#SHUTDOWN}
+ * event is detected. Subclasses need only implement the method {@link #backgroundTask()}, and provide a constructor that
+ * passes the Engine and the interval between runs. Engines without a scheduler, f.ex. those used on some unit tests, run the job
+ * on a thread of its own instead. This class is thread-safe.
+ * <p>
+ * This class replaces {@link WikiBackgroundThread}, with the same methods, but without taking a thread of its own.
+ *
+ * @since 3.0.0
+ */
+public abstract class WikiBackgroundJob implements WikiEventListener {
+
+    private static final Logger LOG = LogManager.getLogger( WikiBackgroundJob.class );
+    private volatile boolean m_killMe;
+    private volatile String m_name = getClass().getName();
+    private ScheduledJob m_job;
+    private Thread m_thread;
+    private final Object m_lock = new Object();
+    private final Engine m_engine;
+    private final int m_interval;
+    private final int m_initialDelay;
+
+    /**
+     * Constructs a new background job with a specified interval between runs, and adds the new instance to the wiki engine's
+     * event listeners.
+     *
+     * @param engine the wiki engine
+     * @param interval the interval between invocations of the {@link #backgroundTask()} method, in seconds
+     */
+    public WikiBackgroundJob( final Engine engine, final int interval ) {
+        this( engine, interval, 0 );
+    }
+
+    /**
+     * Constructs a new background job with a specified initial delay and interval between runs, and adds the new instance to
+     * the wiki engine's event listeners.
+     *
+     * @param engine the wiki engine
+     * @param interval the interval between invocations of the {@link #backgroundTask()} method, in seconds
+     * @param initialDelay the delay before invoking {@link #startupTask()}, in seconds
+     */
+    public WikiBackgroundJob( final Engine engine, final int interval, final int initialDelay ) {
+        m_engine = engine;
+        m_interval = interval;
+        m_initialDelay = initialDelay;
+        engine.addWikiEventListener( this );
+    }
+
+    /**
+     * Listens for {@link org.apache.wiki.event.WikiEngineEvent#SHUTDOWN} and, if detected, stops the job.
+     *
+     * @param event {@inheritDoc}
+     * @see org.apache.wiki.event.WikiEventListener#actionPerformed(org.apache.wiki.event.WikiEvent)
+     */
+    @Override
+    public final void actionPerformed( final WikiEvent event ) {
+        if( event instanceof WikiEngineEvent && event.getType() == WikiEngineEvent.SHUTDOWN ) {
+            LOG.info( "Detected wiki engine shutdown: stopping {}.", m_name );
+            shutdown();
+        }
+    }
+
+    /**
+     * Abstract method that performs the actual work for this background job; subclasses must implement this method.
+     *
+     * @throws Exception Any exception can be thrown; the job will be retried later.
+     */
+    public abstract void backgroundTask() throws Exception;
+
+    /**
+     * Executes a task once the job is stopped, after its last run has finished. By default, this method does nothing; override
+     * it to implement custom functionality.
+     *
+     * @throws Exception Any exception can be thrown.
+     */
+    public void shutdownTask() throws Exception {
+    }
+
+    /**
+     * Executes a task before the first run of {@link #backgroundTask()}. By default, this method does nothing; override it to
+     * implement custom functionality.
+     *
+     * @throws Exception Any exception can be thrown.
+     */
+    public void startupTask() throws Exception {
+    }
+
+    /**
+     * Returns the Engine that created this background job.
+     *
+     * @return the wiki engine
+     */
+    public Engine getEngine() {
+        return m_engine;
+    }
+
+    /**
+     * Returns the name of this background job, used on logs and statistics.
+     *
+     * @return the name of the job, its class name by default.
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * Sets the name of this background job. Must be called before {@link #start()}.
+     *
+     * @param name the name of the job.
+     */
+    public void setName( final String name ) {
+        m_name = name;
+    }
+
+    /**
+     * Schedules the job on the engine's {@link SchedulerManager}, or starts a thread running it, if the engine has no scheduler.
+     *
+     * @throws IllegalStateException if the job has already been started.
+     */
+    public synchronized void start() {
+        if( m_job != null || m_thread != null ) {
+            throw new IllegalStateException( m_name + " already started" );
+        }
+        final SchedulerManager.Job job = new SchedulerManager.Job() {
+
+            private boolean m_started;
+
+            @Override
+            public void execute() throws Exception {
+                if( !m_started ) {
+                    LOG.info( "Starting up background job: {}.", m_name );
+                    startupTask();
+                    m_started = true;
+                }
+                backgroundTask();
+            }
+
+            @Override
+            public void stopped() throws Exception {
+                if( m_started ) {
+                    shutdownTask();
+                }
+            }
+
+        };
+        final SchedulerManager scheduler = m_engine.getManager( SchedulerManager.class );
+        if( scheduler != null ) {
+            m_job = scheduler.schedule( m_name, job, m_initialDelay, m_interval, TimeUnit.SECONDS );
+            if( m_killMe ) {
+                m_job.cancel();
+            }
+        } else {
+            m_thread = new Thread( () -> run( job ), m_name );
+            m_thread.setDaemon( true );
+            m_thread.start();
+        }
+    }
+
+    /**
+     * Requests the shutdown of this background job. Note that the shutdown is not immediate, if the background task is running,
+     * it is allowed to finish first.
+     */
+    public void shutdown() {
+        m_killMe = true;
+        final ScheduledJob job;
+        synchronized( this ) {
+            job = m_job;
+        }
+        if( job != null ) {
+            job.cancel();
+        }
+        synchronized( m_lock ) {
+            m_lock.notifyAll();
+        }
+    }
+
+    /** Runs the job on its own thread, when the engine has no scheduler. */
+    private void run( final SchedulerManager.Job job ) {
+        try {
+            pause( m_initialDelay );
+            while( !m_killMe ) {
+                try {
+                    job.execute();
+                } catch( final Exception e ) {
+                    LOG.error( "Background job {} failed: {}", m_name, e.getMessage(), e );
+                }
+                pause( m_interval );
+            }
+            job.stopped();
+        } catch( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        } catch( final Exception e ) {
+            LOG.error( "Background job {} failed to stop: {}", m_name, e.getMessage(), e );
+        }
+    }
+
+    /** Sleeps for the given number of seconds, or until {@link #shutdown()} is called. */
+    private void pause( final int seconds ) throws InterruptedException {
+        final long until = System.currentTimeMillis() + seconds * 1_000L;
+        synchronized( m_lock ) {
+            long remaining = until - System.currentTimeMillis();
+            while( !m_killMe && remaining > 0 ) {
+                m_lock.wait( remaining );
+                remaining = until - System.currentTimeMillis();
+            }
+        }
+    }
+
+}
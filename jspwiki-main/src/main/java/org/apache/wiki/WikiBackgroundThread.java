@@ -30,14 +30,21 @@ import org.apache.wiki.event.WikiEventListener;
  * Abstract Thread subclass that operates in the background; when it detects the {@link WikiEngineEvent#SHUTDOWN} event,
  * it terminates itself. Subclasses of this method need only implement the method {@link #backgroundTask()}, instead of
  * the normal {@link Thread#run()}, and provide a constructor that passes the Engine and sleep interval. This class is thread-safe.
+ *
+ * @deprecated since 3.0.0, as each instance takes a thread of its own. Extend {@link WikiBackgroundJob} instead, which runs on
+ * the engine's {@link org.apache.wiki.scheduler.SchedulerManager}. It has the same constructor and {@link #backgroundTask()},
+ * {@link #startupTask()}, {@link #shutdownTask()}, {@link #start()} and {@link #shutdown()} methods, so migrating usually means
+ * just changing the superclass, unless the subclass relies on being a {@link Thread} (f.ex., calling {@link #join()} or
+ * {@link #interrupt()} on it).
  */
+@Deprecated
 public abstract class WikiBackgroundThread extends Thread implements WikiEventListener {
 	
     private static final Logger LOG = LogManager.getLogger( WikiBackgroundThread.class );
     private volatile boolean m_killMe;
+    private final Object m_lock = new Object();
     private final Engine m_engine;
     private final int m_interval;
-    private static final long POLLING_INTERVAL = 1_000L;
     
     /**
      * Constructs a new instance of this background thread with a specified sleep interval, and adds the new instance 
@@ -66,7 +73,7 @@ public abstract class WikiBackgroundThread extends Thread implements WikiEventLi
         if ( event instanceof WikiEngineEvent ) {
             if ( event.getType() == WikiEngineEvent.SHUTDOWN ) {
                 LOG.warn( "Detected wiki engine shutdown: killing " + getName() + "." );
-                m_killMe = true;
+                shutdown();
             }
         }
     }
@@ -88,19 +95,22 @@ public abstract class WikiBackgroundThread extends Thread implements WikiEventLi
     }
     
     /**
-     *  Requests the shutdown of this background thread.  Note that the shutdown is not immediate.
+     *  Requests the shutdown of this background thread.  Note that the shutdown is not immediate, if the background
+     *  task is running, it is allowed to finish first.
      *  
      *  @since 2.4.92
      */
     public void shutdown() {
         m_killMe = true;
+        synchronized( m_lock ) {
+            m_lock.notifyAll();
+        }
     }
     
     /**
      * Runs the background thread's {@link #backgroundTask()} method at the interval specified at construction.
-     * The thread will initially pause for a full sleep interval before starting, after which it will execute 
-     * {@link #startupTask()}. This method will cleanly terminate the thread if it has previously been marked as 
-     * dead, before which it will execute {@link #shutdownTask()}. If any of the three methods return an exception, 
+     * The thread will first execute {@link #startupTask()}. This method will cleanly terminate the thread if it has previously
+     * been marked as dead, before which it will execute {@link #shutdownTask()}. If any of the three methods return an exception,
      * it will be re-thrown as a {@link org.apache.wiki.InternalWikiException}.
      * 
      * @see java.lang.Thread#run()
@@ -112,32 +122,14 @@ public abstract class WikiBackgroundThread extends Thread implements WikiEventLi
             final String name = getName();
             LOG.warn( "Starting up background thread: " + name + ".");
             startupTask();
-            
-            // Perform the background task; check every second for thread death
+
+            // Perform the background task, until asked to die
             while( !m_killMe ) {
-                // Perform the background task
-                // LOG.debug( "Running background task: " + name + "." );
                 backgroundTask();
-                
-                // Sleep for the interval we're supposed to, but wake up every POLLING_INTERVAL to see if thread should die
-                boolean interrupted = false;
-                try {
-                    for( int i = 0; i < m_interval; i++ ) {
-                        Thread.sleep( POLLING_INTERVAL );
-                        if( m_killMe ) {
-                            interrupted = true;
-                            LOG.warn( "Interrupted background thread: " + name + "." );
-                            break;
-                        }
-                    }
-                    if( interrupted ) {
-                        break;
-                    }
-                } catch( final Throwable t ) {
-                    LOG.error( "Background thread error: (stack trace follows)", t );
-                }
+                pause( m_interval );
             }
-            
+            LOG.warn( "Interrupted background thread: " + name + "." );
+
             // Perform the shutdown task
             shutdownTask();
         } catch( final Throwable t ) {
@@ -145,6 +137,18 @@ public abstract class WikiBackgroundThread extends Thread implements WikiEventLi
             throw new InternalWikiException( t.getMessage() ,t );
         }
     }
+
+    /** Sleeps for the given number of seconds, or until {@link #shutdown()} is called. */
+    private void pause( final int seconds ) throws InterruptedException {
+        final long until = System.currentTimeMillis() + seconds * 1_000L;
+        synchronized( m_lock ) {
+            long remaining = until - System.currentTimeMillis();
+            while( !m_killMe && remaining > 0 ) {
+                m_lock.wait( remaining );
+                remaining = until - System.currentTimeMillis();
+            }
+        }
+    }
     
     /**
      * Executes a task after shutdown signal was detected. By default, this method does nothing; override it 
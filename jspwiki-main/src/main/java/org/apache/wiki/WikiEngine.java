@@ -47,8 +47,10 @@ import org.apache.wiki.plugin.PluginManager;
 import org.apache.wiki.references.ReferenceManager;
 import org.apache.wiki.render.RenderingManager;
 import org.apache.wiki.rss.RSSGenerator;
+import org.apache.wiki.scheduler.SchedulerManager;
 import org.apache.wiki.search.SearchManager;
 import org.apache.wiki.tasks.TasksManager;
+import org.apache.wiki.tracing.RequestTracer;
 import org.apache.wiki.ui.CommandResolver;
 import org.apache.wiki.ui.EditorManager;
 import org.apache.wiki.ui.TemplateManager;
@@ -278,10 +280,14 @@ public class WikiEngine implements Engine {
             final String aclClassName = m_properties.getProperty( PROP_ACL_MANAGER_IMPL, ClassUtil.getMappedClass( AclManager.class.getName() ).getName() );
             final String urlConstructorClassName = TextUtil.getStringProperty( props, PROP_URLCONSTRUCTOR, "DefaultURLConstructor" );
             final Class< URLConstructor > urlclass = ClassUtil.findClass( "org.apache.wiki.url", urlConstructorClassName );
+            final String cachingManagerClassName = TextUtil.getStringProperty( props, CachingManager.PROP_CACHE_MANAGER_IMPL, ClassUtil.getMappedClass( CachingManager.class.getName() ).getName() );
+            final Class< CachingManager > cachingClass = ClassUtil.findClass( "org.apache.wiki.cache", cachingManagerClassName );
 
             initComponent( CommandResolver.class, this, props );
             initComponent( urlclass.getName(), URLConstructor.class );
-            initComponent( CachingManager.class, this, props );
+            initComponent( SchedulerManager.class, this, props );
+            initComponent( RequestTracer.class );
+            initComponent( cachingClass.getName(), CachingManager.class, this, props );
             initComponent( PageManager.class, this, props );
             initComponent( PluginManager.class, this, props );
             initComponent( DifferenceManager.class, this, props );
@@ -647,6 +653,7 @@ public class WikiEngine implements Engine {
     @Override
     public void shutdown() {
         fireEvent( WikiEngineEvent.SHUTDOWN );
+        getManager( SchedulerManager.class ).shutdown();
         getManager( CachingManager.class ).shutdown();
         getManager( FilterManager.class ).destroy();
         if (ProductUpdateChecker.getInstance() != null) {
@@ -30,6 +30,8 @@ import org.apache.wiki.api.exceptions.ProviderException;
 import org.apache.wiki.api.providers.AttachmentProvider;
 import org.apache.wiki.api.spi.Wiki;
 import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.event.WikiEventManager;
+import org.apache.wiki.event.WikiPageEvent;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.parser.MarkupParser;
 import org.apache.wiki.references.ReferenceManager;
@@ -242,7 +244,7 @@ public class DefaultAttachmentManager implements AttachmentManager {
     /** {@inheritDoc} */
     @Override
     public DynamicAttachment getDynamicAttachment( final String name ) {
-        return cachingManager.get( CachingManager.CACHE_ATTACHMENTS_DYNAMIC, name, () -> null );
+        return cachingManager.get( CachingManager.CACHE_ATTACHMENTS_DYNAMIC, name );
     }
 
     /** {@inheritDoc} */
@@ -264,6 +266,7 @@ public class DefaultAttachmentManager implements AttachmentManager {
         final Page parent = Wiki.contents().page( m_engine, att.getParentName() );
         m_engine.getManager( ReferenceManager.class ).updateReferences( parent );
         m_engine.getManager( SearchManager.class ).reindexPage( att );
+        fireEvent( WikiPageEvent.PAGE_STORED, att.getName() );
     }
 
     /** {@inheritDoc} */
@@ -305,11 +308,11 @@ public class DefaultAttachmentManager implements AttachmentManager {
         }
 
         m_provider.deleteVersion( att );
+        fireEvent( WikiPageEvent.PAGE_STORED, att.getName() ); // latest version may have changed
     }
 
     /** {@inheritDoc} */
     @Override
-    // FIXME: Should also use events!
     public void deleteAttachment( final Attachment att ) throws ProviderException {
         if( m_provider == null ) {
             return;
@@ -318,6 +321,19 @@ public class DefaultAttachmentManager implements AttachmentManager {
         m_provider.deleteAttachment( att );
         m_engine.getManager( SearchManager.class ).pageRemoved( att );
         m_engine.getManager( ReferenceManager.class ).clearPageEntries( att.getName() );
+        fireEvent( WikiPageEvent.PAGE_DELETED, att.getName() );
+    }
+
+    /**
+     *  Fires a WikiPageEvent of the provided type and attachment name to all registered listeners.
+     *
+     *  @param type the event type to be fired.
+     *  @param attachmentName the attachment name.
+     */
+    protected void fireEvent( final int type, final String attachmentName ) {
+        if( WikiEventManager.isListening( this ) ) {
+            WikiEventManager.fireEvent( this, new WikiPageEvent( m_engine, type, attachmentName ) );
+        }
     }
 
 }
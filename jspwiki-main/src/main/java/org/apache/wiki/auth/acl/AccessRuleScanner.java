@@ -0,0 +1,192 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.auth.acl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Finds the access rules ({@code [{ALLOW ...}]} and {@code [{DENY ...}]}) of a page without parsing it as a whole. Follows the same
+ * rules than {@link org.apache.wiki.parser.JSPWikiMarkupParser} to decide what is an access rule: nothing inside {@code {{{ }}}}
+ * blocks, nothing escaped with {@code ~} or {@code [[}, nothing inside plugin bodies, nothing after an unterminated link, and
+ * nothing swallowed by {@code %%} style or class names.
+ */
+final class AccessRuleScanner {
+
+    private final String m_text;
+    private int m_pos;
+
+    private AccessRuleScanner( final String text ) {
+        m_text = text;
+    }
+
+    /**
+     * Returns the access rules of a wiki text, in the same order than the parser handles them, without the enclosing
+     * {@code [{ }]}, so they can be handed to {@link AclManager#parseAcl(org.apache.wiki.api.core.Page, String)}.
+     *
+     * @param text wiki text.
+     * @return the access rules found, ie {@code ALLOW view Alice,Bob}.
+     */
+    static List< String > findRules( final String text ) {
+        final List< String > rules = new ArrayList<>();
+        if( text.contains( "[{" ) ) {
+            new AccessRuleScanner( text ).scan( rules );
+        }
+        return rules;
+    }
+
+    private int next() {
+        return m_pos < m_text.length() ? m_text.charAt( m_pos++ ) : -1;
+    }
+
+    private int peek( final int offset ) {
+        return m_pos + offset < m_text.length() ? m_text.charAt( m_pos + offset ) : -1;
+    }
+
+    private void scan( final List< String > rules ) {
+        boolean pre = false;
+        int ch;
+        while( ( ch = next() ) != -1 ) {
+            if( pre ) {
+                if( ch == '}' && peek( 0 ) == '}' && peek( 1 ) == '}' ) {
+                    m_pos += 2;
+                    pre = false;
+                } else if( ch == '~' && peek( 0 ) == '}' && peek( 1 ) == '}' && peek( 2 ) == '}' ) {
+                    m_pos += 3;
+                }
+                continue;
+            }
+
+            switch( ch ) {
+                case '{':
+                    if( peek( 0 ) == '{' ) {
+                        m_pos++;
+                        if( peek( 0 ) == '{' ) {
+                            m_pos++;
+                            pre = true;
+                        }
+                    }
+                    break;
+                case '~':
+                    skipEscaped();
+                    break;
+                case '%':
+                    if( peek( 0 ) == '%' ) {
+                        m_pos++;
+                        skipStyle();
+                    }
+                    break;
+                case '[':
+                    if( !readLink( rules ) ) {
+                        return; // unterminated, the rest of the page is shown as is
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void skipEscaped() {
+        final int ch = peek( 0 );
+        if( ch == ' ' ) {
+            m_pos++;
+        } else if( ch != -1 && "|~\\*#-!'_[{]}%".indexOf( ch ) != -1 ) {
+            while( peek( 0 ) == ch ) {
+                m_pos++;
+            }
+        }
+    }
+
+    /** Skips the {@code (style)} or {@code class(style)} following {@code %%}. */
+    private void skipStyle() {
+        final int ch = peek( 0 );
+        if( ch == '(' ) {
+            m_pos++;
+            skipBraceContent();
+        } else if( ch != -1 && Character.isLetter( ( char )ch ) ) {
+            int c;
+            while( ( c = peek( 0 ) ) != -1 && "( \t\n\r".indexOf( c ) == -1 ) {
+                m_pos += c == '\\' && peek( 1 ) != -1 ? 2 : 1;
+            }
+            c = next();
+            if( c == '(' ) {
+                skipBraceContent();
+            } else if( c == '\n' || c == '\r' ) {
+                m_pos--;
+            }
+        }
+    }
+
+    private void skipBraceContent() {
+        int level = 1;
+        int ch;
+        while( ( ch = next() ) != -1 ) {
+            if( ch == '(' ) {
+                level++;
+            } else if( ch == ')' && --level == 0 ) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads a link, after its opening bracket, adding it to the rules if it's an access rule.
+     *
+     * @return {@code false} if the link is never closed.
+     */
+    private boolean readLink( final List< String > rules ) {
+        if( peek( 0 ) == '[' ) {
+            while( peek( 0 ) == '[' ) {
+                m_pos++;
+            }
+            return true;
+        }
+
+        final boolean isPlugin = peek( 0 ) == '{';
+        final int start = m_pos;
+        int nesting = 1;
+        int ch;
+        while( ( ch = next() ) != -1 ) {
+            final int ch2 = peek( 0 );
+            if( isPlugin ) {
+                if( ch == '[' && ch2 == '{' ) {
+                    nesting++;
+                } else if( nesting == 0 && ch == ']' && m_text.charAt( m_pos - 2 ) == '}' ) {
+                    break;
+                } else if( ch == '}' && ch2 == ']' ) {
+                    nesting--;
+                }
+            } else if( ch == ']' ) {
+                break;
+            }
+        }
+        if( ch == -1 ) {
+            return false;
+        }
+
+        final String link = m_text.substring( start, m_pos - 1 );
+        if( link.startsWith( "{ALLOW" ) || link.startsWith( "{DENY" ) ) {
+            rules.add( link.substring( 1, link.endsWith( "}" ) ? link.length() - 1 : link.length() ) );
+        }
+        return true;
+    }
+
+}
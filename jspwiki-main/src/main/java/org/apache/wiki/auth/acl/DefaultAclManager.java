@@ -26,16 +26,21 @@ import org.apache.wiki.api.core.Attachment;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.api.core.Page;
+import org.apache.wiki.api.exceptions.FilterException;
 import org.apache.wiki.api.exceptions.ProviderException;
 import org.apache.wiki.api.spi.Wiki;
 import org.apache.wiki.auth.AuthorizationManager;
+import org.apache.wiki.auth.UserManager;
 import org.apache.wiki.auth.WikiSecurityException;
 import org.apache.wiki.auth.permissions.PagePermission;
 import org.apache.wiki.auth.permissions.PermissionFactory;
+import org.apache.wiki.filters.FilterManager;
 import org.apache.wiki.pages.PageLock;
 import org.apache.wiki.pages.PageManager;
+import org.apache.wiki.parser.JSPWikiMarkupParser;
 import org.apache.wiki.render.RenderingManager;
 import org.apache.wiki.util.comparators.PrincipalComparator;
+import org.apache.wiki.variables.VariableManager;
 
 import java.security.Permission;
 import java.security.Principal;
@@ -61,6 +66,7 @@ public class DefaultAclManager implements AclManager {
 
     private AuthorizationManager m_auth;
     private Engine m_engine;
+    private boolean m_scanAccessRules;
     private static final String PERM_REGEX = "("
                                               + PagePermission.COMMENT_ACTION + "|"
                                               + PagePermission.DELETE_ACTION  + "|"
@@ -84,6 +90,8 @@ public class DefaultAclManager implements AclManager {
     public void initialize( final Engine engine, final Properties props ) {
         m_auth = engine.getManager( AuthorizationManager.class );
         m_engine = engine;
+        // access rules can be picked up straight from the page text as long as it's written in JSPWiki markup
+        m_scanAccessRules = JSPWikiMarkupParser.class.getName().equals( props.getProperty( RenderingManager.PROP_PARSER, JSPWikiMarkupParser.class.getName() ) );
     }
 
     /** {@inheritDoc} */
@@ -144,9 +152,13 @@ public class DefaultAclManager implements AclManager {
                 acl = getPermissions(parent);
             } else {
                 //  Or, try parsing the page
-                final Context ctx = Wiki.context().create( m_engine, page );
-                ctx.setVariable( Context.VAR_EXECUTE_PLUGINS, Boolean.FALSE );
-                m_engine.getManager( RenderingManager.class ).getHTML(ctx, page);
+                if( m_scanAccessRules ) {
+                    scanAccessRules( page );
+                } else {
+                    final Context ctx = Wiki.context().create( m_engine, page );
+                    ctx.setVariable( Context.VAR_EXECUTE_PLUGINS, Boolean.FALSE );
+                    m_engine.getManager( RenderingManager.class ).getHTML( ctx, page );
+                }
 
                 if (page.getAcl() == null) {
                     page.setAcl( Wiki.acls().acl() );
@@ -158,6 +170,42 @@ public class DefaultAclManager implements AclManager {
         return acl;
     }
 
+    /**
+     * Sets on the page the access rules found on its text, same as rendering it would do, but without building its whole
+     * {@link org.apache.wiki.parser.WikiDocument}. As when rendering, the text goes through the pre-translate page filters first,
+     * so access rules added or removed by them are honoured.
+     *
+     * @param page page whose access rules are being looked for.
+     */
+    void scanAccessRules( final Page page ) {
+        // same as JSPWikiMarkupParser, no user database or authorization manager means no access rules
+        if( m_auth == null || m_engine.getManager( UserManager.class ).getUserDatabase() == null ) {
+            return;
+        }
+        String text = m_engine.getManager( PageManager.class ).getPureText( page );
+        final FilterManager filterManager = m_engine.getManager( FilterManager.class );
+        if( filterManager != null && !filterManager.getFilterList().isEmpty() ) {
+            final Context ctx = Wiki.context().create( m_engine, page );
+            ctx.setVariable( Context.VAR_EXECUTE_PLUGINS, Boolean.FALSE );
+            if( "true".equals( m_engine.getManager( VariableManager.class ).getValue( ctx, VariableManager.VAR_RUNFILTERS, "true" ) ) ) {
+                try {
+                    text = filterManager.doPreTranslateFiltering( ctx, text );
+                } catch( final FilterException e ) {
+                    // rendering wouldn't get to parse the page either
+                    LOG.error( "page filter threw exception: ", e );
+                    return;
+                }
+            }
+        }
+        for( final String rule : AccessRuleScanner.findRules( text ) ) {
+            try {
+                parseAcl( page, rule );
+            } catch( final WikiSecurityException wse ) {
+                LOG.debug( "Page {} has an invalid access rule: {}", page.getName(), wse.getMessage() );
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public void setPermissions( final Page page, final Acl acl ) throws WikiSecurityException {
@@ -24,6 +24,7 @@ import org.apache.wiki.api.exceptions.NoRequiredPropertyException;
 import org.apache.wiki.auth.NoSuchPrincipalException;
 import org.apache.wiki.auth.WikiPrincipal;
 import org.apache.wiki.auth.WikiSecurityException;
+import org.apache.wiki.util.FileUtil;
 import org.apache.wiki.util.Serializer;
 import org.apache.wiki.util.TextUtil;
 import org.w3c.dom.Document;
@@ -42,18 +43,24 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.Principal;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javax.xml.XMLConstants;
@@ -71,6 +78,8 @@ import org.apache.commons.io.FileUtils;
  * &lt;/users&gt;
  * </code></blockquote>
  * <p>In this example, the un-hashed password is <code>myP@5sw0rd</code>. Passwords are hashed without salt.</p>
+ * <p>User elements are indexed in memory by login name, wiki name, full name, email and uid, so looking up a user doesn't depend on
+ * the number of users in the database.</p>
  * @since 2.3
  */
 
@@ -94,7 +103,10 @@ public class XMLUserDatabase extends AbstractUserDatabase {
     private static final String USER_TAG          = "user";
     private static final String WIKI_NAME         = "wikiName";
     private static final String DATE_FORMAT       = "yyyy.MM.dd 'at' HH:mm:ss:SSS z";
+    private static final String[] INDEXED_ATTRIBUTES = { EMAIL, FULL_NAME, LOGIN_NAME, UID, WIKI_NAME };
     private Document            c_dom;
+    /** User elements by indexed attribute and attribute value, in document order. Blank values aren't indexed. */
+    private volatile Map< String, Map< String, List< Element > > > c_indexes = newIndexes();
     private File                c_file;
     private int m_passwordReusedCount = -1;
 
@@ -105,16 +117,14 @@ public class XMLUserDatabase extends AbstractUserDatabase {
             throw new WikiSecurityException( "FATAL: database does not exist" );
         }
 
-        final NodeList users = c_dom.getDocumentElement().getElementsByTagName( USER_TAG );
-        for( int i = 0; i < users.getLength(); i++ ) {
-            final Element user = ( Element )users.item( i );
-            if( user.getAttribute( LOGIN_NAME ).equals( loginName ) ) {
-                c_dom.getDocumentElement().removeChild( user );
+        final Element user = findElement( LOGIN_NAME, loginName );
+        if( user != null ) {
+            c_dom.getDocumentElement().removeChild( user );
+            unindex( user );
 
-                // Commit to disk
-                saveDOM();
-                return;
-            }
+            // Commit to disk
+            saveDOM();
+            return;
         }
         throw new NoSuchPrincipalException( "Not in database: " + loginName );
     }
@@ -164,16 +174,9 @@ public class XMLUserDatabase extends AbstractUserDatabase {
             throw new IllegalStateException( "FATAL: database does not exist" );
         }
         final SortedSet< WikiPrincipal > principals = new TreeSet<>();
-        final NodeList users = c_dom.getElementsByTagName( USER_TAG );
-        for( int i = 0; i < users.getLength(); i++ ) {
-            final Element user = ( Element )users.item( i );
-            final String wikiName = user.getAttribute( WIKI_NAME );
-            if( StringUtils.isEmpty( wikiName ) ) {
-                LOG.warn( "Detected null or empty wiki name for {} in XMLUserDataBase. Check your user database.", user.getAttribute( LOGIN_NAME ) );
-            } else {
-                final WikiPrincipal principal = new WikiPrincipal( wikiName, WikiPrincipal.WIKI_NAME );
-                principals.add( principal );
-            }
+        for( final String wikiName : index( WIKI_NAME ).keySet() ) {
+            final WikiPrincipal principal = new WikiPrincipal( wikiName, WikiPrincipal.WIKI_NAME );
+            principals.add( principal );
         }
         return principals.toArray( new Principal[0] );
     }
@@ -224,6 +227,7 @@ public class XMLUserDatabase extends AbstractUserDatabase {
         
         buildDOM();
         sanitizeDOM();
+        indexDOM();
     }
 
     private void buildDOM() {
@@ -267,73 +271,27 @@ public class XMLUserDatabase extends AbstractUserDatabase {
             throw new IllegalStateException( "FATAL: database does not exist" );
         }
 
-        final File newFile = new File( c_file.getAbsolutePath() + ".new" );
-        try( final BufferedWriter io = new BufferedWriter( new OutputStreamWriter( Files.newOutputStream( newFile.toPath() ), StandardCharsets.UTF_8 ) ) ) {
-
-            // Write the file header and document root
-            io.write( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
-            io.write( "<users>\n" );
-
-            // Write each profile as a <user> node
-            final Element root = c_dom.getDocumentElement();
-            final NodeList nodes = root.getElementsByTagName( USER_TAG );
-            for( int i = 0; i < nodes.getLength(); i++ ) {
-                final Element user = ( Element )nodes.item( i );
-                io.write( "    <" + USER_TAG + " " );
-                io.write( UID );
-                io.write( "=\"" + user.getAttribute( UID ) + "\" " );
-                io.write( LOGIN_NAME );
-                io.write( "=\"" + user.getAttribute( LOGIN_NAME ) + "\" " );
-                io.write( WIKI_NAME );
-                io.write( "=\"" + user.getAttribute( WIKI_NAME ) + "\" " );
-                io.write( FULL_NAME );
-                io.write( "=\"" + user.getAttribute( FULL_NAME ) + "\" " );
-                io.write( EMAIL );
-                io.write( "=\"" + user.getAttribute( EMAIL ) + "\" " );
-                io.write( PASSWORD );
-                io.write( "=\"" + user.getAttribute( PASSWORD ) + "\" " );
-                io.write( CREATED );
-                io.write( "=\"" + user.getAttribute( CREATED ) + "\" " );
-                io.write( LAST_MODIFIED );
-                io.write( "=\"" + user.getAttribute( LAST_MODIFIED ) + "\" " );
-                io.write( LOCK_EXPIRY );
-                io.write( "=\"" + user.getAttribute( LOCK_EXPIRY ) + "\" " );
-                io.write( OLD_HASHES_TAG );
-                io.write( "=\"" + user.getAttribute( OLD_HASHES_TAG ) + "\" " );
-                io.write( ">" );
-                final NodeList attributes = user.getElementsByTagName( ATTRIBUTES_TAG );
-                for( int j = 0; j < attributes.getLength(); j++ ) {
-                    final Element attribute = ( Element )attributes.item( j );
-                    final String value = extractText( attribute );
-                    io.write( "\n        <" + ATTRIBUTES_TAG + ">" );
-                    io.write( value );
-                    io.write( "</" + ATTRIBUTES_TAG + ">" );
-                }
-                io.write( "\n    </" + USER_TAG + ">\n" );
-            }
-            io.write( "</users>" );
-        } catch( final IOException e ) {
-            throw new WikiSecurityException( e.getLocalizedMessage(), e );
-        }
-
-        // Copy new file over old version
+        // Keep a backup of the old version, then replace it with the new file in one step, so readers never see a missing or partial file
         final File backup = new File( c_file.getAbsolutePath() + ".old" );
-        if( backup.exists() ) {
-            if( !backup.delete() ) {
-                LOG.error( "Could not delete old user database backup: " + backup );
+        try {
+            if( c_file.exists() ) {
+                Files.copy( c_file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING );
             }
-        }
-        if( !c_file.renameTo( backup ) ) {
+        } catch( final IOException e ) {
             LOG.error( "Could not create user database backup: " + backup );
         }
-        if( !newFile.renameTo( c_file ) ) {
-            LOG.error( "Could not save database: " + backup + " restoring backup." );
-            if( !backup.renameTo( c_file ) ) {
-                LOG.error( "Restore failed. Check the file permissions." );
-            }
+        try {
+            FileUtil.replaceFile( c_file.toPath(), out -> {
+                final Writer io = new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8 ) );
+                writeDOM( io );
+                io.flush();
+            } );
+        } catch( final IOException e ) {
             LOG.error( "Could not save database: " + c_file + ". Check the file permissions" );
+            throw new WikiSecurityException( e.getLocalizedMessage(), e );
         }
-        
+        c_lastModified = c_file.lastModified();
+
         try (FileInputStream fis = new FileInputStream(c_file)) {
             byte[] hash = DigestUtils.sha256(fis);
             File checkFile = new File(c_file.getParent(), c_file.getName() + ".check");
@@ -343,6 +301,51 @@ public class XMLUserDatabase extends AbstractUserDatabase {
         }
     }
 
+    private void writeDOM( final Writer io ) throws IOException {
+        // Write the file header and document root
+        io.write( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        io.write( "<users>\n" );
+
+        // Write each profile as a <user> node
+        final Element root = c_dom.getDocumentElement();
+        final NodeList nodes = root.getElementsByTagName( USER_TAG );
+        for( int i = 0; i < nodes.getLength(); i++ ) {
+            final Element user = ( Element )nodes.item( i );
+            io.write( "    <" + USER_TAG + " " );
+            io.write( UID );
+            io.write( "=\"" + user.getAttribute( UID ) + "\" " );
+            io.write( LOGIN_NAME );
+            io.write( "=\"" + user.getAttribute( LOGIN_NAME ) + "\" " );
+            io.write( WIKI_NAME );
+            io.write( "=\"" + user.getAttribute( WIKI_NAME ) + "\" " );
+            io.write( FULL_NAME );
+            io.write( "=\"" + user.getAttribute( FULL_NAME ) + "\" " );
+            io.write( EMAIL );
+            io.write( "=\"" + user.getAttribute( EMAIL ) + "\" " );
+            io.write( PASSWORD );
+            io.write( "=\"" + user.getAttribute( PASSWORD ) + "\" " );
+            io.write( CREATED );
+            io.write( "=\"" + user.getAttribute( CREATED ) + "\" " );
+            io.write( LAST_MODIFIED );
+            io.write( "=\"" + user.getAttribute( LAST_MODIFIED ) + "\" " );
+            io.write( LOCK_EXPIRY );
+            io.write( "=\"" + user.getAttribute( LOCK_EXPIRY ) + "\" " );
+            io.write( OLD_HASHES_TAG );
+            io.write( "=\"" + user.getAttribute( OLD_HASHES_TAG ) + "\" " );
+            io.write( ">" );
+            final NodeList attributes = user.getElementsByTagName( ATTRIBUTES_TAG );
+            for( int j = 0; j < attributes.getLength(); j++ ) {
+                final Element attribute = ( Element )attributes.item( j );
+                final String value = extractText( attribute );
+                io.write( "\n        <" + ATTRIBUTES_TAG + ">" );
+                io.write( value );
+                io.write( "</" + ATTRIBUTES_TAG + ">" );
+            }
+            io.write( "\n    </" + USER_TAG + ">\n" );
+        }
+        io.write( "</users>" );
+    }
+
     private long c_lastCheck;
     private long c_lastModified;
 
@@ -350,9 +353,13 @@ public class XMLUserDatabase extends AbstractUserDatabase {
         final long time = System.currentTimeMillis();
         if( time - c_lastCheck > 60 * 1000L ) {
             final long lastModified = c_file.lastModified();
+            c_lastCheck = time;
 
             if( lastModified > c_lastModified ) {
-                buildDOM();
+                synchronized( this ) {
+                    buildDOM();
+                    indexDOM();
+                }
             }
         }
     }
@@ -385,18 +392,16 @@ public class XMLUserDatabase extends AbstractUserDatabase {
         }
 
         // Find the user with the old login id attribute, and change it
-        final NodeList users = c_dom.getElementsByTagName( USER_TAG );
-        for( int i = 0; i < users.getLength(); i++ ) {
-            final Element user = ( Element )users.item( i );
-            if( user.getAttribute( LOGIN_NAME ).equals( loginName ) ) {
-                final DateFormat c_format = new SimpleDateFormat( DATE_FORMAT );
-                final Date modDate = new Date( System.currentTimeMillis() );
-                setAttribute( user, LOGIN_NAME, newName );
-                setAttribute( user, LAST_MODIFIED, c_format.format( modDate ) );
-                profile.setLoginName( newName );
-                profile.setLastModified( modDate );
-                break;
-            }
+        final Element user = findElement( LOGIN_NAME, loginName );
+        if( user != null ) {
+            final DateFormat c_format = new SimpleDateFormat( DATE_FORMAT );
+            final Date modDate = new Date( System.currentTimeMillis() );
+            unindex( user );
+            setAttribute( user, LOGIN_NAME, newName );
+            setAttribute( user, LAST_MODIFIED, c_format.format( modDate ) );
+            index( user );
+            profile.setLoginName( newName );
+            profile.setLastModified( modDate );
         }
 
         // Commit to disk
@@ -415,8 +420,7 @@ public class XMLUserDatabase extends AbstractUserDatabase {
 
         final DateFormat c_format = new SimpleDateFormat( DATE_FORMAT );
         final String index = profile.getLoginName();
-        final NodeList users = c_dom.getElementsByTagName( USER_TAG );
-        Element user = IntStream.range(0, users.getLength()).mapToObj(i -> (Element) users.item(i)).filter(currentUser -> currentUser.getAttribute(LOGIN_NAME).equals(index)).findFirst().orElse(null);
+        Element user = findElement( LOGIN_NAME, index );
 
         boolean isNew = false;
 
@@ -430,6 +434,8 @@ public class XMLUserDatabase extends AbstractUserDatabase {
             setAttribute( user, CREATED, c_format.format( profile.getCreated() ) );
             isNew = true;
         } else {
+            unindex( user );
+
             // To update existing user node, delete old attributes first...
             final NodeList attributes = user.getElementsByTagName( ATTRIBUTES_TAG );
             for( int i = 0; i < attributes.getLength(); i++ ) {
@@ -478,6 +484,7 @@ public class XMLUserDatabase extends AbstractUserDatabase {
         if (!profile.getPreviousHashedCredentials().isEmpty()) {
             setAttribute( user, OLD_HASHES_TAG, StringUtils.join(profile.getPreviousHashedCredentials(), "|"));
         }
+        index( user );
 
         // Set the profile timestamps
         if( isNew ) {
@@ -497,78 +504,173 @@ public class XMLUserDatabase extends AbstractUserDatabase {
      * @param index value to match
      * @return the profile, or <code>null</code> if not found
      */
-    private UserProfile findByAttribute( final String matchAttribute, String index ) {
+    private UserProfile findByAttribute( final String matchAttribute, final String index ) {
         if ( c_dom == null ) {
             throw new IllegalStateException( "FATAL: database does not exist" );
         }
 
         checkForRefresh();
-        final NodeList users = c_dom.getElementsByTagName( USER_TAG );
-        if( users == null ) {
+        final Element user = findElement( matchAttribute, index );
+        if( user != null ) {
+            final UserProfile profile = newProfile();
+
+            // Parse basic attributes
+            profile.setUid( user.getAttribute( UID ) );
+            if( profile.getUid() == null || profile.getUid().isEmpty() ) {
+                profile.setUid( generateUid( this ) );
+            }
+            profile.setLoginName( user.getAttribute( LOGIN_NAME ) );
+            profile.setFullname( user.getAttribute( FULL_NAME ) );
+            profile.setPassword( user.getAttribute( PASSWORD ) );
+            profile.setEmail( user.getAttribute( EMAIL ) );
+
+            // Get created/modified timestamps
+            final String created = user.getAttribute( CREATED );
+            final String modified = user.getAttribute( LAST_MODIFIED );
+            profile.setCreated( parseDate( profile, created ) );
+            profile.setLastModified( parseDate( profile, modified ) );
+
+            // Is the profile locked?
+            final String lockExpiry = user.getAttribute( LOCK_EXPIRY );
+            if( StringUtils.isEmpty( lockExpiry ) || lockExpiry.isEmpty() ) {
+                profile.setLockExpiry( null );
+            } else {
+                profile.setLockExpiry( new Date( Long.parseLong( lockExpiry ) ) );
+            }
+            final String oldHahes = user.getAttribute(OLD_HASHES_TAG);
+            if (oldHahes != null && oldHahes.length() > 0) {
+                String[] parts = oldHahes.split("\\|");
+                for (String s : parts) {
+                    profile.getPreviousHashedCredentials().add(s);
+                }
+            }
+
+            // Extract all the user's attributes (should only be one attributes tag, but you never know!)
+            final NodeList attributes = user.getElementsByTagName( ATTRIBUTES_TAG );
+            for( int j = 0; j < attributes.getLength(); j++ ) {
+                final Element attribute = ( Element )attributes.item( j );
+                final String serializedMap = extractText( attribute );
+                try {
+                    final Map< String, ? extends Serializable > map = Serializer.deserializeFromBase64( serializedMap );
+                    profile.getAttributes().putAll( map );
+                } catch( final IOException e ) {
+                    LOG.error( "Could not parse user profile attributes!", e );
+                }
+            }
+
+            return profile;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first &lt;user&gt; element whose supplied attribute matches the given value. Emails are matched case-insensitively.
+     *
+     * @param matchAttribute matching attribute, one of {@link #INDEXED_ATTRIBUTES}.
+     * @param index value to match
+     * @return the element, or <code>null</code> if not found
+     */
+    private Element findElement( final String matchAttribute, final String index ) {
+        if( index == null ) {
             return null;
         }
+        final List< Element > users = index( matchAttribute ).get( indexKey( matchAttribute, index ) );
+        return users == null || users.isEmpty() ? null : users.get( 0 );
+    }
 
-        // check if we have to do a case-insensitive compare
-        final boolean caseSensitiveCompare = !matchAttribute.equals( EMAIL );
+    private Map< String, List< Element > > index( final String attribute ) {
+        return c_indexes.get( attribute );
+    }
 
-        for( int i = 0; i < users.getLength(); i++ ) {
-            final Element user = (Element) users.item( i );
-            String userAttribute = user.getAttribute( matchAttribute );
-            if( !caseSensitiveCompare ) {
-                userAttribute = StringUtils.lowerCase(userAttribute);
-                index = StringUtils.lowerCase(index);
-            }
-            if( userAttribute.equals( index ) ) {
-                final UserProfile profile = newProfile();
+    private static Map< String, Map< String, List< Element > > > newIndexes() {
+        final Map< String, Map< String, List< Element > > > indexes = new ConcurrentHashMap<>();
+        for( final String attribute : INDEXED_ATTRIBUTES ) {
+            indexes.put( attribute, new ConcurrentHashMap<>() );
+        }
+        return indexes;
+    }
 
-                // Parse basic attributes
-                profile.setUid( user.getAttribute( UID ) );
-                if( profile.getUid() == null || profile.getUid().isEmpty() ) {
-                    profile.setUid( generateUid( this ) );
-                }
-                profile.setLoginName( user.getAttribute( LOGIN_NAME ) );
-                profile.setFullname( user.getAttribute( FULL_NAME ) );
-                profile.setPassword( user.getAttribute( PASSWORD ) );
-                profile.setEmail( user.getAttribute( EMAIL ) );
-
-                // Get created/modified timestamps
-                final String created = user.getAttribute( CREATED );
-                final String modified = user.getAttribute( LAST_MODIFIED );
-                profile.setCreated( parseDate( profile, created ) );
-                profile.setLastModified( parseDate( profile, modified ) );
-
-                // Is the profile locked?
-                final String lockExpiry = user.getAttribute( LOCK_EXPIRY );
-                if( StringUtils.isEmpty( lockExpiry ) || lockExpiry.isEmpty() ) {
-                    profile.setLockExpiry( null );
-                } else {
-                    profile.setLockExpiry( new Date( Long.parseLong( lockExpiry ) ) );
+    private String indexKey( final String attribute, final String value ) {
+        // check if we have to do a case-insensitive compare
+        return EMAIL.equals( attribute ) ? StringUtils.lowerCase( value ) : value;
+    }
+
+    /**
+     * Rebuilds the indexes of &lt;user&gt; elements from the DOM. Elements are visited in document order, so they're appended to
+     * mutable lists, which are made unmodifiable once all of them have been indexed.
+     */
+    private synchronized void indexDOM() {
+        final Map< String, Map< String, List< Element > > > indexes = newIndexes();
+        if( c_dom != null ) {
+            final NodeList users = c_dom.getElementsByTagName( USER_TAG );
+            for( int i = 0; i < users.getLength(); i++ ) {
+                final Element user = ( Element )users.item( i );
+                if( StringUtils.isBlank( user.getAttribute( WIKI_NAME ) ) ) {
+                    LOG.warn( "Detected null or empty wiki name for {} in XMLUserDataBase. Check your user database.", user.getAttribute( LOGIN_NAME ) );
                 }
-                final String oldHahes = user.getAttribute(OLD_HASHES_TAG);
-                if (oldHahes != null && oldHahes.length() > 0) {
-                    String[] parts = oldHahes.split("\\|");
-                    for (String s : parts) {
-                        profile.getPreviousHashedCredentials().add(s);
+                for( final String attribute : INDEXED_ATTRIBUTES ) {
+                    final String value = user.getAttribute( attribute );
+                    if( StringUtils.isNotBlank( value ) ) {
+                        indexes.get( attribute ).computeIfAbsent( indexKey( attribute, value ), key -> new ArrayList<>( 1 ) ).add( user );
                     }
                 }
+            }
+            indexes.values().forEach( index -> index.replaceAll( ( key, indexed ) -> Collections.unmodifiableList( indexed ) ) );
+        }
+        c_indexes = indexes;
+    }
 
-                // Extract all the user's attributes (should only be one attributes tag, but you never know!)
-                final NodeList attributes = user.getElementsByTagName( ATTRIBUTES_TAG );
-                for( int j = 0; j < attributes.getLength(); j++ ) {
-                    final Element attribute = ( Element )attributes.item( j );
-                    final String serializedMap = extractText( attribute );
-                    try {
-                        final Map< String, ? extends Serializable > map = Serializer.deserializeFromBase64( serializedMap );
-                        profile.getAttributes().putAll( map );
-                    } catch( final IOException e ) {
-                        LOG.error( "Could not parse user profile attributes!", e );
-                    }
+    /**
+     * Adds a &lt;user&gt; element to the indexes. Among the elements sharing an attribute value, lookups return the first one in
+     * document order, as they did before the element was (re)indexed.
+     *
+     * @param user the element to index.
+     */
+    private void index( final Element user ) {
+        for( final String attribute : INDEXED_ATTRIBUTES ) {
+            final String value = user.getAttribute( attribute );
+            if( StringUtils.isBlank( value ) ) {
+                continue;
+            }
+            index( attribute ).compute( indexKey( attribute, value ), ( key, users ) -> {
+                if( users == null ) {
+                    return Collections.singletonList( user );
+                }
+                final List< Element > indexed = new ArrayList<>( users );
+                int position = 0;
+                while( position < indexed.size() && precedes( indexed.get( position ), user ) ) {
+                    position++;
                 }
+                indexed.add( position, user );
+                return Collections.unmodifiableList( indexed );
+            } );
+        }
+    }
+
+    private static boolean precedes( final Element element, final Element other ) {
+        return ( element.compareDocumentPosition( other ) & Node.DOCUMENT_POSITION_FOLLOWING ) != 0;
+    }
 
-                return profile;
+    /**
+     * Removes a &lt;user&gt; element from the indexes, to be called before its indexed attributes change, or it is removed.
+     *
+     * @param user the element to remove.
+     */
+    private void unindex( final Element user ) {
+        for( final String attribute : INDEXED_ATTRIBUTES ) {
+            final String value = user.getAttribute( attribute );
+            if( StringUtils.isBlank( value ) ) {
+                continue;
             }
+            index( attribute ).computeIfPresent( indexKey( attribute, value ), ( key, users ) -> {
+                if( users.size() == 1 ) {
+                    return users.get( 0 ) == user ? null : users;
+                }
+                final List< Element > indexed = new ArrayList<>( users );
+                indexed.remove( user );
+                return Collections.unmodifiableList( indexed );
+            } );
         }
-        return null;
     }
 
     /**
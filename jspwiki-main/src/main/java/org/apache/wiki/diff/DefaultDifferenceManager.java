@@ -23,24 +23,48 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.exceptions.NoRequiredPropertyException;
 import org.apache.wiki.api.providers.PageProvider;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.content.PageRenamer;
+import org.apache.wiki.event.WikiEngineEvent;
+import org.apache.wiki.event.WikiEvent;
+import org.apache.wiki.event.WikiEventListener;
+import org.apache.wiki.event.WikiEventManager;
+import org.apache.wiki.event.WikiPageEvent;
+import org.apache.wiki.event.WikiPageRenameEvent;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.util.ClassUtil;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * Load, initialize and delegate to the DiffProvider that will actually do the work.
+ * <p>
+ * Differences between two given versions of a page are kept on the {@link CachingManager#CACHE_DIFFS} cache, as those versions
+ * don't change anymore. They are flushed when the page is deleted or renamed, as its version numbers may be reused afterwards,
+ * and when the page is saved, those referring to versions which didn't exist yet, or whose latest version has been deleted. The
+ * keys cached for each page are tracked, so flushing a page doesn't need to go through the whole cache.
  */
-public class DefaultDifferenceManager implements DifferenceManager {
+public class DefaultDifferenceManager implements DifferenceManager, WikiEventListener {
 
     private static final Logger LOG = LogManager.getLogger( DefaultDifferenceManager.class );
 
+    private static final String VERSION_DELIMITER = "::";
+
+    private final Engine m_engine;
+    private final CachingManager m_cachingManager;
     private DiffProvider m_provider;
 
+    /** Keys of the cached differences, by page name. May still hold some keys already evicted from the cache. */
+    private final Map< String, Set< String > > m_diffKeys = new ConcurrentHashMap<>();
+
     /**
      * Creates a new DifferenceManager for the given engine.
      *
@@ -48,10 +72,16 @@ public class DefaultDifferenceManager implements DifferenceManager {
      * @param props  A set of properties.
      */
     public DefaultDifferenceManager( final Engine engine, final Properties props ) {
+        m_engine = engine;
+        m_cachingManager = engine.getManager( CachingManager.class );
         loadProvider( props );
         initializeProvider( engine, props );
 
         LOG.info( "Using difference provider: " + m_provider.getProviderInfo() );
+        if( m_cachingManager != null && m_cachingManager.enabled( CachingManager.CACHE_DIFFS ) ) {
+            WikiEventManager.addWikiEventListener( engine.getManager( PageManager.class ), this );
+            WikiEventManager.addWikiEventListener( engine, this ); // PageRenamer is set up later on
+        }
     }
 
     private void loadProvider( final Properties props ) {
@@ -87,17 +117,21 @@ public class DefaultDifferenceManager implements DifferenceManager {
      */
     @Override
     public String makeDiff( final Context context, final String firstWikiText, final String secondWikiText ) {
-        String diff;
         try {
-            diff = m_provider.makeDiffHtml( context, firstWikiText, secondWikiText );
-
-            if( diff == null ) {
-                diff = "";
-            }
+            return makeDiffHtml( context, firstWikiText, secondWikiText );
         } catch( final Exception e ) {
-            diff = "Failed to create a diff, check the logs.";
-            LOG.warn( diff, e );
+            return diffFailed( e );
         }
+    }
+
+    String makeDiffHtml( final Context context, final String firstWikiText, final String secondWikiText ) {
+        final String diff = m_provider.makeDiffHtml( context, firstWikiText, secondWikiText );
+        return diff != null ? diff : "";
+    }
+
+    String diffFailed( final Exception e ) {
+        final String diff = "Failed to create a diff, check the logs.";
+        LOG.warn( diff, e );
         return diff;
     }
 
@@ -115,16 +149,92 @@ public class DefaultDifferenceManager implements DifferenceManager {
     @Override
     public String getDiff( final Context context, final int version1, final int version2 ) {
         final String page = context.getPage().getName();
-        String page1 = context.getEngine().getManager( PageManager.class ).getPureText( page, version1 );
-        final String page2 = context.getEngine().getManager( PageManager.class ).getPureText( page, version2 );
+        try {
+            if( m_cachingManager == null || !m_cachingManager.enabled( CachingManager.CACHE_DIFFS ) ) {
+                return diffVersions( context, page, version1, version2 );
+            }
+            // the latest version changes on every save, so diffs are cached against its actual number. A latest first version
+            // stands for the empty page instead (see diffVersions), so it is kept as is
+            final int v2 = latestIfRequested( page, version2 );
+            if( version1 == 0 || version1 < PageProvider.LATEST_VERSION || v2 <= 0 ) {
+                return diffVersions( context, page, version1, version2 );
+            }
+            final String key = page + VERSION_DELIMITER + version1 + VERSION_DELIMITER + v2;
+            final String diff = m_cachingManager.get( CachingManager.CACHE_DIFFS, key, () -> diffVersions( context, page, version1, v2 ) );
+            if( diff == null ) {
+                return diffVersions( context, page, version1, v2 );
+            }
+            m_diffKeys.computeIfAbsent( page, k -> ConcurrentHashMap.newKeySet() ).add( key );
+            return diff;
+        } catch( final Exception e ) {
+            return diffFailed( e );
+        }
+    }
+
+    String diffVersions( final Context context, final String page, final int version1, final int version2 ) {
+        String page1 = m_engine.getManager( PageManager.class ).getPureText( page, version1 );
+        final String page2 = m_engine.getManager( PageManager.class ).getPureText( page, version2 );
 
         // Kludge to make diffs for new pages to work this way.
         if( version1 == PageProvider.LATEST_VERSION ) {
             page1 = "";
         }
 
-        return makeDiff( context, page1, page2 );
+        return makeDiffHtml( context, page1, page2 );
     }
 
-}
+    int latestIfRequested( final String page, final int version ) {
+        if( version != PageProvider.LATEST_VERSION ) {
+            return version;
+        }
+        final Page latest = m_engine.getManager( PageManager.class ).getPage( page );
+        return latest != null ? latest.getVersion() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Flushes the cached differences of deleted, renamed and saved pages, and starts listening to page renames once the engine
+     * is initialized.
+     */
+    @Override
+    public void actionPerformed( final WikiEvent event ) {
+        if( event instanceof WikiPageEvent && event.getType() == WikiPageEvent.PAGE_DELETED ) {
+            flushDiffs( ( ( WikiPageEvent )event ).getPageName(), Integer.MIN_VALUE );
+        } else if( event instanceof WikiPageEvent && event.getType() == WikiPageEvent.PAGE_STORED ) {
+            final String pageName = ( ( WikiPageEvent )event ).getPageName();
+            final Page latest = m_engine.getManager( PageManager.class ).getPage( pageName );
+            flushDiffs( pageName, latest != null ? latest.getVersion() : Integer.MIN_VALUE );
+        } else if( event instanceof WikiPageRenameEvent ) {
+            flushDiffs( ( ( WikiPageRenameEvent )event ).getOldPageName(), Integer.MIN_VALUE );
+        } else if( event instanceof WikiEngineEvent && event.getType() == WikiEngineEvent.INITIALIZED ) {
+            WikiEventManager.addWikiEventListener( m_engine.getManager( PageRenamer.class ), this );
+        }
+    }
 
+    /**
+     * Removes the cached differences of a page which involve a version at or after the given one.
+     *
+     * @param pageName page name.
+     * @param fromVersion first version to flush, {@link Integer#MIN_VALUE} to flush all of them.
+     */
+    void flushDiffs( final String pageName, final int fromVersion ) {
+        final Set< String > keys = fromVersion == Integer.MIN_VALUE ? m_diffKeys.remove( pageName ) : m_diffKeys.get( pageName );
+        if( keys == null ) {
+            return;
+        }
+        final int prefix = pageName.length() + VERSION_DELIMITER.length();
+        for( final String key : keys ) {
+            final int delimiter = key.indexOf( VERSION_DELIMITER, prefix );
+            final int version1 = Integer.parseInt( key.substring( prefix, delimiter ) );
+            final int version2 = Integer.parseInt( key.substring( delimiter + VERSION_DELIMITER.length() ) );
+            if( Math.max( version1, version2 ) >= fromVersion ) {
+                m_cachingManager.remove( CachingManager.CACHE_DIFFS, key );
+                keys.remove( key );
+            } else if( m_cachingManager.get( CachingManager.CACHE_DIFFS, key ) == null ) {
+                keys.remove( key ); // evicted meanwhile
+            }
+        }
+    }
+
+}
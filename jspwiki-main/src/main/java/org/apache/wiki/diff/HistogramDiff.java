@@ -0,0 +1,210 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.diff;
+
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithmI;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+import com.github.difflib.patch.DeltaType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Histogram diff of lines, as popularized by git and JGit: each line is interned to an integer, so lines are only hashed and
+ * compared once; then the longest common run around the least repeated line shared by both sides splits the texts in two, each
+ * one being diffed the same way. It uses linear space and, unlike Myers' algorithm, its time doesn't grow with the number of
+ * differences, which makes it suitable for big pages, and it usually aligns better the unchanged parts of rewritten texts.
+ * <p>
+ * Diffs are bounded in size and time: when there are more lines left to diff than allowed, or the time budget runs out, the
+ * remaining differing regions are reported as whole blocks, so the result is coarser, but still correct.
+ */
+final class HistogramDiff implements DiffAlgorithmI< String > {
+
+    /** Lines found more than this number of times on the original text aren't used to align both texts. */
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    private final int m_maxLines;
+    private final long m_timeBudget;
+
+    /**
+     * @param maxLines max number of lines, adding both texts, to be diffed line by line.
+     * @param timeBudget max time to spend diffing line by line, in milliseconds, {@code 0} or less for no limit.
+     */
+    HistogramDiff( final int maxLines, final long timeBudget ) {
+        m_maxLines = maxLines;
+        m_timeBudget = timeBudget;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List< Change > computeDiff( final List< String > source, final List< String > target, final DiffAlgorithmListener progress ) {
+        if( progress != null ) {
+            progress.diffStart();
+        }
+        final long deadline = m_timeBudget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( m_timeBudget ) : Long.MAX_VALUE;
+        final Run run = new Run( source, target, deadline );
+
+        final List< Change > changes = new ArrayList<>();
+        final boolean coarse = run.m_original.length + run.m_revised.length > m_maxLines;
+        final Deque< int[] > regions = new ArrayDeque<>();
+        regions.push( new int[] { 0, run.m_original.length, 0, run.m_revised.length } );
+        while( !regions.isEmpty() ) {
+            final int[] region = regions.pop();
+            run.diffRegion( region[ 0 ], region[ 1 ], region[ 2 ], region[ 3 ], coarse, regions, changes );
+            if( progress != null ) {
+                progress.diffStep( run.m_original.length - region[ 1 ], run.m_original.length );
+            }
+        }
+        if( progress != null ) {
+            progress.diffEnd();
+        }
+        return changes;
+    }
+
+    static int[] intern( final List< String > lines, final Map< String, Integer > ids ) {
+        final int[] interned = new int[ lines.size() ];
+        for( int i = 0; i < interned.length; i++ ) {
+            interned[ i ] = ids.computeIfAbsent( lines.get( i ), line -> ids.size() );
+        }
+        return interned;
+    }
+
+    static Change change( final int aStart, final int aEnd, final int bStart, final int bEnd ) {
+        final DeltaType type = aStart == aEnd ? DeltaType.INSERT : ( bStart == bEnd ? DeltaType.DELETE : DeltaType.CHANGE );
+        return new Change( type, aStart, aEnd, bStart, bEnd );
+    }
+
+    /**
+     * State of a single diff, so that the same instance can be used to run several diffs at the same time.
+     */
+    private static final class Run {
+
+        private final int[] m_original;
+        private final int[] m_revised;
+        private final int[] m_counts;
+        private final int[] m_heads;
+        private final int[] m_next;
+        private final long m_deadline;
+
+        Run( final List< String > source, final List< String > target, final long deadline ) {
+            final Map< String, Integer > ids = new HashMap<>();
+            m_original = intern( source, ids );
+            m_revised = intern( target, ids );
+            m_counts = new int[ ids.size() ];
+            m_heads = new int[ ids.size() ];
+            m_next = new int[ m_original.length ];
+            Arrays.fill( m_heads, -1 );
+            m_deadline = deadline;
+        }
+
+        /**
+         * Diffs the given region of both texts. If the region can be split on a common run of lines, the regions before and after
+         * it are queued, the former first, so changes are found in order.
+         */
+        void diffRegion( int aStart, int aEnd, int bStart, int bEnd, final boolean coarse, final Deque< int[] > regions, final List< Change > changes ) {
+            while( aStart < aEnd && bStart < bEnd && m_original[ aStart ] == m_revised[ bStart ] ) {
+                aStart++;
+                bStart++;
+            }
+            while( aStart < aEnd && bStart < bEnd && m_original[ aEnd - 1 ] == m_revised[ bEnd - 1 ] ) {
+                aEnd--;
+                bEnd--;
+            }
+            if( aStart == aEnd && bStart == bEnd ) {
+                return;
+            }
+            if( aStart == aEnd || bStart == bEnd || coarse || System.nanoTime() > m_deadline ) {
+                changes.add( change( aStart, aEnd, bStart, bEnd ) );
+                return;
+            }
+
+            final int[] split = findSplit( aStart, aEnd, bStart, bEnd );
+            if( split == null ) {
+                changes.add( change( aStart, aEnd, bStart, bEnd ) );
+                return;
+            }
+            regions.push( new int[] { split[ 1 ], aEnd, split[ 3 ], bEnd } );
+            regions.push( new int[] { aStart, split[ 0 ], bStart, split[ 2 ] } );
+        }
+
+        /**
+         * Finds the longest common run of lines, built around the least repeated line found in both texts.
+         *
+         * @return start and end on the original text, start and end on the revised text of the common run, or {@code null} if there
+         *         isn't any usable one.
+         */
+        int[] findSplit( final int aStart, final int aEnd, final int bStart, final int bEnd ) {
+            for( int a = aEnd - 1; a >= aStart; a-- ) {
+                final int id = m_original[ a ];
+                m_next[ a ] = m_heads[ id ];
+                m_heads[ id ] = a;
+                m_counts[ id ]++;
+            }
+
+            int[] best = null;
+            int bestCount = MAX_CHAIN_LENGTH;
+            int bestLength = 0;
+            int b = bStart;
+            while( b < bEnd ) {
+                final int id = m_revised[ b ];
+                int bNext = b + 1;
+                if( m_counts[ id ] > 0 && m_counts[ id ] <= bestCount ) {
+                    for( int a = m_heads[ id ]; a != -1; a = m_next[ a ] ) {
+                        int as = a, bs = b, ae = a + 1, be = b + 1;
+                        int lowest = m_counts[ id ];
+                        while( as > aStart && bs > bStart && m_original[ as - 1 ] == m_revised[ bs - 1 ] ) {
+                            as--;
+                            bs--;
+                            lowest = Math.min( lowest, m_counts[ m_original[ as ] ] );
+                        }
+                        while( ae < aEnd && be < bEnd && m_original[ ae ] == m_revised[ be ] ) {
+                            lowest = Math.min( lowest, m_counts[ m_original[ ae ] ] );
+                            ae++;
+                            be++;
+                        }
+                        bNext = Math.max( bNext, be );
+                        if( lowest < bestCount || ( lowest == bestCount && ae - as > bestLength ) ) {
+                            best = new int[] { as, ae, bs, be };
+                            bestCount = lowest;
+                            bestLength = ae - as;
+                        }
+                    }
+                }
+                b = bNext;
+            }
+
+            for( int a = aStart; a < aEnd; a++ ) {
+                final int id = m_original[ a ];
+                m_heads[ id ] = -1;
+                m_counts[ id ] = 0;
+            }
+            return best;
+        }
+
+    }
+
+}
@@ -0,0 +1,481 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.diff;
+
+import com.github.difflib.algorithm.Change;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Line diff making the same choices than the {@code diff} program, so that its output can be reproduced line by line: identical
+ * leading and trailing lines are skipped, lines without a match on the other side (and some of the too frequent ones) are discarded
+ * before looking for the middle snakes of the remaining lines, and the resulting runs of changes are slid to their canonical
+ * positions afterwards.
+ */
+final class LineDiff {
+
+    private static final int MIN_TOO_EXPENSIVE = 4_096;
+
+    private final int[] m_xv;
+    private final int[] m_yv;
+    private final int[] m_fd;
+    private final int[] m_bd;
+    private final int m_diagOffset;
+    private final int m_tooExpensive;
+    private final boolean[] m_xChanged;
+    private final boolean[] m_yChanged;
+    private final int[] m_xIndexes;
+    private final int[] m_yIndexes;
+
+    private LineDiff( final int[] xv, final int[] xIndexes, final boolean[] xChanged, final int[] yv, final int[] yIndexes, final boolean[] yChanged ) {
+        m_xv = xv;
+        m_yv = yv;
+        m_xIndexes = xIndexes;
+        m_yIndexes = yIndexes;
+        m_xChanged = xChanged;
+        m_yChanged = yChanged;
+        int diags = xv.length + yv.length + 3;
+        m_fd = new int[ diags ];
+        m_bd = new int[ diags ];
+        m_diagOffset = yv.length + 1;
+        int tooExpensive = 1;
+        for( ; diags != 0; diags >>= 2 ) {
+            tooExpensive <<= 1;
+        }
+        m_tooExpensive = Math.max( MIN_TOO_EXPENSIVE, tooExpensive );
+    }
+
+    /**
+     * Computes the differences between two lists of lines.
+     *
+     * @param original old lines.
+     * @param revised new lines.
+     * @param horizon identical leading and trailing lines still compared, giving runs of changes room to be shifted into them.
+     * @return the changes, sorted and with no two of them adjacent.
+     */
+    static List< Change > diff( final List< String > original, final List< String > revised, final int horizon ) {
+        int prefix = 0;
+        while( prefix < original.size() && prefix < revised.size() && original.get( prefix ).equals( revised.get( prefix ) ) ) {
+            prefix++;
+        }
+        int suffix = 0;
+        while( suffix < original.size() - prefix && suffix < revised.size() - prefix
+               && original.get( original.size() - 1 - suffix ).equals( revised.get( revised.size() - 1 - suffix ) ) ) {
+            suffix++;
+        }
+        prefix = Math.max( 0, prefix - horizon );
+        suffix = Math.max( 0, suffix - horizon );
+
+        // equivalence classes of the lines between the identical ends
+        final Map< String, Integer > classes = new HashMap<>();
+        final int[] x = equivs( original.subList( prefix, original.size() - suffix ), classes );
+        final int[] y = equivs( revised.subList( prefix, revised.size() - suffix ), classes );
+
+        // changed flags have a sentinel slot on each side, so [ i + 1 ] holds line i
+        final boolean[] xChanged = new boolean[ x.length + 2 ];
+        final boolean[] yChanged = new boolean[ y.length + 2 ];
+        final int[][] undiscarded = discardConfusingLines( x, y, classes.size(), xChanged, yChanged );
+        final LineDiff diff = new LineDiff( undiscarded[ 0 ], undiscarded[ 1 ], xChanged, undiscarded[ 2 ], undiscarded[ 3 ], yChanged );
+        diff.compareSeq( 0, undiscarded[ 0 ].length, 0, undiscarded[ 2 ].length, false );
+        shiftBoundaries( x, xChanged, yChanged );
+        shiftBoundaries( y, yChanged, xChanged );
+
+        final List< Change > changes = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while( i < x.length || j < y.length ) {
+            if( xChanged[ i + 1 ] || yChanged[ j + 1 ] ) {
+                final int startX = i;
+                final int startY = j;
+                while( xChanged[ i + 1 ] ) {
+                    i++;
+                }
+                while( yChanged[ j + 1 ] ) {
+                    j++;
+                }
+                changes.add( HistogramDiff.change( startX + prefix, i + prefix, startY + prefix, j + prefix ) );
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return changes;
+    }
+
+    private static int[] equivs( final List< String > lines, final Map< String, Integer > classes ) {
+        final int[] equivs = new int[ lines.size() ];
+        for( int i = 0; i < equivs.length; i++ ) {
+            equivs[ i ] = classes.computeIfAbsent( lines.get( i ), line -> classes.size() );
+        }
+        return equivs;
+    }
+
+    /**
+     * Lines with no match on the other side can't be part of a common subsequence, and lines matching too many others on the other
+     * side are discarded too when they are surrounded by discarded lines, as they would only produce spurious matches.
+     *
+     * @return undiscarded lines and their real indexes, for both sides.
+     */
+    private static int[][] discardConfusingLines( final int[] x, final int[] y, final int classes, final boolean[] xChanged, final boolean[] yChanged ) {
+        final int[][] counts = { new int[ classes ], new int[ classes ] };
+        for( final int line : x ) {
+            counts[ 0 ][ line ]++;
+        }
+        for( final int line : y ) {
+            counts[ 1 ][ line ]++;
+        }
+        final byte[] xDiscards = discards( x, counts[ 1 ] );
+        final byte[] yDiscards = discards( y, counts[ 0 ] );
+        final int[][] xKept = undiscarded( x, xDiscards, xChanged );
+        final int[][] yKept = undiscarded( y, yDiscards, yChanged );
+        return new int[][] { xKept[ 0 ], xKept[ 1 ], yKept[ 0 ], yKept[ 1 ] };
+    }
+
+    private static byte[] discards( final int[] equivs, final int[] otherCounts ) {
+        final int end = equivs.length;
+        final byte[] discards = new byte[ end ];
+        int many = 5;
+        int tem = end / 64;
+        while( ( tem = tem >> 2 ) > 0 ) {
+            many *= 2;
+        }
+        for( int i = 0; i < end; i++ ) {
+            final int matches = otherCounts[ equivs[ i ] ];
+            if( matches == 0 ) {
+                discards[ i ] = 1;
+            } else if( matches > many ) {
+                discards[ i ] = 2;
+            }
+        }
+
+        // provisional discards (2) only stand in the middle of runs of discards
+        for( int i = 0; i < end; i++ ) {
+            if( discards[ i ] == 2 ) {
+                discards[ i ] = 0;
+            } else if( discards[ i ] != 0 ) {
+                int j;
+                int provisional = 0;
+                for( j = i; j < end; j++ ) {
+                    if( discards[ j ] == 0 ) {
+                        break;
+                    }
+                    if( discards[ j ] == 2 ) {
+                        provisional++;
+                    }
+                }
+                while( j > i && discards[ j - 1 ] == 2 ) {
+                    discards[ --j ] = 0;
+                    provisional--;
+                }
+                final int length = j - i;
+
+                if( provisional * 4 > length ) {
+                    while( j > i ) {
+                        if( discards[ --j ] == 2 ) {
+                            discards[ j ] = 0;
+                        }
+                    }
+                } else {
+                    int minimum = 1;
+                    int t = length >> 2;
+                    while( 0 < ( t >>= 2 ) ) {
+                        minimum <<= 1;
+                    }
+                    minimum++;
+
+                    // cancel subruns of minimum or more provisionals
+                    int consec = 0;
+                    for( j = 0; j < length; j++ ) {
+                        if( discards[ i + j ] != 2 ) {
+                            consec = 0;
+                        } else if( minimum == ++consec ) {
+                            j -= consec;
+                        } else if( minimum < consec ) {
+                            discards[ i + j ] = 0;
+                        }
+                    }
+
+                    // cancel provisionals at both ends of the run, until 3 nonprovisionals in a row or the first one 8 lines in
+                    consec = 0;
+                    for( j = 0; j < length; j++ ) {
+                        if( j >= 8 && discards[ i + j ] == 1 ) {
+                            break;
+                        }
+                        if( discards[ i + j ] == 2 ) {
+                            consec = 0;
+                            discards[ i + j ] = 0;
+                        } else if( discards[ i + j ] == 0 ) {
+                            consec = 0;
+                        } else {
+                            consec++;
+                        }
+                        if( consec == 3 ) {
+                            break;
+                        }
+                    }
+                    i += length - 1;
+                    consec = 0;
+                    for( j = 0; j < length; j++ ) {
+                        if( j >= 8 && discards[ i - j ] == 1 ) {
+                            break;
+                        }
+                        if( discards[ i - j ] == 2 ) {
+                            consec = 0;
+                            discards[ i - j ] = 0;
+                        } else if( discards[ i - j ] == 0 ) {
+                            consec = 0;
+                        } else {
+                            consec++;
+                        }
+                        if( consec == 3 ) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return discards;
+    }
+
+    private static int[][] undiscarded( final int[] equivs, final byte[] discards, final boolean[] changed ) {
+        final int[] kept = new int[ equivs.length ];
+        final int[] indexes = new int[ equivs.length ];
+        int j = 0;
+        for( int i = 0; i < equivs.length; i++ ) {
+            if( discards[ i ] == 0 ) {
+                kept[ j ] = equivs[ i ];
+                indexes[ j++ ] = i;
+            } else {
+                changed[ i + 1 ] = true;
+            }
+        }
+        return new int[][] { Arrays.copyOf( kept, j ), Arrays.copyOf( indexes, j ) };
+    }
+
+    private void compareSeq( int xoff, int xlim, int yoff, int ylim, final boolean findMinimal ) {
+        while( xoff < xlim && yoff < ylim && m_xv[ xoff ] == m_yv[ yoff ] ) {
+            xoff++;
+            yoff++;
+        }
+        while( xoff < xlim && yoff < ylim && m_xv[ xlim - 1 ] == m_yv[ ylim - 1 ] ) {
+            xlim--;
+            ylim--;
+        }
+
+        if( xoff == xlim ) {
+            while( yoff < ylim ) {
+                m_yChanged[ m_yIndexes[ yoff++ ] + 1 ] = true;
+            }
+        } else if( yoff == ylim ) {
+            while( xoff < xlim ) {
+                m_xChanged[ m_xIndexes[ xoff++ ] + 1 ] = true;
+            }
+        } else {
+            final int[] part = diag( xoff, xlim, yoff, ylim, findMinimal );
+            compareSeq( xoff, part[ 0 ], yoff, part[ 1 ], part[ 2 ] != 0 );
+            compareSeq( part[ 0 ], xlim, part[ 1 ], ylim, part[ 3 ] != 0 );
+        }
+    }
+
+    /**
+     * Finds the midpoint of the shortest edit script between both ranges, searching from both ends at once, or a good enough one
+     * if that gets too expensive.
+     *
+     * @return x and y of the midpoint, and whether the lower and upper halves have to be diffed minimally.
+     */
+    private int[] diag( final int xoff, final int xlim, final int yoff, final int ylim, final boolean findMinimal ) {
+        final int[] fd = m_fd;
+        final int[] bd = m_bd;
+        final int o = m_diagOffset;
+        final int dmin = xoff - ylim;
+        final int dmax = xlim - yoff;
+        final int fmid = xoff - yoff;
+        final int bmid = xlim - ylim;
+        int fmin = fmid;
+        int fmax = fmid;
+        int bmin = bmid;
+        int bmax = bmid;
+        final boolean odd = ( ( fmid - bmid ) & 1 ) != 0;
+
+        fd[ o + fmid ] = xoff;
+        bd[ o + bmid ] = xlim;
+
+        for( int c = 1; ; c++ ) {
+            if( fmin > dmin ) {
+                fd[ o + --fmin - 1 ] = -1;
+            } else {
+                fmin++;
+            }
+            if( fmax < dmax ) {
+                fd[ o + ++fmax + 1 ] = -1;
+            } else {
+                fmax--;
+            }
+            for( int d = fmax; d >= fmin; d -= 2 ) {
+                final int tlo = fd[ o + d - 1 ];
+                final int thi = fd[ o + d + 1 ];
+                int x = tlo < thi ? thi : tlo + 1;
+                int y = x - d;
+                while( x < xlim && y < ylim && m_xv[ x ] == m_yv[ y ] ) {
+                    x++;
+                    y++;
+                }
+                fd[ o + d ] = x;
+                if( odd && bmin <= d && d <= bmax && bd[ o + d ] <= x ) {
+                    return new int[] { x, y, 1, 1 };
+                }
+            }
+
+            if( bmin > dmin ) {
+                bd[ o + --bmin - 1 ] = Integer.MAX_VALUE;
+            } else {
+                bmin++;
+            }
+            if( bmax < dmax ) {
+                bd[ o + ++bmax + 1 ] = Integer.MAX_VALUE;
+            } else {
+                bmax--;
+            }
+            for( int d = bmax; d >= bmin; d -= 2 ) {
+                final int tlo = bd[ o + d - 1 ];
+                final int thi = bd[ o + d + 1 ];
+                int x = tlo < thi ? tlo : thi - 1;
+                int y = x - d;
+                while( xoff < x && yoff < y && m_xv[ x - 1 ] == m_yv[ y - 1 ] ) {
+                    x--;
+                    y--;
+                }
+                bd[ o + d ] = x;
+                if( !odd && fmin <= d && d <= fmax && x <= fd[ o + d ] ) {
+                    return new int[] { x, y, 1, 1 };
+                }
+            }
+
+            if( !findMinimal && c >= m_tooExpensive ) {
+                // gone well beyond the call of duty, take the furthest reaching diagonal found so far
+                int fxybest = -1;
+                int fxbest = 0;
+                for( int d = fmax; d >= fmin; d -= 2 ) {
+                    int x = Math.min( fd[ o + d ], xlim );
+                    int y = x - d;
+                    if( ylim < y ) {
+                        x = ylim + d;
+                        y = ylim;
+                    }
+                    if( fxybest < x + y ) {
+                        fxybest = x + y;
+                        fxbest = x;
+                    }
+                }
+                int bxybest = Integer.MAX_VALUE;
+                int bxbest = 0;
+                for( int d = bmax; d >= bmin; d -= 2 ) {
+                    int x = Math.max( xoff, bd[ o + d ] );
+                    int y = x - d;
+                    if( y < yoff ) {
+                        x = yoff + d;
+                        y = yoff;
+                    }
+                    if( x + y < bxybest ) {
+                        bxybest = x + y;
+                        bxbest = x;
+                    }
+                }
+                if( ( xlim + ylim ) - bxybest < fxybest - ( xoff + yoff ) ) {
+                    return new int[] { fxbest, fxybest - fxbest, 1, 0 };
+                }
+                return new int[] { bxbest, bxybest - bxbest, 0, 1 };
+            }
+        }
+    }
+
+    /**
+     * Slides each run of changes as far as possible, merging it with neighbouring runs, and then back up until it's aligned with a
+     * run of changes on the other side, if any.
+     */
+    private static void shiftBoundaries( final int[] equivs, final boolean[] changed, final boolean[] otherChanged ) {
+        // both flag arrays are shifted by one, so indexes here are line numbers + 1
+        final int iEnd = equivs.length + 1;
+        int i = 1;
+        int j = 1;
+        while( true ) {
+            while( i < iEnd && !changed[ i ] ) {
+                while( otherChanged[ j++ ] ) {
+                    // skip the other side's run
+                }
+                i++;
+            }
+            if( i == iEnd ) {
+                break;
+            }
+
+            int start = i;
+            while( changed[ ++i ] ) {
+                // find the end of this run
+            }
+            while( otherChanged[ j ] ) {
+                j++;
+            }
+
+            int runLength;
+            int corresponding;
+            do {
+                runLength = i - start;
+
+                while( start > 1 && equivs[ start - 2 ] == equivs[ i - 2 ] ) {
+                    changed[ --start ] = true;
+                    changed[ --i ] = false;
+                    while( changed[ start - 1 ] ) {
+                        start--;
+                    }
+                    while( otherChanged[ --j ] ) {
+                        // back to the previous run on the other side
+                    }
+                }
+
+                corresponding = otherChanged[ j - 1 ] ? i : iEnd;
+
+                while( i != iEnd && equivs[ start - 1 ] == equivs[ i - 1 ] ) {
+                    changed[ start++ ] = false;
+                    changed[ i++ ] = true;
+                    while( changed[ i ] ) {
+                        i++;
+                    }
+                    while( otherChanged[ ++j ] ) {
+                        corresponding = i;
+                    }
+                }
+            } while( runLength != i - start );
+
+            while( corresponding < i ) {
+                changed[ --start ] = true;
+                changed[ --i ] = false;
+                while( otherChanged[ --j ] ) {
+                    // back to the previous run on the other side
+                }
+            }
+        }
+    }
+
+}
@@ -15,18 +15,23 @@
  */
 package org.apache.wiki.diff;
 
-import com.github.difflib.DiffUtils;
-import com.github.difflib.patch.AbstractDelta;
-import com.github.difflib.patch.Patch;
+import com.github.difflib.algorithm.Change;
+import com.github.difflib.algorithm.DiffAlgorithmI;
+import com.github.difflib.algorithm.myers.MyersDiff;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Properties;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.api.exceptions.NoRequiredPropertyException;
+import org.apache.wiki.util.TextUtil;
 
 /**
- * SVN/Git style diff provider. Uses the DiffLib, ASF 2.0 licensed.
+ * SVN/Git style diff provider. Uses the DiffLib, ASF 2.0 licensed, or a line-hashed histogram diff for big pages (see
+ * {@link #PROP_ALGORITHM}).
  *
  * @since 3.0.0
  */
@@ -38,54 +43,78 @@ public class SvnStyleDiffProvider implements DiffProvider {
     public static final String CSS_DIFF_CLOSE = "</td></tr>\n";
     public static final String CELL_CHANGE = "</td><td>";
 
+    /**
+     * Algorithm used to find the differences: {@value #ALGORITHM_MYERS} (the default) or {@value #ALGORITHM_HISTOGRAM}, which
+     * is faster and uses less memory on big pages, and degrades to coarser diffs when they're too big or take too long to be
+     * made line by line. Value is {@value}.
+     */
+    public static final String PROP_ALGORITHM = "jspwiki.svnStyleDiffProvider.algorithm";
+
+    /** Only for the histogram algorithm: max number of lines, adding both versions, diffed line by line. Value is {@value}. */
+    public static final String PROP_MAX_LINES = "jspwiki.svnStyleDiffProvider.maxLines";
+
+    /** Only for the histogram algorithm: max time, in milliseconds, spent diffing line by line. Value is {@value}. */
+    public static final String PROP_TIME_BUDGET = "jspwiki.svnStyleDiffProvider.timeBudget";
+
+    public static final String ALGORITHM_MYERS = "myers";
+    public static final String ALGORITHM_HISTOGRAM = "histogram";
+
+    private static final int DEFAULT_MAX_LINES = 500_000;
+    private static final int DEFAULT_TIME_BUDGET = 2_000;
+
+    private DiffAlgorithmI<String> m_algorithm = new MyersDiff<>();
+
     @Override
     public String makeDiffHtml(Context context, String originalText, String modifiedText) {
 
         List<String> original = originalText.lines().toList();
         List<String> modified = modifiedText.lines().toList();
-        StringBuilder ret = new StringBuilder();
-        ret.append("<table class=\"diff\" border=\"0\" cellspacing=\"0\" cellpadding=\"0\">\n");
+        StringBuilder ret = new StringBuilder(originalText.length() + modifiedText.length() / 4 + 256);
+        try {
+            writeDiffHtml(original, modified, ret);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // can't happen, StringBuilders don't throw IOExceptions
+        }
+        return ret.toString();
+    }
 
-        Patch<String> patch = DiffUtils.diff(original, modified);
+    /**
+     * Writes the HTML diff of two lists of lines to the given output, one table row at a time.
+     *
+     * @param original lines of the old text.
+     * @param modified lines of the new text.
+     * @param out where to write the HTML to.
+     * @throws IOException if the output can't be written.
+     */
+    public void writeDiffHtml(List<String> original, List<String> modified, Appendable out) throws IOException {
+        out.append("<table class=\"diff\" border=\"0\" cellspacing=\"0\" cellpadding=\"0\">\n");
+
+        List<Change> changes = new ArrayList<>(m_algorithm.computeDiff(original, modified, null));
+        changes.sort(Comparator.comparingInt((Change change) -> change.startOriginal).thenComparingInt(change -> change.startRevised)); // Myers lists them backwards
         int lineNumber = 1;
         int currentOriginalLine = 0;
         int currentModifiedLine = 0;
 
-        for (AbstractDelta<String> delta : patch.getDeltas()) {
-            int originalPosition = delta.getSource().getPosition();
-            int modifiedPosition = delta.getTarget().getPosition();
+        for (Change change : changes) {
+            int originalPosition = change.startOriginal;
+            int modifiedPosition = change.startRevised;
 
-            // Output unchanged lines before the delta
+            // Output unchanged lines before the change
             while (currentOriginalLine < originalPosition && currentModifiedLine < modifiedPosition) {
-                ret.append(CSS_DIFF_UNCHANGED);
-                ret.append(lineNumber).append(CELL_CHANGE);
-                ret.append(original.get(currentOriginalLine));
-                ret.append(CSS_DIFF_CLOSE);
-                //System.out.println("  " + lineNumber + " " + original.get(currentOriginalLine));
+                writeLine(out, CSS_DIFF_UNCHANGED, lineNumber, original.get(currentOriginalLine));
                 lineNumber++;
                 currentOriginalLine++;
                 currentModifiedLine++;
             }
 
-            List<String> originalLines = delta.getSource().getLines();
-            List<String> revisedLines = delta.getTarget().getLines();
-
-            for (String line : originalLines) {
-                ret.append(CSS_DIFF_REMOVED);
-                ret.append(lineNumber).append(CELL_CHANGE);
-                ret.append(line);
-                ret.append(CSS_DIFF_CLOSE);
-                //System.out.println("- " + lineNumber + " " + line);
+            for (int i = change.startOriginal; i < change.endOriginal; i++) {
+                writeLine(out, CSS_DIFF_REMOVED, lineNumber, original.get(i));
                 lineNumber++;
                 currentOriginalLine++;
             }
 
-            for (String line : revisedLines) {
-                ret.append(CSS_DIFF_ADDED);
-                ret.append(lineNumber).append(CELL_CHANGE);
-                ret.append(line);
-                ret.append(CSS_DIFF_CLOSE);
-                //System.out.println("+ " + lineNumber + " " + line);
+            for (int i = change.startRevised; i < change.endRevised; i++) {
+                writeLine(out, CSS_DIFF_ADDED, lineNumber, modified.get(i));
                 lineNumber++;
                 currentModifiedLine++;
             }
@@ -93,22 +122,24 @@ public class SvnStyleDiffProvider implements DiffProvider {
 
         // Output any remaining unchanged lines at the end
         while (currentOriginalLine < original.size() && currentModifiedLine < modified.size()) {
-            ret.append(CSS_DIFF_UNCHANGED);
-            ret.append(lineNumber).append(CELL_CHANGE);
-            ret.append(original.get(currentOriginalLine));
-            ret.append(CSS_DIFF_CLOSE);
-
-            //System.out.println("  " + lineNumber + " " + original.get(currentOriginalLine));
+            writeLine(out, CSS_DIFF_UNCHANGED, lineNumber, original.get(currentOriginalLine));
             lineNumber++;
             currentOriginalLine++;
             currentModifiedLine++;
         }
-        ret.append("</table>\n");
-        return ret.toString();
+        out.append("</table>\n");
+    }
+
+    private static void writeLine(Appendable out, String rowStart, int lineNumber, String line) throws IOException {
+        out.append(rowStart).append(Integer.toString(lineNumber)).append(CELL_CHANGE).append(line).append(CSS_DIFF_CLOSE);
     }
 
     @Override
     public void initialize(Engine engine, Properties properties) throws NoRequiredPropertyException, IOException {
+        if (ALGORITHM_HISTOGRAM.equalsIgnoreCase(TextUtil.getStringProperty(properties, PROP_ALGORITHM, ALGORITHM_MYERS))) {
+            m_algorithm = new HistogramDiff(TextUtil.getIntegerProperty(properties, PROP_MAX_LINES, DEFAULT_MAX_LINES),
+                                            TextUtil.getIntegerProperty(properties, PROP_TIME_BUDGET, DEFAULT_TIME_BUDGET));
+        }
     }
 
     @Override
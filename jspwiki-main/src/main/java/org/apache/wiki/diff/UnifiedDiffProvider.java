@@ -0,0 +1,264 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.diff;
+
+import com.github.difflib.algorithm.Change;
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.api.exceptions.NoRequiredPropertyException;
+import org.apache.wiki.util.TextUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.StringTokenizer;
+
+
+/**
+ * Pure java replacement for the {@link ExternalDiffProvider}: makes the same unified (or context) diffs than the {@code diff}
+ * program does, and renders them the same way, without writing temporary files or forking a process for each diff.
+ * <p>
+ * The format and the number of context lines are read from {@value #PROP_FORMAT} and {@value #PROP_CONTEXT}, and default to the
+ * ones of the {@value ExternalDiffProvider#PROP_DIFFCOMMAND} command, if any, so switching from one provider to the other only
+ * requires changing the {@code jspwiki.diffProvider} property. File headers show the page name instead of the temporary file
+ * names and dates.
+ */
+public class UnifiedDiffProvider implements DiffProvider {
+
+    /** Diff format, either {@value #FORMAT_UNIFIED} ({@code diff -u}, the default) or {@value #FORMAT_CONTEXT} ({@code diff -c}). */
+    public static final String PROP_FORMAT = "jspwiki.unifiedDiffProvider.format";
+
+    /** Number of unchanged lines shown around each change, 3 by default. */
+    public static final String PROP_CONTEXT = "jspwiki.unifiedDiffProvider.context";
+
+    public static final String FORMAT_UNIFIED = "unified";
+    public static final String FORMAT_CONTEXT = "context";
+
+    private static final int DEFAULT_CONTEXT = 3;
+    private static final String NO_NEWLINE = "\\ No newline at end of file\n";
+
+    private boolean m_contextFormat;
+    private int m_context = DEFAULT_CONTEXT;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getProviderInfo() {
+        return "UnifiedDiffProvider";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize( final Engine engine, final Properties properties ) throws NoRequiredPropertyException, IOException {
+        boolean contextFormat = false;
+        int context = DEFAULT_CONTEXT;
+        final String command = properties.getProperty( ExternalDiffProvider.PROP_DIFFCOMMAND );
+        if( command != null ) {
+            final StringTokenizer st = new StringTokenizer( command );
+            while( st.hasMoreTokens() ) {
+                final String option = st.nextToken();
+                if( option.equals( "-c" ) || option.equals( "-C" ) || option.startsWith( "--context" ) ) {
+                    contextFormat = true;
+                }
+                if( ( option.equals( "-C" ) || option.equals( "-U" ) ) && st.hasMoreTokens() ) {
+                    context = TextUtil.parseIntParameter( st.nextToken(), DEFAULT_CONTEXT );
+                } else if( option.matches( "-[CU]\\d+" ) ) {
+                    contextFormat |= option.charAt( 1 ) == 'C';
+                    context = Integer.parseInt( option.substring( 2 ) );
+                }
+            }
+        }
+        m_contextFormat = FORMAT_CONTEXT.equalsIgnoreCase( TextUtil.getStringProperty( properties, PROP_FORMAT, contextFormat ? FORMAT_CONTEXT : FORMAT_UNIFIED ) );
+        m_context = Math.max( 0, TextUtil.getIntegerProperty( properties, PROP_CONTEXT, context ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String makeDiffHtml( final Context ctx, final String p1, final String p2 ) {
+        final String name = ctx != null && ctx.getPage() != null ? ctx.getPage().getName() : "";
+        final StringBuilder diff = new StringBuilder();
+        try {
+            writeDiff( name, p1, p2, diff );
+            return ExternalDiffProvider.colorizeDiff( TextUtil.replaceEntities( diff.toString() ) );
+        } catch( final IOException e ) {
+            throw new UncheckedIOException( e ); // can't happen, StringBuilders and StringReaders don't throw IOExceptions
+        }
+    }
+
+    /**
+     * Writes the plain text diff of two texts, as {@code diff -u} (or {@code diff -c}) would print it. Nothing is written if both
+     * texts are the same.
+     *
+     * @param name file name shown on the headers.
+     * @param p1 the old text.
+     * @param p2 the new text.
+     * @param out where to write the diff to.
+     * @throws IOException if the output can't be written.
+     */
+    public void writeDiff( final String name, final String p1, final String p2, final Appendable out ) throws IOException {
+        // lines keep their line terminator, so that, as diff does, an unterminated last line differs from the same, terminated, line
+        final List< String > original = lines( p1 );
+        final List< String > revised = lines( p2 );
+        final List< Change > changes = LineDiff.diff( original, revised, m_context );
+        if( changes.isEmpty() ) {
+            return;
+        }
+
+        if( m_contextFormat ) {
+            out.append( "*** " ).append( name ).append( '\n' );
+            out.append( "--- " ).append( name ).append( '\n' );
+        } else {
+            out.append( "--- " ).append( name ).append( '\n' );
+            out.append( "+++ " ).append( name ).append( '\n' );
+        }
+
+        int first = 0;
+        while( first < changes.size() ) {
+            // changes separated by no more than twice the context lines go into the same hunk
+            int last = first;
+            while( last + 1 < changes.size() && changes.get( last + 1 ).startOriginal - changes.get( last ).endOriginal <= 2 * m_context ) {
+                last++;
+            }
+            final List< Change > hunk = changes.subList( first, last + 1 );
+            if( m_contextFormat ) {
+                writeContextHunk( hunk, original, revised, out );
+            } else {
+                writeUnifiedHunk( hunk, original, revised, out );
+            }
+            first = last + 1;
+        }
+    }
+
+    private void writeUnifiedHunk( final List< Change > hunk, final List< String > original, final List< String > revised, final Appendable out ) throws IOException {
+        final Change head = hunk.get( 0 );
+        final Change tail = hunk.get( hunk.size() - 1 );
+        final int leading = Math.min( m_context, head.startOriginal );
+        final int trailing = Math.min( m_context, original.size() - tail.endOriginal );
+        final int originalStart = head.startOriginal - leading;
+        final int revisedStart = head.startRevised - leading;
+        final int originalEnd = tail.endOriginal + trailing;
+        final int revisedEnd = tail.endRevised + trailing;
+
+        out.append( "@@ -" );
+        writeUnifiedRange( originalStart, originalEnd, out );
+        out.append( " +" );
+        writeUnifiedRange( revisedStart, revisedEnd, out );
+        out.append( " @@\n" );
+
+        int line = originalStart;
+        for( final Change change : hunk ) {
+            writeLines( ' ', original, line, change.startOriginal, out );
+            writeLines( '-', original, change.startOriginal, change.endOriginal, out );
+            writeLines( '+', revised, change.startRevised, change.endRevised, out );
+            line = change.endOriginal;
+        }
+        writeLines( ' ', original, line, originalEnd, out );
+    }
+
+    private void writeContextHunk( final List< Change > hunk, final List< String > original, final List< String > revised, final Appendable out ) throws IOException {
+        final Change head = hunk.get( 0 );
+        final Change tail = hunk.get( hunk.size() - 1 );
+        final int leading = Math.min( m_context, head.startOriginal );
+        final int trailing = Math.min( m_context, original.size() - tail.endOriginal );
+        final int originalStart = head.startOriginal - leading;
+        final int revisedStart = head.startRevised - leading;
+        final int originalEnd = tail.endOriginal + trailing;
+        final int revisedEnd = tail.endRevised + trailing;
+        final boolean deletes = hunk.stream().anyMatch( change -> change.endOriginal > change.startOriginal );
+        final boolean inserts = hunk.stream().anyMatch( change -> change.endRevised > change.startRevised );
+
+        out.append( "***************\n*** " );
+        writeContextRange( originalStart, originalEnd, out );
+        out.append( " ****\n" );
+        if( deletes ) {
+            int line = originalStart;
+            for( final Change change : hunk ) {
+                writeLines( "  ", original, line, change.startOriginal, out );
+                writeLines( change.endRevised > change.startRevised ? "! " : "- ", original, change.startOriginal, change.endOriginal, out );
+                line = change.endOriginal;
+            }
+            writeLines( "  ", original, line, originalEnd, out );
+        }
+
+        out.append( "--- " );
+        writeContextRange( revisedStart, revisedEnd, out );
+        out.append( " ----\n" );
+        if( inserts ) {
+            int line = revisedStart;
+            for( final Change change : hunk ) {
+                writeLines( "  ", revised, line, change.startRevised, out );
+                writeLines( change.endOriginal > change.startOriginal ? "! " : "+ ", revised, change.startRevised, change.endRevised, out );
+                line = change.endRevised;
+            }
+            writeLines( "  ", revised, line, revisedEnd, out );
+        }
+    }
+
+    /** Unified ranges are 1-based "start,count", "start" for a single line, or "line before,0" for no lines. */
+    private static void writeUnifiedRange( final int start, final int end, final Appendable out ) throws IOException {
+        if( end - start == 1 ) {
+            out.append( Integer.toString( start + 1 ) );
+        } else {
+            out.append( Integer.toString( end - start == 0 ? start : start + 1 ) ).append( ',' ).append( Integer.toString( end - start ) );
+        }
+    }
+
+    /** Context ranges are 1-based "start,end", or just "end" for one or no lines. */
+    private static void writeContextRange( final int start, final int end, final Appendable out ) throws IOException {
+        if( end - start > 1 ) {
+            out.append( Integer.toString( start + 1 ) ).append( ',' );
+        }
+        out.append( Integer.toString( end ) );
+    }
+
+    private static void writeLines( final char prefix, final List< String > lines, final int from, final int to, final Appendable out ) throws IOException {
+        writeLines( String.valueOf( prefix ), lines, from, to, out );
+    }
+
+    private static void writeLines( final String prefix, final List< String > lines, final int from, final int to, final Appendable out ) throws IOException {
+        for( int i = from; i < to; i++ ) {
+            final String line = lines.get( i );
+            out.append( prefix ).append( line );
+            if( !line.endsWith( "\n" ) ) {
+                out.append( '\n' ).append( NO_NEWLINE );
+            }
+        }
+    }
+
+    /** Splits a text in lines, keeping their {@code \n} terminators. */
+    static List< String > lines( final String text ) {
+        final List< String > lines = new ArrayList<>();
+        int start = 0;
+        while( start < text.length() ) {
+            final int end = text.indexOf( '\n', start );
+            final int next = end < 0 ? text.length() : end + 1;
+            lines.add( text.substring( start, next ) );
+            start = next;
+        }
+        return lines;
+    }
+
+}
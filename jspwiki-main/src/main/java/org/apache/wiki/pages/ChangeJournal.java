@@ -0,0 +1,561 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.pages;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.api.core.Attachment;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.api.core.Page;
+import org.apache.wiki.api.exceptions.ProviderException;
+import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.attachment.AttachmentManager;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.content.PageRenamer;
+import org.apache.wiki.event.WikiEvent;
+import org.apache.wiki.event.WikiEventListener;
+import org.apache.wiki.event.WikiEventManager;
+import org.apache.wiki.event.WikiPageEvent;
+import org.apache.wiki.event.WikiPageRenameEvent;
+import org.apache.wiki.util.TextUtil;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+
+/**
+ *  Keeps track of the changes made to pages and attachments, so that questions like "what has changed since T?" or "which are the
+ *  last N changes?" can be answered without listing and sorting the whole repository on each call.
+ *  <p>
+ *  The journal is seeded lazily, with a single scan of the repository, the first time it is queried. From then on it is kept up to
+ *  date by listening to the page store, delete and rename events fired by the {@link PageManager}, the {@link AttachmentManager} and
+ *  the {@link PageRenamer}. Pages and attachments changed by other nodes sharing the repository are picked up when the
+ *  {@link CachingManager} is told about them, and those changed directly on the repository by scanning it again every
+ *  {@value #PROP_REFRESH_INTERVAL} seconds. Those scans list the repository without holding the journal's lock, so page saves aren't
+ *  held back by them, and only merge their results under it. Two structures are maintained:
+ *  <ul>
+ *    <li>an index holding the name, version, date, author and change note of the latest version of each page and attachment,
+ *        ordered by last modification date (most recent first), which answers the recent changes queries, and</li>
+ *    <li>an append-only, bounded tail of the latest individual {@link Change}s, whose size is given by the
+ *        {@value #PROP_TAIL_SIZE} property.</li>
+ *  </ul>
+ *
+ *  @since 3.0.0
+ */
+public class ChangeJournal implements WikiEventListener {
+
+    /** Property name for the number of individual changes kept in memory. Value is {@value}. */
+    public static final String PROP_TAIL_SIZE = "jspwiki.changeJournal.tailSize";
+
+    /** Default number of individual changes kept in memory. */
+    public static final int DEFAULT_TAIL_SIZE = 1_000;
+
+    /** Property name for the seconds after which the journal is merged again with the repository contents, zero to never do it. Value is {@value}. */
+    public static final String PROP_REFRESH_INTERVAL = "jspwiki.changeJournal.refreshInterval";
+
+    /** Default seconds after which the journal is merged again with the repository contents. */
+    public static final int DEFAULT_REFRESH_INTERVAL = 600;
+
+    private static final Logger LOG = LogManager.getLogger( ChangeJournal.class );
+
+    /** Kind of change recorded on the journal. */
+    public enum ChangeType { STORED, DELETED, RENAMED }
+
+    /** A single entry on the journal. */
+    public static final class Change {
+
+        private final ChangeType type;
+        private final String name;
+        private final int version;
+        private final Date date;
+        private final String author;
+
+        Change( final ChangeType type, final String name, final int version, final Date date, final String author ) {
+            this.type = type;
+            this.name = name;
+            this.version = version;
+            this.date = date;
+            this.author = author;
+        }
+
+        /** @return the kind of change. */
+        public ChangeType getType() {
+            return type;
+        }
+
+        /** @return the name of the changed page or attachment. In the case of renames, this is the new name. */
+        public String getName() {
+            return name;
+        }
+
+        /** @return the version created by this change, or {@code -1} if not applicable. */
+        public int getVersion() {
+            return version;
+        }
+
+        /** @return the moment of the change. */
+        public Date getDate() {
+            return new Date( date.getTime() );
+        }
+
+        /** @return the author of the change, if known, or {@code null}. */
+        public String getAuthor() {
+            return author;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return "Change[" + type + ": " + name + " (" + version + ") by " + author + " at " + date + "]";
+        }
+
+    }
+
+    /** Ordering key for the index: most recent first, then by name. */
+    private static final class Key implements Comparable< Key > {
+
+        private final long time;
+        private final String name;
+
+        Key( final long time, final String name ) {
+            this.time = time;
+            this.name = name;
+        }
+
+        @Override
+        public int compareTo( final Key key ) {
+            final int res = Long.compare( key.time, time );
+            return res != 0 ? res : name.compareTo( key.name );
+        }
+
+        @Override
+        public boolean equals( final Object o ) {
+            return o instanceof Key && compareTo( ( Key )o ) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode( time ) + name.hashCode();
+        }
+
+    }
+
+    /** What the index keeps of the latest version of a page or attachment, rather than the whole {@link Page}. */
+    private static final class Latest {
+
+        private final String name;
+        private final String parentName;
+        private final String fileName;
+        private final int version;
+        private final long time;
+        private final String author;
+        private final String changeNote;
+
+        Latest( final Page page ) {
+            this.name = page.getName();
+            this.parentName = page instanceof Attachment ? ( ( Attachment )page ).getParentName() : null;
+            this.fileName = page instanceof Attachment ? ( ( Attachment )page ).getFileName() : null;
+            this.version = page.getVersion();
+            this.time = dateOf( page ).getTime();
+            this.author = page.getAuthor();
+            this.changeNote = page.getAttribute( Page.CHANGENOTE );
+        }
+
+    }
+
+    private final Engine m_engine;
+    private final int m_tailSize;
+    private final long m_refreshInterval;
+    private final ConcurrentSkipListMap< Key, Latest > m_byTime = new ConcurrentSkipListMap<>();
+    private final Map< String, Key > m_byName = new HashMap<>();
+    private final ArrayDeque< Change > m_tail;
+    /** Pages and attachments changed by other nodes, to be looked up again on the next query. */
+    private final Set< String > m_invalidated = ConcurrentHashMap.newKeySet();
+    /** Pages and attachments indexed or removed while a scan is listing the repository, whose listed state may be outdated. */
+    private Set< String > m_touched;
+    private final AtomicBoolean m_scanning = new AtomicBoolean();
+    private final Object m_seedLock = new Object();
+    private volatile boolean m_listening;
+    private volatile boolean m_seeded;
+    private volatile long m_lastScan;
+
+    /**
+     *  Creates a new, empty journal.
+     *
+     *  @param engine the owning engine.
+     *  @param props properties used to configure the journal.
+     */
+    public ChangeJournal( final Engine engine, final Properties props ) {
+        m_engine = engine;
+        m_tailSize = Math.max( 0, TextUtil.getIntegerProperty( props, PROP_TAIL_SIZE, DEFAULT_TAIL_SIZE ) );
+        m_tail = new ArrayDeque<>( Math.min( m_tailSize, DEFAULT_TAIL_SIZE ) );
+        m_refreshInterval = Math.max( 0, TextUtil.getIntegerProperty( props, PROP_REFRESH_INTERVAL, DEFAULT_REFRESH_INTERVAL ) ) * 1_000L;
+    }
+
+    /**
+     *  Returns all pages and attachments, sorted in time order of last change (most recently changed first).
+     *
+     *  @return an ordered, unmodifiable set with the latest version of every page and attachment.
+     */
+    public Set< Page > getAll() {
+        update();
+        return toSet( m_byTime, Integer.MAX_VALUE );
+    }
+
+    /**
+     *  Returns the pages and attachments changed since the given date, sorted in time order of last change (most recently changed
+     *  first).
+     *
+     *  @param since lower bound, inclusive.
+     *  @return an ordered, unmodifiable set with the latest version of every page and attachment changed since the given date.
+     */
+    public Set< Page > getChangedSince( final Date since ) {
+        update();
+        // keys are sorted in descending time order, so all changes made at or after since are placed before (since - 1, "")
+        return toSet( m_byTime.headMap( new Key( since.getTime() - 1, "" ), false ), Integer.MAX_VALUE );
+    }
+
+    /**
+     *  Returns the last {@code count} changed pages and attachments, sorted in time order of last change (most recently changed first).
+     *
+     *  @param count maximum number of pages to return.
+     *  @return an ordered, unmodifiable set with, at most, {@code count} pages or attachments.
+     */
+    public Set< Page > getLatest( final int count ) {
+        update();
+        return toSet( m_byTime, count );
+    }
+
+    /**
+     *  Returns the last individual changes recorded since the journal was seeded, most recent first. Only the last
+     *  {@value #PROP_TAIL_SIZE} changes are kept.
+     *
+     *  @param count maximum number of changes to return.
+     *  @return a list with, at most, {@code count} changes.
+     */
+    public List< Change > getLatestChanges( final int count ) {
+        update();
+        final List< Change > changes = new ArrayList<>();
+        synchronized( m_tail ) {
+            for( final Iterator< Change > it = m_tail.descendingIterator(); it.hasNext() && changes.size() < count; ) {
+                changes.add( it.next() );
+            }
+        }
+        return changes;
+    }
+
+    /**
+     *  Records that a new version of the given page or attachment has been stored. Does nothing until the journal starts being seeded,
+     *  as the seeding scan will pick up the change anyway.
+     *
+     *  @param name page or attachment name.
+     */
+    public void pageStored( final String name ) {
+        if( m_listening ) {
+            final Page page = m_engine.getManager( PageManager.class ).getPage( name );
+            if( page != null ) {
+                index( page, false );
+                append( new Change( ChangeType.STORED, page.getName(), page.getVersion(), dateOf( page ), page.getAuthor() ) );
+            } else {
+                unindex( name );
+            }
+        }
+    }
+
+    /**
+     *  Records that the given page or attachment has been changed by another node sharing the repository. It is looked up again on
+     *  the next query, as this is called from the thread delivering cache invalidations.
+     *
+     *  @param name page or attachment name.
+     */
+    void invalidated( final String name ) {
+        if( m_listening ) {
+            m_invalidated.add( name );
+        }
+    }
+
+    /**
+     *  Records the removal of the given page or attachment. Does nothing until the journal starts being seeded.
+     *
+     *  @param name page or attachment name.
+     */
+    public void pageDeleted( final String name ) {
+        if( m_listening ) {
+            unindex( name );
+            append( new Change( ChangeType.DELETED, name, -1, new Date(), null ) );
+        }
+    }
+
+    /**
+     *  Records the renaming of a page, along with its attachments. Does nothing until the journal starts being seeded.
+     *
+     *  @param oldName former page name.
+     *  @param newName new page name.
+     */
+    public void pageRenamed( final String oldName, final String newName ) {
+        if( m_listening ) {
+            final List< String > stale = new ArrayList<>();
+            synchronized( this ) {
+                for( final String name : m_byName.keySet() ) {
+                    if( name.equals( oldName ) || name.startsWith( oldName + "/" ) ) {
+                        stale.add( name );
+                    }
+                }
+            }
+            stale.forEach( this::unindex );
+
+            final Page page = m_engine.getManager( PageManager.class ).getPage( newName );
+            if( page != null ) {
+                index( page, false );
+                try {
+                    m_engine.getManager( AttachmentManager.class ).listAttachments( page ).forEach( att -> index( att, false ) );
+                } catch( final ProviderException e ) {
+                    LOG.warn( "Unable to list attachments of {}: {}", newName, e.getMessage() );
+                }
+                append( new Change( ChangeType.RENAMED, newName, page.getVersion(), new Date(), page.getAuthor() ) );
+            }
+        }
+    }
+
+    /**
+     *  Listens for page store, delete and rename events in order to keep the journal up to date.
+     *
+     *  @param event the incoming event.
+     */
+    @Override
+    public void actionPerformed( final WikiEvent event ) {
+        if( event instanceof WikiPageRenameEvent ) {
+            final WikiPageRenameEvent wpre = ( WikiPageRenameEvent )event;
+            pageRenamed( wpre.getOldPageName(), wpre.getNewPageName() );
+        } else if( event instanceof WikiPageEvent ) {
+            final WikiPageEvent wpe = ( WikiPageEvent )event;
+            switch( wpe.getType() ) {
+            case WikiPageEvent.PAGE_STORED:
+            case WikiPageEvent.PAGE_REINDEX:
+                pageStored( wpe.getPageName() );
+                break;
+            case WikiPageEvent.PAGE_DELETED:
+                pageDeleted( wpe.getPageName() );
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     *  Seeds the journal on first use, then merges the pages and attachments changed by other nodes, and the repository contents
+     *  every {@value #PROP_REFRESH_INTERVAL} seconds.
+     */
+    void update() {
+        seed();
+        if( m_refreshInterval > 0 && System.currentTimeMillis() - m_lastScan >= m_refreshInterval && m_scanning.compareAndSet( false, true ) ) {
+            try { // meanwhile, other queries are answered with the current contents of the journal
+                if( System.currentTimeMillis() - m_lastScan >= m_refreshInterval ) {
+                    scan();
+                }
+            } finally {
+                m_scanning.set( false );
+            }
+        }
+        for( final Iterator< String > it = m_invalidated.iterator(); it.hasNext(); ) {
+            final String name = it.next();
+            it.remove();
+            final Page page = m_engine.getManager( PageManager.class ).getPage( name );
+            if( page == null ) {
+                if( unindex( name ) ) {
+                    append( new Change( ChangeType.DELETED, name, -1, new Date(), null ) );
+                }
+            } else if( index( page, true ) ) {
+                append( new Change( ChangeType.STORED, page.getName(), page.getVersion(), dateOf( page ), page.getAuthor() ) );
+            }
+        }
+    }
+
+    /**
+     *  Loads the current state of the repository on first use, and registers the journal as listener of the page, attachment and
+     *  rename events, and of the pages and attachments invalidated by other nodes. Listeners are registered before scanning, so no
+     *  change is lost in between.
+     */
+    void seed() {
+        if( m_seeded ) {
+            return;
+        }
+        synchronized( m_seedLock ) {
+            if( m_seeded ) {
+                return;
+            }
+            WikiEventManager.addWikiEventListener( m_engine.getManager( PageManager.class ), this );
+            WikiEventManager.addWikiEventListener( m_engine.getManager( AttachmentManager.class ), this );
+            WikiEventManager.addWikiEventListener( m_engine.getManager( PageRenamer.class ), this );
+            final CachingManager cachingManager = m_engine.getManager( CachingManager.class );
+            if( cachingManager != null ) {
+                final Consumer< Serializable > invalidated = key -> invalidated( key.toString() );
+                cachingManager.registerListener( CachingManager.CACHE_PAGES, "invalidated", invalidated );
+                cachingManager.registerListener( CachingManager.CACHE_ATTACHMENTS, "invalidated", invalidated );
+            }
+            m_listening = true;
+            scan();
+            m_seeded = true;
+        }
+    }
+
+    /**
+     *  Merges the current state of the repository into the journal: pages and attachments newer than the indexed ones are indexed,
+     *  and those no longer on the repository are removed. Once seeded, the differences are recorded as changes too. The repository
+     *  is listed without holding the journal's lock, and those pages and attachments indexed or removed meanwhile are left as they
+     *  are when merging, as the listing may predate their changes.
+     */
+    void scan() {
+        final long start = System.currentTimeMillis();
+        synchronized( this ) {
+            m_touched = new HashSet<>();
+        }
+        try {
+            final Collection< Page > pages = new ArrayList<>( m_engine.getManager( PageManager.class ).getAllPages() );
+            pages.addAll( m_engine.getManager( AttachmentManager.class ).getAllAttachments() );
+            final Set< String > names = new HashSet<>();
+            synchronized( this ) {
+                final Set< String > touched = m_touched;
+                m_touched = null;
+                for( final Page page : pages ) {
+                    names.add( page.getName() );
+                    if( !touched.contains( page.getName() ) && index( page, true ) && m_seeded ) {
+                        append( new Change( ChangeType.STORED, page.getName(), page.getVersion(), dateOf( page ), page.getAuthor() ) );
+                    }
+                }
+                for( final String name : new ArrayList<>( m_byName.keySet() ) ) {
+                    if( !names.contains( name ) && !touched.contains( name ) && unindex( name ) && m_seeded ) {
+                        append( new Change( ChangeType.DELETED, name, -1, new Date(), null ) );
+                    }
+                }
+            }
+            LOG.info( "Change journal {} with {} pages and attachments in {} ms", m_seeded ? "refreshed" : "seeded", names.size(),
+                      System.currentTimeMillis() - start );
+        } catch( final ProviderException e ) {
+            LOG.error( "Unable to scan the repository for the change journal: {}", e.getMessage(), e );
+        } finally {
+            synchronized( this ) {
+                m_touched = null;
+            }
+        }
+        m_lastScan = start;
+    }
+
+    /**
+     *  Indexes the given page or attachment as its latest version.
+     *
+     *  @param page page or attachment.
+     *  @param keepNewer whether to keep the indexed version, if newer.
+     *  @return {@code true} if the indexed version has changed.
+     */
+    synchronized boolean index( final Page page, final boolean keepNewer ) {
+        if( m_touched != null ) {
+            m_touched.add( page.getName() );
+        }
+        final Key previous = m_byName.get( page.getName() );
+        final Key key = new Key( dateOf( page ).getTime(), page.getName() );
+        if( previous != null ) {
+            if( keepNewer && previous.time > key.time ) {
+                return false; // already holding a newer version, i.e., a change was recorded while seeding
+            }
+            final Latest latest = m_byTime.remove( previous );
+            if( previous.time == key.time && latest != null && latest.version == page.getVersion() ) {
+                m_byTime.put( previous, latest );
+                return false;
+            }
+        }
+        m_byName.put( page.getName(), key );
+        m_byTime.put( key, new Latest( page ) );
+        return true;
+    }
+
+    /**
+     *  Removes the given page or attachment from the index.
+     *
+     *  @param name page or attachment name.
+     *  @return {@code true} if it was indexed.
+     */
+    synchronized boolean unindex( final String name ) {
+        if( m_touched != null ) {
+            m_touched.add( name );
+        }
+        final Key key = m_byName.remove( name );
+        if( key != null ) {
+            m_byTime.remove( key );
+            return true;
+        }
+        return false;
+    }
+
+    void append( final Change change ) {
+        LOG.debug( "Recording {}", change );
+        synchronized( m_tail ) {
+            if( m_tailSize == 0 ) {
+                return;
+            }
+            if( m_tail.size() == m_tailSize ) {
+                m_tail.removeFirst();
+            }
+            m_tail.addLast( change );
+        }
+    }
+
+    static Date dateOf( final Page page ) {
+        return page.getLastModified() != null ? page.getLastModified() : new Date( 0L );
+    }
+
+    Set< Page > toSet( final ConcurrentNavigableMap< Key, Latest > view, final int count ) {
+        final Set< Page > pages = new LinkedHashSet<>();
+        for( final Iterator< Latest > it = view.values().iterator(); it.hasNext() && pages.size() < count; ) {
+            pages.add( toPage( it.next() ) );
+        }
+        return Collections.unmodifiableSet( pages );
+    }
+
+    Page toPage( final Latest latest ) {
+        final Page page = latest.parentName != null ? Wiki.contents().attachment( m_engine, latest.parentName, latest.fileName )
+                                                    : Wiki.contents().page( m_engine, latest.name );
+        page.setVersion( latest.version );
+        page.setLastModified( new Date( latest.time ) );
+        page.setAuthor( latest.author );
+        if( latest.changeNote != null ) {
+            page.setAttribute( Page.CHANGENOTE, latest.changeNote );
+        }
+        return page;
+    }
+
+}
@@ -21,7 +21,7 @@ package org.apache.wiki.pages;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.wiki.WikiBackgroundThread;
+import org.apache.wiki.WikiBackgroundJob;
 import org.apache.wiki.api.core.Acl;
 import org.apache.wiki.api.core.AclEntry;
 import org.apache.wiki.api.core.Attachment;
@@ -64,7 +64,6 @@ import java.security.Permission;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.Iterator;
@@ -72,7 +71,6 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 
@@ -93,6 +91,7 @@ public class DefaultPageManager implements PageManager {
     private final int m_expiryTime;
     protected final ConcurrentHashMap< String, PageLock > m_pageLocks = new ConcurrentHashMap<>();
     private final PageSorter pageSorter = new PageSorter();
+    private final ChangeJournal m_changeJournal;
     private LockReaper m_reaper;
 
     /**
@@ -117,6 +116,7 @@ public class DefaultPageManager implements PageManager {
         }
 
         pageSorter.initialize( props );
+        m_changeJournal = new ChangeJournal( m_engine, props );
 
         try {
             LOG.debug( "Page provider class: '{}'", classname );
@@ -280,6 +280,7 @@ public class DefaultPageManager implements PageManager {
         }
 
         m_provider.putPageText(page, content);
+        fireEvent( WikiPageEvent.PAGE_STORED, page.getName() );
     }
 
     /**
@@ -466,16 +467,34 @@ public class DefaultPageManager implements PageManager {
      */
     @Override
     public Set< Page > getRecentChanges() {
-        try {
-            final TreeSet< Page > sortedPages = new TreeSet<>( new PageTimeComparator() );
-            sortedPages.addAll( getAllPages() );
-            sortedPages.addAll( m_engine.getManager( AttachmentManager.class ).getAllAttachments() );
+        return m_changeJournal.getAll();
+    }
 
-            return sortedPages;
-        } catch( final ProviderException e ) {
-            LOG.error( "Unable to fetch all pages: ", e );
-            return Collections.emptySet();
-        }
+    /**
+     * {@inheritDoc}
+     * @see org.apache.wiki.pages.PageManager#getRecentChanges(java.util.Date)
+     */
+    @Override
+    public Set< Page > getRecentChanges( final Date since ) {
+        return m_changeJournal.getChangedSince( since );
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.apache.wiki.pages.PageManager#getRecentChanges(int)
+     */
+    @Override
+    public Set< Page > getRecentChanges( final int count ) {
+        return m_changeJournal.getLatest( count );
+    }
+
+    /**
+     * Returns the journal which keeps track of the changes made to pages and attachments.
+     *
+     * @return the {@link ChangeJournal} used by this PageManager.
+     */
+    public ChangeJournal getChangeJournal() {
+        return m_changeJournal;
     }
 
     /**
@@ -570,6 +589,7 @@ public class DefaultPageManager implements PageManager {
             m_engine.getManager( AttachmentManager.class ).deleteVersion( ( Attachment )page );
         } else {
             m_provider.deleteVersion( page.getName(), page.getVersion() );
+            fireEvent( WikiPageEvent.PAGE_STORED, page.getName() ); // latest version may have changed
             // FIXME: If this was the latest, reindex Lucene, update RefMgr
         }
     }
@@ -620,7 +640,7 @@ public class DefaultPageManager implements PageManager {
      * or so (it's not really that important, as long as it runs),
      * and removes all locks that have expired.
      */
-    private class LockReaper extends WikiBackgroundThread {
+    private class LockReaper extends WikiBackgroundJob {
         /**
          * Create a LockReaper for a given engine.
          *
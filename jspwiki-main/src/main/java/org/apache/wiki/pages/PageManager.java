@@ -26,8 +26,11 @@ import org.apache.wiki.api.providers.PageProvider;
 import org.apache.wiki.event.WikiEventListener;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 
 public interface PageManager extends WikiEventListener {
@@ -269,6 +272,30 @@ public interface PageManager extends WikiEventListener {
      */
     Set< Page > getRecentChanges();
 
+    /**
+     *  Returns the pages and attachments changed since the given date, sorted in time order of last change (i.e. first object is the
+     *  most recently changed).
+     *
+     *  @param since only pages changed on or after this date are returned.
+     *  @return Set of WikiPage objects.
+     */
+    default Set< Page > getRecentChanges( final Date since ) {
+        return getRecentChanges().stream()
+                                 .filter( page -> page.getLastModified() != null && !page.getLastModified().before( since ) )
+                                 .collect( Collectors.toCollection( LinkedHashSet::new ) );
+    }
+
+    /**
+     *  Returns the last {@code count} changed pages and attachments, sorted in time order of last change (i.e. first object is the
+     *  most recently changed).
+     *
+     *  @param count maximum number of pages to return.
+     *  @return Set of WikiPage objects.
+     */
+    default Set< Page > getRecentChanges( final int count ) {
+        return getRecentChanges().stream().limit( count ).collect( Collectors.toCollection( LinkedHashSet::new ) );
+    }
+
     /**
      * Returns true, if the page exists (any version) on the underlying WikiPageProvider.
      *
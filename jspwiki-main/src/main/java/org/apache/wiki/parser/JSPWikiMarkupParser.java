@@ -22,13 +22,6 @@ package org.apache.wiki.parser;
     import org.apache.commons.text.StringEscapeUtils;
     import org.apache.logging.log4j.LogManager;
     import org.apache.logging.log4j.Logger;
-    import org.apache.oro.text.regex.MalformedPatternException;
-    import org.apache.oro.text.regex.MatchResult;
-    import org.apache.oro.text.regex.Pattern;
-    import org.apache.oro.text.regex.PatternCompiler;
-    import org.apache.oro.text.regex.PatternMatcher;
-    import org.apache.oro.text.regex.Perl5Compiler;
-    import org.apache.oro.text.regex.Perl5Matcher;
     import org.apache.wiki.InternalWikiException;
     import org.apache.wiki.StringTransmutator;
     import org.apache.wiki.api.core.Acl;
@@ -71,6 +64,8 @@ package org.apache.wiki.parser;
     import java.util.Properties;
     import java.util.ResourceBundle;
     import java.util.Stack;
+    import java.util.regex.Matcher;
+    import java.util.regex.Pattern;
 
 /**
  * Parses JSPWiki-style markup into a WikiDocument DOM tree.  This class is the heart and soul of JSPWiki : make
@@ -143,19 +138,17 @@ public class JSPWikiMarkupParser extends MarkupParser {
 
     private boolean m_useRelNofollow;
 
-    private final PatternCompiler m_compiler = new Perl5Compiler();
+    /** Recognizes CamelCase words and plain URIs. The java* character classes match the same characters as the POSIX classes
+     *  (alnum, upper, lower) previously used with ORO, i.e., the ones given by {@link Character}. */
+    static final String WIKIWORD_REGEX = "(^|[^\\p{javaLetterOrDigit}]+)(\\p{javaUpperCase}+\\p{javaLowerCase}+\\p{javaUpperCase}+\\p{javaLetterOrDigit}*|(http://|https://|mailto:)([A-Za-z0-9_/\\.\\+\\?\\#\\-\\@=&;~%]+))";
 
-    static final String WIKIWORD_REGEX = "(^|[[:^alnum:]]+)([[:upper:]]+[[:lower:]]+[[:upper:]]+[[:alnum:]]*|(http://|https://|mailto:)([A-Za-z0-9_/\\.\\+\\?\\#\\-\\@=&;~%]+))";
-
-    private final PatternMatcher m_camelCaseMatcher = new Perl5Matcher();
-    private Pattern m_camelCasePattern;
+    /** Compiled {@link #WIKIWORD_REGEX}. Patterns are thread-safe, so it is shared between all parser instances. */
+    private static final Pattern WIKIWORD_PATTERN = Pattern.compile( WIKIWORD_REGEX );
 
     private int m_rowNum = 1;
 
     private Heading m_lastHeading;
 
-    private static final String CAMELCASE_PATTERN = "JSPWikiMarkupParser.camelCasePattern";
-
     /**
      *  Creates a markup parser.
      *
@@ -171,17 +164,6 @@ public class JSPWikiMarkupParser extends MarkupParser {
     private void initialize() {
         initInlineImagePatterns();
 
-        m_camelCasePattern = m_engine.getAttribute( CAMELCASE_PATTERN );
-        if( m_camelCasePattern == null ) {
-            try {
-                m_camelCasePattern = m_compiler.compile( WIKIWORD_REGEX,Perl5Compiler.DEFAULT_MASK|Perl5Compiler.READ_ONLY_MASK );
-            } catch( final MalformedPatternException e ) {
-                LOG.fatal("Internal error: Someone put in a faulty pattern.",e);
-                throw new InternalWikiException("Faulty camelcasepattern in TranslatorReader", e);
-            }
-            m_engine.setAttribute( CAMELCASE_PATTERN, m_camelCasePattern );
-        }
-
         //  Set the properties.
         final Properties props = m_engine.getWikiProperties();
         final String cclinks = m_context.getPage().getAttribute( PROP_CAMELCASELINKS );
@@ -261,6 +243,11 @@ public class JSPWikiMarkupParser extends MarkupParser {
     }
 
     private Element makeLink( int type, final String link, String text, String section, final Iterator< Attribute > attributes ) {
+        if( m_referencesOnly ) {
+            // links still delimit plain text, same as when rendering
+            flushPlainText();
+            return null;
+        }
         Element el = null;
         if( text == null ) {
             text = link;
@@ -396,27 +383,6 @@ public class JSPWikiMarkupParser extends MarkupParser {
         return Arrays.binarySearch( BLOCK_ELEMENTS, name ) >= 0;
     }
 
-    /**
-     *  This method peeks ahead in the stream until EOL and returns the result. It will keep the buffers untouched.
-     *
-     *  @return The string from the current position to the end of line.
-     */
-    // FIXME: Always returns an empty line, even if the stream is full.
-    private String peekAheadLine() throws IOException {
-        final String s = readUntilEOL().toString();
-        if( s.length() > PUSHBACK_BUFFER_SIZE ) {
-            LOG.warn( "Line is longer than maximum allowed size (" + PUSHBACK_BUFFER_SIZE + " characters.  Attempting to recover..." );
-            pushBack( s.substring( 0, PUSHBACK_BUFFER_SIZE - 1 ) );
-        } else {
-            try {
-                pushBack( s );
-            } catch( final IOException e ) {
-                LOG.warn( "Pushback failed: the line is probably too long.  Attempting to recover." );
-            }
-        }
-        return s;
-    }
-
     private int flushPlainText() {
         final int numChars = m_plainTextBuf.length();
         if( numChars > 0 ) {
@@ -432,10 +398,11 @@ public class JSPWikiMarkupParser extends MarkupParser {
             try {
                 // This is the heaviest part of parsing, and therefore we can do some optimization here.
                 // 1) Only when the length of the buffer is big enough, we try to do the match
-                if( m_camelCaseLinks && !m_isEscaping && buf.length() > 3 ) {
-                    while( m_camelCaseMatcher.contains( buf, m_camelCasePattern ) ) {
-                        final MatchResult result = m_camelCaseMatcher.getMatch();
-                        final String firstPart = buf.substring( 0, result.beginOffset( 0 ) );
+                // 2) Only when there is an upper case letter or a colon, as every CamelCase word or URI must contain one of them
+                if( m_camelCaseLinks && !m_isEscaping && buf.length() > 3 && mayContainWikiWord( buf ) ) {
+                    final Matcher result = WIKIWORD_PATTERN.matcher( buf );
+                    while( result.reset( buf ).find() ) {
+                        final String firstPart = buf.substring( 0, result.start() );
                         String prefix = result.group( 1 );
                         if( prefix == null ) {
                             prefix = "";
@@ -444,7 +411,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
                         final String camelCase = result.group(2);
                         final String protocol  = result.group(3);
                         String uri       = protocol+result.group(4);
-                        buf              = buf.substring(result.endOffset(0));
+                        buf              = buf.substring(result.end());
 
                         m_currentElement.addContent( firstPart );
                         //  Check if the user does not wish to do URL or WikiWord expansion
@@ -482,7 +449,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
                         }
                     }
                     m_currentElement.addContent( buf );
-                } else {
+                } else if( !m_referencesOnly ) {
                     //  No camelcase asked for, just add the elements
                     m_currentElement.addContent( buf );
                 }
@@ -495,6 +462,20 @@ public class JSPWikiMarkupParser extends MarkupParser {
         return numChars;
     }
 
+    /**
+     *  Cheap check to avoid running {@link #WIKIWORD_PATTERN} over text which cannot contain a match.
+     */
+    static boolean mayContainWikiWord( final String text ) {
+        for( int i = 0; i < text.length(); ) {
+            final int c = text.codePointAt( i );
+            if( c == ':' || Character.isUpperCase( c ) ) {
+                return true;
+            }
+            i += Character.charCount( c );
+        }
+        return false;
+    }
+
     private Element pushElement( final Element e ) {
         flushPlainText();
         m_currentElement.addContent( e );
@@ -662,7 +643,8 @@ public class JSPWikiMarkupParser extends MarkupParser {
     public Element makeHeading( final int level, final String title, final Heading hd ) {
         final Element el;
         final String pageName = m_context.getPage().getName();
-        final String outTitle = makeSectionTitle( title );
+        // section titles are only needed when rendering, and any markup on them is going to be parsed anyway right after the heading
+        final String outTitle = m_referencesOnly ? title.trim() : makeSectionTitle( title );
         hd.m_level = level;
 
         switch( level ) {
@@ -690,8 +672,8 @@ public class JSPWikiMarkupParser extends MarkupParser {
      *  chain is also called.
      */
     private Element makeCamelCaseLink( final String wikiname ) {
-        final String matchedLink = m_linkParsingOperations.linkIfExists( wikiname );
         callMutatorChain( m_localLinkMutatorChain, wikiname );
+        final String matchedLink = m_referencesOnly ? null : m_linkParsingOperations.linkIfExists( wikiname );
         if( matchedLink != null ) {
             makeLink( READ, matchedLink, wikiname, null, null );
         } else {
@@ -713,7 +695,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
      */
     private Element outlinkImage() {
         Element el = null;
-        if( m_useOutlinkImage ) {
+        if( m_useOutlinkImage && !m_referencesOnly ) {
             if( m_outlinkImageURL == null ) {
                 m_outlinkImageURL = m_context.getURL( ContextEnum.PAGE_NONE.getRequestContext(), OUTLINK_IMAGE );
             }
@@ -747,7 +729,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
 
         callMutatorChain( m_externalLinkMutatorChain, url );
 
-        if( m_linkParsingOperations.isImageLink( url, isImageInlining(), getInlineImagePatterns() ) ) {
+        if( m_linkParsingOperations.isImageLink( url, isImageInlining(), getInlineImageRegex() ) ) {
             result = handleImageLink( Strings.CS.replace( url, "&amp;", "&" ), url, false );
         } else {
             result = makeLink( EXTERNAL, Strings.CS.replace( url, "&amp;", "&" ), url, null, null );
@@ -910,7 +892,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
             } else if( m_linkParsingOperations.isExternalLink( linkref ) ) {
                 // It's an external link, out of this Wiki
                 callMutatorChain( m_externalLinkMutatorChain, linkref );
-                if( m_linkParsingOperations.isImageLink( linkref, isImageInlining(), getInlineImagePatterns() ) ) {
+                if( m_linkParsingOperations.isImageLink( linkref, isImageInlining(), getInlineImageRegex() ) ) {
                     handleImageLink( linkref, linktext, link.hasReference() );
                 } else {
                     makeLink( EXTERNAL, linkref, linktext, null, link.getAttributes() );
@@ -936,7 +918,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
                         urlReference = TextUtil.replaceString( urlReference, "%s", wikiPage );
                         urlReference = callMutatorChain( m_externalLinkMutatorChain, urlReference );
 
-                        if( m_linkParsingOperations.isImageLink( urlReference, isImageInlining(), getInlineImagePatterns() ) ) {
+                        if( m_linkParsingOperations.isImageLink( urlReference, isImageInlining(), getInlineImageRegex() ) ) {
                             handleImageLink( urlReference, linktext, link.hasReference() );
                         } else {
                             makeLink( INTERWIKI, urlReference, linktext, null, link.getAttributes() );
@@ -962,9 +944,14 @@ public class JSPWikiMarkupParser extends MarkupParser {
                 String attachment = m_engine.getManager( AttachmentManager.class ).getAttachmentInfoName( m_context, linkref );
                 if( attachment != null ) {
                     callMutatorChain( m_attachmentLinkMutatorChain, attachment );
-                    if( m_linkParsingOperations.isImageLink( linkref, isImageInlining(), getInlineImagePatterns() ) ) {
-                        attachment = m_context.getURL( ContextEnum.PAGE_ATTACH.getRequestContext(), attachment );
-                        sb.append( handleImageLink( attachment, linktext, link.hasReference() ) );
+                    if( m_linkParsingOperations.isImageLink( linkref, isImageInlining(), getInlineImageRegex() ) ) {
+                        if( !m_referencesOnly ) {
+                            attachment = m_context.getURL( ContextEnum.PAGE_ATTACH.getRequestContext(), attachment );
+                        }
+                        final Element image = handleImageLink( attachment, linktext, link.hasReference() );
+                        if( image != null ) {
+                            sb.append( image );
+                        }
                     } else {
                         makeLink( ATTACHMENT, attachment, linktext, null, link.getAttributes() );
                     }
@@ -974,7 +961,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
                     linkref = linkref.substring( 0, hashMark );
                     linkref = MarkupParser.cleanLink( linkref );
                     callMutatorChain( m_localLinkMutatorChain, linkref );
-                    final String matchedLink = m_linkParsingOperations.linkIfExists( linkref );
+                    final String matchedLink = m_referencesOnly ? null : m_linkParsingOperations.linkIfExists( linkref );
                     if( matchedLink != null ) {
                         String sectref = "section-" + m_engine.encodeName( matchedLink + "-" + wikifyLink( namedSection ) );
                         sectref = sectref.replace( '%', '_' );
@@ -986,7 +973,7 @@ public class JSPWikiMarkupParser extends MarkupParser {
                     // It's an internal Wiki link
                     linkref = MarkupParser.cleanLink( linkref );
                     callMutatorChain( m_localLinkMutatorChain, linkref );
-                    final String matchedLink = m_linkParsingOperations.linkIfExists( linkref );
+                    final String matchedLink = m_referencesOnly ? null : m_linkParsingOperations.linkIfExists( linkref );
                     if( matchedLink != null ) {
                         makeLink( READ, matchedLink, linktext, null, link.getAttributes() );
                     } else {
@@ -1175,25 +1162,6 @@ public class JSPWikiMarkupParser extends MarkupParser {
         return el;
     }
 
-    /**
-     * Reads the stream until the next EOL or EOF.  Note that it will also read the EOL from the stream.
-     */
-    private StringBuilder readUntilEOL() throws IOException {
-        int ch;
-        final StringBuilder buf = new StringBuilder( 256 );
-        while( true ) {
-            ch = nextToken();
-            if( ch == -1 ) {
-                break;
-            }
-            buf.append( (char) ch );
-            if( ch == '\n' ) {
-                break;
-            }
-        }
-        return buf;
-    }
-
     /** Controls whether italic is restarted after a paragraph shift */
 
     private boolean m_restartitalic;
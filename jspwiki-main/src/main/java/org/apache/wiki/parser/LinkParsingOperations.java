@@ -150,8 +150,9 @@ public class LinkParsingOperations {
     public boolean isImageLink( String link, final boolean isImageInlining, final List< Pattern > inlineImagePatterns ) {
         if( isImageInlining ) {
             link = link.toLowerCase();
+            final Perl5Matcher matcher = new Perl5Matcher();
             for( final Pattern p : inlineImagePatterns ) {
-                if( new Perl5Matcher().matches( link, p ) ) {
+                if( matcher.matches( link, p ) ) {
                     return true;
                 }
             }
@@ -160,6 +161,19 @@ public class LinkParsingOperations {
         return false;
     }
 
+    /**
+     *  Matches the given link to the combined image name pattern to determine whether it should be treated as an inline image or not.
+     *
+     *  @param link the link to check.
+     *  @param isImageInlining whether image inlining is enabled.
+     *  @param inlineImageRegex all the image name patterns, combined into a single one, as returned by
+     *                          {@link MarkupParser#getInlineImageRegex()}.
+     *  @return {@code true} if the link should be inlined as an image.
+     */
+    public boolean isImageLink( final String link, final boolean isImageInlining, final java.util.regex.Pattern inlineImageRegex ) {
+        return isImageInlining && inlineImageRegex.matcher( link.toLowerCase() ).matches();
+    }
+
     /**
      * Returns {@code true}, if the link name exists; otherwise it returns {@code false}.
      *
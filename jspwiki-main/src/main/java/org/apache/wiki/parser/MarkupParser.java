@@ -30,14 +30,15 @@ import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.util.TextUtil;
 import org.jdom2.Element;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.PushbackReader;
 import java.io.Reader;
+import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.PatternSyntaxException;
 
 /**
  *   Provides an abstract class for the parser instances.
@@ -46,11 +47,21 @@ import java.util.List;
  */
 public abstract class MarkupParser {
 
-    /** Allow this many characters to be pushed back in the stream.  In effect, this limits the size of a single line.  */
+    /**
+     *  Allow this many characters to be pushed back in the stream.
+     *
+     *  @deprecated the input is now read into a buffer, so there is no longer a limit on how much can be pushed back.
+     */
+    @Deprecated
     protected static final int PUSHBACK_BUFFER_SIZE = 10*1024;
-    protected PushbackReader m_in;
+    protected Reader m_in;
     private int m_pos = -1; // current position in reader stream
 
+    /** The whole input, read from {@link #m_in} on first access. */
+    private char[] m_buf;
+    private int m_length;
+    private int m_index; // index in m_buf of the next character to be returned
+
     protected final Engine m_engine;
     protected final Context m_context;
 
@@ -63,8 +74,11 @@ public abstract class MarkupParser {
 
     protected boolean m_inlineImages = true;
     protected boolean m_parseAccessRules = true;
+    protected boolean m_referencesOnly = false;
     /** Keeps image regexp Patterns */
     protected List< Pattern > m_inlineImagePatterns;
+    /** Keeps all image patterns, combined into a single, thread-safe, regexp */
+    protected java.util.regex.Pattern m_inlineImageRegex;
     protected final LinkParsingOperations m_linkParsingOperations;
 
     private static final Logger LOG = LogManager.getLogger( MarkupParser.class );
@@ -100,6 +114,7 @@ public abstract class MarkupParser {
     public static final String OUTLINK = "outlink";
 
     private static final String INLINE_IMAGE_PATTERNS = "JSPWikiMarkupParser.inlineImagePatterns";
+    private static final String INLINE_IMAGE_REGEX = "JSPWikiMarkupParser.inlineImageRegex";
 
     /** The value for anchor element <tt>class</tt> attributes when used for wiki page (normal) links. The value is "wikipage". */
    public static final String CLASS_WIKIPAGE = "wikipage";
@@ -158,7 +173,8 @@ public abstract class MarkupParser {
     public Reader setInputReader( final Reader in ) {
         final Reader old = m_in;
         if( in != null ) {
-            m_in = new PushbackReader( new BufferedReader( in ), PUSHBACK_BUFFER_SIZE );
+            m_in = in;
+            m_buf = null;
         }
 
         return old;
@@ -231,6 +247,29 @@ public abstract class MarkupParser {
         return m_parseAccessRules;
     }
 
+    /**
+     *  Use this to turn on or off the references only mode.  When on, the parser is only run for its side effects: link hooks,
+     *  access rules, metadata and parse-stage plugins are processed as usual, but the parser does not bother with rendering
+     *  details, such as checking which pages exist, building URLs or section titles. The resulting {@link WikiDocument} is
+     *  therefore not fit for rendering.  Parsers are free to ignore this hint.
+     *
+     *  @param toggle If true, the parser is run only for its side effects.
+     *  @since 3.0.0
+     */
+    public void enableReferencesOnly( final boolean toggle ) {
+        m_referencesOnly = toggle;
+    }
+
+    /**
+     *  Tells whether the parser is run only for its side effects.
+     *
+     *  @return True, if the references only mode is on.
+     *  @since 3.0.0
+     */
+    public boolean isReferencesOnly() {
+        return m_referencesOnly;
+    }
+
     /**
      *  Use this to turn on or off image inlining.
      *
@@ -280,6 +319,37 @@ public abstract class MarkupParser {
     	return m_inlineImagePatterns;
     }
 
+    /**
+     *  Returns all the inline image patterns combined into a single {@link java.util.regex.Pattern}. Contrary to the ORO patterns returned
+     *  by {@link #getInlineImagePatterns()}, it can be matched from several threads at once, so it is compiled only once per engine and
+     *  shared between all parser instances.
+     *
+     *  @return a pattern matching any of the inline image patterns.
+     */
+    public java.util.regex.Pattern getInlineImageRegex() {
+        if( m_inlineImageRegex == null ) {
+            java.util.regex.Pattern regex = m_engine.getAttribute( INLINE_IMAGE_REGEX );
+            if( regex == null ) {
+                final StringJoiner alternatives = new StringJoiner( "|" );
+                for( final String pattern : m_engine.getAllInlinedImagePatterns() ) {
+                    final String perl5 = GlobCompiler.globToPerl5( pattern.toCharArray(), GlobCompiler.DEFAULT_MASK );
+                    try {
+                        java.util.regex.Pattern.compile( perl5 );
+                        alternatives.add( "(?:" + perl5 + ")" );
+                    } catch( final PatternSyntaxException e ) {
+                        LOG.error( "Malformed pattern [" + pattern + "] in properties: ", e );
+                    }
+                }
+                // an empty set of alternatives would match empty links only, so use a pattern never matching anything instead
+                regex = java.util.regex.Pattern.compile( alternatives.length() > 0 ? alternatives.toString() : "(?!)",
+                                                         java.util.regex.Pattern.UNIX_LINES );
+                m_engine.setAttribute( INLINE_IMAGE_REGEX, regex );
+            }
+            m_inlineImageRegex = regex;
+        }
+        return m_inlineImageRegex;
+    }
+
     /**
      *  Parses the document.
      *
@@ -306,22 +376,63 @@ public abstract class MarkupParser {
      * @throws NullPointerException If you have not yet created an input document.
      */
     protected final int nextToken() throws IOException, NullPointerException {
-        // if( m_in == null ) return -1;
+        if( m_buf == null ) {
+            fillBuffer();
+        }
         m_pos++;
-        return m_in.read();
+        return m_index < m_length ? m_buf[ m_index++ ] : -1;
     }
 
     /**
      *  Push back any character to the current input.  Does not push back a read EOF, though.
      *
      *  @param c Character to push back.
-     *  @throws IOException In case the character cannot be pushed back.
+     *  @throws IOException In case the character cannot be pushed back, i.e., more characters are pushed back than were read.
      */
     protected void pushBack( final int c ) throws IOException {
         if( c != -1 && m_in != null ) {
+            if( m_buf == null || m_index == 0 ) {
+                throw new IOException( "Pushback buffer overflow" );
+            }
             m_pos--;
-            m_in.unread( c );
+            m_buf[ --m_index ] = ( char )c;
+        }
+    }
+
+    /**
+     *  Returns the text from the current position up to and including the next EOL, or up to EOF, without consuming it.
+     *  There is no limit on the length of the line.
+     *
+     *  @return The string from the current position to the end of line.
+     *  @throws IOException If the input cannot be read.
+     */
+    protected String peekAheadLine() throws IOException {
+        if( m_buf == null ) {
+            fillBuffer();
+        }
+        int end = m_index;
+        while( end < m_length && m_buf[ end++ ] != '\n' ) {
+            // keep looking for the EOL
+        }
+        return new String( m_buf, m_index, end - m_index );
+    }
+
+    /**
+     *  Reads the whole input into {@link #m_buf}, so it can be scanned by index instead of a character at a time from the reader.
+     */
+    private void fillBuffer() throws IOException {
+        char[] buf = new char[ 8 * 1024 ];
+        int length = 0;
+        int read;
+        while( ( read = m_in.read( buf, length, buf.length - length ) ) != -1 ) {
+            length += read;
+            if( length == buf.length ) {
+                buf = Arrays.copyOf( buf, buf.length * 2 );
+            }
         }
+        m_buf = buf;
+        m_length = length;
+        m_index = 0;
     }
 
     /**
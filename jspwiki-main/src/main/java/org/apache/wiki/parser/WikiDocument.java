@@ -28,7 +28,9 @@ import java.lang.ref.WeakReference;
  *  Stores the DOM tree of a rendered WikiPage. This class extends the org.jdom.Document to provide some extra metadata
  *  specific to JSPWiki.
  *  <p>
- *  The document is not stored as metadata in the WikiPage because otherwise it could not be cached separately.
+ *  The document is not stored as metadata in the WikiPage because otherwise it could not be cached separately. For the same
+ *  reason, it can be serialized, f.ex. to keep it on the second tier of a cache, leaving out its page and context, which are
+ *  bound to the running engine.
  *  
  *  @since  2.4
  */
@@ -36,9 +38,9 @@ public class WikiDocument extends Document {
 
     private static final long serialVersionUID = 1L;
     
-    private final Page m_page;
+    private final transient Page m_page;
     private String m_wikiText;
-    private WeakReference< Context > m_context;
+    private transient WeakReference< Context > m_context;
     
     /**
      *  Creates a new WikiDocument for a specific page.
@@ -71,12 +73,17 @@ public class WikiDocument extends Document {
     }
     
     /**
-     *  Return the WikiPage for whom this WikiDocument exists.
+     *  Return the WikiPage for whom this WikiDocument exists. Once deserialized, that is the page of the context in which it is
+     *  being rendered.
      *  
      *  @return The WikiPage
      */
     public Page getPage()
     {
+        if( m_page == null ) {
+            final Context context = getContext();
+            return context != null ? context.getRealPage() : null;
+        }
         return m_page;
     }
 
@@ -100,7 +107,7 @@ public class WikiDocument extends Document {
      */
     public Context getContext()
     {
-        return m_context.get();
+        return m_context != null ? m_context.get() : null;
     }
 
 }
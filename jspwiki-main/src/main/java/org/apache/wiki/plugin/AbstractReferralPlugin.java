@@ -29,36 +29,47 @@ import org.apache.oro.text.regex.PatternMatcher;
 import org.apache.oro.text.regex.Perl5Matcher;
 import org.apache.wiki.StringTransmutator;
 import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.core.ContextEnum;
 import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.exceptions.PluginException;
 import org.apache.wiki.api.plugin.Plugin;
+import org.apache.wiki.attachment.AttachmentManager;
+import org.apache.wiki.i18n.InternationalizationManager;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.pages.PageSorter;
+import org.apache.wiki.parser.JSPWikiMarkupParser;
+import org.apache.wiki.parser.LinkParsingOperations;
 import org.apache.wiki.parser.MarkupParser;
 import org.apache.wiki.parser.WikiDocument;
 import org.apache.wiki.preferences.Preferences;
 import org.apache.wiki.preferences.Preferences.TimeFormat;
 import org.apache.wiki.render.RenderingManager;
+import org.apache.wiki.render.XHTMLRenderer;
 import org.apache.wiki.util.TextUtil;
 import org.apache.wiki.util.comparators.CollatorComparator;
 import org.apache.wiki.util.comparators.HumanComparator;
 import org.apache.wiki.util.comparators.JavaNaturalComparator;
 import org.apache.wiki.util.comparators.LocaleComparator;
+import org.jdom2.output.Format;
 
 import java.io.IOException;
 import java.text.Collator;
+import java.text.MessageFormat;
 import java.text.ParseException;
 import java.text.RuleBasedCollator;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Properties;
+import java.util.ResourceBundle;
 
 /**
  *  This is a base class for all plugins using referral things.
@@ -126,6 +137,22 @@ public abstract class AbstractReferralPlugin implements Plugin {
     protected static final String PARAM_SORTORDER_JAVA   = "java";
     protected static final String PARAM_SORTORDER_LOCALE = "locale";
 
+    /** Separators rendered as they are, which can be written straight into the resulting HTML. */
+    private static final String PLAIN_SEPARATOR_CHARS = " ,.;";
+
+    /** Maximum number of include / exclude parameter values whose compiled patterns are kept. */
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    /** Compiled glob patterns, by include / exclude parameter value, shared by all referral plugins. Least recently used go first. */
+    private static final Map< String, Pattern[] > c_patterns = Collections.synchronizedMap( new LinkedHashMap< String, Pattern[] >( 16, 0.75f, true ) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry< String, Pattern[] > eldest ) {
+            return size() > MAX_CACHED_PATTERNS;
+        }
+    } );
+
     protected int m_maxwidth = Integer.MAX_VALUE;
     protected String m_before = ""; // null not blank
     protected String m_separator = ""; // null not blank
@@ -149,7 +176,6 @@ public abstract class AbstractReferralPlugin implements Plugin {
      * @param params parameters for initializing the plugin
      * @throws PluginException if any of the plugin parameters are malformed
      */
-    // FIXME: The compiled pattern strings should really be cached somehow.
     public void initialize( final Context context, final Map< String, String > params ) throws PluginException {
         m_dateFormat = Preferences.getDateFormat( context, TimeFormat.DATETIME );
         m_engine = context.getEngine();
@@ -185,27 +211,16 @@ public abstract class AbstractReferralPlugin implements Plugin {
         s = params.get( PARAM_EXCLUDE );
         if ( s != null ) {
             try {
-                final PatternCompiler pc = new GlobCompiler();
-                final String[] ptrns = StringUtils.split( s, "," );
-                m_exclude = new Pattern[ ptrns.length ];
-                for ( int i = 0; i < ptrns.length; i++ ) {
-                    m_exclude[ i ] = pc.compile( ptrns[ i ] );
-                }
+                m_exclude = compileGlobs( s );
             } catch ( final MalformedPatternException e ) {
                 throw new PluginException( "Exclude-parameter has a malformed pattern: " + e.getMessage() );
             }
         }
 
-        // TODO: Cut-n-paste, refactor
         s = params.get( PARAM_INCLUDE );
         if ( s != null ) {
             try {
-                final PatternCompiler pc = new GlobCompiler();
-                final String[] ptrns = StringUtils.split( s, "," );
-                m_include = new Pattern[ ptrns.length ];
-                for ( int i = 0; i < ptrns.length; i++ ) {
-                    m_include[ i ] = pc.compile( ptrns[ i ] );
-                }
+                m_include = compileGlobs( s );
             } catch ( final MalformedPatternException e ) {
                 throw new PluginException( "Include-parameter has a malformed pattern: " + e.getMessage() );
             }
@@ -233,13 +248,48 @@ public abstract class AbstractReferralPlugin implements Plugin {
         initSorter( context, params );
     }
 
+    /**
+     *  Compiles a comma-separated list of glob patterns. Compiled patterns are immutable, so they are cached and shared between
+     *  plugin invocations; only matchers have to be created on each one.
+     *
+     *  @param globs comma-separated list of glob patterns.
+     *  @return the compiled patterns.
+     *  @throws MalformedPatternException if any of the patterns is malformed.
+     */
+    static Pattern[] compileGlobs( final String globs ) throws MalformedPatternException {
+        final Pattern[] cached = c_patterns.get( globs );
+        if( cached != null ) {
+            return cached;
+        }
+        final PatternCompiler pc = new GlobCompiler();
+        final String[] ptrns = StringUtils.split( globs, "," );
+        final Pattern[] patterns = new Pattern[ ptrns.length ];
+        for( int i = 0; i < ptrns.length; i++ ) {
+            patterns[ i ] = pc.compile( ptrns[ i ] );
+        }
+        c_patterns.put( globs, patterns );
+        return patterns;
+    }
+
+    /**
+     *  Filters a collection of pages according to the include and exclude parameters. The date of the most recently modified
+     *  page is taken from the pages themselves.
+     *
+     *  @param pages The collection to filter.
+     *  @return A filtered collection.
+     */
     protected List< Page > filterWikiPageCollection( final Collection< Page > pages ) {
-        final List< String > pageNames = filterCollection( pages.stream()
-                                                                .map( Page::getName )
-                                                                .collect( Collectors.toList() ) );
-        return pages.stream()
-                    .filter( wikiPage -> pageNames.contains( wikiPage.getName() ) )
-                    .collect( Collectors.toList() );
+        final List< Page > result = new ArrayList<>();
+        final PatternMatcher pm = new Perl5Matcher();
+        for( final Page page : pages ) {
+            if( accept( page.getName(), pm ) ) {
+                result.add( page );
+                if( m_lastModified ) {
+                    updateLastModified( page );
+                }
+            }
+        }
+        return result;
     }
 
     /**
@@ -252,38 +302,11 @@ public abstract class AbstractReferralPlugin implements Plugin {
         final ArrayList< String > result = new ArrayList<>();
         final PatternMatcher pm = new Perl5Matcher();
         for( final String pageName : c ) {
-            //
-            //  If include parameter exists, then by default we include only those
-            //  pages in it (excluding the ones in the exclude pattern list).
-            //
-            //  include='*' means the same as no include.
-            //
-            boolean includeThis = m_include == null;
-
-            if( m_include != null ) {
-                includeThis = Arrays.stream(m_include).anyMatch(pattern -> pm.matches(pageName, pattern)) ? true : m_include == null;
-            }
-
-            if( m_exclude != null ) {
-                // The inner loop, continue on the next item
-                if (Arrays.stream(m_exclude).anyMatch(pattern -> pm.matches(pageName, pattern))) {
-                    includeThis = false;
-                }
-            }
-
-            if( includeThis ) {
+            if( accept( pageName, pm ) ) {
                 result.add( pageName );
                 //  if we want to show the last modified date of the most recently change page, we keep a "high watermark" here:
-                final Page page;
                 if( m_lastModified ) {
-                    page = m_engine.getManager( PageManager.class ).getPage( pageName );
-                    if( page != null ) {
-                        final Date lastModPage = page.getLastModified();
-                        LOG.debug( "lastModified Date of page {} : {}", pageName, m_dateLastModified );
-                        if( lastModPage.after( m_dateLastModified ) ) {
-                            m_dateLastModified = lastModPage;
-                        }
-                    }
+                    updateLastModified( m_engine.getManager( PageManager.class ).getPage( pageName ) );
                 }
             }
         }
@@ -291,6 +314,36 @@ public abstract class AbstractReferralPlugin implements Plugin {
         return result;
     }
 
+    /**
+     *  Checks a page name against the include and exclude parameters. If include parameter exists, then by default we include
+     *  only those pages in it (excluding the ones in the exclude pattern list). include='*' means the same as no include.
+     *
+     *  @param pageName the page name.
+     *  @param pm the matcher to use.
+     *  @return {@code true} if the page has to be included.
+     */
+    private boolean accept( final String pageName, final PatternMatcher pm ) {
+        if( m_include != null && Arrays.stream( m_include ).noneMatch( pattern -> pm.matches( pageName, pattern ) ) ) {
+            return false;
+        }
+        return m_exclude == null || Arrays.stream( m_exclude ).noneMatch( pattern -> pm.matches( pageName, pattern ) );
+    }
+
+    /**
+     *  Keeps a "high watermark" with the last modified date of the most recently changed page.
+     *
+     *  @param page a page included in the output, may be {@code null}.
+     */
+    private void updateLastModified( final Page page ) {
+        if( page != null && page.getLastModified() != null ) {
+            final Date lastModPage = page.getLastModified();
+            LOG.debug( "lastModified Date of page {} : {}", page.getName(), m_dateLastModified );
+            if( lastModPage.after( m_dateLastModified ) ) {
+                m_dateLastModified = lastModPage;
+            }
+        }
+    }
+
     /**
      *  Filters and sorts a collection according to the include and exclude parameters.
      *
@@ -375,6 +428,102 @@ public abstract class AbstractReferralPlugin implements Plugin {
         return result;
     }
 
+    /**
+     *  Makes HTML from a Collection, the same as rendering the WikiText made by {@link #wikitizeCollection(Collection, String, int)}
+     *  with {@link #makeHTML(Context, String)}, but writing plain page links straight to XHTML, instead of parsing a synthetic
+     *  document with one link per page, which is what most of these plugins output. Whenever the output could differ (there is
+     *  markup on the before / after / separator parameters, a page name is not a plain page link, or a custom parser or renderer
+     *  is configured), the WikiText is rendered instead.
+     *
+     *  @param context The WikiContext
+     *  @param links Collection to make into HTML.
+     *  @param separator Separator string to use.
+     *  @param numItems How many items to show.
+     *  @return HTML
+     */
+    protected String makeHTML( final Context context, final Collection< String > links, final String separator, final int numItems ) {
+        if( links == null || links.isEmpty() || !isPlainLinkList( context, separator ) ) {
+            return makeHTML( context, wikitizeCollection( links, separator, numItems ) );
+        }
+
+        final String after = m_after.isEmpty() ? "" : "<br />";
+        final LinkParsingOperations lpo = new LinkParsingOperations( context );
+        final CutMutator cut = new CutMutator( m_maxwidth );
+        final StringBuilder output = new StringBuilder( links.size() * 80 );
+        int count = 0;
+        for( final String value : links ) {
+            if( count >= numItems && numItems != ALL_ITEMS ) {
+                break;
+            }
+            if( count > 0 ) {
+                output.append( after ).append( separator );
+            }
+            if( !appendLink( context, lpo, cut, output, value ) ) {
+                return makeHTML( context, wikitizeCollection( links, separator, numItems ) );
+            }
+            count++;
+        }
+        if( count > 0 ) {
+            output.append( after );
+        }
+
+        return output.toString();
+    }
+
+    /**
+     *  Checks if the rendered list would be just links, optionally followed by line breaks, or separated by plain text.
+     */
+    private boolean isPlainLinkList( final Context context, final String separator ) {
+        final Properties props = m_engine.getWikiProperties();
+        return JSPWikiMarkupParser.class.getName().equals( props.getProperty( RenderingManager.PROP_PARSER, JSPWikiMarkupParser.class.getName() ) )
+               && XHTMLRenderer.class.getName().equals( props.getProperty( RenderingManager.PROP_RENDERER, XHTMLRenderer.class.getName() ) )
+               && !Boolean.TRUE.equals( context.getVariable( Context.VAR_WYSIWYG_EDITOR_MODE ) )
+               && m_before.isEmpty()
+               && ( m_after.isEmpty() || ( m_after.equals( "\\\\" ) && separator.isEmpty() ) )
+               && StringUtils.containsOnly( separator, PLAIN_SEPARATOR_CHARS );
+    }
+
+    /**
+     *  Appends the XHTML that the parser would make out of a {@code [title|value]} link, if it is a plain link to a wiki page.
+     *
+     *  @return {@code false} if the link is not a plain link to a wiki page, and so the parser has to be used.
+     */
+    private boolean appendLink( final Context context, final LinkParsingOperations lpo, final CutMutator cut, final StringBuilder output, final String value ) {
+        final String title = m_engine.getManager( RenderingManager.class ).beautifyTitle( value );
+        if( !isPlainLinkPart( title ) || !isPlainLinkPart( value ) || title.startsWith( "{" )
+            || value.indexOf( ':' ) != -1 || value.indexOf( '#' ) != -1 || lpo.isExternalLink( value ) || TextUtil.isNumber( value )
+            || m_engine.getManager( AttachmentManager.class ).getAttachmentInfoName( context, value ) != null ) {
+            return false;
+        }
+        final String link = MarkupParser.cleanLink( value );
+        if( link.isEmpty() ) {
+            return false;
+        }
+
+        final String text = TextUtil.escapeHTMLEntities( cut.mutate( context, title ) );
+        final String matchedLink = lpo.linkIfExists( link );
+        if( matchedLink != null ) {
+            output.append( "<a class=\"" ).append( MarkupParser.CLASS_WIKIPAGE )
+                  .append( "\" href=\"" ).append( escapeAttribute( context.getURL( ContextEnum.PAGE_VIEW.getRequestContext(), matchedLink ) ) )
+                  .append( "\">" ).append( text ).append( "</a>" );
+        } else {
+            final ResourceBundle rb = Preferences.getBundle( context, InternationalizationManager.CORE_BUNDLE );
+            output.append( "<a class=\"" ).append( MarkupParser.CLASS_EDITPAGE )
+                  .append( "\" href=\"" ).append( escapeAttribute( context.getURL( ContextEnum.PAGE_EDIT.getRequestContext(), link ) ) )
+                  .append( "\" title=\"" ).append( escapeAttribute( MessageFormat.format( rb.getString( "markupparser.link.create" ), link ) ) )
+                  .append( "\">" ).append( text ).append( "</a>" );
+        }
+        return true;
+    }
+
+    private static boolean isPlainLinkPart( final String part ) {
+        return !part.isEmpty() && part.trim().equals( part ) && StringUtils.containsNone( part, "[]|\r\n" );
+    }
+
+    private static String escapeAttribute( final String value ) {
+        return Format.escapeAttribute( Format.getRawFormat().getEscapeStrategy(), value );
+    }
+
     protected String applyColumnsStyle( final String result ) {
         if( items > 1 ) {
             return "<div style=\"columns:" + items + ";" +
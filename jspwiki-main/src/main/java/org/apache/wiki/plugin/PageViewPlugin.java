@@ -18,17 +18,14 @@
  */
 package org.apache.wiki.plugin;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.oro.text.GlobCompiler;
 import org.apache.oro.text.regex.MalformedPatternException;
 import org.apache.oro.text.regex.Pattern;
-import org.apache.oro.text.regex.PatternCompiler;
 import org.apache.oro.text.regex.PatternMatcher;
 import org.apache.oro.text.regex.Perl5Matcher;
-import org.apache.wiki.WikiBackgroundThread;
+import org.apache.wiki.WikiBackgroundJob;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.ContextEnum;
 import org.apache.wiki.api.core.Engine;
@@ -43,24 +40,37 @@ import org.apache.wiki.event.WikiPageEvent;
 import org.apache.wiki.event.WikiPageRenameEvent;
 import org.apache.wiki.references.ReferenceManager;
 import org.apache.wiki.render.RenderingManager;
+import org.apache.wiki.util.FileUtil;
 import org.apache.wiki.util.TextUtil;
 
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Properties;
 import java.util.ResourceBundle;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
 
 /**
@@ -119,15 +129,18 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
     /** Constant for Wiki markup separator. */
     private static final String STR_SEPARATOR = "----";
 
-    /** Constant for comma-separated list separator. */
-    private static final String STR_COMMA = ",";
-
     /** Constant for no-op glob expression. */
     private static final String STR_GLOBSTAR = "*";
 
-    /** Constant for file storage. */
+    /** Constant for the legacy, properties-based, file storage. Only read if there isn't a {@link #COUNTER_STORE} yet. */
     private static final String COUNTER_PAGE = "PageCount.txt";
 
+    /** Constant for file storage. */
+    private static final String COUNTER_STORE = "PageCount.dat";
+
+    /** Identifies {@link #COUNTER_STORE} files, followed by the number of counters and then, for each one, its name and value. */
+    private static final int COUNTER_STORE_MAGIC = 0x4A535043;
+
     /** Constant for storage interval in seconds. */
     private static final int STORAGE_INTERVAL = 60;
 
@@ -183,27 +196,21 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
         /** Are we initialized? */
         private boolean m_initialized;
 
-        /** The page counters. */
-        private Map<String, Counter> m_counters;
-
-        /** The page counters in storage format. */
-        private Properties m_storage;
+        /** The page counters, sorted by page name. */
+        private volatile ConcurrentNavigableMap< String, Counter > m_counters;
 
-        /** Are all changes stored? */
-        private boolean m_dirty;
+        /** Are there changes not stored yet? */
+        private final AtomicBoolean m_dirty = new AtomicBoolean();
 
         /** The page count storage background thread. */
-        private Thread m_pageCountSaveThread;
+        private WikiBackgroundJob m_pageCountSaveThread;
 
         /** The work directory. */
         private String m_workDir;
 
-        /** Comparator for descending sort on page count. */
-        private final Comparator< Object > m_compareCountDescending = ( o1, o2 ) -> {
-            final int v1 = getCount( o1 );
-            final int v2 = getCount( o2 );
-            return ( v1 == v2 ) ? ( ( String )o1 ).compareTo( ( String )o2 ) : ( v1 < v2 ) ? 1 : -1;
-        };
+        /** Comparator for descending sort on page count, over snapshots of the counters so the order doesn't change while sorting. */
+        private final Comparator< PageCount > m_compareCountDescending =
+                Comparator.comparingLong( PageCount::getCount ).reversed().thenComparing( PageCount::getName );
 
         /**
          * Initialize the page view manager.
@@ -216,8 +223,7 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
             engine.addWikiEventListener( this );
             if( m_counters == null ) {
                 // Load the counters into a collection
-                m_storage = new Properties();
-                m_counters = new TreeMap<>();
+                m_counters = new ConcurrentSkipListMap<>();
 
                 loadCounters();
             }
@@ -241,14 +247,10 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
 
             if( m_counters != null ) {
 
-                m_dirty = true;
+                m_dirty.set( true );
                 storeCounters();
 
-                m_counters.clear();
                 m_counters = null;
-
-                m_storage.clear();
-                m_storage = null;
             }
 
             m_initialized = false;
@@ -269,20 +271,20 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
                     handleShutdown();
                 }
             } else if( ( event instanceof WikiPageRenameEvent ) && ( event.getType() == WikiPageRenameEvent.PAGE_RENAMED ) ) {
+                final Map< String, Counter > counters = m_counters;
                 final String oldPageName = ( ( WikiPageRenameEvent )event ).getOldPageName();
                 final String newPageName = ( ( WikiPageRenameEvent )event ).getNewPageName();
-                final Counter oldCounter = m_counters.get( oldPageName );
+                final Counter oldCounter = counters != null ? counters.remove( oldPageName ) : null;
                 if( oldCounter != null ) {
-                    m_storage.remove( oldPageName );
-                    m_counters.put( newPageName, oldCounter );
-                    m_storage.setProperty( newPageName, oldCounter.toString() );
-                    m_counters.remove( oldPageName );
-                    m_dirty = true;
+                    // views counted on the new name meanwhile are kept
+                    counters.merge( newPageName, oldCounter, ( counter, old ) -> counter.add( old.getValue() ) );
+                    m_dirty.set( true );
                 }
             } else if( ( event instanceof WikiPageEvent ) && ( event.getType() == WikiPageEvent.PAGE_DELETED ) ) {
-                final String pageName = ( ( WikiPageEvent )event ).getPageName();
-                m_storage.remove( pageName );
-                m_counters.remove( pageName );
+                final Map< String, Counter > counters = m_counters;
+                if( counters != null && counters.remove( ( ( WikiPageEvent )event ).getPageName() ) != null ) {
+                    m_dirty.set( true );
+                }
             }
         }
 
@@ -350,110 +352,69 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
                     }
                 }
 
-                synchronized( this ) {
-                    Counter counter = m_counters.get( pagename );
-
-                    // only count in view mode, keep storage values in sync
-                    if( increment && ContextEnum.PAGE_VIEW.getRequestContext().equalsIgnoreCase( context.getRequestContext() ) ) {
-                        if( counter == null ) {
-                            counter = new Counter();
-                            m_counters.put( pagename, counter );
-                        }
-                        counter.increment();
-                        m_storage.setProperty( pagename, counter.toString() );
-                        m_dirty = true;
-                    }
-
-                    if( show == null || STR_NONE.equals( show ) ) {
-                        // nothing to show
-
-                    } else if( PARAM_COUNT.equals( show ) ) {
-                        // show page count
-                        if( counter == null ) {
-                            counter = new Counter();
-                            m_counters.put( pagename, counter );
-                            m_storage.setProperty( pagename, counter.toString() );
-                            m_dirty = true;
-                        }
-                        result = counter.toString();
-
-                    } else if( body != null && !body.isEmpty() && STR_LIST.equals( show ) ) {
-                        // show list of counts
-                        String header = STR_EMPTY;
-                        String line = body;
-                        String footer = STR_EMPTY;
-                        int start = body.indexOf( STR_SEPARATOR );
-
-                        // split body into header, line, footer on ---- separator
-                        if( 0 < start ) {
-                            header = body.substring( 0, start );
-                            start = skipWhitespace( start + STR_SEPARATOR.length(), body );
-                            int end = body.indexOf( STR_SEPARATOR, start );
-                            if( start >= end ) {
-                                line = body.substring( start );
-                            } else {
-                                line = body.substring( start, end );
-                                end = skipWhitespace( end + STR_SEPARATOR.length(), body );
-                                footer = body.substring( end );
-                            }
-                        }
-
-                        // sort on name or count?
-                        Map< String, Counter > sorted = m_counters;
-                        if( PARAM_COUNT.equals( sort ) ) {
-                            sorted = new TreeMap<>( m_compareCountDescending );
-                            sorted.putAll( m_counters );
-                        }
-
-                        // build a messagebuffer with the list in wiki markup
-                        final StringBuffer buf = new StringBuffer( header );
-                        final MessageFormat fmt = new MessageFormat( line );
-                        final Object[] args = new Object[] { pagename, STR_EMPTY, STR_EMPTY };
-                        final Iterator< Entry< String, Counter > > iter = sorted.entrySet().iterator();
-
-                        while( 0 < entries && iter.hasNext() ) {
-                            final Entry< String, Counter > entry = iter.next();
-                            final String name = entry.getKey();
-
-                            // check minimum/maximum count
-                            final int value = entry.getValue().getValue();
-                            boolean use = min <= value && value <= max;
-
-                            // did we specify a refer-to page?
-                            if( use && referrers != null ) {
-                                use = referrers.contains( name );
-                            }
-
-                            // did we specify what pages to include?
-                            if( use && include != null ) {
-                                use = false;
-
-                                for( int n = 0; !use && n < include.length; n++ ) {
-                                    use = matcher.matches( name, include[ n ] );
-                                }
-                            }
-
-                            // did we specify what pages to exclude?
-                            if( use && null != exclude ) {
-                                for( int n = 0; use && n < exclude.length; n++ ) {
-                                    use = !matcher.matches( name, exclude[ n ] );
-                                }
-                            }
-
-                            if( use ) {
-                                args[ 1 ] = engine.getManager( RenderingManager.class ).beautifyTitle( name );
-                                args[ 2 ] = entry.getValue();
+                final ConcurrentNavigableMap< String, Counter > counters = m_counters;
+                if( counters == null ) {
+                    return result;
+                }
 
-                                fmt.format( args, buf, null );
+                // only count in view mode
+                if( increment && ContextEnum.PAGE_VIEW.getRequestContext().equalsIgnoreCase( context.getRequestContext() ) ) {
+                    counters.computeIfAbsent( pagename, k -> new Counter() ).increment();
+                    m_dirty.set( true );
+                }
 
-                                entries--;
-                            }
+                if( show == null || STR_NONE.equals( show ) ) {
+                    // nothing to show
+
+                } else if( PARAM_COUNT.equals( show ) ) {
+                    // show page count
+                    final Counter counter = counters.computeIfAbsent( pagename, k -> {
+                        m_dirty.set( true );
+                        return new Counter();
+                    } );
+                    result = counter.toString();
+
+                } else if( body != null && !body.isEmpty() && STR_LIST.equals( show ) ) {
+                    // show list of counts
+                    String header = STR_EMPTY;
+                    String line = body;
+                    String footer = STR_EMPTY;
+                    int start = body.indexOf( STR_SEPARATOR );
+
+                    // split body into header, line, footer on ---- separator
+                    if( 0 < start ) {
+                        header = body.substring( 0, start );
+                        start = skipWhitespace( start + STR_SEPARATOR.length(), body );
+                        int end = body.indexOf( STR_SEPARATOR, start );
+                        if( start >= end ) {
+                            line = body.substring( start );
+                        } else {
+                            line = body.substring( start, end );
+                            end = skipWhitespace( end + STR_SEPARATOR.length(), body );
+                            footer = body.substring( end );
                         }
-                        buf.append( footer );
+                    }
 
-                        // let the engine render the list
-                        result = engine.getManager( RenderingManager.class ).textToHTML( context, buf.toString() );
+                    // pick the pages to list, either the first ones by name or the most viewed ones
+                    final Collection< String > pages = referrers;
+                    final List< PageCount > listed = PARAM_COUNT.equals( sort )
+                                                   ? topCounts( counters, entries, pageCount -> accept( pageCount, min, max, pages, include, exclude, matcher ) )
+                                                   : firstCounts( counters, entries, pageCount -> accept( pageCount, min, max, pages, include, exclude, matcher ) );
+
+                    // build a messagebuffer with the list in wiki markup
+                    final StringBuffer buf = new StringBuffer( header );
+                    final MessageFormat fmt = new MessageFormat( line );
+                    final Object[] args = new Object[] { pagename, STR_EMPTY, STR_EMPTY };
+                    for( final PageCount pageCount : listed ) {
+                        args[ 1 ] = engine.getManager( RenderingManager.class ).beautifyTitle( pageCount.getName() );
+                        args[ 2 ] = pageCount;
+
+                        fmt.format( args, buf, null );
                     }
+                    buf.append( footer );
+
+                    // let the engine render the list
+                    result = engine.getManager( RenderingManager.class ).textToHTML( context, buf.toString() );
                 }
             }
             return result;
@@ -471,13 +432,7 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
             Pattern[] result = null;
             if( value != null && !value.isEmpty() && !STR_GLOBSTAR.equals( value ) ) {
                 try {
-                    final PatternCompiler pc = new GlobCompiler();
-                    final String[] ptrns = StringUtils.split( value, STR_COMMA );
-                    result = new Pattern[ ptrns.length ];
-
-                    for( int n = 0; n < ptrns.length; n++ ) {
-                        result[ n ] = pc.compile( ptrns[ n ] );
-                    }
+                    result = AbstractReferralPlugin.compileGlobs( value );
                 } catch( final MalformedPatternException e ) {
                     throw new PluginException( "Parameter " + name + " has a malformed pattern: " + e.getMessage() );
                 }
@@ -501,53 +456,166 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
         }
 
         /**
-         * Retrieve a page count.
-         * 
-         * @return int The page count for the given key.
-         * @param key the key for the Counter
+         * Check whether a page count has to be listed.
+         *
+         * @param pageCount the page count.
+         * @param min minimum page count to be listed.
+         * @param max maximum page count to be listed.
+         * @param referrers if not {@code null}, only these pages are listed.
+         * @param include if not {@code null}, only the pages matching any of these patterns are listed.
+         * @param exclude if not {@code null}, the pages matching any of these patterns are not listed.
+         * @param matcher matches page names against the patterns.
+         * @return boolean {@code true} if the page count has to be listed.
          */
-        int getCount( final Object key )
-        {
-            return m_counters.get( key ).getValue();
+        private boolean accept( final PageCount pageCount, final int min, final int max, final Collection< String > referrers,
+                                final Pattern[] include, final Pattern[] exclude, final PatternMatcher matcher ) {
+            final String name = pageCount.getName();
+
+            // check minimum/maximum count
+            boolean use = min <= pageCount.getCount() && pageCount.getCount() <= max;
+
+            // did we specify a refer-to page?
+            if( use && referrers != null ) {
+                use = referrers.contains( name );
+            }
+
+            // did we specify what pages to include?
+            if( use && include != null ) {
+                use = false;
+
+                for( int n = 0; !use && n < include.length; n++ ) {
+                    use = matcher.matches( name, include[ n ] );
+                }
+            }
+
+            // did we specify what pages to exclude?
+            if( use && null != exclude ) {
+                for( int n = 0; use && n < exclude.length; n++ ) {
+                    use = !matcher.matches( name, exclude[ n ] );
+                }
+            }
+            return use;
+        }
+
+        /**
+         * Retrieve the first accepted page counts, sorted by page name.
+         *
+         * @param counters the page counters, sorted by page name.
+         * @param entries maximum number of page counts to retrieve.
+         * @param filter page counts to retrieve.
+         * @return List the first accepted page counts.
+         */
+        List< PageCount > firstCounts( final Map< String, Counter > counters, final int entries, final Predicate< PageCount > filter ) {
+            final List< PageCount > result = new ArrayList<>();
+            for( final Iterator< Entry< String, Counter > > iter = counters.entrySet().iterator(); result.size() < entries && iter.hasNext(); ) {
+                final Entry< String, Counter > entry = iter.next();
+                final PageCount pageCount = new PageCount( entry.getKey(), entry.getValue().getValue() );
+                if( filter.test( pageCount ) ) {
+                    result.add( pageCount );
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Retrieve the most viewed, accepted, page counts, sorted by descending page count. Only the requested number of entries
+         * is kept on a heap while going through the counters, instead of sorting all of them.
+         *
+         * @param counters the page counters.
+         * @param entries maximum number of page counts to retrieve.
+         * @param filter page counts to retrieve.
+         * @return List the most viewed, accepted, page counts.
+         */
+        List< PageCount > topCounts( final Map< String, Counter > counters, final int entries, final Predicate< PageCount > filter ) {
+            if( entries <= 0 ) {
+                return new ArrayList<>();
+            }
+            // the head of the heap is the least viewed page count kept so far
+            final PriorityQueue< PageCount > heap = new PriorityQueue<>( Math.min( entries, 64 ), m_compareCountDescending.reversed() );
+            for( final Entry< String, Counter > entry : counters.entrySet() ) {
+                final PageCount pageCount = new PageCount( entry.getKey(), entry.getValue().getValue() );
+                if( heap.size() == entries && m_compareCountDescending.compare( pageCount, heap.peek() ) >= 0 ) {
+                    continue;
+                }
+                if( filter.test( pageCount ) ) {
+                    heap.offer( pageCount );
+                    if( heap.size() > entries ) {
+                        heap.poll();
+                    }
+                }
+            }
+            final List< PageCount > result = new ArrayList<>( heap );
+            result.sort( m_compareCountDescending );
+            return result;
         }
 
         /**
-         * Load the page view counters from file.
+         * Load the page view counters from file. Counters stored by previous versions, as a properties file, are read if
+         * there aren't any counters stored in the current format.
          */
         private void loadCounters() {
-            if( m_counters != null && m_storage != null ) {
+            if( m_counters != null ) {
                 LOG.info( "Loading counters." );
-                synchronized( this ) {
-                    try( final InputStream fis = Files.newInputStream( new File( m_workDir, COUNTER_PAGE ).toPath() ) ) {
-                        m_storage.load( fis );
-                    } catch( final IOException ioe ) {
-                        LOG.error( "Can't load page counter store: " + ioe.getMessage() + " , will create a new one!" );
+                try( final DataInputStream in = new DataInputStream( new BufferedInputStream( Files.newInputStream( Paths.get( m_workDir, COUNTER_STORE ) ) ) ) ) {
+                    if( in.readInt() != COUNTER_STORE_MAGIC ) {
+                        throw new IOException( COUNTER_STORE + " is not a page counter store" );
                     }
-
-                    // Copy the collection into a sorted map
-                    for( final Entry< ?, ? > entry : m_storage.entrySet() ) {
-                        m_counters.put( ( String )entry.getKey(), new Counter( ( String )entry.getValue() ) );
+                    final int size = in.readInt();
+                    for( int i = 0; i < size; i++ ) {
+                        m_counters.put( in.readUTF(), new Counter( in.readLong() ) );
                     }
-                    
-                    LOG.info( "Loaded " + m_counters.size() + " counter values." );
+                } catch( final NoSuchFileException e ) {
+                    loadLegacyCounters();
+                } catch( final IOException ioe ) {
+                    LOG.error( "Can't load page counter store: " + ioe.getMessage() + " , will create a new one!" );
                 }
+
+                LOG.info( "Loaded " + m_counters.size() + " counter values." );
+            }
+        }
+
+        /**
+         * Load the page view counters from the properties file used by previous versions.
+         */
+        private void loadLegacyCounters() {
+            final Properties storage = new Properties();
+            try( final InputStream fis = Files.newInputStream( Paths.get( m_workDir, COUNTER_PAGE ) ) ) {
+                storage.load( fis );
+            } catch( final IOException ioe ) {
+                LOG.error( "Can't load page counter store: " + ioe.getMessage() + " , will create a new one!" );
             }
+
+            // Copy the collection into a sorted map
+            for( final Entry< ?, ? > entry : storage.entrySet() ) {
+                m_counters.put( ( String )entry.getKey(), new Counter( NumberUtils.toLong( ( String )entry.getValue() ) ) );
+            }
+            m_dirty.set( !storage.isEmpty() );
         }
 
         /**
-         * Save the page view counters to file.
+         * Save the page view counters to file, if there have been changes since they were last saved. The counters are written
+         * to a temporary file first, which then replaces the previous one, so a failed save never loses the stored counters.
          */
         void storeCounters() {
-            if( m_counters != null && m_storage != null && m_dirty ) {
-                LOG.info( "Storing " + m_counters.size() + " counter values." );
+            final Map< String, Counter > counters = m_counters;
+            if( counters != null && m_dirty.getAndSet( false ) ) {
+                LOG.info( "Storing " + counters.size() + " counter values." );
+                final List< PageCount > snapshot = firstCounts( counters, Integer.MAX_VALUE, pageCount -> true );
+                final Path target = Paths.get( m_workDir, COUNTER_STORE ).toAbsolutePath();
                 synchronized( this ) {
-                    // Write out the collection of counters
-                    try( final OutputStream fos = Files.newOutputStream( new File( m_workDir, COUNTER_PAGE ).toPath() ) ) {
-                        m_storage.store( fos, "\n# The number of times each page has been viewed.\n# Do not modify.\n" );
-                        fos.flush();
-
-                        m_dirty = false;
+                    try {
+                        FileUtil.replaceFile( target, stream -> {
+                            final DataOutputStream out = new DataOutputStream( new BufferedOutputStream( stream ) );
+                            out.writeInt( COUNTER_STORE_MAGIC );
+                            out.writeInt( snapshot.size() );
+                            for( final PageCount pageCount : snapshot ) {
+                                out.writeUTF( pageCount.getName() );
+                                out.writeLong( pageCount.getCount() );
+                            }
+                            out.flush();
+                        } );
                     } catch( final IOException ioe ) {
+                        m_dirty.set( true );
                         LOG.error( "Couldn't store counters values: " + ioe.getMessage() );
                     }
                 }
@@ -560,18 +628,18 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
          * @param thrd thread that can be the current background thread.
          * @return boolean <code>true</code> if the thread is still the current background thread.
          */
-        private synchronized boolean isRunning( final Thread thrd )
+        private synchronized boolean isRunning( final WikiBackgroundJob thrd )
         {
             return m_initialized && thrd == m_pageCountSaveThread;
         }
 
     }
 
-    /** Counter for page hits collection. */
+    /** Counter for page hits collection, which can be incremented concurrently without contention. */
     private static final class Counter {
 
         /** The count value. */
-        private int m_count;
+        private final LongAdder m_count = new LongAdder();
 
         /**
          * Create a new counter.
@@ -584,45 +652,74 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
          * 
          * @param value Count value.
          */
-        public Counter( final String value )
-        {
-            setValue( value );
+        public Counter( final long value ) {
+            m_count.add( value );
         }
 
         /**
          * Increment counter.
          */
-        public void increment()
-        {
-            m_count++;
+        public void increment() {
+            m_count.increment();
+        }
+
+        /**
+         * Add the given count to this counter.
+         *
+         * @param value Count value to add.
+         * @return this counter.
+         */
+        public Counter add( final long value ) {
+            m_count.add( value );
+            return this;
         }
 
         /**
          * Get the count value.
          * 
-         * @return int
+         * @return long
          */
-        public int getValue()
-        {
-            return m_count;
+        public long getValue() {
+            return m_count.sum();
         }
 
         /**
-         * Set the count value.
-         * 
-         * @param value String representation of the count.
+         * @return String representation of the count.
          */
-        public void setValue( final String value )
-        {
-            m_count = NumberUtils.toInt( value );
+        @Override
+        public String toString() {
+            return String.valueOf( getValue() );
+        }
+
+    }
+
+    /** Snapshot of the count of a page, as listed by the plugin. */
+    static final class PageCount {
+
+        /** The page name. */
+        private final String m_name;
+
+        /** The count value. */
+        private final long m_count;
+
+        PageCount( final String name, final long count ) {
+            m_name = name;
+            m_count = count;
+        }
+
+        String getName() {
+            return m_name;
+        }
+
+        long getCount() {
+            return m_count;
         }
 
         /**
          * @return String representation of the count.
          */
         @Override
-        public String toString()
-        {
+        public String toString() {
             return String.valueOf( m_count );
         }
 
@@ -631,7 +728,7 @@ public class PageViewPlugin extends AbstractReferralPlugin implements Plugin, In
     /**
      * Background thread storing the page counters.
      */
-    static final class CounterSaveThread extends WikiBackgroundThread {
+    static final class CounterSaveThread extends WikiBackgroundJob {
 
         /** The page view manager. */
         private final PageViewManager m_manager;
@@ -94,7 +94,6 @@ public class ReferringPagesPlugin extends AbstractReferralPlugin {
         final Page page = context.getEngine().getManager( PageManager.class ).getPage( pageName );
         if( page != null ) {
             Collection< String > links  = refmgr.findReferrers( page.getName() );
-            String wikitext;
 
             super.initialize( context, params );
 
@@ -109,9 +108,7 @@ public class ReferringPagesPlugin extends AbstractReferralPlugin {
 
             if( links != null && !links.isEmpty()) {
                 links = filterAndSortCollection( links );
-                wikitext = wikitizeCollection( links, m_separator, items );
-
-                result.append( applyColumnsStyle( makeHTML( context, wikitext ) ) );
+                result.append( applyColumnsStyle( makeHTML( context, links, m_separator, items ) ) );
 
                 if( items < links.size() && items > 0 ) {
                     final Object[] args = { "" + ( links.size() - items ) };
@@ -129,8 +126,7 @@ public class ReferringPagesPlugin extends AbstractReferralPlugin {
 
             // If nothing was left after filtering or during search
             if( links == null || links.isEmpty()) {
-                wikitext = rb.getString( "referringpagesplugin.nobody" );
-                result.append( makeHTML( context, wikitext ) );
+                result.append( makeHTML( context, rb.getString( "referringpagesplugin.nobody" ) ) );
             } else  if( m_show.equals( PARAM_SHOW_VALUE_COUNT ) ) {
                 result = new StringBuilder();
                 result.append( links.size() );
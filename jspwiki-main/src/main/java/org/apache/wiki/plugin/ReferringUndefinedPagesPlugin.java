@@ -78,9 +78,8 @@ public class ReferringUndefinedPagesPlugin extends AbstractReferralPlugin {
 
         result = super.filterAndSortCollection( result );
 
-        final String wikitext = wikitizeCollection( result, m_separator, items );
         final StringBuilder resultHTML = new StringBuilder();
-        resultHTML.append( applyColumnsStyle( makeHTML( context, wikitext ) ) );
+        resultHTML.append( applyColumnsStyle( makeHTML( context, result, m_separator, items ) ) );
 
         // add the more.... text
         if( items < result.size() && items > 0 ) {
@@ -65,8 +65,7 @@ public class UndefinedPagesPlugin extends AbstractReferralPlugin {
             wikitext = "" + links.size();
             return makeHTML( context, wikitext );
         } else {
-            wikitext = wikitizeCollection( links, m_separator, ALL_ITEMS );
-            return applyColumnsStyle( makeHTML( context, wikitext ) );
+            return applyColumnsStyle( makeHTML( context, links, m_separator, ALL_ITEMS ) );
         }
     }
 
@@ -75,8 +75,7 @@ public class UnusedPagesPlugin extends AbstractReferralPlugin {
             }
             return makeHTML( context, wikitext );
         } else {
-            wikitext = wikitizeCollection( links, m_separator, ALL_ITEMS );
-            return applyColumnsStyle( makeHTML( context, wikitext ) );
+            return applyColumnsStyle( makeHTML( context, links, m_separator, ALL_ITEMS ) );
         }
     }
 
@@ -21,7 +21,6 @@ package org.apache.wiki.plugin;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.ContextEnum;
 import org.apache.wiki.api.core.Engine;
-import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.exceptions.PluginException;
 import org.apache.wiki.api.plugin.Plugin;
 import org.apache.wiki.util.TextUtil;
@@ -31,7 +30,6 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -112,13 +110,7 @@ public class WeblogArchivePlugin implements Plugin {
         final Comparator< Calendar > comp = new ArchiveComparator();
         final TreeSet<Calendar> res = new TreeSet<>( comp );
 
-        final WeblogPlugin pl = new WeblogPlugin();
-
-        final List< Page > blogEntries = pl.findBlogEntries( engine, page, new Date(0L), new Date() );
-
-        for( final Page p : blogEntries ) {
-            // FIXME: Not correct, should parse page creation time.
-            final Date d = p.getLastModified();
+        for( final Date d : WeblogIndex.of( engine ).findMonths( page, new Date() ) ) {
             final Calendar cal = Calendar.getInstance();
             cal.setTime( d );
             res.add( cal );
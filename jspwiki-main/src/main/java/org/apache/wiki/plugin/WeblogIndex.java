@@ -0,0 +1,287 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.api.core.Page;
+import org.apache.wiki.api.exceptions.ProviderException;
+import org.apache.wiki.api.providers.WikiProvider;
+import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.content.PageRenamer;
+import org.apache.wiki.event.WikiEvent;
+import org.apache.wiki.event.WikiEventListener;
+import org.apache.wiki.event.WikiEventManager;
+import org.apache.wiki.event.WikiPageEvent;
+import org.apache.wiki.event.WikiPageRenameEvent;
+import org.apache.wiki.pages.PageManager;
+import org.apache.wiki.references.ReferenceManager;
+import org.apache.wiki.util.TextUtil;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+
+/**
+ *  Index of the entries of every weblog of an {@link Engine}, sorted by creation date, so the {@link WeblogPlugin} and the
+ *  {@link WeblogArchivePlugin} don't have to go through all the pages of the wiki looking for blog entries.
+ *  <p>
+ *  The index is built the first time it is requested, and then kept up to date listening to page store, delete and rename events,
+ *  and to the pages invalidated by other nodes sharing the page repository.
+ *  It holds the first version of each entry, which is the one telling its creation date and author.
+ *  <p>
+ *  It also keeps the number of comments of each entry, counted when its comments page is saved (or, for pages not saved since
+ *  the index was built, the first time they're requested), so showing them doesn't require reading the comment pages.
+ */
+final class WeblogIndex implements WikiEventListener {
+
+    private static final Logger LOG = LogManager.getLogger( WeblogIndex.class );
+
+    /** Engine attribute holding its weblog index. */
+    private static final String ATTR_WEBLOG_INDEX = WeblogIndex.class.getName();
+
+    /** Separator between the weblog name and the date of the entry on the name of blog entry pages. */
+    private static final String ENTRY_SEPARATOR = WeblogPlugin.makeEntryPage( "" );
+
+    /** Separator between the weblog name and the date of the entry on the name of comment pages. */
+    private static final String COMMENTS_SEPARATOR = TextUtil.replaceString( ENTRY_SEPARATOR, "blogentry", "comments" );
+
+    /** Blog entries sorted by creation date, then name. */
+    private static final Comparator< Page > BY_DATE = Comparator.comparing( Page::getLastModified ).thenComparing( Page::getName );
+
+    private final Engine m_engine;
+
+    /** Entries of each weblog, sorted by creation date. */
+    private final Map< String, NavigableSet< Page > > m_weblogs = new ConcurrentHashMap<>();
+
+    /** Indexed entries, by page name. */
+    private final Map< String, Page > m_entries = new ConcurrentHashMap<>();
+
+    /** Number of comments, by comments page name. */
+    private final Map< String, Integer > m_comments = new ConcurrentHashMap<>();
+
+    private WeblogIndex( final Engine engine ) {
+        m_engine = engine;
+    }
+
+    /**
+     *  Returns the weblog index of the given engine, building it if needed.
+     *
+     *  @param engine the wiki engine.
+     *  @return the weblog index of the given engine.
+     */
+    static WeblogIndex of( final Engine engine ) {
+        WeblogIndex index = engine.getAttribute( ATTR_WEBLOG_INDEX );
+        if( index == null ) {
+            synchronized( WeblogIndex.class ) {
+                index = engine.getAttribute( ATTR_WEBLOG_INDEX );
+                if( index == null ) {
+                    index = new WeblogIndex( engine );
+                    index.build();
+                    engine.setAttribute( ATTR_WEBLOG_INDEX, index );
+                }
+            }
+        }
+        return index;
+    }
+
+    private void build() {
+        // listen first, so changes made while going through the pages aren't missed
+        WikiEventManager.addWikiEventListener( m_engine.getManager( PageManager.class ), this );
+        WikiEventManager.addWikiEventListener( m_engine.getManager( PageRenamer.class ), this );
+        // pages changed through other nodes sharing the page repository
+        final Consumer< Serializable > pageInvalidated = key -> invalidated( key.toString() );
+        m_engine.getManager( CachingManager.class ).registerListener( CachingManager.CACHE_PAGES, "invalidated", pageInvalidated );
+        for( final String pageName : m_engine.getManager( ReferenceManager.class ).findCreated() ) {
+            add( pageName );
+        }
+        LOG.debug( "Indexed {} blog entries from {} weblogs", m_entries.size(), m_weblogs.size() );
+    }
+
+    /**
+     *  Returns the entries of a weblog created within the given dates, both excluded.
+     *
+     *  @param weblogName the name of the weblog.
+     *  @param start the date after which entries are returned.
+     *  @param end the date before which entries are returned.
+     *  @return the first versions of the matching entries, sorted by creation date.
+     */
+    List< Page > findEntries( final String weblogName, final Date start, final Date end ) {
+        final List< Page > result = new ArrayList<>();
+        final NavigableSet< Page > entries = m_weblogs.get( weblogName );
+        if( entries != null && start.before( end ) ) {
+            for( final Page entry : entries.subSet( bound( start ), false, bound( end ), false ) ) {
+                if( entry.getLastModified().after( start ) ) {
+                    result.add( entry.clone() );
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Returns the months on which a weblog has entries created before the given date, looking up the first entry of each month.
+     *
+     *  @param weblogName the name of the weblog.
+     *  @param end the date before which entries are considered.
+     *  @return the creation dates of the first entry of each month with entries, sorted by creation date.
+     */
+    List< Date > findMonths( final String weblogName, final Date end ) {
+        final List< Date > result = new ArrayList<>();
+        final NavigableSet< Page > entries = m_weblogs.get( weblogName );
+        if( entries != null ) {
+            final Calendar next = Calendar.getInstance();
+            Page entry = entries.isEmpty() ? null : entries.first();
+            while( entry != null && entry.getLastModified().before( end ) ) {
+                result.add( entry.getLastModified() );
+                next.setTime( entry.getLastModified() );
+                next.set( Calendar.DAY_OF_MONTH, 1 );
+                next.set( Calendar.HOUR_OF_DAY, 0 );
+                next.set( Calendar.MINUTE, 0 );
+                next.set( Calendar.SECOND, 0 );
+                next.set( Calendar.MILLISECOND, 0 );
+                next.add( Calendar.MONTH, 1 );
+                entry = entries.ceiling( bound( next.getTime() ) );
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Returns the number of comments on a comments page, that is, its number of sections.
+     *
+     *  @param commentPage the name of the comments page.
+     *  @return the number of comments, {@code 0} if the page doesn't exist.
+     */
+    int countComments( final String commentPage ) {
+        final Integer comments = m_comments.get( commentPage );
+        if( comments != null ) {
+            return comments;
+        }
+        final int counted = count( commentPage );
+        final Integer previous = m_comments.putIfAbsent( commentPage, counted );
+        return previous != null ? previous : counted;
+    }
+
+    private int count( final String commentPage ) {
+        final String pagedata = m_engine.getManager( PageManager.class ).getPureText( commentPage, WikiProvider.LATEST_VERSION );
+        if( pagedata == null || pagedata.trim().isEmpty() ) {
+            return 0;
+        }
+        return TextUtil.countSections( pagedata );
+    }
+
+    /**
+     *  Keeps the index up to date with page changes.
+     *
+     *  @param event the incoming event.
+     */
+    @Override
+    public void actionPerformed( final WikiEvent event ) {
+        if( event instanceof WikiPageRenameEvent ) {
+            final WikiPageRenameEvent wpre = ( WikiPageRenameEvent )event;
+            remove( wpre.getOldPageName() );
+            add( wpre.getNewPageName() );
+            m_comments.remove( wpre.getOldPageName() );
+            m_comments.remove( wpre.getNewPageName() );
+        } else if( event instanceof WikiPageEvent ) {
+            final WikiPageEvent wpe = ( WikiPageEvent )event;
+            if( wpe.getType() == WikiPageEvent.PAGE_DELETED ) {
+                remove( wpe.getPageName() );
+                m_comments.remove( wpe.getPageName() );
+            } else if( wpe.getType() == WikiPageEvent.PAGE_STORED ) {
+                // deleting versions also fires this event, and the first version may have been deleted
+                add( wpe.getPageName() );
+                if( isComments( wpe.getPageName() ) ) {
+                    m_comments.put( wpe.getPageName(), count( wpe.getPageName() ) );
+                }
+            }
+        }
+    }
+
+    /**
+     *  Looks up again a page changed by another node, as it may have become, or stopped being, a blog entry or comments page.
+     *
+     *  @param pageName the name of the changed page.
+     */
+    void invalidated( final String pageName ) {
+        add( pageName );
+        m_comments.remove( pageName ); // counted again on next request
+    }
+
+    private static boolean isEntry( final String pageName ) {
+        return pageName != null && pageName.indexOf( '/' ) == -1 && pageName.indexOf( ENTRY_SEPARATOR ) > 0;
+    }
+
+    private static boolean isComments( final String pageName ) {
+        return pageName != null && pageName.indexOf( '/' ) == -1 && pageName.indexOf( COMMENTS_SEPARATOR ) > 0;
+    }
+
+    private void add( final String pageName ) {
+        if( isEntry( pageName ) ) {
+            try {
+                final Page firstVersion = m_engine.getManager( PageManager.class ).getPageInfo( pageName, 1 );
+                if( firstVersion == null || firstVersion.getLastModified() == null ) {
+                    remove( pageName );
+                    return;
+                }
+                final String weblogName = pageName.substring( 0, pageName.indexOf( ENTRY_SEPARATOR ) );
+                final NavigableSet< Page > entries = m_weblogs.computeIfAbsent( weblogName, k -> new ConcurrentSkipListSet<>( BY_DATE ) );
+                final Page previous = m_entries.put( pageName, firstVersion );
+                if( previous == null || BY_DATE.compare( previous, firstVersion ) != 0 ) {
+                    entries.add( firstVersion );
+                    if( previous != null ) {
+                        entries.remove( previous );
+                    }
+                }
+            } catch( final ProviderException | RuntimeException e ) {
+                LOG.debug( "Page name :" + pageName + " was suspected as a blog entry but it isn't because of parsing errors", e );
+            }
+        }
+    }
+
+    private void remove( final String pageName ) {
+        final Page entry = pageName != null ? m_entries.remove( pageName ) : null;
+        if( entry != null ) {
+            final NavigableSet< Page > entries = m_weblogs.get( pageName.substring( 0, pageName.indexOf( ENTRY_SEPARATOR ) ) );
+            if( entries != null ) {
+                entries.remove( entry );
+            }
+        }
+    }
+
+    /** Creates a page preceding all the entries created on the given date, used only to look up entries by date on the index. */
+    private Page bound( final Date date ) {
+        final Page bound = Wiki.contents().page( m_engine, "" );
+        bound.setLastModified( date );
+        return bound;
+    }
+
+}
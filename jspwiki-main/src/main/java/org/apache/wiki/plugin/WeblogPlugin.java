@@ -18,8 +18,6 @@
  */
 package org.apache.wiki.plugin;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.ContextEnum;
 import org.apache.wiki.api.core.Engine;
@@ -29,13 +27,11 @@ import org.apache.wiki.api.exceptions.ProviderException;
 import org.apache.wiki.api.plugin.ParserStagePlugin;
 import org.apache.wiki.api.plugin.Plugin;
 import org.apache.wiki.api.plugin.PluginElement;
-import org.apache.wiki.api.providers.WikiProvider;
 import org.apache.wiki.auth.AuthorizationManager;
 import org.apache.wiki.auth.permissions.PagePermission;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.preferences.Preferences;
 import org.apache.wiki.preferences.Preferences.TimeFormat;
-import org.apache.wiki.references.ReferenceManager;
 import org.apache.wiki.render.RenderingManager;
 import org.apache.wiki.util.TextUtil;
 
@@ -43,7 +39,6 @@ import java.text.DateFormat;
 import java.text.MessageFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Comparator;
 import java.util.Date;
@@ -52,7 +47,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -88,7 +82,6 @@ import java.util.regex.Pattern;
 
 public class WeblogPlugin implements Plugin, ParserStagePlugin {
 
-    private static final Logger LOG = LogManager.getLogger(WeblogPlugin.class);
     private static final Pattern HEADINGPATTERN;
 
     /** How many days are considered by default.  Default value is {@value} */
@@ -393,17 +386,13 @@ public class WeblogPlugin implements Plugin, ParserStagePlugin {
     }
 
     private int guessNumberOfComments( final Engine engine, final String commentpage ) {
-        final String pagedata = engine.getManager( PageManager.class ).getPureText( commentpage, WikiProvider.LATEST_VERSION );
-        if( pagedata == null || pagedata.trim().isEmpty() ) {
-            return 0;
-        }
-
-        return TextUtil.countSections( pagedata );
+        return WeblogIndex.of( engine ).countComments( commentpage );
     }
 
     /**
      *  Attempts to locate all pages that correspond to the
      *  blog entry pattern.  Will only consider the days on the dates; not the hours and minutes.
+     *  Entries are looked up on an index of blog entries sorted by creation date, kept up to date as pages change.
      *
      *  @param engine Engine which is used to get the pages
      *  @param baseName The basename (e.g. "Main" if you want "Main_blogentry_xxxx")
@@ -411,29 +400,8 @@ public class WeblogPlugin implements Plugin, ParserStagePlugin {
      *  @param end   The end date which is the last to be considered
      *  @return a list of pages with their FIRST revisions.
      */
-    public List< Page > findBlogEntries( final Engine engine, String baseName, final Date start, final Date end ) {
-        final PageManager mgr = engine.getManager( PageManager.class );
-        final Set< String > allPages = engine.getManager( ReferenceManager.class ).findCreated();
-        final ArrayList< Page > result = new ArrayList<>();
-
-        baseName = makeEntryPage( baseName );
-
-        for( final String pageName : allPages ) {
-            if( pageName.startsWith( baseName ) ) {
-                try {
-                    final Page firstVersion = mgr.getPageInfo( pageName, 1 );
-                    final Date d = firstVersion.getLastModified();
-
-                    if( d.after( start ) && d.before( end ) ) {
-                        result.add( firstVersion );
-                    }
-                } catch( final Exception e ) {
-                    LOG.debug( "Page name :" + pageName + " was suspected as a blog entry but it isn't because of parsing errors", e );
-                }
-            }
-        }
-
-        return result;
+    public List< Page > findBlogEntries( final Engine engine, final String baseName, final Date start, final Date end ) {
+        return WeblogIndex.of( engine ).findEntries( baseName, start, end );
     }
 
     /**
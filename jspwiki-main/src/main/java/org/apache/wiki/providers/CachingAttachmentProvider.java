@@ -98,6 +98,7 @@ public class CachingAttachmentProvider implements AttachmentProvider {
         provider.putAttachmentData( att, data );
         cachingManager.remove( CachingManager.CACHE_ATTACHMENTS_COLLECTION, att.getParentName() );
         att.setLastModified( new Date() );
+        cachingManager.remove( CachingManager.CACHE_ATTACHMENTS, att.getName() ); // so other nodes drop their copy
         cachingManager.put( CachingManager.CACHE_ATTACHMENTS, att.getName(), att );
         attachments.incrementAndGet();
     }
@@ -144,27 +145,26 @@ public class CachingAttachmentProvider implements AttachmentProvider {
 
             // Make sure that all attachments are in the cache.
             synchronized( this ) {
-                for( final Attachment att : all ) {
-                    cachingManager.put( CachingManager.CACHE_ATTACHMENTS, att.getName(), att );
-                }
-                if( timestamp.getTime() == 0L ) { // all attachments requested
+                if( timestamp.getTime() == 0L ) { // all attachments requested, evictions while filling the cache set it back to false
                     allRequested.set( true );
                     attachments.set( all.size() );
                 }
+                for( final Attachment att : all ) {
+                    cachingManager.put( CachingManager.CACHE_ATTACHMENTS, att.getName(), att );
+                }
             }
         } else {
             final List< String > keys = cachingManager.keys( CachingManager.CACHE_ATTACHMENTS );
             all = new ArrayList<>();
             for( final String key : keys) {
-                final Attachment cachedAttachment = cachingManager.get( CachingManager.CACHE_ATTACHMENTS, key, () -> null );
+                final Attachment cachedAttachment = cachingManager.get( CachingManager.CACHE_ATTACHMENTS, key );
                 if( cachedAttachment != null ) {
                     all.add( cachedAttachment );
                 }
             }
         }
 
-        if( cachingManager.enabled( CachingManager.CACHE_ATTACHMENTS )
-                && attachments.get() >= cachingManager.info( CachingManager.CACHE_ATTACHMENTS ).getMaxElementsAllowed() ) {
+        if( cachingManager.enabled( CachingManager.CACHE_ATTACHMENTS ) && !cacheHoldsAllAttachments() ) {
             LOG.warn( "seems {} can't hold all attachments from your page repository, " +
                     "so we're delegating on the underlying provider instead. Please consider increasing " +
                     "your cache sizes on the ehcache configuration file to avoid this behaviour", CachingManager.CACHE_ATTACHMENTS );
@@ -174,6 +174,23 @@ public class CachingAttachmentProvider implements AttachmentProvider {
         return all;
     }
 
+    /**
+     *  Tells whether the attachment cache is known to hold all attachments from the repository.
+     *
+     *  @return {@code true} if all attachments are known to be cached, {@code false} otherwise.
+     */
+    private boolean cacheHoldsAllAttachments() {
+        final CacheInfo info = cachingManager.info( CachingManager.CACHE_ATTACHMENTS );
+        if( info == null ) {
+            return false;
+        }
+        if( info.isBoundedByWeight() ) {
+            // no telling how many attachments fit in the cache, but none has been evicted since all of them were put on it
+            return allRequested.get();
+        }
+        return attachments.get() < info.getMaxElementsAllowed();
+    }
+
     /**
      *  Simply goes through the collection and attempts to locate the
      *  given attachment of that name.
@@ -168,7 +168,7 @@ public class CachingProvider implements PageProvider {
         }
 
         //  If we have a list of all pages in memory, then any page not in the cache must be non-existent.
-        if( pages.get() < cachingManager.info( CachingManager.CACHE_PAGES ).getMaxElementsAllowed() ) {
+        if( cacheHoldsAllPages() ) {
             return false;
         }
 
@@ -246,25 +246,24 @@ public class CachingProvider implements PageProvider {
             all = provider.getAllPages();
             // Make sure that all pages are in the cache.
             synchronized( this ) {
+                allRequested.set( true ); // evictions while filling the cache set it back to false
                 for( final Page p : all ) {
                     cachingManager.put( CachingManager.CACHE_PAGES,  p.getName(), p );
                 }
-                allRequested.set( true );
             }
             pages.set( all.size() );
         } else {
             final List< String > keys = cachingManager.keys( CachingManager.CACHE_PAGES );
             all = new TreeSet<>();
             for( final String key : keys ) {
-                final Page cachedPage = cachingManager.get( CachingManager.CACHE_PAGES, key, () -> null );
+                final Page cachedPage = cachingManager.get( CachingManager.CACHE_PAGES, key, () -> provider.getPageInfo( key, PageProvider.LATEST_VERSION ) );
                 if( cachedPage != null ) {
                     all.add( cachedPage );
                 }
             }
         }
 
-        if( cachingManager.enabled( CachingManager.CACHE_PAGES )
-                && pages.get() >= cachingManager.info( CachingManager.CACHE_PAGES ).getMaxElementsAllowed() ) {
+        if( cachingManager.enabled( CachingManager.CACHE_PAGES ) && !cacheHoldsAllPages() ) {
             LOG.warn( "seems {} can't hold all pages from your page repository, " +
                     "so we're delegating on the underlying provider instead. Please consider increasing " +
                     "your cache sizes on the ehcache configuration file to avoid this behaviour", CachingManager.CACHE_PAGES );
@@ -274,6 +273,23 @@ public class CachingProvider implements PageProvider {
         return all;
     }
 
+    /**
+     *  Tells whether the page cache is known to hold all pages from the repository.
+     *
+     *  @return {@code true} if all pages are known to be cached, {@code false} otherwise.
+     */
+    private boolean cacheHoldsAllPages() {
+        final CacheInfo info = cachingManager.info( CachingManager.CACHE_PAGES );
+        if( info == null ) {
+            return false;
+        }
+        if( info.isBoundedByWeight() ) {
+            // no telling how many pages fit in the cache, but none has been evicted since all of them were put on it
+            return allRequested.get();
+        }
+        return pages.get() < info.getMaxElementsAllowed();
+    }
+
     /**
      *  {@inheritDoc}
      */
@@ -308,7 +324,7 @@ public class CachingProvider implements PageProvider {
                 final String data = provider.getPageText( page.getName(), page.getVersion() );
                 final Context ctx = Wiki.context().create( engine, page );
                 final MarkupParser parser = mgr.getParser( ctx, data );
-
+                parser.enableReferencesOnly( true );
                 parser.parse();
             } catch( final Exception ex ) {
                 LOG.debug( "Failed to retrieve variables for wikipage {}", page );
@@ -392,6 +408,10 @@ public class CachingProvider implements PageProvider {
     public void deletePage( final String pageName ) throws ProviderException {
         //  See note in deleteVersion().
         synchronized( this ) {
+            // remove first, so other nodes drop their copies
+            cachingManager.remove( CachingManager.CACHE_PAGES, pageName );
+            cachingManager.remove( CachingManager.CACHE_PAGES_TEXT, pageName );
+            cachingManager.remove( CachingManager.CACHE_PAGES_HISTORY, pageName );
             cachingManager.put( CachingManager.CACHE_PAGES, pageName, null );
             cachingManager.put( CachingManager.CACHE_PAGES_TEXT, pageName, null );
             cachingManager.put( CachingManager.CACHE_PAGES_HISTORY, pageName, null );
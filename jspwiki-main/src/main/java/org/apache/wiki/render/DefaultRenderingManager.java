@@ -49,11 +49,13 @@ import org.apache.wiki.util.TextUtil;
 import org.apache.wiki.variables.VariableManager;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.io.StringReader;
 import java.lang.reflect.Constructor;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 
 /**
@@ -115,6 +117,9 @@ public class DefaultRenderingManager implements RenderingManager {
         LOG.info( "Rendering content with {}.", renderImplName );
 
         WikiEventManager.addWikiEventListener( m_engine.getManager( FilterManager.class ),this );
+        // pages changed through other nodes sharing the page repository
+        final Consumer< Serializable > pageInvalidated = key -> flushDocuments( key.toString() );
+        cachingManager.registerListener( CachingManager.CACHE_PAGES, "invalidated", pageInvalidated );
     }
 
     private Constructor< ? > initRenderer( final String renderImplName, final Class< ? >[] rendererParams ) throws WikiException {
@@ -193,7 +198,7 @@ public class DefaultRenderingManager implements RenderingManager {
                               context.getVariable( Context.VAR_EXECUTE_PLUGINS );
 
         if( useCache( context ) ) {
-            final WikiDocument doc = cachingManager.get( CachingManager.CACHE_DOCUMENTS, pageid, () -> null );
+            final WikiDocument doc = cachingManager.get( CachingManager.CACHE_DOCUMENTS, pageid );
             if ( doc != null ) {
                 //  This check is needed in case the different filters have actually changed the page data.
                 //  FIXME: Figure out a faster method
@@ -337,6 +342,7 @@ public class DefaultRenderingManager implements RenderingManager {
             if( !parseAccessRules ) {
                 mp.disableAccessRules();
             }
+            mp.enableReferencesOnly( justParse );
 
             final WikiDocument doc = mp.parse();
             //  In some cases it's better just to parse, not to render
@@ -391,7 +397,8 @@ public class DefaultRenderingManager implements RenderingManager {
     /**
      * {@inheritDoc}
      *
-     * <p>Flushes the document cache in response to a POST_SAVE_BEGIN event.
+     * <p>Flushes the document cache in response to a POST_SAVE_BEGIN event. Pages changed through other nodes sharing the
+     * page repository get their documents flushed in the same way, as soon as they're invalidated from the page cache.
      *
      * @see WikiEventListener#actionPerformed(WikiEvent)
      */
@@ -399,20 +406,27 @@ public class DefaultRenderingManager implements RenderingManager {
     public void actionPerformed( final WikiEvent event ) {
         LOG.debug( "event received: {}", event.toString() );
         if( isBeginningAWikiPagePostSaveEventAndDocumentCacheIsEnabled( event ) ) {
-            final String pageName = ( ( WikiPageEvent ) event ).getPageName();
-            cachingManager.remove( CachingManager.CACHE_DOCUMENTS, pageName );
-            final Collection< String > referringPages = m_engine.getManager( ReferenceManager.class ).findReferrers( pageName );
-
-            // Flush also those pages that refer to this page (if a nonexistent page
-            // appears, we need to flush the HTML that refers to the now-existent page)
-            if( referringPages != null ) {
-                for( final String page : referringPages ) {
-                    LOG.debug( "Flushing latest version of {}", page );
-                    // as there is a new version of the page expire both plugin and pluginless versions of the old page
-                    cachingManager.remove( CachingManager.CACHE_DOCUMENTS, page + VERSION_DELIMITER + PageProvider.LATEST_VERSION  + VERSION_DELIMITER + Boolean.FALSE );
-                    cachingManager.remove( CachingManager.CACHE_DOCUMENTS, page + VERSION_DELIMITER + PageProvider.LATEST_VERSION  + VERSION_DELIMITER + Boolean.TRUE );
-                    cachingManager.remove( CachingManager.CACHE_DOCUMENTS, page + VERSION_DELIMITER + PageProvider.LATEST_VERSION  + VERSION_DELIMITER + null );
-                }
+            flushDocuments( ( ( WikiPageEvent ) event ).getPageName() );
+        }
+    }
+
+    void flushDocuments( final String pageName ) {
+        if( !cachingManager.enabled( CachingManager.CACHE_DOCUMENTS ) ) {
+            return;
+        }
+        cachingManager.remove( CachingManager.CACHE_DOCUMENTS, pageName );
+        final ReferenceManager referenceManager = m_engine.getManager( ReferenceManager.class );
+        final Collection< String > referringPages = referenceManager != null ? referenceManager.findReferrers( pageName ) : null;
+
+        // Flush also those pages that refer to this page (if a nonexistent page
+        // appears, we need to flush the HTML that refers to the now-existent page)
+        if( referringPages != null ) {
+            for( final String page : referringPages ) {
+                LOG.debug( "Flushing latest version of {}", page );
+                // as there is a new version of the page expire both plugin and pluginless versions of the old page
+                cachingManager.remove( CachingManager.CACHE_DOCUMENTS, page + VERSION_DELIMITER + PageProvider.LATEST_VERSION  + VERSION_DELIMITER + Boolean.FALSE );
+                cachingManager.remove( CachingManager.CACHE_DOCUMENTS, page + VERSION_DELIMITER + PageProvider.LATEST_VERSION  + VERSION_DELIMITER + Boolean.TRUE );
+                cachingManager.remove( CachingManager.CACHE_DOCUMENTS, page + VERSION_DELIMITER + PageProvider.LATEST_VERSION  + VERSION_DELIMITER + null );
             }
         }
     }
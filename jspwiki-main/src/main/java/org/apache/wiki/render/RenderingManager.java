@@ -184,7 +184,9 @@ public interface RenderingManager extends RenderApi, WikiEventListener, Internal
      *  @param localLinkHook Is called whenever a wiki link is found
      *  @param extLinkHook   Is called whenever an external link is found
      *  @param parseAccessRules Parse the access rules if we encounter them
-     *  @param justParse Just parses the pagedata, does not actually render.  In this case, this methods an empty string.
+     *  @param justParse Just parses the pagedata, does not actually render.  In this case, this methods an empty string, and the
+     *                   parser is run in references only mode (see {@link MarkupParser#enableReferencesOnly(boolean)}), so only
+     *                   the hooks and the side effects of parsing, such as setting page metadata, are of interest.
      *  @return HTML-rendered page text.
      */
     String textToHTML( Context context,
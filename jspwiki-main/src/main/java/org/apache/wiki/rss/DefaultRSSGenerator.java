@@ -28,9 +28,17 @@ import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.core.Session;
 import org.apache.wiki.api.providers.WikiProvider;
 import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.attachment.AttachmentManager;
 import org.apache.wiki.auth.AuthorizationManager;
 import org.apache.wiki.auth.permissions.PagePermission;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.content.PageRenamer;
 import org.apache.wiki.diff.DifferenceManager;
+import org.apache.wiki.event.WikiEvent;
+import org.apache.wiki.event.WikiEventListener;
+import org.apache.wiki.event.WikiEventManager;
+import org.apache.wiki.event.WikiPageEvent;
+import org.apache.wiki.event.WikiPageRenameEvent;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.pages.PageTimeComparator;
 import org.apache.wiki.render.RenderingManager;
@@ -38,20 +46,32 @@ import org.apache.wiki.util.TextUtil;
 import org.apache.wiki.variables.VariableManager;
 
 import java.io.File;
+import java.io.Serializable;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 
 /**
  * Default implementation for {@link RSSGenerator}.
  *
  * {@inheritDoc}
+ * <p>
+ * The entries of the full wiki feed are prepared once per page version, as rendering their diffs is the expensive part of
+ * generating the feed, and kept while they remain among the latest changes. The generator listens to page store, delete
+ * and rename events, so the feed is only {@link #isStale() generated again} when something has changed, or once every
+ * {@link #PROP_REFRESH_INTERVALS a few generation intervals}, to pick up pages changed on disk. Pages and attachments changed by other
+ * nodes sharing the repository make it stale too, once the {@link CachingManager} is told about them.
  */
 // FIXME: Limit diff and page content size.
-public class DefaultRSSGenerator implements RSSGenerator {
+public class DefaultRSSGenerator implements RSSGenerator, WikiEventListener {
 
     private static final Logger LOG = LogManager.getLogger( DefaultRSSGenerator.class );
     private final Engine m_engine;
@@ -63,6 +83,14 @@ public class DefaultRSSGenerator implements RSSGenerator {
     private boolean m_enabled = true;
 
     private static final int MAX_CHARACTERS = Integer.MAX_VALUE-1;
+    private static final int MAX_ENTRIES = 15;
+
+    /** Prepared entries of the full wiki feed, by page name. Only those of the latest {@value #MAX_ENTRIES} changes are kept. */
+    private final Map< String, Entry > m_prepared = new ConcurrentHashMap<>();
+    private final AtomicBoolean m_stale = new AtomicBoolean( true );
+    /** Milliseconds after which the feed is generated again anyway, zero if it isn't. */
+    private final long m_maxAge;
+    private volatile long m_lastGenerated;
 
     /**
      *  Builds the RSS generator for a given Engine.
@@ -75,6 +103,8 @@ public class DefaultRSSGenerator implements RSSGenerator {
         m_channelDescription = properties.getProperty( PROP_CHANNEL_DESCRIPTION, m_channelDescription );
         m_channelLanguage = properties.getProperty( PROP_CHANNEL_LANGUAGE, m_channelLanguage );
         m_rssFile = TextUtil.getStringProperty( properties, DefaultRSSGenerator.PROP_RSSFILE, "rss.rdf" );
+        final int refreshIntervals = TextUtil.getIntegerProperty( properties, PROP_REFRESH_INTERVALS, 6 );
+        m_maxAge = 1_000L * Math.max( refreshIntervals, 0 ) * TextUtil.getIntegerProperty( properties, PROP_INTERVAL, 3600 );
     }
 
     /**
@@ -95,6 +125,12 @@ public class DefaultRSSGenerator implements RSSGenerator {
                 LOG.warn("Failed to mkdirs at " + rssFile.getParentFile().getAbsolutePath() + " rss feeds will probably fail");
             }
         }
+        WikiEventManager.addWikiEventListener( engine.getManager( PageManager.class ), this );
+        WikiEventManager.addWikiEventListener( engine.getManager( AttachmentManager.class ), this );
+        WikiEventManager.addWikiEventListener( engine.getManager( PageRenamer.class ), this );
+        final Consumer< Serializable > invalidated = key -> m_stale.set( true );
+        engine.getManager( CachingManager.class ).registerListener( CachingManager.CACHE_PAGES, "invalidated", invalidated );
+        engine.getManager( CachingManager.class ).registerListener( CachingManager.CACHE_ATTACHMENTS, "invalidated", invalidated );
         final int rssInterval = TextUtil.getIntegerProperty( properties, DefaultRSSGenerator.PROP_INTERVAL, 3600 );
         final RSSThread rssThread = new RSSThread( engine, rssFile, rssInterval );
         rssThread.start();
@@ -165,13 +201,47 @@ public class DefaultRSSGenerator implements RSSGenerator {
         return page.getName() + ", version " + page.getVersion();
     }
 
+    /**
+     * Listens for page store, delete and rename events, which make the full wiki feed stale.
+     *
+     * @param event the incoming event.
+     */
+    @Override
+    public void actionPerformed( final WikiEvent event ) {
+        if( event instanceof WikiPageRenameEvent ) {
+            m_prepared.remove( ( ( WikiPageRenameEvent )event ).getOldPageName() );
+            m_stale.set( true );
+        } else if( event instanceof WikiPageEvent ) {
+            final WikiPageEvent wpe = ( WikiPageEvent )event;
+            if( wpe.getType() == WikiPageEvent.PAGE_DELETED ) {
+                m_prepared.remove( wpe.getPageName() );
+                m_stale.set( true );
+            } else if( wpe.getType() == WikiPageEvent.PAGE_STORED ) {
+                m_stale.set( true );
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isStale() {
+        return m_stale.get() || ( m_maxAge > 0 && System.currentTimeMillis() - m_lastGenerated >= m_maxAge );
+    }
+
     /** {@inheritDoc} */
     @Override
     public String generate() {
+        m_stale.set( false ); // changes made from now on will be picked up by the next generation
+        m_lastGenerated = System.currentTimeMillis();
         final Context context = Wiki.context().create( m_engine, Wiki.contents().page( m_engine, "__DUMMY" ) );
         context.setRequestContext( ContextEnum.PAGE_RSS.getRequestContext() );
         final Feed feed = new RSS10Feed( context );
-        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + generateFullWikiRSS( context, feed );
+        try {
+            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + generateFullWikiRSS( context, feed );
+        } catch( final RuntimeException e ) {
+            m_stale.set( true ); // try again next time
+            throw e;
+        }
     }
 
     /** {@inheritDoc} */
@@ -229,11 +299,12 @@ public class DefaultRSSGenerator implements RSSGenerator {
         feed.setChannelLanguage( m_channelLanguage );
         feed.setChannelDescription( m_channelDescription );
 
-        final Set< Page > changed = m_engine.getManager( PageManager.class ).getRecentChanges();
+        final Set< Page > changed = m_engine.getManager( PageManager.class ).getRecentChanges( MAX_ENTRIES );
 
         final Session session = Wiki.session().guest( m_engine );
+        final Set< String > names = new HashSet<>();
         int items = 0;
-        for( final Iterator< Page > i = changed.iterator(); i.hasNext() && items < 15; items++ ) {
+        for( final Iterator< Page > i = changed.iterator(); i.hasNext() && items < MAX_ENTRIES; items++ ) {
             final Page page = i.next();
 
             //  Check if the anonymous user has view access to this page.
@@ -242,24 +313,43 @@ public class DefaultRSSGenerator implements RSSGenerator {
                 continue;
             }
 
-            final String url;
-            if( page instanceof Attachment ) {
-                url = m_engine.getURL( ContextEnum.PAGE_ATTACH.getRequestContext(), page.getName(),null );
-            } else {
-                url = m_engine.getURL( ContextEnum.PAGE_VIEW.getRequestContext(), page.getName(), null );
-            }
+            feed.addEntry( getPreparedEntry( page ) );
+            names.add( page.getName() );
+        }
+        m_prepared.keySet().retainAll( names );
 
-            final Entry e = new Entry();
-            e.setPage( page );
-            e.setURL( url );
-            e.setTitle( page.getName() );
-            e.setContent( getEntryDescription(page) );
-            e.setAuthor( getAuthor(page) );
+        return feed.getString();
+    }
 
-            feed.addEntry( e );
+    /**
+     * Returns the entry of the full wiki feed for the given page, preparing it only if the page has changed since it was last
+     * prepared.
+     *
+     * @param page latest version of a page or attachment.
+     * @return the entry for the page.
+     */
+    Entry getPreparedEntry( final Page page ) {
+        final Entry prepared = m_prepared.get( page.getName() );
+        if( prepared != null && prepared.getPage().getVersion() == page.getVersion()
+                && Objects.equals( prepared.getPage().getLastModified(), page.getLastModified() ) ) {
+            return prepared;
         }
 
-        return feed.getString();
+        final String url;
+        if( page instanceof Attachment ) {
+            url = m_engine.getURL( ContextEnum.PAGE_ATTACH.getRequestContext(), page.getName(),null );
+        } else {
+            url = m_engine.getURL( ContextEnum.PAGE_VIEW.getRequestContext(), page.getName(), null );
+        }
+
+        final Entry e = new Entry();
+        e.setPage( page );
+        e.setURL( url );
+        e.setTitle( page.getName() );
+        e.setContent( getEntryDescription(page) );
+        e.setAuthor( getAuthor(page) );
+        m_prepared.put( page.getName(), e );
+        return e;
     }
 
     /** {@inheritDoc} */
@@ -97,6 +97,15 @@ public interface RSSGenerator extends Initializable {
      */
     String PROP_INTERVAL = "jspwiki.rss.interval";
 
+    /**
+     *  Defines the property name for the number of RSS generation intervals after which the feed is generated again, even if no
+     *  change has been seen, so that pages changed outside this wiki instance show up too. Zero or less disables it.
+     *  Value is <tt>{@value}</tt>.
+     *
+     *  @since 3.0.0
+     */
+    String PROP_REFRESH_INTERVALS = "jspwiki.rss.refreshIntervals";
+
     /** Defines the property name for the RSS author.  Value is <tt>{@value}</tt>. */
     String PROP_RSS_AUTHOR = "jspwiki.rss.author";
 
@@ -110,6 +119,17 @@ public interface RSSGenerator extends Initializable {
      */
     String generate();
 
+    /**
+     *  Tells whether the wiki has changed since the last call to {@link #generate()}, so the feed it returns needs to be generated
+     *  again. By default, the feed is always considered stale.
+     *
+     *  @return {@code true} if {@link #generate()} may return a different feed than the last time it was called.
+     *  @since 3.0.0
+     */
+    default boolean isStale() {
+        return true;
+    }
+
     /**
      * Generates a feed based on a context and list of changes.
      *
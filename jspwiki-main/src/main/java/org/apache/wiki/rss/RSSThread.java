@@ -21,30 +21,24 @@ package org.apache.wiki.rss;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.wiki.WatchDog;
-import org.apache.wiki.WikiBackgroundThread;
+import org.apache.wiki.WikiBackgroundJob;
 import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.util.FileUtil;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.StringReader;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.Path;
 
 
 /**
  *  Runs the RSS generation thread.
  */
-public class RSSThread extends WikiBackgroundThread {
+public class RSSThread extends WikiBackgroundJob {
 
     private static final Logger LOG = LogManager.getLogger( RSSThread.class );
     private final File m_rssFile;
     private final RSSGenerator m_generator;
-    private WatchDog m_watchdog;
     
     /**
      *  Create a new RSS thread.
@@ -62,40 +56,45 @@ public class RSSThread extends WikiBackgroundThread {
         LOG.debug( "RSS refresh interval (seconds): "+rssInterval );
     }
     
-    /**
-     *  {@inheritDoc}
-     */
-    @Override
-    public void startupTask() {
-        m_watchdog = WatchDog.getCurrentWatchDog( getEngine() );
-    }
-    
     /**
      * Runs the RSS generator thread.
      * If a previous RSS generation operation encountered a 
      * file I/O or other error, this method will turn off generation.
-     * <code>false</code>.
+     * The feed is only generated again if the wiki has changed since the last time, and it is written to a temporary
+     * file which then replaces the RSS file, so readers never see a partially written feed.
      * @see java.lang.Thread#run()
      * @throws Exception All exceptions are thrown upwards.
      */
     @Override
     public void backgroundTask() throws Exception {
-        if( m_generator.isEnabled() ) {
-            m_watchdog.enterState( "Generating RSS feed", 60 );
-            final String feed = m_generator.generate();
-            LOG.debug( "Regenerating RSS feed to " + m_rssFile );
+        if( m_generator.isEnabled() && m_generator.isStale() ) {
+            final WatchDog watchdog = WatchDog.getCurrentWatchDog( getEngine() );
+            watchdog.enterState( "Generating RSS feed", 60 );
+            try {
+                final String feed = m_generator.generate();
+                LOG.debug( "Regenerating RSS feed to " + m_rssFile );
 
-            // Generate RSS file, output it to default "rss.rdf".
-            try( final Reader in  = new StringReader( feed );
-                final Writer out = new BufferedWriter( new OutputStreamWriter( Files.newOutputStream( m_rssFile.toPath() ), StandardCharsets.UTF_8 ) ) ) {
-                FileUtil.copyContents( in, out );
+                // Generate RSS file, output it to default "rss.rdf".
+                write( feed, m_rssFile.toPath() );
             } catch( final IOException e ) {
                 LOG.error( "Cannot generate RSS feed to " + m_rssFile.getAbsolutePath(), e );
                 m_generator.setEnabled( false );
             } finally {
-                m_watchdog.exitState();
+                watchdog.exitState();
             }
         }
     }
+
+    /**
+     * Writes the feed to a temporary file on the same directory as the target file, and then moves it over the target file.
+     * The feed keeps the permissions of the file it replaces, so it can still be served by a front-end web server.
+     *
+     * @param feed the feed contents.
+     * @param target the file to write.
+     * @throws IOException if the feed can't be written.
+     */
+    static void write( final String feed, final Path target ) throws IOException {
+        FileUtil.replaceFile( target, out -> out.write( feed.getBytes( StandardCharsets.UTF_8 ) ) );
+    }
         
 }
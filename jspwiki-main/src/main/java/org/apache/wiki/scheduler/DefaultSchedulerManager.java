@@ -0,0 +1,146 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.scheduler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.util.TextUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ *  Default implementation of {@link SchedulerManager}, backed by a {@link ScheduledThreadPoolExecutor}. The pool keeps at
+ *  least {@link #PROP_THREADS} threads, and grows up to one thread per scheduled job, so jobs that take long to return can't
+ *  starve the rest of them.
+ *
+ *  @since 3.0.0
+ */
+public class DefaultSchedulerManager implements SchedulerManager {
+
+    private static final Logger LOG = LogManager.getLogger( DefaultSchedulerManager.class );
+
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_JITTER = 10;
+    private static final int DEFAULT_MAX_BACKOFF = 3_600;
+
+    /** Time given to running jobs to finish when shutting down, in seconds. */
+    private static final int SHUTDOWN_TIMEOUT = 5;
+
+    private final ScheduledThreadPoolExecutor m_executor;
+    private final List< ScheduledJob > m_jobs = new CopyOnWriteArrayList<>();
+    private final int m_threads;
+    private final int m_jitter;
+    private final long m_maxBackoff;
+
+    /**
+     *  Creates a new scheduler.
+     *
+     *  @param engine the engine owning the scheduler.
+     *  @param props the engine's properties.
+     */
+    public DefaultSchedulerManager( final Engine engine, final Properties props ) {
+        m_threads = Math.max( TextUtil.getIntegerProperty( props, PROP_THREADS, DEFAULT_THREADS ), 1 );
+        m_jitter = Math.max( TextUtil.getIntegerProperty( props, PROP_JITTER, DEFAULT_JITTER ), 0 );
+        m_maxBackoff = TextUtil.getIntegerProperty( props, PROP_MAX_BACKOFF, DEFAULT_MAX_BACKOFF ) * 1_000L;
+
+        final String threadName = "JSPWiki scheduler for '" + engine.getApplicationName() + "' #";
+        final AtomicInteger count = new AtomicInteger();
+        m_executor = new ScheduledThreadPoolExecutor( m_threads, r -> {
+            final Thread t = new Thread( r, threadName + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        } );
+        m_executor.setRemoveOnCancelPolicy( true );
+        m_executor.setExecuteExistingDelayedTasksAfterShutdownPolicy( false );
+        LOG.info( "Background jobs will run on at least {} threads", m_threads );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ScheduledJob schedule( final String name, final Job job, final long initialDelay, final long interval, final TimeUnit unit ) {
+        final ScheduledJob scheduled = new ScheduledJob( name, job, unit.toMillis( interval ), this );
+        m_jobs.add( scheduled );
+        resize();
+        LOG.debug( "Scheduling background job {} every {} ms", name, scheduled.getInterval() );
+        submit( scheduled, unit.toMillis( initialDelay ) );
+        return scheduled;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List< ScheduledJob > jobs() {
+        return new ArrayList<>( m_jobs );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void shutdown() {
+        m_jobs.forEach( ScheduledJob::cancel );
+        m_executor.shutdown();
+        try {
+            if( !m_executor.awaitTermination( SHUTDOWN_TIMEOUT, TimeUnit.SECONDS ) ) {
+                LOG.warn( "Background jobs still running after {} seconds, interrupting them", SHUTDOWN_TIMEOUT );
+                m_executor.shutdownNow();
+            }
+        } catch( final InterruptedException e ) {
+            m_executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void submit( final ScheduledJob job, final long delay ) {
+        try {
+            job.setNext( m_executor.schedule( job, delay, TimeUnit.MILLISECONDS ) );
+        } catch( final RejectedExecutionException e ) {
+            LOG.debug( "Scheduler is shut down, cancelling background job {}", job.getName() );
+            job.cancel();
+        }
+    }
+
+    void remove( final ScheduledJob job ) {
+        m_jobs.remove( job );
+        resize();
+    }
+
+    /** Keeps a thread per scheduled job, and never less than the configured number of threads. */
+    private synchronized void resize() {
+        final int size = Math.max( m_threads, m_jobs.size() );
+        if( size != m_executor.getCorePoolSize() && !m_executor.isShutdown() ) {
+            m_executor.setCorePoolSize( size );
+        }
+    }
+
+    int getJitter() {
+        return m_jitter;
+    }
+
+    long getMaxBackoff() {
+        return m_maxBackoff;
+    }
+
+}
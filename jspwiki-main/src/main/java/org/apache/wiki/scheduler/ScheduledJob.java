@@ -0,0 +1,242 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.scheduler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ *  A job scheduled on a {@link DefaultSchedulerManager}, along with its statistics. This class is thread-safe.
+ *
+ *  @since 3.0.0
+ */
+public class ScheduledJob implements Runnable {
+
+    private static final Logger LOG = LogManager.getLogger( ScheduledJob.class );
+
+    /** Base delay of the backoff of failing jobs which run continuously, in milliseconds. */
+    private static final long MIN_BACKOFF = 1_000L;
+
+    private final String m_name;
+    private final SchedulerManager.Job m_job;
+    private final long m_interval;
+    private final DefaultSchedulerManager m_scheduler;
+
+    private final LongAdder m_runs = new LongAdder();
+    private final LongAdder m_failures = new LongAdder();
+    private final LongAdder m_totalTime = new LongAdder();
+    private volatile long m_lastTime;
+    private volatile long m_maxTime;
+    private volatile int m_consecutiveFailures;
+
+    private volatile ScheduledFuture< ? > m_next;
+    private boolean m_running;   // guarded by this
+    private boolean m_cancelled; // guarded by this
+    private boolean m_stopped;   // guarded by this
+
+    ScheduledJob( final String name, final SchedulerManager.Job job, final long interval, final DefaultSchedulerManager scheduler ) {
+        m_name = name;
+        m_job = job;
+        m_interval = interval;
+        m_scheduler = scheduler;
+    }
+
+    /**
+     *  Runs the job once, and schedules its next run.
+     */
+    @Override
+    public void run() {
+        synchronized( this ) {
+            if( m_cancelled ) {
+                return;
+            }
+            m_running = true;
+        }
+        final long start = System.nanoTime();
+        try {
+            m_job.execute();
+            m_consecutiveFailures = 0;
+        } catch( final Throwable t ) {
+            m_failures.increment();
+            m_consecutiveFailures++;
+            LOG.error( "Background job {} failed ({} consecutive failures), it will be retried", m_name, m_consecutiveFailures, t );
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            m_runs.increment();
+            m_totalTime.add( elapsed );
+            m_lastTime = elapsed;
+            m_maxTime = Math.max( m_maxTime, elapsed );
+            final boolean cancelled;
+            synchronized( this ) {
+                m_running = false;
+                cancelled = m_cancelled;
+            }
+            if( cancelled ) {
+                stop();
+            } else {
+                m_scheduler.submit( this, nextDelay() );
+            }
+        }
+    }
+
+    /**
+     *  Cancels the job. If it is running, it is allowed to finish, but it won't run again. {@link SchedulerManager.Job#stopped()}
+     *  is called right away if the job isn't running, or at the end of its current run otherwise.
+     */
+    public void cancel() {
+        final boolean running;
+        synchronized( this ) {
+            if( m_cancelled ) {
+                return;
+            }
+            m_cancelled = true;
+            running = m_running;
+        }
+        final ScheduledFuture< ? > next = m_next;
+        if( next != null ) {
+            next.cancel( false );
+        }
+        if( !running ) {
+            stop();
+        }
+    }
+
+    void stop() {
+        synchronized( this ) {
+            if( m_stopped ) {
+                return;
+            }
+            m_stopped = true;
+        }
+        m_scheduler.remove( this );
+        try {
+            m_job.stopped();
+        } catch( final Throwable t ) {
+            LOG.error( "Background job {} failed while stopping", m_name, t );
+        }
+    }
+
+    void setNext( final ScheduledFuture< ? > next ) {
+        m_next = next;
+    }
+
+    /**
+     *  Delay until the next run: the job's interval, or an exponential backoff if it is failing, plus a random jitter.
+     *
+     *  @return delay until the next run, in milliseconds.
+     */
+    long nextDelay() {
+        long delay = m_interval;
+        final int failures = m_consecutiveFailures;
+        if( failures > 0 ) {
+            final long backoff = Math.max( m_interval, MIN_BACKOFF ) << Math.min( failures - 1, 20 );
+            delay = Math.max( m_interval, Math.min( backoff, m_scheduler.getMaxBackoff() ) );
+        }
+        final long jitter = delay * m_scheduler.getJitter() / 100;
+        return jitter > 0 ? delay + ThreadLocalRandom.current().nextLong( jitter + 1 ) : delay;
+    }
+
+    /**
+     *  Returns the name of the job.
+     *
+     *  @return the name of the job.
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     *  Returns the delay between runs, in milliseconds.
+     *
+     *  @return the delay between runs, in milliseconds.
+     */
+    public long getInterval() {
+        return m_interval;
+    }
+
+    /**
+     *  Returns the number of times the job has run.
+     *
+     *  @return the number of times the job has run.
+     */
+    public long getRuns() {
+        return m_runs.sum();
+    }
+
+    /**
+     *  Returns the number of runs which failed with an exception.
+     *
+     *  @return the number of runs which failed with an exception.
+     */
+    public long getFailures() {
+        return m_failures.sum();
+    }
+
+    /**
+     *  Returns the number of runs which failed since the last successful one.
+     *
+     *  @return the number of runs which failed since the last successful one.
+     */
+    public int getConsecutiveFailures() {
+        return m_consecutiveFailures;
+    }
+
+    /**
+     *  Returns the time spent on all runs, in milliseconds.
+     *
+     *  @return the time spent on all runs, in milliseconds.
+     */
+    public long getTotalTime() {
+        return TimeUnit.NANOSECONDS.toMillis( m_totalTime.sum() );
+    }
+
+    /**
+     *  Returns the time spent on the last run, in milliseconds.
+     *
+     *  @return the time spent on the last run, in milliseconds.
+     */
+    public long getLastTime() {
+        return TimeUnit.NANOSECONDS.toMillis( m_lastTime );
+    }
+
+    /**
+     *  Returns the time spent on the longest run, in milliseconds.
+     *
+     *  @return the time spent on the longest run, in milliseconds.
+     */
+    public long getMaxTime() {
+        return TimeUnit.NANOSECONDS.toMillis( m_maxTime );
+    }
+
+    /**
+     *  Tells whether the job has been cancelled.
+     *
+     *  @return {@code true} if the job won't run again.
+     */
+    public synchronized boolean isCancelled() {
+        return m_cancelled;
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.scheduler;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ *  Runs the periodic background jobs of an engine (search index updates, RSS generation, lock reaping, etc.) on a small pool
+ *  of daemon threads, instead of dedicating a thread to each one of them.
+ *  <p>
+ *  Each job runs again after its interval has elapsed since its previous run finished, plus a small random jitter, so jobs
+ *  scheduled at the same time don't keep running at the same time. Jobs failing with an exception are retried with an
+ *  exponential backoff, and every job keeps track of its runs, failures and run times.
+ *
+ *  @since 3.0.0
+ */
+public interface SchedulerManager {
+
+    /** Minimum number of threads running the scheduled jobs, the pool grows up to one thread per job. Value is {@value}. */
+    String PROP_THREADS = "jspwiki.scheduler.threads";
+
+    /** Maximum random delay added to each interval, as a percentage of it. Value is {@value}. */
+    String PROP_JITTER = "jspwiki.scheduler.jitter";
+
+    /** Maximum delay, in seconds, between the runs of a failing job. Value is {@value}. */
+    String PROP_MAX_BACKOFF = "jspwiki.scheduler.max-backoff";
+
+    /**
+     *  Schedules a job to run periodically, until it is cancelled or the scheduler is shut down.
+     *
+     *  @param name name of the job, used on logs and statistics.
+     *  @param job the job to run.
+     *  @param initialDelay delay before the first run.
+     *  @param interval delay between the end of a run and the start of the next one.
+     *  @param unit unit of both delays.
+     *  @return the scheduled job, which can be used to cancel it or to get its statistics.
+     */
+    ScheduledJob schedule( String name, Job job, long initialDelay, long interval, TimeUnit unit );
+
+    /**
+     *  Returns the jobs currently scheduled.
+     *
+     *  @return the jobs currently scheduled.
+     */
+    List< ScheduledJob > jobs();
+
+    /**
+     *  Cancels every scheduled job and stops the scheduler threads. Jobs currently running are given a few seconds to finish
+     *  before being interrupted.
+     */
+    void shutdown();
+
+    /**
+     *  A periodic job.
+     */
+    @FunctionalInterface
+    interface Job {
+
+        /**
+         *  Performs the actual work of the job.
+         *
+         *  @throws Exception Any exception can be thrown; the job will be retried later.
+         */
+        void execute() throws Exception;
+
+        /**
+         *  Called once when the job is cancelled, after its last run has finished. By default, this method does nothing.
+         *
+         *  @throws Exception Any exception can be thrown.
+         */
+        default void stopped() throws Exception {
+        }
+
+    }
+
+}
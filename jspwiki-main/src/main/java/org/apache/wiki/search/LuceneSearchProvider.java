@@ -50,9 +50,8 @@ import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
 import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.NIOFSDirectory;
-import org.apache.wiki.InternalWikiException;
 import org.apache.wiki.WatchDog;
-import org.apache.wiki.WikiBackgroundThread;
+import org.apache.wiki.WikiBackgroundJob;
 import org.apache.wiki.api.core.Attachment;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Engine;
@@ -533,42 +532,31 @@ public class LuceneSearchProvider implements SearchProvider {
     /**
      * Updater thread that updates Lucene indexes.
      */
-    private static final class LuceneUpdater extends WikiBackgroundThread {
+    private static final class LuceneUpdater extends WikiBackgroundJob {
         static final int INDEX_DELAY    = 5;
         static final int INITIAL_DELAY = 60;
         private final LuceneSearchProvider m_provider;
 
-        private final int m_initialDelay;
-
-        private WatchDog m_watchdog;
-
         private LuceneUpdater( final Engine engine, final LuceneSearchProvider provider, final int initialDelay, final int indexDelay ) {
-            super( engine, indexDelay );
+            super( engine, indexDelay, initialDelay );
             m_provider = provider;
-            m_initialDelay = initialDelay;
             setName( "JSPWiki Lucene Indexer" );
         }
 
         @Override
         public void startupTask() throws Exception {
-            m_watchdog = WatchDog.getCurrentWatchDog( getEngine() );
-
-            // Sleep initially...
-            try {
-                Thread.sleep( m_initialDelay * 1000L );
-            } catch( final InterruptedException e ) {
-                throw new InternalWikiException( "Interrupted while waiting to start.", e );
-            }
-
-            m_watchdog.enterState( "Full reindex" );
+            // background tasks may run on a different thread each time, so their watchdog can't be kept between runs
+            final WatchDog watchdog = WatchDog.getCurrentWatchDog( getEngine() );
+            watchdog.enterState( "Full reindex" );
             // Reindex everything
             m_provider.doFullLuceneReindex();
-            m_watchdog.exitState();
+            watchdog.exitState();
         }
 
         @Override
         public void backgroundTask() {
-            m_watchdog.enterState( "Emptying index queue", 60 );
+            final WatchDog watchdog = WatchDog.getCurrentWatchDog( getEngine() );
+            watchdog.enterState( "Emptying index queue", 60 );
 
             synchronized( m_provider.m_updates ) {
                 while(!m_provider.m_updates.isEmpty()) {
@@ -579,7 +567,7 @@ public class LuceneSearchProvider implements SearchProvider {
                 }
             }
 
-            m_watchdog.exitState();
+            watchdog.exitState();
         }
 
     }
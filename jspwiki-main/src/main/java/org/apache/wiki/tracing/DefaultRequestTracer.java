@@ -0,0 +1,150 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.tracing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.api.engine.Initializable;
+import org.apache.wiki.scheduler.SchedulerManager;
+import org.apache.wiki.util.TextUtil;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+
+/**
+ *  Default implementation of {@link RequestTracer}. Stacks of slow requests are sampled by a job run on the engine's
+ *  {@link SchedulerManager}.
+ *
+ *  @since 3.0.0
+ */
+public class DefaultRequestTracer implements RequestTracer, Initializable {
+
+    private static final Logger LOG = LogManager.getLogger( DefaultRequestTracer.class );
+
+    private static final int DEFAULT_SLOW_REQUEST = 5_000;
+    private static final int DEFAULT_STACK_SAMPLING = 10;
+
+    /** Request context of the requests which didn't set any. */
+    static final String UNKNOWN_CONTEXT = "unknown";
+
+    private final ThreadLocal< Trace > m_current = new ThreadLocal<>();
+    private final Set< Trace > m_inFlight = ConcurrentHashMap.newKeySet();
+    private final Map< String, Histogram > m_histograms = new ConcurrentHashMap<>();
+    private final LongAdder m_slowRequests = new LongAdder();
+    private long m_slowRequest = TimeUnit.MILLISECONDS.toNanos( DEFAULT_SLOW_REQUEST );
+    private int m_stackSampling = DEFAULT_STACK_SAMPLING;
+
+    /** {@inheritDoc} */
+    @Override
+    public void initialize( final Engine engine, final Properties props ) {
+        final int slowRequest = Math.max( TextUtil.getIntegerProperty( props, PROP_SLOW_REQUEST, DEFAULT_SLOW_REQUEST ), 1 );
+        m_slowRequest = TimeUnit.MILLISECONDS.toNanos( slowRequest );
+        m_stackSampling = TextUtil.getIntegerProperty( props, PROP_STACK_SAMPLING, DEFAULT_STACK_SAMPLING );
+        final SchedulerManager scheduler = engine.getManager( SchedulerManager.class );
+        if( scheduler != null && m_stackSampling > 0 ) {
+            final long interval = Math.max( slowRequest / 2, 1_000 );
+            scheduler.schedule( "JSPWiki slow request sampler", this::sampleSlowRequests, interval, interval, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Span begin( final String name ) {
+        final Trace current = m_current.get();
+        if( current != null ) {
+            return new Span( current, name );
+        }
+        final Trace trace = new Trace( this, name );
+        m_current.set( trace );
+        m_inFlight.add( trace );
+        return trace;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Span span( final String name ) {
+        final Trace current = m_current.get();
+        return current != null ? new Span( current, name ) : Span.NOOP;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setRequestContext( final String requestContext ) {
+        final Trace current = m_current.get();
+        if( current != null ) {
+            current.setRequestContext( requestContext );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List< Histogram > histograms() {
+        return m_histograms.values().stream().sorted( Comparator.comparing( Histogram::getName ) ).collect( Collectors.toList() );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSlowRequests() {
+        return m_slowRequests.sum();
+    }
+
+    /**
+     *  Records a finished request.
+     *
+     *  @param trace the trace of the request.
+     */
+    void end( final Trace trace ) {
+        m_inFlight.remove( trace );
+        if( m_current.get() == trace ) {
+            m_current.remove();
+        }
+        final String requestContext = trace.getRequestContext() != null ? trace.getRequestContext() : UNKNOWN_CONTEXT;
+        m_histograms.computeIfAbsent( requestContext, Histogram::new ).record( trace.getNanos() );
+        if( trace.getNanos() >= m_slowRequest ) {
+            m_slowRequests.increment();
+            LOG.warn( "Slow request: {}", trace );
+        } else {
+            LOG.debug( "Request: {}", trace );
+        }
+    }
+
+    /**
+     *  Captures the stack of a sample of the requests which have been running for too long, once per request.
+     */
+    void sampleSlowRequests() {
+        final long now = System.nanoTime();
+        for( final Trace trace : m_inFlight ) {
+            if( now - trace.getStart() >= m_slowRequest && trace.sample() && ThreadLocalRandom.current().nextInt( 100 ) < m_stackSampling ) {
+                trace.captureStack();
+                LOG.info( "Request running for {} ms: {}", trace.getDuration(), trace );
+            }
+        }
+    }
+
+}
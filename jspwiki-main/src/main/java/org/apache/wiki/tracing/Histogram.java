@@ -0,0 +1,136 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.tracing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ *  Distribution of the response times of the requests of a given request context. Times are counted on fixed, roughly
+ *  logarithmic, buckets, so percentiles are approximated by the upper bound of the bucket they fall on. This class is thread-safe.
+ *
+ *  @since 3.0.0
+ */
+public class Histogram {
+
+    /** Upper bounds of the buckets, in milliseconds. Times over the last one are counted on an extra, unbounded, bucket. */
+    static final long[] BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000 };
+
+    private final String m_name;
+    private final LongAdder[] m_buckets = new LongAdder[ BOUNDS.length + 1 ];
+    private final LongAdder m_count = new LongAdder();
+    private final LongAdder m_total = new LongAdder();
+    private final LongAccumulator m_max = new LongAccumulator( Long::max, 0L );
+
+    Histogram( final String name ) {
+        m_name = name;
+        for( int i = 0; i < m_buckets.length; i++ ) {
+            m_buckets[ i ] = new LongAdder();
+        }
+    }
+
+    /**
+     *  Records a response time.
+     *
+     *  @param nanos the response time, in nanoseconds.
+     */
+    void record( final long nanos ) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis( nanos );
+        int bucket = 0;
+        while( bucket < BOUNDS.length && millis > BOUNDS[ bucket ] ) {
+            bucket++;
+        }
+        m_buckets[ bucket ].increment();
+        m_count.increment();
+        m_total.add( nanos );
+        m_max.accumulate( nanos );
+    }
+
+    /**
+     *  Returns the request context of the histogram.
+     *
+     *  @return the request context of the histogram.
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     *  Returns the number of requests recorded.
+     *
+     *  @return the number of requests recorded.
+     */
+    public long getCount() {
+        return m_count.sum();
+    }
+
+    /**
+     *  Returns the time spent on all the requests recorded, in milliseconds.
+     *
+     *  @return the time spent on all the requests recorded, in milliseconds.
+     */
+    public long getTotalTime() {
+        return TimeUnit.NANOSECONDS.toMillis( m_total.sum() );
+    }
+
+    /**
+     *  Returns the mean response time, in milliseconds.
+     *
+     *  @return the mean response time, in milliseconds, or 0 if no request has been recorded.
+     */
+    public long getMeanTime() {
+        final long count = getCount();
+        return count > 0 ? getTotalTime() / count : 0L;
+    }
+
+    /**
+     *  Returns the longest response time, in milliseconds.
+     *
+     *  @return the longest response time, in milliseconds.
+     */
+    public long getMaxTime() {
+        return TimeUnit.NANOSECONDS.toMillis( m_max.get() );
+    }
+
+    /**
+     *  Returns an approximation of the given percentile of the response times: the upper bound of the bucket it falls on, or
+     *  the longest response time, if lower.
+     *
+     *  @param percentile the percentile, between 0 and 100.
+     *  @return an upper bound of the given percentile of the response times, in milliseconds.
+     */
+    public long getPercentile( final double percentile ) {
+        final long count = getCount();
+        if( count == 0 ) {
+            return 0L;
+        }
+        final long rank = ( long )Math.ceil( count * percentile / 100d );
+        long seen = 0;
+        for( int i = 0; i < BOUNDS.length; i++ ) {
+            seen += m_buckets[ i ].sum();
+            if( seen >= rank ) {
+                return Math.min( BOUNDS[ i ], getMaxTime() );
+            }
+        }
+        return getMaxTime();
+    }
+
+}
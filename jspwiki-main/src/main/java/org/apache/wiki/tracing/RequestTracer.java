@@ -0,0 +1,92 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.tracing;
+
+import java.util.List;
+
+
+/**
+ *  Lightweight tracing of the requests served by the wiki.
+ *  <p>
+ *  Each request is timed as a {@link Trace}, begun when the request enters the wiki and closed when its response has been delivered.
+ *  The main steps of the request can be timed as {@link Span}s of it. Traces don't need anything from the thread serving the request
+ *  apart from a thread local, so they are cheap enough to be used on every request, and work the same on platform and virtual threads.
+ *  <p>
+ *  Response times are aggregated on a {@link Histogram} per request context (view, edit, diff, etc.). Requests taking longer than
+ *  {@value #PROP_SLOW_REQUEST} milliseconds are logged along with their spans, and the stack of a sample of them is captured while
+ *  they are still running, to find out where they are spending their time.
+ *  <p>
+ *  Usage:
+ *  <pre>
+ *    try( final Span span = engine.getManager( RequestTracer.class ).span( "Rendering page" ) ) {
+ *        ...
+ *    }
+ *  </pre>
+ *
+ *  @since 3.0.0
+ */
+public interface RequestTracer {
+
+    /** Requests taking longer than this number of milliseconds are considered slow. Value is {@value}. */
+    String PROP_SLOW_REQUEST = "jspwiki.tracing.slow-request";
+
+    /** Percentage of slow requests whose stack is captured while they are running; 0 disables it. Value is {@value}. */
+    String PROP_STACK_SAMPLING = "jspwiki.tracing.stack-sampling";
+
+    /**
+     *  Begins tracing the request served by the current thread. If the thread is already serving a traced request, f.ex.
+     *  because of a forward, a span of that request is returned instead.
+     *
+     *  @param name name of the request, usually its URI.
+     *  @return the trace of the request, which must be closed once the response has been delivered.
+     */
+    Span begin( String name );
+
+    /**
+     *  Starts a new span of the request served by the current thread.
+     *
+     *  @param name name of the span.
+     *  @return the new span, which must be closed when the step it times finishes. If the current thread isn't serving a
+     *  traced request, the returned span does nothing.
+     */
+    Span span( String name );
+
+    /**
+     *  Sets the request context (view, edit, etc.) of the request served by the current thread, which determines the
+     *  histogram its response time is aggregated on.
+     *
+     *  @param requestContext the request context.
+     */
+    void setRequestContext( String requestContext );
+
+    /**
+     *  Returns the response time histograms of every request context seen so far, sorted by request context.
+     *
+     *  @return the response time histograms.
+     */
+    List< Histogram > histograms();
+
+    /**
+     *  Returns the number of slow requests seen so far.
+     *
+     *  @return the number of slow requests seen so far.
+     */
+    long getSlowRequests();
+
+}
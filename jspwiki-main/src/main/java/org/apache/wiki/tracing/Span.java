@@ -0,0 +1,98 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.tracing;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ *  Times a step of a request. Spans are meant to be used from the thread serving the request, on a try-with-resources block.
+ *
+ *  @since 3.0.0
+ */
+public class Span implements AutoCloseable {
+
+    /** Span returned when there's no request being traced; it doesn't record anything. */
+    static final Span NOOP = new Span( null, "" ) {
+
+        @Override
+        public void close() {
+        }
+
+    };
+
+    private final Trace m_trace;
+    private final String m_name;
+    private final long m_start = System.nanoTime();
+    private long m_duration = -1L;
+
+    Span( final Trace trace, final String name ) {
+        m_trace = trace;
+        m_name = name;
+    }
+
+    /**
+     *  Stops timing the span. Closing an already closed span does nothing.
+     */
+    @Override
+    public void close() {
+        if( m_duration < 0 ) {
+            m_duration = System.nanoTime() - m_start;
+            ended();
+        }
+    }
+
+    /** Called once, when the span is closed. */
+    void ended() {
+        m_trace.add( this );
+    }
+
+    /**
+     *  Returns the name of the span.
+     *
+     *  @return the name of the span.
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     *  Returns the time spent on the span, in milliseconds, or the time spent so far, if the span hasn't been closed yet.
+     *
+     *  @return the time spent on the span, in milliseconds.
+     */
+    public long getDuration() {
+        return TimeUnit.NANOSECONDS.toMillis( getNanos() );
+    }
+
+    long getNanos() {
+        return m_duration >= 0 ? m_duration : System.nanoTime() - m_start;
+    }
+
+    long getStart() {
+        return m_start;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return m_name + " " + getDuration() + " ms";
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ *  The trace of a whole request: its total time and the {@link Span}s of its steps.
+ *
+ *  @since 3.0.0
+ */
+public final class Trace extends Span {
+
+    private final DefaultRequestTracer m_tracer;
+    private final Thread m_thread = Thread.currentThread();
+    private final List< Span > m_spans = new CopyOnWriteArrayList<>(); // added by the request thread, read by the slow request sampler too
+    private volatile String m_requestContext;
+    private volatile boolean m_sampled;
+    private volatile StackTraceElement[] m_stack;
+
+    Trace( final DefaultRequestTracer tracer, final String name ) {
+        super( null, name );
+        m_tracer = tracer;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void ended() {
+        m_tracer.end( this );
+    }
+
+    void add( final Span span ) {
+        m_spans.add( span );
+    }
+
+    /**
+     *  Returns the spans of the request closed so far, in the order they were closed.
+     *
+     *  @return the spans of the request closed so far.
+     */
+    public List< Span > getSpans() {
+        return new ArrayList<>( m_spans );
+    }
+
+    /**
+     *  Returns the request context of the request, if known.
+     *
+     *  @return the request context of the request, or {@code null} if it isn't known.
+     */
+    public String getRequestContext() {
+        return m_requestContext;
+    }
+
+    void setRequestContext( final String requestContext ) {
+        m_requestContext = requestContext;
+    }
+
+    /**
+     *  Returns the stack of the request, if it was captured while the request was running slowly.
+     *
+     *  @return the captured stack, or {@code null} if none was captured.
+     */
+    public StackTraceElement[] getStack() {
+        return m_stack;
+    }
+
+    /**
+     *  Decides, only once per trace, whether the stack of the request should be captured.
+     *
+     *  @return {@code true} the first time it's called, {@code false} afterwards.
+     */
+    boolean sample() {
+        if( m_sampled ) {
+            return false;
+        }
+        m_sampled = true;
+        return true;
+    }
+
+    void captureStack() {
+        m_stack = m_thread.getStackTrace();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder( super.toString() );
+        if( m_requestContext != null ) {
+            sb.append( " [" ).append( m_requestContext ).append( ']' );
+        }
+        sb.append( ' ' ).append( m_spans );
+        final StackTraceElement[] stack = m_stack;
+        if( stack != null ) {
+            sb.append( ", sampled at:" );
+            for( final StackTraceElement element : stack ) {
+                sb.append( "\n    at " ).append( element );
+            }
+        }
+        return sb.toString();
+    }
+
+}
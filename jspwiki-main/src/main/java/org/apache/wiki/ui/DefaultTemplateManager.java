@@ -28,6 +28,7 @@ import org.apache.wiki.modules.BaseModuleManager;
 import org.apache.wiki.modules.WikiModuleInfo;
 import org.apache.wiki.preferences.Preferences;
 import org.apache.wiki.preferences.Preferences.TimeFormat;
+import org.apache.wiki.util.TextUtil;
 
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,12 +41,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -57,6 +61,29 @@ public class DefaultTemplateManager extends BaseModuleManager implements Templat
 
     private static final Logger LOG = LogManager.getLogger( DefaultTemplateManager.class );
 
+    /**
+     *  Whether template lookups (which resources exist, available skins and time formats) are remembered instead of being looked up
+     *  on the servlet context each time. Defaults to true; set it to false while developing templates so that added or removed
+     *  files are picked up without restarting. Value is {@value}.
+     */
+    public static final String PROP_CACHE_RESOURCES = "jspwiki.templateManager.cacheResources";
+
+    private final boolean m_cacheResources;
+
+    /**
+     *  Full resource name to whether it exists on the servlet context. Templates may be requested by anyone through the {@code skin}
+     *  parameter, so only lookups under template directories which exist are remembered, see {@link #isCacheable(ServletContext, String)}.
+     */
+    private final Map< String, Boolean > m_resources = new ConcurrentHashMap<>();
+
+    /** Skins directory of an existing template to the skins found on it. */
+    private final Map< String, Set< String > > m_skins = new ConcurrentHashMap<>();
+
+    /** Names of the template directories on the servlet context. */
+    private volatile Set< String > m_templates;
+
+    private volatile List< String > m_timeFormats;
+
     /**
      *  Creates a new TemplateManager.  There is typically one manager per engine.
      *
@@ -65,21 +92,14 @@ public class DefaultTemplateManager extends BaseModuleManager implements Templat
      */
     public DefaultTemplateManager( final Engine engine, final Properties properties ) {
         super( engine );
+        m_cacheResources = TextUtil.getBooleanProperty( properties, PROP_CACHE_RESOURCES, true );
     }
 
     /** {@inheritDoc} */
     @Override
     // FIXME: Does not work yet
     public boolean templateExists( final String templateName ) {
-        final ServletContext context = m_engine.getServletContext();
-        try( final InputStream in = context.getResourceAsStream( getPath( templateName ) + "ViewTemplate.jsp" ) ) {
-            if( in != null ) {
-                return true;
-            }
-        } catch( final IOException e ) {
-            LOG.error( e.getMessage(), e );
-        }
-        return false;
+        return resourceExists( m_engine.getServletContext(), getPath( templateName ) + "ViewTemplate.jsp" );
     }
 
     /**
@@ -90,19 +110,71 @@ public class DefaultTemplateManager extends BaseModuleManager implements Templat
      *  @param name The name of the resource
      *  @return The name of the resource which was found.
      */
-    private static String findResource( final ServletContext sContext, final String name ) {
-        String resourceName = name;
-        try( final InputStream is = sContext.getResourceAsStream( resourceName ) ) {
-            if( is == null ) {
-                final String defname = makeFullJSPName( DEFAULT_TEMPLATE, removeTemplatePart( resourceName ) );
-                try( final InputStream iis = sContext.getResourceAsStream( defname ) ) {
-                    resourceName = iis != null ? defname : null;
+    private String findResource( final ServletContext sContext, final String name ) {
+        if( resourceExists( sContext, name ) ) {
+            return name;
+        }
+        final String defname = makeFullJSPName( DEFAULT_TEMPLATE, removeTemplatePart( name ) );
+        return resourceExists( sContext, defname ) ? defname : null;
+    }
+
+    /**
+     *  Checks whether a resource exists on the servlet context, remembering the answer if resources are cached.
+     *
+     *  @param sContext The servlet context
+     *  @param name The full name of the resource
+     *  @return {@code true} if the resource exists.
+     */
+    private boolean resourceExists( final ServletContext sContext, final String name ) {
+        if( isCacheable( sContext, name ) ) {
+            return m_resources.computeIfAbsent( name, n -> openResource( sContext, n ) );
+        }
+        return openResource( sContext, name );
+    }
+
+    /**
+     *  Tells whether lookups of a resource can be remembered, that is, if resources are cached and the resource belongs to a template
+     *  directory which exists, so that the number of remembered lookups is bounded by the files of the installed templates.
+     *
+     *  @param sContext The servlet context
+     *  @param name The full name of the resource
+     *  @return {@code true} if lookups of the resource can be remembered.
+     */
+    private boolean isCacheable( final ServletContext sContext, final String name ) {
+        final String templatesDir = "/" + DIRECTORY + "/";
+        if( !m_cacheResources || !name.startsWith( templatesDir ) ) {
+            return false;
+        }
+        final int end = name.indexOf( '/', templatesDir.length() );
+        return end != -1 && templates( sContext ).contains( name.substring( templatesDir.length(), end ) );
+    }
+
+    private Set< String > templates( final ServletContext sContext ) {
+        Set< String > templates = m_templates;
+        if( templates == null ) {
+            templates = new HashSet<>();
+            final Set< String > paths = sContext.getResourcePaths( "/" + DIRECTORY + "/" );
+            if( paths != null ) {
+                for( final String path : paths ) {
+                    final String[] s = StringUtils.split( path, "/" );
+                    if( s.length > 1 && path.endsWith( "/" ) ) {
+                        templates.add( s[ s.length - 1 ] );
+                    }
                 }
             }
+            templates = Collections.unmodifiableSet( templates );
+            m_templates = templates;
+        }
+        return templates;
+    }
+
+    private static boolean openResource( final ServletContext sContext, final String name ) {
+        try( final InputStream is = sContext.getResourceAsStream( name ) ) {
+            return is != null;
         } catch( final IOException e ) {
             LOG.error( "unable to open " + name + " as resource stream", e );
+            return false;
         }
-        return resourceName;
     }
 
     /**
@@ -113,7 +185,7 @@ public class DefaultTemplateManager extends BaseModuleManager implements Templat
      * @param name resource name
      * @return the Resource for the given template and name.
      */
-    private static String findResource( final ServletContext sContext, final String template, final String name ) {
+    private String findResource( final ServletContext sContext, final String template, final String name ) {
         if( name.charAt(0) == '/' ) {
             // This is already a full path
             return findResource( sContext, name );
@@ -194,7 +266,13 @@ public class DefaultTemplateManager extends BaseModuleManager implements Templat
     @Override
     public Set< String > listSkins( final PageContext pageContext, final String template ) {
         final String place = makeFullJSPName( template, SKIN_DIRECTORY );
-        final ServletContext sContext = pageContext.getServletContext();
+        if( isCacheable( pageContext.getServletContext(), place ) ) {
+            return m_skins.computeIfAbsent( place, p -> Collections.unmodifiableSet( findSkins( pageContext.getServletContext(), p ) ) );
+        }
+        return findSkins( pageContext.getServletContext(), place );
+    }
+
+    private static Set< String > findSkins( final ServletContext sContext, final String place ) {
         final Set< String > skinSet = sContext.getResourcePaths( place );
         final Set< String > resultSet = new TreeSet<>();
 
@@ -218,27 +296,11 @@ public class DefaultTemplateManager extends BaseModuleManager implements Templat
     @Override
     public Map< String, String > listTimeFormats( final PageContext pageContext ) {
         final Context context = Context.findContext( pageContext );
-        final Properties props = m_engine.getWikiProperties();
-        final ArrayList< String > tfArr = new ArrayList<>(40);
         final LinkedHashMap< String, String > resultMap = new LinkedHashMap<>();
-
-        /* filter timeformat properties */
-        for( final Enumeration< ? > e = props.propertyNames(); e.hasMoreElements(); ) {
-            final String name = ( String )e.nextElement();
-            if( name.startsWith( TIMEFORMATPROPERTIES ) ) {
-                tfArr.add( name );
-            }
-        }
-
-        /* fetch actual formats */
-        if(tfArr.isEmpty())  {/* no props found - make sure some default formats are avail */
-            tfArr.add( "dd-MMM-yy" );
-            tfArr.add( "d-MMM-yyyy" );
-            tfArr.add( "EEE, dd-MMM-yyyy, zzzz" );
-        } else {
-            Collections.sort( tfArr );
-
-            tfArr.replaceAll(props::getProperty);
+        List< String > tfArr = m_timeFormats;
+        if( tfArr == null || !m_cacheResources ) {
+            tfArr = timeFormats();
+            m_timeFormats = m_cacheResources ? tfArr : null;
         }
 
         final String prefTimeZone = Preferences.getPreference( context, "TimeZone" );
@@ -265,6 +327,34 @@ public class DefaultTemplateManager extends BaseModuleManager implements Templat
         return resultMap;
     }
 
+    /**
+     *  Returns the time format patterns set on the properties, or some default ones if there isn't any.
+     */
+    private List< String > timeFormats() {
+        final Properties props = m_engine.getWikiProperties();
+        final ArrayList< String > tfArr = new ArrayList<>(40);
+
+        /* filter timeformat properties */
+        for( final Enumeration< ? > e = props.propertyNames(); e.hasMoreElements(); ) {
+            final String name = ( String )e.nextElement();
+            if( name.startsWith( TIMEFORMATPROPERTIES ) ) {
+                tfArr.add( name );
+            }
+        }
+
+        /* fetch actual formats */
+        if(tfArr.isEmpty())  {/* no props found - make sure some default formats are avail */
+            tfArr.add( "dd-MMM-yy" );
+            tfArr.add( "d-MMM-yyyy" );
+            tfArr.add( "EEE, dd-MMM-yyyy, zzzz" );
+        } else {
+            Collections.sort( tfArr );
+
+            tfArr.replaceAll(props::getProperty);
+        }
+        return tfArr;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Collection< WikiModuleInfo > modules() {
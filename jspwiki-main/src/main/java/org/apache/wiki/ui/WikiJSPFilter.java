@@ -22,11 +22,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
-import org.apache.wiki.WatchDog;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.event.WikiEventManager;
 import org.apache.wiki.event.WikiPageEvent;
+import org.apache.wiki.tracing.RequestTracer;
+import org.apache.wiki.tracing.Span;
 import org.apache.wiki.url.URLConstructor;
 import org.apache.wiki.util.TextUtil;
 
@@ -87,25 +88,29 @@ public class WikiJSPFilter extends WikiServletFilter {
 
     @Override
     public void doFilter( final ServletRequest  request, final ServletResponse response, final FilterChain chain ) throws ServletException, IOException {
-        final WatchDog w = WatchDog.getCurrentWatchDog( m_engine );
+        final RequestTracer tracer = m_engine.getManager( RequestTracer.class );
+        final Span trace = tracer.begin( ( ( HttpServletRequest )request ).getRequestURI() );
         try {
             ThreadContext.push( m_engine.getApplicationName() + ":" + ( ( HttpServletRequest )request ).getRequestURI() );
-            w.enterState("Filtering for URL "+((HttpServletRequest)request).getRequestURI(), 90 );
             final HttpServletResponseWrapper responseWrapper = new JSPWikiServletResponseWrapper( ( HttpServletResponse )response, m_wiki_encoding, useEncoding );
             request.setCharacterEncoding( m_engine.getContentEncoding().displayName() );
 
             // fire PAGE_REQUESTED event
             final String pagename = URLConstructor.parsePageFromURL( ( HttpServletRequest )request, m_engine.getContentEncoding() );
             fireEvent( WikiPageEvent.PAGE_REQUESTED, pagename != null ? pagename : m_engine.getFrontPage() );
-            super.doFilter( request, responseWrapper, chain );
+            try( final Span ignored = tracer.span( "Generating response" ) ) {
+                super.doFilter( request, responseWrapper, chain );
+            }
 
             // The response is now complete. Let's replace the markers now.
 
             // WikiContext is only available after doFilter! (That is after interpreting the jsp)
 
-            try {
-                w.enterState( "Delivering response", 30 );
+            try( final Span ignored = tracer.span( "Delivering response" ) ) {
                 final Context wikiContext = getWikiContext( request );
+                if( wikiContext != null ) {
+                    tracer.setRequestContext( wikiContext.getRequestContext() );
+                }
                 final String r = filter( wikiContext, responseWrapper );
 
                 if( useEncoding ) {
@@ -125,11 +130,9 @@ public class WikiJSPFilter extends WikiServletFilter {
                 // fire PAGE_DELIVERED event
                 fireEvent( WikiPageEvent.PAGE_DELIVERED, pagename );
 
-            } finally {
-                w.exitState();
             }
         } finally {
-            w.exitState();
+            trace.close();
             ThreadContext.pop();
             ThreadContext.remove( m_engine.getApplicationName() + ":" + ( ( HttpServletRequest )request ).getRequestURI() );
         }
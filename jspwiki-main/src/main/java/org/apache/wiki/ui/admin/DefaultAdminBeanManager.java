@@ -27,9 +27,12 @@ import org.apache.wiki.event.WikiEvent;
 import org.apache.wiki.event.WikiEventListener;
 import org.apache.wiki.modules.ModuleManager;
 import org.apache.wiki.modules.WikiModuleInfo;
+import org.apache.wiki.ui.admin.beans.CachingManagerBean;
 import org.apache.wiki.ui.admin.beans.CoreBean;
 import org.apache.wiki.ui.admin.beans.FilterBean;
 import org.apache.wiki.ui.admin.beans.PluginBean;
+import org.apache.wiki.ui.admin.beans.RequestTracerBean;
+import org.apache.wiki.ui.admin.beans.SchedulerBean;
 import org.apache.wiki.ui.admin.beans.SearchManagerBean;
 import org.apache.wiki.ui.admin.beans.UserBean;
 import org.apache.wiki.util.ClassUtil;
@@ -194,6 +197,9 @@ public class DefaultAdminBeanManager implements WikiEventListener, AdminBeanMana
             registerAdminBean( new CoreBean( m_engine ) );
             registerAdminBean( new UserBean( m_engine ) );
             registerAdminBean( new SearchManagerBean( m_engine ) );
+            registerAdminBean( new CachingManagerBean( m_engine ) );
+            registerAdminBean( new SchedulerBean( m_engine ) );
+            registerAdminBean( new RequestTracerBean( m_engine ) );
             registerAdminBean( new PluginBean( m_engine ) );
             registerAdminBean( new FilterBean( m_engine ) );
         } catch( final NotCompliantMBeanException e ) {
@@ -0,0 +1,208 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.ui.admin.beans;
+
+import org.apache.wiki.ajax.WikiAjaxDispatcherServlet;
+import org.apache.wiki.ajax.WikiAjaxServlet;
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.auth.permissions.AllPermission;
+import org.apache.wiki.cache.CacheInfo;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.ui.admin.SimpleAdminBean;
+import org.apache.wiki.util.TextUtil;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import javax.management.NotCompliantMBeanException;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+
+/**
+ *  An AdminBean which shows the statistics of each cache, so caches can be sized from real data. Statistics are also available
+ *  as plain text, one line per cache and metric, from {@code /ajax/CacheMetrics}, for monitoring tools to scrape them.
+ */
+public class CachingManagerBean extends SimpleAdminBean implements WikiAjaxServlet {
+
+    /** Ajax alias of the plain text metrics. */
+    public static final String CACHE_METRICS = "CacheMetrics";
+
+    private static final String[] ATTRIBUTES = { "hits", "misses", "evictions", "entries", "bytes", "metrics" };
+    private static final String[] METHODS = { };
+
+    public CachingManagerBean( final Engine engine ) throws NotCompliantMBeanException {
+        m_engine = engine;
+        WikiAjaxDispatcherServlet.registerServlet( CACHE_METRICS, this, new AllPermission( null ) );
+    }
+
+    public long getHits() {
+        return sum( CacheInfo::getHits );
+    }
+
+    public String getHitsDescription() {
+        return "Requests answered from the caches";
+    }
+
+    public long getMisses() {
+        return sum( CacheInfo::getMisses );
+    }
+
+    public String getMissesDescription() {
+        return "Requests which had to go to the cached services";
+    }
+
+    public long getEvictions() {
+        return sum( CacheInfo::getEvictions );
+    }
+
+    public String getEvictionsDescription() {
+        return "Elements removed from the caches to make room for others, or because they expired";
+    }
+
+    public long getEntries() {
+        return sum( CacheInfo::getEntries );
+    }
+
+    public String getEntriesDescription() {
+        return "Elements held in the caches";
+    }
+
+    public long getBytes() {
+        return sum( CacheInfo::getBytes );
+    }
+
+    public String getBytesDescription() {
+        return "Estimated size, in bytes, of the elements held in the caches";
+    }
+
+    /**
+     *  Returns the statistics of every cache, as plain text, one line per cache and metric, f.ex.:
+     *  {@code jspwiki_cache_hits{cache="jspwiki.pageCache"} 1234}.
+     *
+     *  @return the statistics of every cache.
+     */
+    public String getMetrics() {
+        final StringBuilder sb = new StringBuilder();
+        metric( sb, "hits", CacheInfo::getHits );
+        metric( sb, "misses", CacheInfo::getMisses );
+        metric( sb, "negative_hits", CacheInfo::getNegativeHits );
+        metric( sb, "coalesced_loads", CacheInfo::getCoalescedLoads );
+        metric( sb, "second_tier_hits", CacheInfo::getSecondTierHits );
+        metric( sb, "load_time_ms", CacheInfo::getLoadTime );
+        metric( sb, "evictions", CacheInfo::getEvictions );
+        metric( sb, "entries", CacheInfo::getEntries );
+        metric( sb, "bytes", CacheInfo::getBytes );
+        return sb.toString();
+    }
+
+    public String getMetricsDescription() {
+        return "Statistics of each cache";
+    }
+
+    private void metric( final StringBuilder sb, final String metric, final ToLongFunction< CacheInfo > value ) {
+        for( final CacheInfo info : infos() ) {
+            final long val = value.applyAsLong( info );
+            if( val != CacheInfo.UNKNOWN ) {
+                sb.append( "jspwiki_cache_" ).append( metric ).append( "{cache=\"" ).append( info.getName() ).append( "\"} " ).append( val ).append( '\n' );
+            }
+        }
+    }
+
+    private long sum( final ToLongFunction< CacheInfo > value ) {
+        return infos().stream().mapToLong( value ).filter( val -> val != CacheInfo.UNKNOWN ).sum();
+    }
+
+    private List< CacheInfo > infos() {
+        final CachingManager cachingManager = m_engine.getManager( CachingManager.class );
+        return cachingManager.names().stream().map( cachingManager::info ).collect( Collectors.toList() );
+    }
+
+    @Override
+    public String doGet( final Context context ) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "<table class='wikitable'>\n" )
+          .append( "<tr><th>Cache</th><th>Hits</th><th>Misses</th><th>Negative hits</th><th>Coalesced loads</th><th>Second tier hits</th>" )
+          .append( "<th>Load time (ms)</th><th>Evictions</th><th>Entries</th><th>Bytes</th></tr>\n" );
+        for( final CacheInfo info : infos() ) {
+            sb.append( "<tr><td>" ).append( TextUtil.replaceEntities( info.getName() ) ).append( "</td>" );
+            cell( sb, info.getHits() );
+            cell( sb, info.getMisses() );
+            cell( sb, info.getNegativeHits() );
+            cell( sb, info.getCoalescedLoads() );
+            cell( sb, info.getSecondTierHits() );
+            cell( sb, info.getLoadTime() );
+            cell( sb, info.getEvictions() );
+            cell( sb, info.getEntries() );
+            cell( sb, info.getBytes() );
+            sb.append( "</tr>\n" );
+        }
+        sb.append( "</table>\n" )
+          .append( "<div class='description'>Plain text statistics are available at <code>/ajax/" ).append( CACHE_METRICS ).append( "</code>.</div>" );
+        return sb.toString();
+    }
+
+    private void cell( final StringBuilder sb, final long value ) {
+        sb.append( "<td>" ).append( value != CacheInfo.UNKNOWN ? String.valueOf( value ) : "-" ).append( "</td>" );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getServletMapping() {
+        return CACHE_METRICS;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void service( final HttpServletRequest request,
+                         final HttpServletResponse response,
+                         final String actionName,
+                         final List< String > params ) throws IOException {
+        response.setContentType( "text/plain" );
+        response.getWriter().write( getMetrics() );
+    }
+
+    @Override
+    public String getTitle() {
+        return "Caching manager";
+    }
+
+    @Override
+    public int getType() {
+        return CORE;
+    }
+
+    @Override
+    public String getId() {
+        return "cachingmanagerbean";
+    }
+
+    @Override
+    public String[] getAttributeNames() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    public String[] getMethodNames() {
+        return METHODS;
+    }
+
+}
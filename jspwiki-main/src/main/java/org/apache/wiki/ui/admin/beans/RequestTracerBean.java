@@ -0,0 +1,108 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.ui.admin.beans;
+
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.tracing.Histogram;
+import org.apache.wiki.tracing.RequestTracer;
+import org.apache.wiki.ui.admin.SimpleAdminBean;
+import org.apache.wiki.util.TextUtil;
+
+import javax.management.NotCompliantMBeanException;
+
+
+/**
+ *  An AdminBean which shows the response times of the requests served by the wiki, per request context.
+ */
+public class RequestTracerBean extends SimpleAdminBean {
+
+    private static final String[] ATTRIBUTES = { "requests", "slowRequests" };
+    private static final String[] METHODS = { };
+
+    public RequestTracerBean( final Engine engine ) throws NotCompliantMBeanException {
+        m_engine = engine;
+    }
+
+    public long getRequests() {
+        return tracer().histograms().stream().mapToLong( Histogram::getCount ).sum();
+    }
+
+    public String getRequestsDescription() {
+        return "Requests served";
+    }
+
+    public long getSlowRequests() {
+        return tracer().getSlowRequests();
+    }
+
+    public String getSlowRequestsDescription() {
+        return "Requests which took longer than " + RequestTracer.PROP_SLOW_REQUEST + " milliseconds";
+    }
+
+    private RequestTracer tracer() {
+        return m_engine.getManager( RequestTracer.class );
+    }
+
+    @Override
+    public String doGet( final Context context ) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "<table class='wikitable'>\n" )
+          .append( "<tr><th>Request context</th><th>Requests</th><th>Mean (ms)</th><th>50% (ms)</th><th>90% (ms)</th>" )
+          .append( "<th>99% (ms)</th><th>Max (ms)</th></tr>\n" );
+        for( final Histogram histogram : tracer().histograms() ) {
+            sb.append( "<tr><td>" ).append( TextUtil.replaceEntities( histogram.getName() ) ).append( "</td>" )
+              .append( "<td>" ).append( histogram.getCount() ).append( "</td>" )
+              .append( "<td>" ).append( histogram.getMeanTime() ).append( "</td>" )
+              .append( "<td>" ).append( histogram.getPercentile( 50 ) ).append( "</td>" )
+              .append( "<td>" ).append( histogram.getPercentile( 90 ) ).append( "</td>" )
+              .append( "<td>" ).append( histogram.getPercentile( 99 ) ).append( "</td>" )
+              .append( "<td>" ).append( histogram.getMaxTime() ).append( "</td></tr>\n" );
+        }
+        sb.append( "</table>\n" )
+          .append( "<div class='description'>Percentiles are upper bounds of the actual response times.</div>" );
+        return sb.toString();
+    }
+
+    @Override
+    public String getTitle() {
+        return "Response times";
+    }
+
+    @Override
+    public int getType() {
+        return CORE;
+    }
+
+    @Override
+    public String getId() {
+        return "requesttracerbean";
+    }
+
+    @Override
+    public String[] getAttributeNames() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    public String[] getMethodNames() {
+        return METHODS;
+    }
+
+}
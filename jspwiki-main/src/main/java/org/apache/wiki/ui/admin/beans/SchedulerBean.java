@@ -0,0 +1,108 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.ui.admin.beans;
+
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.core.Engine;
+import org.apache.wiki.scheduler.ScheduledJob;
+import org.apache.wiki.scheduler.SchedulerManager;
+import org.apache.wiki.ui.admin.SimpleAdminBean;
+import org.apache.wiki.util.TextUtil;
+
+import javax.management.NotCompliantMBeanException;
+import java.util.List;
+
+
+/**
+ *  An AdminBean which shows the background jobs currently scheduled, along with their run times and failures.
+ */
+public class SchedulerBean extends SimpleAdminBean {
+
+    private static final String[] ATTRIBUTES = { "jobs", "failures" };
+    private static final String[] METHODS = { };
+
+    public SchedulerBean( final Engine engine ) throws NotCompliantMBeanException {
+        m_engine = engine;
+    }
+
+    public int getJobs() {
+        return jobs().size();
+    }
+
+    public String getJobsDescription() {
+        return "Background jobs currently scheduled";
+    }
+
+    public long getFailures() {
+        return jobs().stream().mapToLong( ScheduledJob::getFailures ).sum();
+    }
+
+    public String getFailuresDescription() {
+        return "Runs of the background jobs which failed";
+    }
+
+    private List< ScheduledJob > jobs() {
+        return m_engine.getManager( SchedulerManager.class ).jobs();
+    }
+
+    @Override
+    public String doGet( final Context context ) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "<table class='wikitable'>\n" )
+          .append( "<tr><th>Job</th><th>Interval (s)</th><th>Runs</th><th>Failures</th><th>Last run (ms)</th>" )
+          .append( "<th>Longest run (ms)</th><th>Total time (ms)</th></tr>\n" );
+        for( final ScheduledJob job : jobs() ) {
+            sb.append( "<tr><td>" ).append( TextUtil.replaceEntities( job.getName() ) ).append( "</td>" )
+              .append( "<td>" ).append( job.getInterval() / 1_000L ).append( "</td>" )
+              .append( "<td>" ).append( job.getRuns() ).append( "</td>" )
+              .append( "<td>" ).append( job.getFailures() ).append( "</td>" )
+              .append( "<td>" ).append( job.getLastTime() ).append( "</td>" )
+              .append( "<td>" ).append( job.getMaxTime() ).append( "</td>" )
+              .append( "<td>" ).append( job.getTotalTime() ).append( "</td></tr>\n" );
+        }
+        sb.append( "</table>\n" );
+        return sb.toString();
+    }
+
+    @Override
+    public String getTitle() {
+        return "Background jobs";
+    }
+
+    @Override
+    public int getType() {
+        return CORE;
+    }
+
+    @Override
+    public String getId() {
+        return "schedulerbean";
+    }
+
+    @Override
+    public String[] getAttributeNames() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    public String[] getMethodNames() {
+        return METHODS;
+    }
+
+}
@@ -18,7 +18,7 @@
  */
 package org.apache.wiki.ui.admin.beans;
 
-import org.apache.wiki.WikiBackgroundThread;
+import org.apache.wiki.WikiBackgroundJob;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.api.core.Page;
@@ -44,7 +44,7 @@ public class SearchManagerBean extends SimpleAdminBean {
 
     // private static Logger log = LogManager.getLogger( SearchManagerBean.class );
 
-    private WikiBackgroundThread m_updater;
+    private WikiBackgroundJob m_updater;
 
     public SearchManagerBean( final Engine engine ) throws NotCompliantMBeanException {
         super();
@@ -76,7 +76,7 @@ public class SearchManagerBean extends SimpleAdminBean {
      */
     public synchronized void reload() {
         if( m_updater == null ) {
-            m_updater = new WikiBackgroundThread( m_engine, 0 ) {
+            m_updater = new WikiBackgroundJob( m_engine, 0 ) {
 
                 int m_count;
                 int m_max;
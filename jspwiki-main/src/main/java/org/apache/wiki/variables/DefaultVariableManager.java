@@ -36,12 +36,14 @@ import org.apache.wiki.preferences.Preferences;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
-import java.lang.reflect.Method;
 import java.security.Principal;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -57,9 +59,42 @@ public class DefaultVariableManager implements VariableManager {
     /**
      *  Contains a list of those properties that shall never be shown. Put names here in lower case.
      */
-    static final String[] THE_BIG_NO_NO_LIST = {
+    static final Set< String > THE_BIG_NO_NO_LIST = Set.of(
         "jspwiki.auth.masterpassword"
-    };
+    );
+
+    /**
+     *  The only properties starting with "jspwiki." that can be shown. Put names here in lower case.
+     */
+    static final Set< String > ALLOWED_PROPERTIES = Set.of(
+        "jspwiki.frontpage",
+        "jspwiki.runfilters"
+    );
+
+    /**
+     *  System variables, keyed by their lower case name.  Adding a new system variable only involves creating
+     *  a new method in the {@link SystemVariables} class and registering it here.
+     */
+    static final Map< String, Function< Context, String > > SYSTEM_VARIABLES = Map.ofEntries(
+        Map.entry( "pagename", SystemVariables::getPagename ),
+        Map.entry( "applicationname", SystemVariables::getApplicationname ),
+        Map.entry( "jspwikiversion", SystemVariables::getJspwikiversion ),
+        Map.entry( "encoding", SystemVariables::getEncoding ),
+        Map.entry( "totalpages", SystemVariables::getTotalpages ),
+        Map.entry( "pageprovider", SystemVariables::getPageprovider ),
+        Map.entry( "pageproviderdescription", SystemVariables::getPageproviderdescription ),
+        Map.entry( "attachmentprovider", SystemVariables::getAttachmentprovider ),
+        Map.entry( "attachmentproviderdescription", SystemVariables::getAttachmentproviderdescription ),
+        Map.entry( "interwikilinks", SystemVariables::getInterwikilinks ),
+        Map.entry( "inlinedimages", SystemVariables::getInlinedimages ),
+        Map.entry( "pluginpath", SystemVariables::getPluginpath ),
+        Map.entry( "baseurl", SystemVariables::getBaseurl ),
+        Map.entry( "uptime", SystemVariables::getUptime ),
+        Map.entry( "loginstatus", SystemVariables::getLoginstatus ),
+        Map.entry( "username", SystemVariables::getUsername ),
+        Map.entry( "requestcontext", SystemVariables::getRequestcontext ),
+        Map.entry( "pagefilters", SystemVariables::getPagefilters )
+    );
 
     /**
      *  Creates a VariableManager object using the property list given.
@@ -154,121 +189,106 @@ public class DefaultVariableManager implements VariableManager {
         // Faster than doing equalsIgnoreCase()
         final String name = varName.toLowerCase();
 
-        for( final String value : THE_BIG_NO_NO_LIST ) {
-            if( name.equals( value ) ) {
-                return ""; // FIXME: Should this be something different?
-            }
-            if ("jspwiki.frontpage".equals(name)) continue;
-            if ("jspwiki.runfilters".equals(name) ) continue;
-            
-            if ( name.startsWith( "jspwiki" ) ) {
-                LOG.warn("variable manager is denying access to '" + name + "'");
+        if( THE_BIG_NO_NO_LIST.contains( name ) ) {
+            return ""; // FIXME: Should this be something different?
+        }
+        if( name.startsWith( "jspwiki." ) && !ALLOWED_PROPERTIES.contains( name ) ) {
+            LOG.warn( "variable manager is denying access to '" + name + "'" );
+            return "";
+        }
+
+        final Function< Context, String > sysvar = SYSTEM_VARIABLES.get( name );
+        if( sysvar != null ) {
+            try {
+                return sysvar.apply( context );
+            } catch( final Exception e ) {
+                LOG.info( "Interesting exception: cannot fetch variable value", e );
                 return "";
             }
-
         }
-        
-        try {
-            //
-            //  Using reflection to get system variables adding a new system variable
-            //  now only involves creating a new method in the SystemVariables class
-            //  with a name starting with get and the first character of the name of
-            //  the variable capitalized. Example:
-            //    public String getMysysvar(){
-            //      return "Hello World";
-            //    }
-            //
-            final SystemVariables sysvars = new SystemVariables( context );
-            final String methodName = "get" + Character.toUpperCase( name.charAt( 0 ) ) + name.substring( 1 );
-            final Method method = sysvars.getClass().getMethod( methodName );
-            return ( String )method.invoke( sysvars );
-        } catch( final NoSuchMethodException e1 ) {
-            //
-            //  It is not a system var. Time to handle the other cases.
-            //
-            //  Check if such a context variable exists, returning its string representation.
-            //
-            if( ( context.getVariable( varName ) ) != null ) {
-                return context.getVariable( varName ).toString();
-            }
 
-            //
-            //  Well, I guess it wasn't a final straw.  We also allow variables from the session and the request (in this order).
-            //
-            final HttpServletRequest req = context.getHttpRequest();
-            if( req != null && req.getSession() != null ) {
-                final HttpSession session = req.getSession();
+        //
+        //  It is not a system var. Time to handle the other cases.
+        //
+        //  Check if such a context variable exists, returning its string representation.
+        //
+        if( ( context.getVariable( varName ) ) != null ) {
+            return context.getVariable( varName ).toString();
+        }
 
-                try {
-                    String s = ( String )session.getAttribute( varName );
+        //
+        //  Well, I guess it wasn't a final straw.  We also allow variables from the session and the request (in this order).
+        //
+        final HttpServletRequest req = context.getHttpRequest();
+        if( req != null && req.getSession() != null ) {
+            final HttpSession session = req.getSession();
 
-                    if( s != null ) {
-                        return s;
-                    }
+            try {
+                String s = ( String )session.getAttribute( varName );
 
-                    s = context.getHttpParameter( varName );
-                    if( s != null ) {
-                        return s;
-                    }
-                } catch( final ClassCastException e ) {
-                    LOG.debug( "Not a String: " + varName );
+                if( s != null ) {
+                    return s;
                 }
-            }
 
-            //
-            // And the final straw: see if the current page has named metadata.
-            //
-            final Page pg = context.getPage();
-            if( pg != null ) {
-                final Object metadata = pg.getAttribute( varName );
-                if( metadata != null ) {
-                    return metadata.toString();
+                s = context.getHttpParameter( varName );
+                if( s != null ) {
+                    return s;
                 }
+            } catch( final ClassCastException e ) {
+                LOG.debug( "Not a String: " + varName );
             }
+        }
 
-            //
-            // And the final straw part 2: see if the "real" current page has named metadata. This allows
-            // a parent page to control a inserted page through defining variables
-            //
-            final Page rpg = context.getRealPage();
-            if( rpg != null ) {
-                final Object metadata = rpg.getAttribute( varName );
-                if( metadata != null ) {
-                    return metadata.toString();
-                }
+        //
+        // And the final straw: see if the current page has named metadata.
+        //
+        final Page pg = context.getPage();
+        if( pg != null ) {
+            final Object metadata = pg.getAttribute( varName );
+            if( metadata != null ) {
+                return metadata.toString();
             }
+        }
 
-            //
-            // Next-to-final straw: attempt to fetch using property name. We don't allow fetching any other
-            // properties than those starting with "jspwiki.".  I know my own code, but I can't vouch for bugs
-            // in other people's code... :-)
-            //
-            if( varName.startsWith("jspwiki.") ) {
-                final Properties props = context.getEngine().getWikiProperties();
-                final String s = props.getProperty( varName );
-                if( s != null ) {
-                    return s;
-                }
+        //
+        // And the final straw part 2: see if the "real" current page has named metadata. This allows
+        // a parent page to control a inserted page through defining variables
+        //
+        final Page rpg = context.getRealPage();
+        if( rpg != null ) {
+            final Object metadata = rpg.getAttribute( varName );
+            if( metadata != null ) {
+                return metadata.toString();
             }
+        }
 
-            //
-            //  Final defaults for some known quantities.
-            //
-            if( varName.equals( VAR_ERROR ) || varName.equals( VAR_MSG ) ) {
-                return "";
+        //
+        // Next-to-final straw: attempt to fetch using property name. We don't allow fetching any other
+        // properties than those starting with "jspwiki.".  I know my own code, but I can't vouch for bugs
+        // in other people's code... :-)
+        //
+        if( varName.startsWith("jspwiki.") ) {
+            final Properties props = context.getEngine().getWikiProperties();
+            final String s = props.getProperty( varName );
+            if( s != null ) {
+                return s;
             }
+        }
 
-            throw new NoSuchVariableException( "No variable " + varName + " defined." );
-        } catch( final Exception e ) {
-            LOG.info("Interesting exception: cannot fetch variable value", e );
+        //
+        //  Final defaults for some known quantities.
+        //
+        if( varName.equals( VAR_ERROR ) || varName.equals( VAR_MSG ) ) {
+            return "";
         }
-        return "";
+
+        throw new NoSuchVariableException( "No variable " + varName + " defined." );
     }
 
     /**
      *  This class provides the implementation for the different system variables.
-     *  It is called via Reflection - any access to a variable called $xxx is mapped
-     *  to getXxx() on this class.
+     *  Any access to a variable called $xxx is mapped to getXxx() on this class,
+     *  through {@link #SYSTEM_VARIABLES}.
      *  <p>
      *  This is a lot neater than using a huge if-else if branching structure
      *  that we used to have before.
@@ -280,81 +300,76 @@ public class DefaultVariableManager implements VariableManager {
      *
      *  @since 2.7.0
      */
-    @SuppressWarnings( "unused" )
-    private static class SystemVariables {
+    private static final class SystemVariables {
 
-        private final Context m_context;
-
-        public SystemVariables( final Context context )
-        {
-            m_context=context;
+        private SystemVariables() {
         }
 
-        public String getPagename()
+        static String getPagename( final Context context )
         {
-            return m_context.getPage().getName();
+            return context.getPage().getName();
         }
 
-        public String getApplicationname()
+        static String getApplicationname( final Context context )
         {
-            return m_context.getEngine().getApplicationName();
+            return context.getEngine().getApplicationName();
         }
 
-        public String getJspwikiversion()
+        static String getJspwikiversion( final Context context )
         {
             return Release.getVersionString();
         }
 
-        public String getEncoding() {
-            return m_context.getEngine().getContentEncoding().displayName();
+        static String getEncoding( final Context context ) {
+            return context.getEngine().getContentEncoding().displayName();
         }
 
-        public String getTotalpages() {
-            return Integer.toString( m_context.getEngine().getManager( PageManager.class ).getTotalPageCount() );
+        static String getTotalpages( final Context context ) {
+            return Integer.toString( context.getEngine().getManager( PageManager.class ).getTotalPageCount() );
         }
 
-        public String getPageprovider() {
-            return m_context.getEngine().getManager( PageManager.class ).getCurrentProvider();
+        static String getPageprovider( final Context context ) {
+            return context.getEngine().getManager( PageManager.class ).getCurrentProvider();
         }
 
-        public String getPageproviderdescription() {
-            return m_context.getEngine().getManager( PageManager.class ).getProviderDescription();
+        static String getPageproviderdescription( final Context context ) {
+            return context.getEngine().getManager( PageManager.class ).getProviderDescription();
         }
 
-        public String getAttachmentprovider() {
-            final WikiProvider p = m_context.getEngine().getManager( AttachmentManager.class ).getCurrentProvider();
+        static String getAttachmentprovider( final Context context ) {
+            final WikiProvider p = context.getEngine().getManager( AttachmentManager.class ).getCurrentProvider();
             return (p != null) ? p.getClass().getName() : "-";
         }
 
-        public String getAttachmentproviderdescription() {
-            final WikiProvider p = m_context.getEngine().getManager( AttachmentManager.class ).getCurrentProvider();
+        static String getAttachmentproviderdescription( final Context context ) {
+            final WikiProvider p = context.getEngine().getManager( AttachmentManager.class ).getCurrentProvider();
             return (p != null) ? p.getProviderInfo() : "-";
         }
 
-        public String getInterwikilinks() {
+        static String getInterwikilinks( final Context context ) {
 
-            return m_context.getEngine().getAllInterWikiLinks().stream().map(link -> link + " --> " + m_context.getEngine().getInterWikiURL(link)).collect(Collectors.joining(", "));
+            return context.getEngine().getAllInterWikiLinks().stream().map(link -> link + " --> " + context.getEngine().getInterWikiURL(link)).collect(Collectors.joining(", "));
         }
 
-        public String getInlinedimages() {
+        static String getInlinedimages( final Context context ) {
 
-            return m_context.getEngine().getAllInlinedImagePatterns().stream().collect(Collectors.joining(", "));
+            return context.getEngine().getAllInlinedImagePatterns().stream().collect(Collectors.joining(", "));
         }
 
-        public String getPluginpath() {
-            final String s = m_context.getEngine().getPluginSearchPath();
+        static String getPluginpath( final Context context ) {
+            final String s = context.getEngine().getPluginSearchPath();
 
             return ( s == null ) ? "-" : s;
         }
 
-        public String getBaseurl()
+        static String getBaseurl( final Context context )
         {
-            return m_context.getEngine().getBaseURL();
+            return context.getEngine().getBaseURL();
         }
 
-        public String getUptime() {
+        static String getUptime( final Context context ) {
             final Date now = new Date();
-            long secondsRunning = ( now.getTime() - m_context.getEngine().getStartTime().getTime() ) / 1_000L;
+            long secondsRunning = ( now.getTime() - context.getEngine().getStartTime().getTime() ) / 1_000L;
 
             final long seconds = secondsRunning % 60;
             final long minutes = (secondsRunning /= 60) % 60;
@@ -364,24 +379,24 @@ public class DefaultVariableManager implements VariableManager {
             return days + "d, " + hours + "h " + minutes + "m " + seconds + "s";
         }
 
-        public String getLoginstatus() {
-            final Session session = m_context.getWikiSession();
-            return Preferences.getBundle( m_context, InternationalizationManager.CORE_BUNDLE ).getString( "varmgr." + session.getStatus() );
+        static String getLoginstatus( final Context context ) {
+            final Session session = context.getWikiSession();
+            return Preferences.getBundle( context, InternationalizationManager.CORE_BUNDLE ).getString( "varmgr." + session.getStatus() );
         }
 
-        public String getUsername() {
-            final Principal wup = m_context.getCurrentUser();
-            final ResourceBundle rb = Preferences.getBundle( m_context, InternationalizationManager.CORE_BUNDLE );
+        static String getUsername( final Context context ) {
+            final Principal wup = context.getCurrentUser();
+            final ResourceBundle rb = Preferences.getBundle( context, InternationalizationManager.CORE_BUNDLE );
             return wup != null ? wup.getName() : rb.getString( "varmgr.not.logged.in" );
         }
 
-        public String getRequestcontext()
+        static String getRequestcontext( final Context context )
         {
-            return m_context.getRequestContext();
+            return context.getRequestContext();
         }
 
-        public String getPagefilters() {
-            final FilterManager fm = m_context.getEngine().getManager( FilterManager.class );
+        static String getPagefilters( final Context context ) {
+            final FilterManager fm = context.getEngine().getManager( FilterManager.class );
             final List< PageFilter > filters = fm.getFilterList();
             final StringBuilder sb = new StringBuilder();
             for( final PageFilter pf : filters ) {
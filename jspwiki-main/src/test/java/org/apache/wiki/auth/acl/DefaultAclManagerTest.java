@@ -22,17 +22,22 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.wiki.TestEngine;
 import org.apache.wiki.api.core.Acl;
 import org.apache.wiki.api.core.AclEntry;
+import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.exceptions.ProviderException;
+import org.apache.wiki.api.filters.BasePageFilter;
 import org.apache.wiki.api.spi.Wiki;
 import org.apache.wiki.auth.WikiPrincipal;
 import org.apache.wiki.auth.permissions.PermissionFactory;
+import org.apache.wiki.filters.FilterManager;
 import org.apache.wiki.pages.PageManager;
+import org.apache.wiki.parser.JSPWikiMarkupParser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
 import java.security.Principal;
 import java.util.regex.Matcher;
 
@@ -99,6 +104,63 @@ public class DefaultAclManagerTest
         Assertions.assertEquals( 0, p.length );
     }
 
+    @Test
+    public void testGetPermissionsFindsSameRulesThanParser() throws Exception {
+        final String[] texts = { "[{ALLOW view Alice}] text",
+                                 "[{ALLOW edit Bob}]\n[{ALLOW view Alice, Bob}]\n[{DENY delete Bob}]",
+                                 "{{{ [{ALLOW edit Bob}] }}} [{ALLOW view Alice}]",
+                                 "{{{ ~}}} [{ALLOW edit Bob}] }}} [{ALLOW view Alice}]",
+                                 "{{{ ~}} [{ALLOW edit Bob}] }}} [{ALLOW view Alice}]",
+                                 "{{ tt [{ALLOW edit Bob}] }}",
+                                 "~[{ALLOW edit Bob}] ~~[{ALLOW view Alice}]",
+                                 "[[{ALLOW edit Bob}] [[[{ALLOW view Alice}]",
+                                 "%%(color:red) [{ALLOW edit Bob}] %%",
+                                 "%%(a[{ALLOW edit Bob}]) x%% %%class[{ALLOW view Alice}] y%% %%cl\\ ass([{ALLOW edit Alice}]) %%",
+                                 "[{Plugin text='[{ALLOW edit Bob}]'}] [{ALLOW view Alice}]",
+                                 "[Link [{ALLOW edit Bob}] [{ALLOW view Alice}]",
+                                 "[{ALLOW view Alice}] [{ALLOW edit Bob",
+                                 "[{ALLOW view Alice}] {{{ [{ALLOW edit Bob}]",
+                                 "[{ALLOW}] [{ALLOW view}] [{DENYedit Bob}]",
+                                 "Foo" };
+        for( final String text : texts ) {
+            m_engine.saveText( "TestScannedAclPage", text );
+            final Page scanned = Wiki.contents().page( m_engine, "TestScannedAclPage" );
+            final Acl acl = m_engine.getManager( AclManager.class ).getPermissions( scanned );
+
+            final Page parsed = Wiki.contents().page( m_engine, "TestScannedAclPage" );
+            final Context context = Wiki.context().create( m_engine, parsed );
+            new JSPWikiMarkupParser( context, new StringReader( text ) ).parse();
+            final String expected = parsed.getAcl() != null ? DefaultAclManager.printAcl( parsed.getAcl() ) : "";
+            Assertions.assertEquals( expected, DefaultAclManager.printAcl( acl ), text );
+        }
+        m_engine.getManager( PageManager.class ).deletePage( "TestScannedAclPage" );
+
+        Assertions.assertEquals( "[{ALLOW view Alice}]\n", DefaultAclManager.printAcl( scan( "{{{ [{ALLOW edit Bob}] }}} [{ALLOW view Alice}]" ) ) );
+        Assertions.assertEquals( "[{ALLOW view Alice}]\n", DefaultAclManager.printAcl( scan( "~[{ALLOW edit Bob}] [{ALLOW view Alice}]" ) ) );
+    }
+
+    @Test
+    public void testGetPermissionsRunsPreTranslateFilters() throws Exception {
+        m_engine.getManager( FilterManager.class ).addPageFilter( new BasePageFilter() {
+            @Override
+            public String preTranslate( final Context context, final String content ) {
+                return "[{ALLOW view Alice}]\n" + content.replace( "[{ALLOW edit Bob}]", "" );
+            }
+        }, 0 );
+        m_engine.saveText( "TestFilteredAclPage", "[{ALLOW edit Bob}] [{ALLOW edit Charlie}] text" );
+
+        final Acl acl = m_engine.getManager( AclManager.class ).getPermissions( Wiki.contents().page( m_engine, "TestFilteredAclPage" ) );
+        Assertions.assertEquals( "[{ALLOW edit Charlie}]\n[{ALLOW view Alice}]\n", DefaultAclManager.printAcl( acl ) );
+        m_engine.getManager( PageManager.class ).deletePage( "TestFilteredAclPage" );
+    }
+
+    Acl scan( final String text ) throws Exception {
+        m_engine.saveText( "TestScannedAclPage", text );
+        final Acl acl = m_engine.getManager( AclManager.class ).getPermissions( Wiki.contents().page( m_engine, "TestScannedAclPage" ) );
+        m_engine.getManager( PageManager.class ).deletePage( "TestScannedAclPage" );
+        return acl;
+    }
+
     @Test
     public void testAclRegex()
     {
@@ -316,6 +316,73 @@ public class XMLUserDatabaseTest {
         }
     }
 
+    @Test
+    public void testLookupsFollowChanges() throws Exception {
+        final Properties props = TestEngine.getTestProperties();
+        final File target = new File( "target/XMLUserDatabaseTest" + UUID.randomUUID() + ".xml" );
+        FileUtils.copyFile( new File( "src/test/resources/userdatabase.xml" ), target );
+        props.put( XMLUserDatabase.PROP_USERDATABASE, target.getAbsolutePath() );
+        final WikiEngine engine = new TestEngine( props );
+        final XMLUserDatabase db = new XMLUserDatabase();
+        db.initialize( engine, props );
+
+        UserProfile profile = db.newProfile();
+        profile.setEmail( "indexed@mailinator.com" );
+        profile.setFullname( "Indexed User" );
+        profile.setLoginName( "indexed" );
+        profile.setPassword( "password" );
+        db.save( profile );
+
+        profile = db.findByEmail( "INDEXED@mailinator.com" );
+        profile.setEmail( "reindexed@mailinator.com" );
+        profile.setFullname( "Reindexed User" );
+        db.save( profile );
+        Assertions.assertThrows( NoSuchPrincipalException.class, () -> db.findByEmail( "indexed@mailinator.com" ) );
+        Assertions.assertThrows( NoSuchPrincipalException.class, () -> db.findByFullName( "Indexed User" ) );
+        Assertions.assertEquals( "indexed", db.findByFullName( "Reindexed User" ).getLoginName() );
+
+        db.rename( "indexed", "renamed" );
+        Assertions.assertThrows( NoSuchPrincipalException.class, () -> db.findByLoginName( "indexed" ) );
+        Assertions.assertEquals( "renamed", db.findByEmail( "reindexed@mailinator.com" ).getLoginName() );
+        Assertions.assertFalse( new File( target.getAbsolutePath() + ".new" ).exists() );
+        Assertions.assertTrue( new File( target.getAbsolutePath() + ".old" ).exists() );
+
+        // a database loaded from the saved file finds the same users
+        final XMLUserDatabase reloaded = new XMLUserDatabase();
+        reloaded.initialize( engine, props );
+        final String uid = profile.getUid();
+        Assertions.assertEquals( uid, reloaded.findByLoginName( "renamed" ).getUid() );
+        Assertions.assertEquals( db.getWikiNames().length, reloaded.getWikiNames().length );
+
+        reloaded.deleteByLoginName( "renamed" );
+        Assertions.assertThrows( NoSuchPrincipalException.class, () -> reloaded.findByUid( uid ) );
+    }
+
+    @Test
+    public void testDuplicatesResolveInDocumentOrder() throws Exception {
+        UserProfile first = m_db.newProfile();
+        first.setFullname( "Duplicate User" );
+        first.setLoginName( "first" );
+        first.setPassword( "password" );
+        m_db.save( first );
+        final UserProfile second = m_db.newProfile();
+        second.setFullname( "Duplicate User" );
+        second.setLoginName( "second" );
+        second.setPassword( "password" );
+        m_db.save( second );
+        Assertions.assertEquals( "first", m_db.findByFullName( "Duplicate User" ).getLoginName() );
+
+        // saving the first user again doesn't move it behind the second one
+        first = m_db.findByLoginName( "first" );
+        m_db.save( first );
+        Assertions.assertEquals( "first", m_db.findByFullName( "Duplicate User" ).getLoginName() );
+
+        // users without email share no lookup key
+        Assertions.assertThrows( NoSuchPrincipalException.class, () -> m_db.findByEmail( "" ) );
+        m_db.deleteByLoginName( "first" );
+        Assertions.assertEquals( "second", m_db.findByFullName( "Duplicate User" ).getLoginName() );
+    }
+
     @Test
     public void testValidatePassword() {
         Assertions.assertFalse( m_db.validatePassword( "janne", "test" ) );
@@ -0,0 +1,95 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.diff;
+
+import org.apache.wiki.TestEngine;
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.content.PageRenamer;
+import org.apache.wiki.pages.PageManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.apache.wiki.TestEngine.with;
+
+
+class DefaultDifferenceManagerTest {
+
+    TestEngine engine = TestEngine.build( with( "jspwiki.pageProvider", "VersioningFileProvider" ),
+                                          with( DifferenceManager.PROP_DIFF_PROVIDER, "SvnStyleDiffProvider" ) );
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void testDiffsAreCachedUntilPageIsDeletedOrRenamed() throws Exception {
+        final DifferenceManager differenceManager = engine.getManager( DifferenceManager.class );
+        final CachingManager cachingManager = engine.getManager( CachingManager.class );
+        engine.saveText( "DiffPage", "first line" );
+        engine.saveText( "DiffPage", "second line" );
+
+        final Context context = Wiki.context().create( engine, Wiki.contents().page( engine, "DiffPage" ) );
+        final String diff = differenceManager.getDiff( context, 1, 2 );
+        Assertions.assertTrue( diff.contains( "second line" ) );
+        Assertions.assertEquals( diff, differenceManager.getDiff( context, 1, -1 ), "latest version is version 2" );
+        Assertions.assertEquals( 1, cachingManager.keys( CachingManager.CACHE_DIFFS ).size() );
+        Assertions.assertEquals( differenceManager.getDiff( context, 1, 3 ), differenceManager.getDiff( context, 1, 3 ) );
+        Assertions.assertEquals( 2, cachingManager.keys( CachingManager.CACHE_DIFFS ).size() );
+
+        engine.saveText( "DiffPage", "third line" );
+        Assertions.assertEquals( 1, cachingManager.keys( CachingManager.CACHE_DIFFS ).size(), "version 3 didn't exist when diffed" );
+        Assertions.assertTrue( differenceManager.getDiff( context, 2, 3 ).contains( "third line" ) );
+
+        engine.getManager( PageManager.class ).deletePage( "DiffPage" );
+        Assertions.assertTrue( cachingManager.keys( CachingManager.CACHE_DIFFS ).isEmpty() );
+        engine.saveText( "DiffPage", "another first line" );
+        engine.saveText( "DiffPage", "another second line" );
+        Assertions.assertTrue( differenceManager.getDiff( context, 1, 2 ).contains( "another second line" ) );
+
+        engine.getManager( PageRenamer.class ).renamePage( context, "DiffPage", "RenamedDiffPage", false );
+        Assertions.assertTrue( cachingManager.keys( CachingManager.CACHE_DIFFS ).isEmpty() );
+    }
+
+    @Test
+    void testSavingAPageOnlyFlushesItsOwnDiffs() throws Exception {
+        final DifferenceManager differenceManager = engine.getManager( DifferenceManager.class );
+        final CachingManager cachingManager = engine.getManager( CachingManager.class );
+        engine.saveText( "DiffPage", "first line" );
+        engine.saveText( "DiffPage", "second line" );
+        engine.saveText( "OtherDiffPage", "first line" );
+        engine.saveText( "OtherDiffPage", "second line" );
+
+        final Context context = Wiki.context().create( engine, Wiki.contents().page( engine, "DiffPage" ) );
+        final Context otherContext = Wiki.context().create( engine, Wiki.contents().page( engine, "OtherDiffPage" ) );
+        differenceManager.getDiff( context, 1, 3 );
+        differenceManager.getDiff( otherContext, 1, 3 );
+        Assertions.assertEquals( 2, cachingManager.keys( CachingManager.CACHE_DIFFS ).size() );
+
+        engine.saveText( "DiffPage", "third line" );
+        Assertions.assertEquals( List.of( "OtherDiffPage::1::3" ), cachingManager.keys( CachingManager.CACHE_DIFFS ) );
+        Assertions.assertTrue( differenceManager.getDiff( context, 1, 3 ).contains( "third line" ) );
+    }
+
+}
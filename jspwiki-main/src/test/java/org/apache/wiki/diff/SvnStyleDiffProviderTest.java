@@ -26,7 +26,12 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.lang3.StringUtils;
 
 
@@ -144,6 +149,82 @@ public class SvnStyleDiffProviderTest {
     }
      
 
+    @Test
+    public void testHistogramAlgorithm() throws Exception {
+        final SvnStyleDiffProvider myers = new SvnStyleDiffProvider();
+        myers.initialize( null, new Properties() );
+        final SvnStyleDiffProvider histogram = new SvnStyleDiffProvider();
+        final Properties props = new Properties();
+        props.setProperty( SvnStyleDiffProvider.PROP_ALGORITHM, SvnStyleDiffProvider.ALGORITHM_HISTOGRAM );
+        histogram.initialize( null, props );
+
+        final String[][] texts = { { "", "" }, { "A", "A" }, { "A\nB\nC", "A\nb\nC" }, { "A\nB\nC\nD\nE", "A\nb\nC\nd\nE" },
+                                   { "A\nF", "A\nB\nC\nD\nE\nF" }, { "A\nB\nC\nD\nE\nF", "A\nF" }, { "A\nB", "" }, { "", "A\nB" },
+                                   { "A\nB\nC\nD\nE\nF\nG\nH\nI", "A\nB\nC\nD\nF\nG\nH\nI" } };
+        for( final String[] text : texts ) {
+            Assertions.assertEquals( myers.makeDiffHtml( null, text[ 0 ], text[ 1 ] ), histogram.makeDiffHtml( null, text[ 0 ], text[ 1 ] ) );
+        }
+
+        // a unique line moved to the end is reported as removed and added, whatever the number of repeated lines around it
+        final StringBuilder original = new StringBuilder( "unique\n" );
+        final StringBuilder modified = new StringBuilder();
+        for( int i = 0; i < 1_000; i++ ) {
+            original.append( "}\n" ).append( "line " ).append( i ).append( "\n" );
+            modified.append( "}\n" ).append( "line " ).append( i ).append( "\n" );
+        }
+        modified.append( "unique\n" );
+        final String diff = histogram.makeDiffHtml( null, original.toString(), modified.toString() );
+        Assertions.assertEquals( 1, StringUtils.countMatches( diff, SvnStyleDiffProvider.CSS_DIFF_REMOVED ) );
+        Assertions.assertEquals( 1, StringUtils.countMatches( diff, SvnStyleDiffProvider.CSS_DIFF_ADDED ) );
+        Assertions.assertEquals( 2_000, StringUtils.countMatches( diff, SvnStyleDiffProvider.CSS_DIFF_UNCHANGED ) );
+
+        // past the budget, the differing region is reported as a whole
+        props.setProperty( SvnStyleDiffProvider.PROP_MAX_LINES, "1000" );
+        histogram.initialize( null, props );
+        final String coarse = histogram.makeDiffHtml( null, original.toString(), modified.toString() );
+        Assertions.assertEquals( 2_001, StringUtils.countMatches( coarse, SvnStyleDiffProvider.CSS_DIFF_REMOVED ) );
+        Assertions.assertEquals( 2_001, StringUtils.countMatches( coarse, SvnStyleDiffProvider.CSS_DIFF_ADDED ) );
+        Assertions.assertEquals( 0, StringUtils.countMatches( coarse, SvnStyleDiffProvider.CSS_DIFF_UNCHANGED ) );
+    }
+
+    @Test
+    public void testConcurrentHistogramDiffs() throws Exception {
+        final SvnStyleDiffProvider histogram = new SvnStyleDiffProvider();
+        final Properties props = new Properties();
+        props.setProperty( SvnStyleDiffProvider.PROP_ALGORITHM, SvnStyleDiffProvider.ALGORITHM_HISTOGRAM );
+        histogram.initialize( null, props );
+
+        // texts of different lengths, so diffs sharing their tables would clash
+        final List< String[] > texts = new ArrayList<>();
+        for( int size = 10; size <= 2_000; size *= 3 ) {
+            final StringBuilder original = new StringBuilder();
+            final StringBuilder modified = new StringBuilder();
+            for( int i = 0; i < size; i++ ) {
+                original.append( "line " ).append( i % 7 == 0 ? "}" : i ).append( "\n" );
+                modified.append( "line " ).append( i % 5 == 0 ? "changed " + i : i ).append( "\n" );
+            }
+            texts.add( new String[] { original.toString(), modified.toString() } );
+        }
+        final List< String > expected = new ArrayList<>();
+        for( final String[] text : texts ) {
+            expected.add( histogram.makeDiffHtml( null, text[ 0 ], text[ 1 ] ) );
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try {
+            final List< Future< String > > diffs = new ArrayList<>();
+            for( int i = 0; i < 200; i++ ) {
+                final String[] text = texts.get( i % texts.size() );
+                diffs.add( executor.submit( () -> histogram.makeDiffHtml( null, text[ 0 ], text[ 1 ] ) ) );
+            }
+            for( int i = 0; i < diffs.size(); i++ ) {
+                Assertions.assertEquals( expected.get( i % texts.size() ), diffs.get( i ).get() );
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private void diffTest( final String oldText, final String newText, int expected )
             throws IOException, WikiException {
         final SvnStyleDiffProvider diff = new SvnStyleDiffProvider();
@@ -0,0 +1,99 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.diff;
+
+import org.apache.wiki.TestEngine;
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.spi.Wiki;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+
+/**
+ * Expected diffs are the ones printed by GNU diffutils for the same texts, without their file headers.
+ */
+public class UnifiedDiffProviderTest {
+
+    @Test
+    public void testSameChangesAsDiff() throws Exception {
+        final String original = "a\nb\nc\na\nb\nb\na\n";
+        final String revised = "c\nb\na\nb\na\nc\n";
+        Assertions.assertEquals( "@@ -1,7 +1,6 @@\n-a\n-b\n c\n-a\n b\n+a\n b\n a\n+c\n", diff( "unified", 3, original, revised ) );
+        Assertions.assertEquals( "***************\n*** 1,7 ****\n- a\n- b\n  c\n- a\n  b\n  b\n  a\n"
+                               + "--- 1,6 ----\n  c\n  b\n+ a\n  b\n  a\n+ c\n", diff( "context", 3, original, revised ) );
+    }
+
+    @Test
+    public void testMissingNewline() throws Exception {
+        Assertions.assertEquals( "@@ -1,3 +1,4 @@\n One\n Two\n-Three\n\\ No newline at end of file\n+Three\n+Four\n",
+                                 diff( "unified", 3, "One\nTwo\nThree", "One\nTwo\nThree\nFour\n" ) );
+    }
+
+    @Test
+    public void testHunks() throws Exception {
+        final StringBuilder original = new StringBuilder();
+        for( int i = 1; i <= 20; i++ ) {
+            original.append( i ).append( '\n' );
+        }
+        final String revised = original.toString().replace( "\n2\n", "\ntwo\n" ).replace( "\n17\n", "\nseventeen\n" );
+        Assertions.assertEquals( "@@ -1,5 +1,5 @@\n 1\n-2\n+two\n 3\n 4\n 5\n"
+                               + "@@ -14,7 +14,7 @@\n 14\n 15\n 16\n-17\n+seventeen\n 18\n 19\n 20\n", diff( "unified", 3, original.toString(), revised ) );
+        Assertions.assertEquals( "@@ -1,8 +1,8 @@\n 1\n-2\n+two\n 3\n 4\n 5\n 6\n 7\n 8\n"
+                               + "@@ -11,10 +11,10 @@\n 11\n 12\n 13\n 14\n 15\n 16\n-17\n+seventeen\n 18\n 19\n 20\n", diff( "unified", 6, original.toString(), revised ) );
+        Assertions.assertEquals( "", diff( "unified", 3, original.toString(), original.toString() ) );
+    }
+
+    @Test
+    public void testFormatFromDiffCommand() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( ExternalDiffProvider.PROP_DIFFCOMMAND, "/usr/bin/diff -C 1 %s1 %s2" );
+        final UnifiedDiffProvider provider = new UnifiedDiffProvider();
+        provider.initialize( null, props );
+        final StringBuilder diff = new StringBuilder();
+        provider.writeDiff( "Page", "a\nb\nc\n", "a\nB\nc\n", diff );
+        Assertions.assertEquals( "*** Page\n--- Page\n***************\n*** 1,3 ****\n  a\n! b\n  c\n--- 1,3 ----\n  a\n! B\n  c\n", diff.toString() );
+    }
+
+    @Test
+    public void testHtmlIsRenderedAsExternalDiffProvider() throws Exception {
+        final TestEngine engine = TestEngine.build();
+        final Context context = Wiki.context().create( engine, Wiki.contents().page( engine, "Diff" ) );
+        final UnifiedDiffProvider provider = new UnifiedDiffProvider();
+        provider.initialize( engine, new Properties() );
+        Assertions.assertEquals( ExternalDiffProvider.colorizeDiff( "--- Diff\n+++ Diff\n@@ -1 +1 @@\n-&lt;b&gt;\n+&lt;i&gt;\n" ),
+                                 provider.makeDiffHtml( context, "<b>\n", "<i>\n" ) );
+        engine.stop();
+    }
+
+    private String diff( final String format, final int context, final String original, final String revised ) throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( UnifiedDiffProvider.PROP_FORMAT, format );
+        props.setProperty( UnifiedDiffProvider.PROP_CONTEXT, String.valueOf( context ) );
+        final UnifiedDiffProvider provider = new UnifiedDiffProvider();
+        provider.initialize( null, props );
+        final StringBuilder diff = new StringBuilder();
+        provider.writeDiff( "", original, revised, diff );
+        final String text = diff.toString();
+        // skip file headers
+        return text.isEmpty() ? text : text.substring( text.indexOf( '\n', text.indexOf( '\n' ) + 1 ) + 1 );
+    }
+
+}
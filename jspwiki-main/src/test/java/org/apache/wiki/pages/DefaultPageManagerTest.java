@@ -21,6 +21,7 @@ package org.apache.wiki.pages;
 import org.apache.wiki.TestEngine;
 import org.apache.wiki.WikiEngine;
 import org.apache.wiki.api.core.Attachment;
+import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.providers.AttachmentProvider;
 import org.apache.wiki.api.providers.WikiProvider;
@@ -33,13 +34,23 @@ import org.apache.wiki.providers.VerySimpleProvider;
 import org.apache.wiki.references.ReferenceManager;
 import org.apache.wiki.render.RenderingManager;
 import org.apache.wiki.util.TextUtil;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DefaultPageManagerTest {
 
@@ -309,4 +320,131 @@ public class DefaultPageManagerTest {
         Assertions.assertEquals( TextUtil.normalizePostData( "" ), engine.getManager( PageManager.class ).getText( name ), "wrong content" );
     }
 
+    @Test
+    public void testRecentChangesFollowSavesAndDeletes() throws Exception {
+        final PageManager pm = engine.getManager( PageManager.class );
+        engine.saveText( NAME1, "Test" );
+        Assertions.assertTrue( pm.getRecentChanges().stream().anyMatch( p -> p.getName().equals( NAME1 ) ), "first save" );
+
+        engine.saveText( "Test2", "Test" );
+        Assertions.assertEquals( "Test2", pm.getRecentChanges( 1 ).iterator().next().getName(), "latest change" );
+
+        final Attachment att = Wiki.contents().attachment( engine, NAME1, "TestAtt.txt" );
+        att.setAuthor( "FirstPost" );
+        engine.getManager( AttachmentManager.class ).storeAttachment( att, engine.makeAttachmentFile() );
+        Assertions.assertEquals( NAME1 + "/TestAtt.txt", pm.getRecentChanges( 1 ).iterator().next().getName(), "latest change" );
+
+        pm.deletePage( NAME1 );
+        Assertions.assertTrue( pm.getRecentChanges().stream().noneMatch( p -> p.getName().startsWith( NAME1 ) ), "deleted" );
+        engine.deleteTestPage( "Test2" );
+    }
+
+    @Test
+    public void testRecentChangesSince() throws Exception {
+        final PageManager pm = engine.getManager( PageManager.class );
+        engine.saveText( NAME1, "Test" );
+        final Date lastModified = pm.getPage( NAME1 ).getLastModified();
+
+        final Set< Page > changes = pm.getRecentChanges( lastModified );
+        Assertions.assertTrue( changes.stream().anyMatch( p -> p.getName().equals( NAME1 ) ), "inclusive lower bound" );
+        Assertions.assertTrue( changes.stream().noneMatch( p -> p.getLastModified().before( lastModified ) ), "older pages" );
+        Assertions.assertTrue( pm.getRecentChanges( new Date( lastModified.getTime() + 1 ) )
+                                 .stream().noneMatch( p -> p.getName().equals( NAME1 ) ), "exclusive lower bound" );
+
+        final List< ChangeJournal.Change > journal = ( ( DefaultPageManager )pm ).getChangeJournal().getLatestChanges( 100 );
+        engine.saveText( NAME1, "Test, updated" );
+        final ChangeJournal.Change latest = ( ( DefaultPageManager )pm ).getChangeJournal().getLatestChanges( 1 ).get( 0 );
+        Assertions.assertEquals( journal.size() + 1, ( ( DefaultPageManager )pm ).getChangeJournal().getLatestChanges( 100 ).size() );
+        Assertions.assertEquals( NAME1, latest.getName() );
+        Assertions.assertEquals( ChangeJournal.ChangeType.STORED, latest.getType() );
+    }
+
+    @Test
+    public void testRecentChangesFollowChangesMadeElsewhere() throws Exception {
+        final PageManager pm = engine.getManager( PageManager.class );
+        final ChangeJournal journal = ( ( DefaultPageManager )pm ).getChangeJournal();
+        engine.saveText( NAME1, "Test" );
+        Assertions.assertEquals( NAME1, pm.getRecentChanges( 1 ).iterator().next().getName() );
+
+        // saved by another node sharing the repository, so no events are fired here
+        pm.getProvider().putPageText( Wiki.contents().page( engine, "Test2" ), "Test" );
+        journal.invalidated( "Test2" );
+        Assertions.assertEquals( "Test2", pm.getRecentChanges( 1 ).iterator().next().getName() );
+        Assertions.assertEquals( ChangeJournal.ChangeType.STORED, journal.getLatestChanges( 1 ).get( 0 ).getType() );
+
+        pm.getProvider().deletePage( "Test2" );
+        journal.invalidated( "Test2" );
+        Assertions.assertTrue( pm.getRecentChanges().stream().noneMatch( p -> p.getName().equals( "Test2" ) ) );
+        Assertions.assertEquals( ChangeJournal.ChangeType.DELETED, journal.getLatestChanges( 1 ).get( 0 ).getType() );
+    }
+
+    @Test
+    public void testRecentChangesPickUpRepositoryChanges() throws Exception {
+        final TestEngine refreshing = TestEngine.build( TestEngine.with( ChangeJournal.PROP_REFRESH_INTERVAL, "1" ) );
+        try {
+            final PageManager pm = refreshing.getManager( PageManager.class );
+            refreshing.saveText( NAME1, "Test" );
+            Assertions.assertEquals( NAME1, pm.getRecentChanges( 1 ).iterator().next().getName() );
+
+            pm.getProvider().putPageText( Wiki.contents().page( refreshing, "Test2" ), "Test" );
+            Awaitility.await().atMost( 5, TimeUnit.SECONDS )
+                      .until( () -> pm.getRecentChanges().stream().anyMatch( p -> p.getName().equals( "Test2" ) ) );
+        } finally {
+            refreshing.deleteTestPage( "Test2" );
+            refreshing.stop();
+        }
+    }
+
+    @Test
+    public void testChangeJournalScansDontHoldBackNorUndoChanges() throws Exception {
+        final Engine mockEngine = Mockito.mock( Engine.class );
+        final PageManager pm = Mockito.mock( PageManager.class );
+        final AttachmentManager am = Mockito.mock( AttachmentManager.class );
+        Mockito.doReturn( pm ).when( mockEngine ).getManager( PageManager.class );
+        Mockito.doReturn( am ).when( mockEngine ).getManager( AttachmentManager.class );
+        Mockito.doReturn( Collections.emptyList() ).when( am ).getAllAttachments();
+        final List< Page > repository = List.of( journalPage( mockEngine, "Kept", 1 ), journalPage( mockEngine, "Gone", 1 ) );
+        final AtomicBoolean blocking = new AtomicBoolean();
+        final CountDownLatch listing = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        Mockito.doAnswer( invocation -> {
+            if( blocking.get() ) {
+                listing.countDown();
+                release.await();
+            }
+            return repository;
+        } ).when( pm ).getAllPages();
+
+        final Properties props = new Properties();
+        props.setProperty( ChangeJournal.PROP_REFRESH_INTERVAL, "0" );
+        final ChangeJournal journal = new ChangeJournal( mockEngine, props );
+        Assertions.assertEquals( 2, journal.getAll().size() );
+
+        blocking.set( true );
+        final Thread scan = new Thread( journal::scan );
+        scan.start();
+        try {
+            Assertions.assertTrue( listing.await( 10, TimeUnit.SECONDS ) );
+            // changes made while the repository is being listed are neither held back nor undone by the scan
+            Assertions.assertTimeoutPreemptively( Duration.ofSeconds( 5 ), () -> {
+                journal.index( journalPage( mockEngine, "Kept", 2 ), false );
+                journal.unindex( "Gone" );
+            } );
+        } finally {
+            release.countDown();
+            scan.join( 10_000 );
+        }
+        final Set< Page > all = journal.getAll();
+        Assertions.assertEquals( 1, all.size() );
+        Assertions.assertEquals( "Kept", all.iterator().next().getName() );
+        Assertions.assertEquals( 2, all.iterator().next().getVersion() );
+    }
+
+    static Page journalPage( final Engine engine, final String name, final int version ) {
+        final Page page = Wiki.contents().page( engine, name );
+        page.setVersion( version );
+        page.setLastModified( new Date( version * 1_000L ) );
+        return page;
+    }
+
 }
@@ -0,0 +1,128 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.parser;
+
+import org.apache.wiki.LinkCollector;
+import org.apache.wiki.TestEngine;
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.spi.Wiki;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.wiki.TestEngine.with;
+
+
+/**
+ * Measures {@link JSPWikiMarkupParser} throughput over a corpus of real wiki pages, found on the {@code corpus} test resources folder.
+ * <p>
+ * Not run as part of the test suite. To run it, compile the test classes and launch JMH from the {@code jspwiki-main} folder:
+ * <pre>
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JSPWikiMarkupParserBenchmark
+ * </pre>
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class JSPWikiMarkupParserBenchmark {
+
+    static final String[] CORPUS = { "/TextFormattingRules.txt", "/corpus/About.txt", "/corpus/Community.txt",
+                                     "/corpus/EditPageHelp.txt", "/corpus/InstallationTips.txt", "/corpus/OneMinuteWiki.txt",
+                                     "/corpus/WikiEtiquette.txt" };
+
+    @Param( { "true", "false" } )
+    public String camelCaseLinks;
+
+    TestEngine engine;
+    Context context;
+    final List< String > pages = new ArrayList<>();
+
+    @Setup( Level.Trial )
+    public void setUp() throws IOException {
+        engine = TestEngine.build( with( MarkupParser.PROP_CAMELCASELINKS, camelCaseLinks ) );
+        context = Wiki.context().create( engine, Wiki.contents().page( engine, "Benchmark" ) );
+        for( final String resource : CORPUS ) {
+            try( final InputStream in = JSPWikiMarkupParserBenchmark.class.getResourceAsStream( resource ) ) {
+                pages.add( new String( in.readAllBytes(), StandardCharsets.UTF_8 ) );
+            }
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() {
+        engine.stop();
+    }
+
+    /** Parses the whole corpus; each invocation parses every page once, with a freshly created parser, as rendering does. */
+    @Benchmark
+    public void parseCorpus( final Blackhole bh ) throws IOException {
+        for( final String page : pages ) {
+            bh.consume( new JSPWikiMarkupParser( context, new StringReader( page ) ).parse() );
+        }
+    }
+
+    /** Parses the whole corpus just to collect its links, as the reference manager does. */
+    @Benchmark
+    public void scanReferences( final Blackhole bh ) throws IOException {
+        for( final String page : pages ) {
+            final LinkCollector links = new LinkCollector();
+            final JSPWikiMarkupParser parser = new JSPWikiMarkupParser( context, new StringReader( page ) );
+            parser.addLocalLinkHook( links );
+            parser.addAttachmentLinkHook( links );
+            parser.disableAccessRules();
+            parser.enableReferencesOnly( true );
+            parser.parse();
+            bh.consume( links.getLinks() );
+        }
+    }
+
+    /** Only measures parser construction, which happens on every render, TOC and reference scan. */
+    @Benchmark
+    public void createParser( final Blackhole bh ) {
+        bh.consume( new JSPWikiMarkupParser( context, new StringReader( "" ) ) );
+    }
+
+    public static void main( final String[] args ) throws Exception {
+        org.openjdk.jmh.Main.main( new String[] { JSPWikiMarkupParserBenchmark.class.getSimpleName() } );
+    }
+
+}
@@ -44,7 +44,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Vector;
 
 import static org.apache.wiki.TestEngine.with;
@@ -201,6 +203,21 @@ class JSPWikiMarkupParserTest {
         Assertions.assertEquals( "This should be a nonHyperLink.", translate( src ) );
     }
 
+    @Test
+    void testHyperlinksCCNonASCII() throws Exception {
+        final String src = "This should be a ÄrgerÜber link.";
+        Assertions.assertEquals( "This should be a <a class=\"createpage\" href=\"/test/Edit.jsp?page=%C4rger%DCber\" title=\"Create &quot;ÄrgerÜber&quot;\">ÄrgerÜber</a> link.",
+                translate( src ) );
+    }
+
+    @Test
+    void testMayContainWikiWord() {
+        Assertions.assertTrue( JSPWikiMarkupParser.mayContainWikiWord( "some HyperLink" ) );
+        Assertions.assertTrue( JSPWikiMarkupParser.mayContainWikiWord( "see http://jspwiki.apache.org" ) );
+        Assertions.assertTrue( JSPWikiMarkupParser.mayContainWikiWord( "ÄrgerÜber" ) );
+        Assertions.assertFalse( JSPWikiMarkupParser.mayContainWikiWord( "all lower case, no links here." ) );
+    }
+
     /** Two links on same line. */
     @Test
     void testHyperlinksCC4() throws Exception {
@@ -646,6 +663,14 @@ class JSPWikiMarkupParserTest {
                 translate( src ) );
     }
 
+    @Test
+    void testParagraphLongHeading() throws Exception {
+        final String title = "A".repeat( 20_000 );
+        final String src = "!" + title + "\r\n\r\nFoo.";
+        Assertions.assertEquals( "<h4 id=\"section-testpage-" + title + "\">" + title + "<a class=\"hashlink\" href=\"#section-testpage-" + title + "\">#</a></h4>\n<p>Foo.</p>",
+                translate( src ) );
+    }
+
     @Test
     void testParagraph4() throws Exception {
         final String src = "\r\n[Recent Changes]\\\\\r\n[WikiEtiquette]\r\n\r\n[Find pages|Search]\\\\\r\n[Unused pages|UnusedPages]";
@@ -1642,6 +1667,34 @@ class JSPWikiMarkupParserTest {
         Assertions.assertEquals( PAGE_NAME + "/Test.txt", links.iterator().next(), "wrong link" );
     }
 
+    @Test
+    void testCollectingLinksReferencesOnly() throws Exception {
+        final TestEngine engine = TestEngine.build( with( MarkupParser.PROP_CAMELCASELINKS, "true" ) );
+        final String src = "!!Heading with [Test] link\n[{SET foo='bar'}]Some CamelCase text, [Foo#section] and\n" +
+                           "* http://www.example.com/, [a label|Other Page], ~NotALink, [[NotALinkEither]\n" +
+                           "{{{ PreFormatted [NotALink] }}} [Image|http://www.example.com/img.png] [1] [#1]";
+        final Collection< String > rendered = collectLinks( engine, src, false );
+        final Collection< String > referenced = collectLinks( engine, src, true );
+
+        Assertions.assertEquals( List.of( "Test", "Foo", "CamelCase", "Other Page", "http://www.example.com/", "http://www.example.com/img.png" ),
+                                 new ArrayList<>( referenced ) );
+        Assertions.assertEquals( new ArrayList<>( rendered ), new ArrayList<>( referenced ) );
+        engine.stop();
+    }
+
+    private Collection< String > collectLinks( final Engine engine, final String src, final boolean referencesOnly ) throws IOException {
+        final LinkCollector coll = new LinkCollector();
+        final Page page = Wiki.contents().page( engine, PAGE_NAME );
+        final MarkupParser p = new JSPWikiMarkupParser( Wiki.context().create( engine, page ), new StringReader( src ) );
+        p.addLocalLinkHook( coll );
+        p.addExternalLinkHook( coll );
+        p.addAttachmentLinkHook( coll );
+        p.enableReferencesOnly( referencesOnly );
+        p.parse();
+        Assertions.assertEquals( "bar", page.getAttribute( "foo" ) );
+        return coll.getLinks();
+    }
+
     @Test
     void testCollectingLinksAttachment() throws Exception {
         // First, make an attachment.
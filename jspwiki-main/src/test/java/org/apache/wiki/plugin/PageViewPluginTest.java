@@ -20,14 +20,30 @@ package org.apache.wiki.plugin;
 
 import org.apache.wiki.TestEngine;
 import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.core.ContextEnum;
+import org.apache.wiki.api.core.Engine;
 import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.event.WikiEngineEvent;
+import org.apache.wiki.event.WikiEventListener;
+import org.apache.wiki.event.WikiPageRenameEvent;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.render.RenderingManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
 import static org.apache.wiki.TestEngine.with;
 
@@ -181,4 +197,66 @@ public class PageViewPluginTest {
         testEngine.deleteTestPage( "TestPage04" );
     }
 
+    @Test
+    public void testCountsAreStoredAndLoaded( @TempDir final Path workDir ) throws Exception {
+        final Properties legacy = new Properties();
+        legacy.setProperty( "TestPage01", "41" );
+        try( final OutputStream out = Files.newOutputStream( workDir.resolve( "PageCount.txt" ) ) ) {
+            legacy.store( out, null );
+        }
+        final List< WikiEventListener > listeners = new ArrayList<>();
+        final Engine engine = Mockito.mock( Engine.class );
+        Mockito.doReturn( workDir.toString() ).when( engine ).getWorkDir();
+        Mockito.doAnswer( invocation -> listeners.add( invocation.getArgument( 0 ) ) ).when( engine ).addWikiEventListener( Mockito.any() );
+        final Page page = Mockito.mock( Page.class );
+        Mockito.doReturn( "TestPage01" ).when( page ).getName();
+        final Context context = Mockito.mock( Context.class );
+        Mockito.doReturn( engine ).when( context ).getEngine();
+        Mockito.doReturn( page ).when( context ).getPage();
+        Mockito.doReturn( ContextEnum.PAGE_VIEW.getRequestContext() ).when( context ).getRequestContext();
+
+        // counters stored by previous versions are read, and stored in the new format on shutdown
+        final PageViewPlugin.PageViewManager manager = new PageViewPlugin().new PageViewManager();
+        manager.initialize( engine );
+        Assertions.assertEquals( "", manager.execute( context, new HashMap<>() ) );
+        Assertions.assertEquals( "42", manager.execute( context, Map.of( "show", "count" ) ) );
+        new ArrayList<>( listeners ).forEach( listener -> listener.actionPerformed( new WikiEngineEvent( engine, WikiEngineEvent.SHUTDOWN ) ) );
+        Assertions.assertTrue( Files.exists( workDir.resolve( "PageCount.dat" ) ) );
+
+        Files.delete( workDir.resolve( "PageCount.txt" ) );
+        listeners.clear();
+        final PageViewPlugin.PageViewManager restarted = new PageViewPlugin().new PageViewManager();
+        restarted.initialize( engine );
+        Assertions.assertEquals( "42", restarted.execute( context, Map.of( "show", "count" ) ) );
+        new ArrayList<>( listeners ).forEach( listener -> listener.actionPerformed( new WikiEngineEvent( engine, WikiEngineEvent.SHUTDOWN ) ) );
+    }
+
+    @Test
+    public void testRenameKeepsCountsOfBothNames( @TempDir final Path workDir ) throws Exception {
+        final List< WikiEventListener > listeners = new ArrayList<>();
+        final Engine engine = Mockito.mock( Engine.class );
+        Mockito.doReturn( workDir.toString() ).when( engine ).getWorkDir();
+        Mockito.doAnswer( invocation -> listeners.add( invocation.getArgument( 0 ) ) ).when( engine ).addWikiEventListener( Mockito.any() );
+        final Page page = Mockito.mock( Page.class );
+        Mockito.doReturn( "TestPage01" ).when( page ).getName();
+        final Context context = Mockito.mock( Context.class );
+        Mockito.doReturn( engine ).when( context ).getEngine();
+        Mockito.doReturn( page ).when( context ).getPage();
+        Mockito.doReturn( ContextEnum.PAGE_VIEW.getRequestContext() ).when( context ).getRequestContext();
+
+        final PageViewPlugin.PageViewManager manager = new PageViewPlugin().new PageViewManager();
+        manager.initialize( engine );
+        manager.execute( context, new HashMap<>() );
+        manager.execute( context, new HashMap<>() );
+        // the page is viewed under its new name before the rename event arrives
+        Mockito.doReturn( "TestPage05" ).when( page ).getName();
+        manager.execute( context, new HashMap<>() );
+
+        manager.actionPerformed( new WikiPageRenameEvent( engine, "TestPage01", "TestPage05" ) );
+        Assertions.assertEquals( "3", manager.execute( context, Map.of( "show", "count" ) ) );
+        Mockito.doReturn( "TestPage01" ).when( page ).getName();
+        Assertions.assertEquals( "0", manager.execute( context, Map.of( "show", "count" ) ) );
+        new ArrayList<>( listeners ).forEach( listener -> listener.actionPerformed( new WikiEngineEvent( engine, WikiEngineEvent.SHUTDOWN ) ) );
+    }
+
 }
@@ -106,6 +106,24 @@ public class RecentChangesPluginTest {
         Assertions.assertFalse(res.contains("<a href=\"/test/Wiki.jsp?page=TestPage03\">Test Page 03</a>"));
     }
 
+    /**
+     * Test with both the include and exclude parameters, compiled only once
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testParmInCludeAndExClude() throws Exception {
+        context = Wiki.context().create(testEngine, Wiki.contents().page(testEngine, "TestPage01"));
+
+        final String res = manager.execute( context, "{INSERT org.apache.wiki.plugin.RecentChangesPlugin include='TestPage0*' exclude='TestPage02*,TestPage04*'}" );
+
+        Assertions.assertTrue(res.contains("<a href=\"/test/Wiki.jsp?page=TestPage01\">Test Page 01</a>"));
+        Assertions.assertFalse(res.contains("<a href=\"/test/Wiki.jsp?page=TestPage02\">Test Page 02</a>"));
+        Assertions.assertTrue(res.contains("<a href=\"/test/Wiki.jsp?page=TestPage03\">Test Page 03</a>"));
+        Assertions.assertFalse(res.contains("<a href=\"/test/Wiki.jsp?page=TestPage04\">Test Page 04</a>"));
+        Assertions.assertSame( AbstractReferralPlugin.compileGlobs( "TestPage02*,TestPage04*" ), AbstractReferralPlugin.compileGlobs( "TestPage02*,TestPage04*" ) );
+    }
+
     /**
      * Test an empty recent changes table
      *
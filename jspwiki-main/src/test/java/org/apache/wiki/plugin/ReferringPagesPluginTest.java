@@ -30,6 +30,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.apache.wiki.TestEngine.with;
 
@@ -175,6 +180,29 @@ class ReferringPagesPluginTest  {
         Assertions.assertEquals( expectedExceptionString, exceptionString );
     }
 
+    @Test
+    void testLinkListsAreRenderedAsWikiText() throws Exception {
+        final List< String > names = Arrays.asList( "Foobar", "TestPage", "TestPages", "Foobar Page", "Nonexistent", "Fish & Chips",
+                                                    "Fish &amp; Chips", "Quote\"d", "<b>Bold</b>", "\u00dcn\u00efc\u00f6d\u00e9", "A VeryLongPageName",
+                                                    "12345", "Main:Page", "Foobar/attachment.txt", "Foobar#section", "[Bracket]" );
+        final List< Map< String, String > > params = Arrays.asList( new HashMap<>(),
+                                                                    Map.of( AbstractReferralPlugin.PARAM_MAXWIDTH, "6" ),
+                                                                    Map.of( AbstractReferralPlugin.PARAM_SEPARATOR, ", " ),
+                                                                    Map.of( AbstractReferralPlugin.PARAM_BEFORE, "*", AbstractReferralPlugin.PARAM_AFTER, "\n" ) );
+        for( final Map< String, String > param : params ) {
+            final ReferringPagesPlugin plugin = new ReferringPagesPlugin();
+            plugin.initialize( context, param );
+            for( final String name : names ) {
+                final List< String > links = Collections.singletonList( name );
+                Assertions.assertEquals( plugin.makeHTML( context, plugin.wikitizeCollection( links, plugin.m_separator, AbstractReferralPlugin.ALL_ITEMS ) ),
+                                         plugin.makeHTML( context, links, plugin.m_separator, AbstractReferralPlugin.ALL_ITEMS ), name + " " + param );
+            }
+            Assertions.assertEquals( plugin.makeHTML( context, plugin.wikitizeCollection( names.subList( 0, 6 ), plugin.m_separator, 4 ) ),
+                                     plugin.makeHTML( context, names.subList( 0, 6 ), plugin.m_separator, 4 ), param.toString() );
+            Assertions.assertEquals( "", plugin.makeHTML( context, Collections.emptyList(), plugin.m_separator, AbstractReferralPlugin.ALL_ITEMS ) );
+        }
+    }
+
     @Test
     void testColumns() throws Exception {
         final String columnsWithLists = manager.execute( context, "{ReferringPagesPlugin columns=2 before='#' after='\\n'}" );
@@ -19,10 +19,24 @@
 package org.apache.wiki.plugin;
 
 import org.apache.wiki.TestEngine;
+import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.exceptions.WikiException;
+import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.cache.FileInvalidationBus;
+import org.apache.wiki.cache.InvalidationBus;
+import org.apache.wiki.pages.PageManager;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 
 public class WeblogPluginTest {
@@ -82,4 +96,83 @@ public class WeblogPluginTest {
         Assertions.assertTrue( res.contains( "<div class=\"weblogentrybody\">\nAnother blog entry  <a href=\"/test/Wiki.jsp?page="+ blogEntryPage + "\">(more)</a>\n</div>\n" ), res );
     }
 
+    @Test
+    public void testWeblogEntriesFollowPageChanges() throws Exception {
+        final WeblogEntryPlugin wep = new WeblogEntryPlugin();
+        final String first = wep.getNewEntryPage( testEngine, "Test5" );
+        testEngine.saveText( first, "First entry" );
+        final String second = wep.getNewEntryPage( testEngine, "Test5" );
+        testEngine.saveText( second, "Second entry" );
+        testEngine.saveText( "Test5", "[{WeblogPlugin days='90'}]" );
+        testEngine.saveText( "Test5Archive", "[{WeblogArchivePlugin page='Test5'}]" );
+
+        final WeblogPlugin plugin = new WeblogPlugin();
+        final Date start = new Date( System.currentTimeMillis() - 24 * 60 * 60 * 1000L );
+        final Date end = new Date( System.currentTimeMillis() + 24 * 60 * 60 * 1000L );
+        Assertions.assertEquals( 2, plugin.findBlogEntries( testEngine, "Test5", start, end ).size() );
+        Assertions.assertTrue( plugin.findBlogEntries( testEngine, "Test5", end, start ).isEmpty() );
+        Assertions.assertTrue( plugin.findBlogEntries( testEngine, "Test", start, end ).isEmpty() );
+        Assertions.assertTrue( testEngine.getI18nHTML( "Test5Archive" ).contains( "<li class=\"archiveyear\">" ) );
+
+        testEngine.getManager( PageManager.class ).deletePage( first );
+        final List< Page > entries = plugin.findBlogEntries( testEngine, "Test5", start, end );
+        Assertions.assertEquals( 1, entries.size() );
+        Assertions.assertEquals( second, entries.get( 0 ).getName() );
+        Assertions.assertTrue( testEngine.getI18nHTML( "Test5" ).contains( "Second entry" ) );
+        Assertions.assertFalse( testEngine.getI18nHTML( "Test5" ).contains( "First entry" ) );
+
+        testEngine.getManager( PageManager.class ).deletePage( second );
+        Assertions.assertTrue( plugin.findBlogEntries( testEngine, "Test5", start, end ).isEmpty() );
+        Assertions.assertEquals( "<div class=\"weblogarchive\">\n<ul>\n</ul>\n</div>\n", testEngine.getI18nHTML( "Test5Archive" ).trim() + "\n" );
+    }
+
+    @Test
+    public void testWeblogEntriesFollowChangesOnOtherNodes( @TempDir final Path shared ) throws Exception {
+        final TestEngine engine = TestEngine.build( TestEngine.with( InvalidationBus.PROP_INVALIDATION_BUS, "FileInvalidationBus" ),
+                                                    TestEngine.with( FileInvalidationBus.PROP_DIR, shared.toString() ),
+                                                    TestEngine.with( FileInvalidationBus.PROP_POLL_INTERVAL, "20" ) );
+        final FileInvalidationBus otherNode = new FileInvalidationBus();
+        try {
+            final Properties props = new Properties();
+            props.setProperty( FileInvalidationBus.PROP_DIR, shared.toString() );
+            otherNode.initialize( props );
+            final WeblogPlugin plugin = new WeblogPlugin();
+            final Date start = new Date( System.currentTimeMillis() - 24 * 60 * 60 * 1000L );
+            final Date end = new Date( System.currentTimeMillis() + 24 * 60 * 60 * 1000L );
+            Assertions.assertTrue( plugin.findBlogEntries( engine, "Test7", start, end ).isEmpty() );
+
+            // saved by another node sharing the repository, so no events are fired here
+            final String entry = new WeblogEntryPlugin().getNewEntryPage( engine, "Test7" );
+            engine.getManager( PageManager.class ).getProvider().putPageText( Wiki.contents().page( engine, entry ), "Entry" );
+            otherNode.publish( CachingManager.CACHE_PAGES, entry );
+            Awaitility.await().atMost( 10, TimeUnit.SECONDS ).until( () -> plugin.findBlogEntries( engine, "Test7", start, end ).size() == 1 );
+
+            engine.getManager( PageManager.class ).getProvider().deletePage( entry );
+            otherNode.publish( CachingManager.CACHE_PAGES, entry );
+            Awaitility.await().atMost( 10, TimeUnit.SECONDS ).until( () -> plugin.findBlogEntries( engine, "Test7", start, end ).isEmpty() );
+        } finally {
+            otherNode.shutdown();
+            engine.stop();
+        }
+    }
+
+    @Test
+    public void testWeblogCommentsAreCountedOnSave() throws Exception {
+        final WeblogEntryPlugin wep = new WeblogEntryPlugin();
+        final String entry = wep.getNewEntryPage( testEngine, "Test6" );
+        final String comments = entry.replace( "blogentry", "comments" );
+        testEngine.saveText( entry, "Entry with comments" );
+        testEngine.saveText( "Test6", "[{WeblogPlugin days='90' allowComments='true'}]" );
+        Assertions.assertTrue( testEngine.getI18nHTML( "Test6" ).contains( "nc=0" ) );
+
+        testEngine.saveText( comments, "First comment\n----\nSecond comment" );
+        Assertions.assertTrue( testEngine.getI18nHTML( "Test6" ).contains( "nc=2" ) );
+
+        testEngine.saveText( comments, "First comment\n----\nSecond comment\n----\nThird comment" );
+        Assertions.assertTrue( testEngine.getI18nHTML( "Test6" ).contains( "nc=3" ) );
+
+        testEngine.getManager( PageManager.class ).deletePage( comments );
+        Assertions.assertTrue( testEngine.getI18nHTML( "Test6" ).contains( "nc=0" ) );
+    }
+
 }
@@ -23,6 +23,7 @@ import net.sf.ehcache.CacheManager;
 import org.apache.wiki.TestEngine;
 import org.apache.wiki.api.core.Page;
 import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.cache.CaffeineCachingManager;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.util.FileUtil;
 import org.awaitility.Awaitility;
@@ -116,4 +117,27 @@ class CachingProviderTest {
         Assertions.assertEquals( 4, engine.getManager( PageManager.class ).getAllPages().size() );
     }
 
+    @Test
+    void testGetAllWithWeightBoundedCacheTooSmallDelegatesToRealProvider() throws Exception {
+        final Properties props = TestEngine.getTestProperties();
+        props.setProperty( CachingManager.PROP_CACHE_ENABLE, "true" );
+        props.setProperty( CachingManager.PROP_CACHE_MANAGER_IMPL, "CaffeineCachingManager" );
+        props.setProperty( CaffeineCachingManager.PROP_CACHE_MAX_BYTES + "." + CachingManager.CACHE_PAGES, "4000" );
+
+        engine = TestEngine.build( props );
+        for( int i = 0; i < 20; i++ ) {
+            engine.saveText( "WeightedPage" + i, "page " + i );
+        }
+        final PageManager pageManager = engine.getManager( PageManager.class );
+        final int pages = ( ( CachingProvider )pageManager.getProvider() ).getRealProvider().getAllPages().size();
+        for( int i = 0; i < 3; i++ ) {
+            Assertions.assertEquals( pages, pageManager.getAllPages().size() );
+        }
+        for( int i = 0; i < 20; i++ ) {
+            Assertions.assertTrue( pageManager.pageExists( "WeightedPage" + i ), "WeightedPage" + i );
+        }
+        // Caffeine may evict asynchronously
+        Awaitility.await( "cache is too small" ).until( () -> engine.getManager( CachingManager.class ).info( CachingManager.CACHE_PAGES ).getEvictions() > 0 );
+    }
+
 }
@@ -23,13 +23,21 @@ import org.apache.wiki.TestEngine;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.cache.CachingManager;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.parser.MarkupParser;
 import org.apache.wiki.parser.WikiDocument;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.wiki.TestEngine.with;
+
 public class RenderingManagerTest {
 
     TestEngine       m_engine = TestEngine.build();
@@ -133,6 +141,40 @@ public class RenderingManagerTest {
         sw.stop();
     }
 
+    @Test
+    public void testRenderedDocumentsAreKeptOnSecondCacheTier() throws Exception {
+        final TestEngine engine = TestEngine.build( with( "jspwiki.cache.manager", "CaffeineCachingManager" ),
+                                                    with( "jspwiki.cache.max-bytes." + CachingManager.CACHE_DOCUMENTS, "40000" ),
+                                                    with( "jspwiki.cache.second-tier.max-bytes", "1000000" ) );
+        try {
+            final Map< String, String > rendered = new HashMap<>();
+            for( int i = 0; i < 10; i++ ) {
+                engine.saveText( "TierPage" + i, "''Page'' " + i + ", [{$pagename}] [{ReferringPagesPlugin}] [TierPage0]" );
+            }
+            for( int i = 0; i < 10; i++ ) {
+                rendered.put( "TierPage" + i, render( engine, "TierPage" + i ) );
+            }
+            // documents evicted from the heap are promoted back from the second tier, and render as before
+            Awaitility.await().atMost( 10, TimeUnit.SECONDS ).until( () -> {
+                for( final Map.Entry< String, String > entry : rendered.entrySet() ) {
+                    Assertions.assertEquals( entry.getValue(), render( engine, entry.getKey() ) );
+                }
+                return engine.getManager( CachingManager.class ).info( CachingManager.CACHE_DOCUMENTS ).getSecondTierHits() > 0;
+            } );
+            Assertions.assertTrue( rendered.get( "TierPage1" ).contains( "TierPage1" ) );
+        } finally {
+            for( int i = 0; i < 10; i++ ) {
+                engine.deleteTestPage( "TierPage" + i );
+            }
+            engine.stop();
+        }
+    }
+
+    String render( final TestEngine engine, final String name ) {
+        final Page page = engine.getManager( PageManager.class ).getPage( name );
+        return engine.getManager( RenderingManager.class ).getHTML( Wiki.context().create( engine, page ), page );
+    }
+
     private static final String TEST_TEXT =
         "Please ''check [RecentChanges].\n" +
         "\n" +
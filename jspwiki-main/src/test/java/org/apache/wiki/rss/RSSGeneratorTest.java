@@ -27,16 +27,25 @@ import org.apache.wiki.TestEngine;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.core.Page;
 import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.cache.FileInvalidationBus;
+import org.apache.wiki.cache.InvalidationBus;
 import org.apache.wiki.pages.PageManager;
 import org.apache.wiki.plugin.WeblogEntryPlugin;
 import org.apache.wiki.plugin.WeblogPlugin;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 
 import static org.apache.wiki.auth.UserManager.PROP_DATABASE;
@@ -79,4 +88,88 @@ public class RSSGeneratorTest {
         
         
     }
+
+    @Test
+    public void testFullFeedIsOnlyGeneratedAgainAfterChanges() throws Exception {
+        final TestEngine engine = TestEngine.build( TestEngine.with( RSSGenerator.PROP_GENERATE_RSS, "true" ) );
+        try {
+            engine.saveText( "RSSFeedPage", "Foo" );
+            final DefaultRSSGenerator gen = ( DefaultRSSGenerator )engine.getManager( RSSGenerator.class );
+            Assertions.assertTrue( gen.isStale() );
+            Assertions.assertTrue( gen.generate().contains( "RSSFeedPage" ) );
+            Assertions.assertFalse( gen.isStale() );
+
+            final Page page = engine.getManager( PageManager.class ).getPage( "RSSFeedPage" );
+            final Entry entry = gen.getPreparedEntry( page );
+            Assertions.assertSame( entry, gen.getPreparedEntry( engine.getManager( PageManager.class ).getPage( "RSSFeedPage" ) ) );
+
+            engine.saveText( "RSSFeedPage", "Foo bar" );
+            Assertions.assertTrue( gen.isStale() );
+            final Page newVersion = engine.getManager( PageManager.class ).getPage( "RSSFeedPage" );
+            Assertions.assertNotSame( entry, gen.getPreparedEntry( newVersion ) );
+            Assertions.assertTrue( gen.generate().contains( "Foo bar" ) );
+
+            engine.getManager( PageManager.class ).deletePage( "RSSFeedPage" );
+            Assertions.assertTrue( gen.isStale() );
+            Assertions.assertFalse( gen.generate().contains( "RSSFeedPage" ) );
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullFeedIsGeneratedAgainAfterRefreshIntervals() throws Exception {
+        final TestEngine engine = TestEngine.build();
+        try {
+            final Properties props = TestEngine.getTestProperties();
+            props.setProperty( RSSGenerator.PROP_INTERVAL, "1" );
+            props.setProperty( RSSGenerator.PROP_REFRESH_INTERVALS, "1" );
+            final DefaultRSSGenerator gen = new DefaultRSSGenerator( engine, props );
+            gen.generate();
+            Awaitility.await().atMost( 5, TimeUnit.SECONDS ).until( gen::isStale );
+
+            props.setProperty( RSSGenerator.PROP_REFRESH_INTERVALS, "0" );
+            final DefaultRSSGenerator never = new DefaultRSSGenerator( engine, props );
+            never.generate();
+            Thread.sleep( 1_100L );
+            Assertions.assertFalse( never.isStale() );
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullFeedIsGeneratedAgainAfterChangesOnOtherNodes( @TempDir final Path shared ) throws Exception {
+        final TestEngine engine = TestEngine.build( TestEngine.with( RSSGenerator.PROP_GENERATE_RSS, "true" ),
+                                                    TestEngine.with( InvalidationBus.PROP_INVALIDATION_BUS, "FileInvalidationBus" ),
+                                                    TestEngine.with( FileInvalidationBus.PROP_DIR, shared.toString() ),
+                                                    TestEngine.with( FileInvalidationBus.PROP_POLL_INTERVAL, "20" ) );
+        final FileInvalidationBus otherNode = new FileInvalidationBus();
+        try {
+            final Properties props = new Properties();
+            props.setProperty( FileInvalidationBus.PROP_DIR, shared.toString() );
+            otherNode.initialize( props );
+            final DefaultRSSGenerator gen = ( DefaultRSSGenerator )engine.getManager( RSSGenerator.class );
+            gen.generate();
+            Assertions.assertFalse( gen.isStale() );
+
+            otherNode.publish( CachingManager.CACHE_PAGES, "RSSFeedPage" );
+            Awaitility.await().atMost( 10, TimeUnit.SECONDS ).until( gen::isStale );
+        } finally {
+            otherNode.shutdown();
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testFeedFileIsReplaced( @TempDir final Path dir ) throws Exception {
+        final Path rss = dir.resolve( "rss.rdf" );
+        RSSThread.write( "first", rss );
+        RSSThread.write( "second", rss );
+        Assertions.assertEquals( "second", Files.readString( rss, StandardCharsets.UTF_8 ) );
+        try( final var files = Files.list( dir ) ) {
+            Assertions.assertEquals( 1, files.count(), "temporary files should be gone" );
+        }
+    }
+
 }
@@ -0,0 +1,208 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.scheduler;
+
+import org.apache.wiki.TestEngine;
+import org.apache.wiki.WikiBackgroundJob;
+import org.apache.wiki.WikiBackgroundThread;
+import org.apache.wiki.api.core.Engine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class DefaultSchedulerManagerTest {
+
+    DefaultSchedulerManager scheduler;
+
+    @BeforeEach
+    void setUp() {
+        final Properties props = new Properties();
+        props.setProperty( SchedulerManager.PROP_JITTER, "0" );
+        props.setProperty( SchedulerManager.PROP_MAX_BACKOFF, "60" );
+        scheduler = new DefaultSchedulerManager( Mockito.mock( Engine.class ), props );
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testJobsRunPeriodically() throws Exception {
+        // runs are counted once finished, so wait for a 4th run to start to be sure that the first 3 have been counted
+        final CountDownLatch runs = new CountDownLatch( 4 );
+        final ScheduledJob job = scheduler.schedule( "counter", runs::countDown, 0, 10, TimeUnit.MILLISECONDS );
+        Assertions.assertTrue( runs.await( 5, TimeUnit.SECONDS ) );
+        Assertions.assertTrue( job.getRuns() >= 3 );
+        Assertions.assertEquals( 0, job.getFailures() );
+        Assertions.assertEquals( 1, scheduler.jobs().size() );
+    }
+
+    @Test
+    void testFailingJobsBackOff() throws Exception {
+        final CountDownLatch runs = new CountDownLatch( 2 );
+        final ScheduledJob job = scheduler.schedule( "failing", () -> {
+            runs.countDown();
+            throw new IllegalStateException( "expected" );
+        }, 0, 0, TimeUnit.SECONDS );
+        Assertions.assertFalse( runs.await( 500, TimeUnit.MILLISECONDS ), "a failing job shouldn't be retried right away" );
+        Assertions.assertEquals( 1, job.getFailures() );
+        Assertions.assertEquals( 1, job.getConsecutiveFailures() );
+        Assertions.assertEquals( 1_000L, job.nextDelay() );
+    }
+
+    @Test
+    void testBackoffIsBounded() {
+        final ScheduledJob failing = new ScheduledJob( "bounded", () -> { throw new IllegalStateException( "expected" ); }, 10_000L, scheduler );
+        Assertions.assertEquals( 10_000L, failing.nextDelay() );
+        for( int i = 0; i < 10; i++ ) {
+            failing.run();
+        }
+        Assertions.assertEquals( 10, failing.getConsecutiveFailures() );
+        Assertions.assertEquals( 60_000L, failing.nextDelay() );
+    }
+
+    @Test
+    void testCancelledJobsAreStoppedOnceAfterTheirLastRun() throws Exception {
+        final CountDownLatch running = new CountDownLatch( 1 );
+        final CountDownLatch finish = new CountDownLatch( 1 );
+        final AtomicInteger stops = new AtomicInteger();
+        final ScheduledJob job = scheduler.schedule( "slow", new SchedulerManager.Job() {
+
+            @Override
+            public void execute() throws Exception {
+                running.countDown();
+                finish.await();
+            }
+
+            @Override
+            public void stopped() {
+                stops.incrementAndGet();
+            }
+
+        }, 0, 0, TimeUnit.SECONDS );
+        Assertions.assertTrue( running.await( 5, TimeUnit.SECONDS ) );
+        job.cancel();
+        job.cancel();
+        Assertions.assertEquals( 0, stops.get(), "job is still running" );
+        finish.countDown();
+        scheduler.shutdown();
+        Assertions.assertEquals( 1, stops.get() );
+        Assertions.assertEquals( 1, job.getRuns() );
+        Assertions.assertTrue( scheduler.jobs().isEmpty() );
+    }
+
+    @Test
+    void testJobsThatDontReturnDontStarveTheOthers() throws Exception {
+        final Properties props = new Properties();
+        props.setProperty( SchedulerManager.PROP_THREADS, "1" );
+        final DefaultSchedulerManager small = new DefaultSchedulerManager( Mockito.mock( Engine.class ), props );
+        final CountDownLatch blocked = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final CountDownLatch runs = new CountDownLatch( 2 );
+        try {
+            small.schedule( "blocking", () -> {
+                blocked.countDown();
+                release.await();
+            }, 0, 0, TimeUnit.SECONDS );
+            Assertions.assertTrue( blocked.await( 5, TimeUnit.SECONDS ) );
+            small.schedule( "other", runs::countDown, 0, 10, TimeUnit.MILLISECONDS );
+            Assertions.assertTrue( runs.await( 5, TimeUnit.SECONDS ), "a blocked job shouldn't take the only thread of the pool" );
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void testBackgroundJobsRunOnTheEngineScheduler() throws Exception {
+        final TestEngine engine = TestEngine.build();
+        final CountDownLatch runs = new CountDownLatch( 2 );
+        final AtomicInteger startups = new AtomicInteger();
+        final AtomicInteger shutdowns = new AtomicInteger();
+        final WikiBackgroundJob backgroundJob = new WikiBackgroundJob( engine, 0 ) {
+
+            @Override
+            public void startupTask() {
+                startups.incrementAndGet();
+            }
+
+            @Override
+            public void backgroundTask() {
+                runs.countDown();
+            }
+
+            @Override
+            public void shutdownTask() {
+                shutdowns.incrementAndGet();
+            }
+
+        };
+        backgroundJob.setName( "test job" );
+        backgroundJob.start();
+        Assertions.assertThrows( IllegalStateException.class, backgroundJob::start );
+        Assertions.assertTrue( runs.await( 5, TimeUnit.SECONDS ) );
+        Assertions.assertEquals( 1, startups.get() );
+        Assertions.assertTrue( engine.getManager( SchedulerManager.class ).jobs().stream().anyMatch( job -> job.getName().equals( "test job" ) ) );
+
+        engine.shutdown();
+        Assertions.assertEquals( 1, shutdowns.get() );
+        Assertions.assertTrue( engine.getManager( SchedulerManager.class ).jobs().isEmpty() );
+    }
+
+    @Test
+    @SuppressWarnings( "deprecation" )
+    void testBackgroundThreadsKeepRunningOnTheirOwnThread() throws Exception {
+        final CountDownLatch runs = new CountDownLatch( 2 );
+        final AtomicInteger shutdowns = new AtomicInteger();
+        final Thread[] runner = new Thread[ 1 ];
+        final WikiBackgroundThread thread = new WikiBackgroundThread( Mockito.mock( Engine.class ), 0 ) {
+
+            @Override
+            public void backgroundTask() {
+                runner[ 0 ] = Thread.currentThread();
+                runs.countDown();
+            }
+
+            @Override
+            public void shutdownTask() {
+                shutdowns.incrementAndGet();
+            }
+
+        };
+        thread.start();
+        Assertions.assertTrue( runs.await( 5, TimeUnit.SECONDS ) );
+        Assertions.assertTrue( thread.isAlive() );
+        Assertions.assertSame( thread, runner[ 0 ] );
+
+        thread.shutdown();
+        thread.join( 5_000L );
+        Assertions.assertFalse( thread.isAlive() );
+        Assertions.assertEquals( 1, shutdowns.get() );
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.tracing;
+
+import org.apache.wiki.api.core.ContextEnum;
+import org.apache.wiki.api.core.Engine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class DefaultRequestTracerTest {
+
+    DefaultRequestTracer tracer( final String slowRequest, final String stackSampling ) {
+        final Properties props = new Properties();
+        props.setProperty( RequestTracer.PROP_SLOW_REQUEST, slowRequest );
+        props.setProperty( RequestTracer.PROP_STACK_SAMPLING, stackSampling );
+        final DefaultRequestTracer tracer = new DefaultRequestTracer();
+        tracer.initialize( Mockito.mock( Engine.class ), props );
+        return tracer;
+    }
+
+    @Test
+    void testRequestsAreAggregatedPerRequestContext() {
+        final DefaultRequestTracer tracer = tracer( "60000", "0" );
+        Assertions.assertSame( Span.NOOP, tracer.span( "outside of any request" ) );
+
+        final Span trace = tracer.begin( "/Wiki.jsp" );
+        Assertions.assertTrue( trace instanceof Trace );
+        try( final Span forward = tracer.begin( "/templates/default/ViewTemplate.jsp" ) ) {
+            Assertions.assertFalse( forward instanceof Trace, "nested requests are spans of the outer one" );
+        }
+        try( final Span span = tracer.span( "Delivering response" ) ) {
+            tracer.setRequestContext( ContextEnum.PAGE_VIEW.getRequestContext() );
+        }
+        trace.close();
+        trace.close();
+        Assertions.assertEquals( 2, ( ( Trace )trace ).getSpans().size() );
+        Assertions.assertSame( Span.NOOP, tracer.span( "request already finished" ) );
+
+        try( final Span other = tracer.begin( "/Foo.jsp" ) ) {
+            Assertions.assertTrue( other instanceof Trace );
+        }
+
+        final List< Histogram > histograms = tracer.histograms();
+        Assertions.assertEquals( 2, histograms.size() );
+        Assertions.assertEquals( DefaultRequestTracer.UNKNOWN_CONTEXT, histograms.get( 0 ).getName() );
+        Assertions.assertEquals( ContextEnum.PAGE_VIEW.getRequestContext(), histograms.get( 1 ).getName() );
+        Assertions.assertEquals( 1, histograms.get( 1 ).getCount() );
+        Assertions.assertEquals( 0, tracer.getSlowRequests() );
+    }
+
+    @Test
+    void testStacksOfSlowRequestsAreSampled() throws Exception {
+        final DefaultRequestTracer tracer = tracer( "1", "100" );
+        final Trace trace = ( Trace )tracer.begin( "/Slow.jsp" );
+        Thread.sleep( 10 );
+        tracer.sampleSlowRequests();
+        Assertions.assertNotNull( trace.getStack() );
+        Assertions.assertTrue( trace.toString().contains( "testStacksOfSlowRequestsAreSampled" ) );
+        trace.close();
+        Assertions.assertEquals( 1, tracer.getSlowRequests() );
+    }
+
+    @Test
+    void testTracesCanBePrintedWhileRunning() throws Exception {
+        final DefaultRequestTracer tracer = tracer( "60000", "0" );
+        final Trace trace = ( Trace )tracer.begin( "/Busy.jsp" );
+        final AtomicBoolean running = new AtomicBoolean( true );
+        final ExecutorService sampler = Executors.newSingleThreadExecutor();
+        try {
+            final Future< ? > printing = sampler.submit( () -> {
+                while( running.get() ) {
+                    Assertions.assertNotNull( trace.toString() );
+                }
+            } );
+            for( int i = 0; i < 10_000; i++ ) {
+                tracer.span( "step " + i ).close();
+            }
+            running.set( false );
+            printing.get( 10, TimeUnit.SECONDS );
+            trace.close();
+            Assertions.assertEquals( 10_000, trace.getSpans().size() );
+        } finally {
+            running.set( false );
+            sampler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        final Histogram histogram = new Histogram( "view" );
+        for( int i = 0; i < 90; i++ ) {
+            histogram.record( TimeUnit.MILLISECONDS.toNanos( 3 ) );
+        }
+        for( int i = 0; i < 10; i++ ) {
+            histogram.record( TimeUnit.MILLISECONDS.toNanos( 700 ) );
+        }
+        Assertions.assertEquals( 100, histogram.getCount() );
+        Assertions.assertEquals( 5, histogram.getPercentile( 50 ) );
+        Assertions.assertEquals( 5, histogram.getPercentile( 90 ) );
+        Assertions.assertEquals( 700, histogram.getPercentile( 99 ) );
+        Assertions.assertEquals( 700, histogram.getMaxTime() );
+        Assertions.assertEquals( 72, histogram.getMeanTime() );
+    }
+
+}
@@ -29,7 +29,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import jakarta.servlet.ServletContext;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Properties;
 import java.util.Vector;
 import java.util.stream.Stream;
@@ -63,6 +67,33 @@ class TemplateManagerTest {
         TemplateManager.addResourceRequest( ctx, type, res );
     }
 
+    @ParameterizedTest
+    @MethodSource( "provideArgumentsForFindResource" )
+    void shouldFindResourcesFallingBackToDefaultTemplate( final String cacheResources, final int lookups ) throws Exception {
+        final ServletContext servletContext = Mockito.mock( ServletContext.class );
+        Mockito.doReturn( servletContext ).when( engine ).getServletContext();
+        Mockito.doAnswer( invocationOnMock -> "/templates/default/ViewTemplate.jsp".equals( invocationOnMock.getArgument( 0 ) ) ? new ByteArrayInputStream( new byte[ 0 ] ) : null )
+               .when( servletContext ).getResourceAsStream( Mockito.anyString() );
+        Mockito.lenient().doReturn( new HashSet<>( Arrays.asList( "/templates/default/", "/templates/mytemplate/" ) ) )
+               .when( servletContext ).getResourcePaths( "/templates/" );
+        final Properties properties = new Properties();
+        properties.setProperty( DefaultTemplateManager.PROP_CACHE_RESOURCES, cacheResources );
+        final TemplateManager manager = new DefaultTemplateManager( engine, properties );
+
+        for( int i = 0; i < 3; i++ ) {
+            Assertions.assertEquals( "/templates/default/ViewTemplate.jsp", manager.findResource( ctx, "mytemplate", "ViewTemplate.jsp" ) );
+            Assertions.assertNull( manager.findResource( ctx, "mytemplate", "Missing.jsp" ) );
+            Assertions.assertTrue( manager.templateExists( TemplateManager.DEFAULT_TEMPLATE ) );
+            // lookups under templates which don't exist aren't remembered
+            Assertions.assertEquals( "/templates/default/ViewTemplate.jsp", manager.findResource( ctx, "notemplate", "ViewTemplate.jsp" ) );
+        }
+        Mockito.verify( servletContext, Mockito.times( lookups ) ).getResourceAsStream( Mockito.anyString() );
+    }
+
+    static Stream< Arguments > provideArgumentsForFindResource() {
+        return Stream.of( Arguments.of( "true", 7 ), Arguments.of( "false", 21 ) );
+    }
+
     static Stream< Arguments > provideArgumentsForAddResourceRequest() {
         return Stream.of(
                 Arguments.of( TemplateManager.RESOURCE_SCRIPT, "engine://jspwiki.syntax.plain", "<script type='text/javascript' src='plain/wiki-snips-jspwiki.js'></script>" ),
@@ -0,0 +1,62 @@
+/*
+    Licensed to the Apache Software Foundation (ASF) under one
+    or more contributor license agreements.  See the NOTICE file
+    distributed with this work for additional information
+    regarding copyright ownership.  The ASF licenses this file
+    to you under the Apache License, Version 2.0 (the
+    "License"); you may not use this file except in compliance
+    with the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing,
+    software distributed under the License is distributed on an
+    "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+    KIND, either express or implied.  See the License for the
+    specific language governing permissions and limitations
+    under the License.
+ */
+package org.apache.wiki.ui.admin.beans;
+
+import org.apache.wiki.TestEngine;
+import org.apache.wiki.api.core.Context;
+import org.apache.wiki.api.providers.WikiProvider;
+import org.apache.wiki.api.spi.Wiki;
+import org.apache.wiki.cache.CachingManager;
+import org.apache.wiki.pages.PageManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class CachingManagerBeanTest {
+
+    TestEngine testEngine = TestEngine.build();
+
+    @AfterEach
+    public void tearDown() {
+        testEngine.stop();
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        testEngine.saveText( "CachedPage", "cached text" );
+        final PageManager pageManager = testEngine.getManager( PageManager.class );
+        pageManager.getPureText( "CachedPage", WikiProvider.LATEST_VERSION );
+        pageManager.getPureText( "CachedPage", WikiProvider.LATEST_VERSION );
+
+        final CachingManagerBean bean = new CachingManagerBean( testEngine );
+        Assertions.assertTrue( bean.getHits() > 0 );
+        Assertions.assertTrue( bean.getEntries() > 0 );
+        Assertions.assertTrue( bean.getBytes() > 0 );
+
+        final String metrics = bean.getMetrics();
+        Assertions.assertTrue( metrics.contains( "jspwiki_cache_hits{cache=\"" + CachingManager.CACHE_PAGES_TEXT + "\"} " ), metrics );
+        Assertions.assertTrue( metrics.contains( "jspwiki_cache_entries{cache=\"" + CachingManager.CACHE_PAGES + "\"} " ), metrics );
+
+        final Context context = Wiki.context().create( testEngine, Wiki.contents().page( testEngine, "CachedPage" ) );
+        final String html = bean.doGet( context );
+        Assertions.assertTrue( html.contains( "<td>" + CachingManager.CACHE_PAGES_TEXT + "</td>" ), html );
+    }
+
+}
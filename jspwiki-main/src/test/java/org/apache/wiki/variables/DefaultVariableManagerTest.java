@@ -20,6 +20,7 @@
 package org.apache.wiki.variables;
 
 import org.apache.wiki.TestEngine;
+import org.apache.wiki.api.Release;
 import org.apache.wiki.api.core.Context;
 import org.apache.wiki.api.exceptions.NoSuchVariableException;
 import org.apache.wiki.api.spi.Wiki;
@@ -85,6 +86,23 @@ public class DefaultVariableManagerTest {
         Assertions.assertEquals( PAGE_NAME, res );
     }
 
+    @Test
+    public void testSystemVariables() throws Exception {
+        Assertions.assertEquals( Release.getVersionString(), m_variableManager.getValue( m_context, "jspwikiversion" ) );
+        Assertions.assertEquals( "JSPWiki", m_variableManager.getValue( m_context, "ApplicationName" ) );
+        for( final String name : DefaultVariableManager.SYSTEM_VARIABLES.keySet() ) {
+            Assertions.assertNotNull( m_variableManager.getValue( m_context, name ), name );
+        }
+    }
+
+    @Test
+    public void testDeniedProperties() throws Exception {
+        Assertions.assertEquals( "", m_variableManager.getValue( m_context, "jspwiki.auth.masterPassword" ) );
+        Assertions.assertEquals( "", m_variableManager.getValue( m_context, "jspwiki.fileSystemProvider.pageDir" ) );
+        // allowed, but not set on the test properties
+        Assertions.assertThrows( NoSuchVariableException.class, () -> m_variableManager.getValue( m_context, "jspwiki.frontPage" ) );
+    }
+
     @Test
     public void testExpand1() {
         final String res = m_variableManager.expandVariables( m_context, "Testing {$pagename}..." );
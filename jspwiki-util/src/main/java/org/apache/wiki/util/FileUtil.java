@@ -42,7 +42,13 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.UUID;
 
 /**
  *  Generic utilities related to file and stream handling.
@@ -93,6 +99,34 @@ public final class FileUtil {
         return newTmpFile( content, StandardCharsets.ISO_8859_1 );
     }
 
+    /**
+     *  Replaces the contents of a file in one step, so that readers never see a missing or partially written file. The contents are
+     *  written to a temporary file on the same directory, which is then moved over the target file, atomically if the file system
+     *  supports it. The new file keeps the permissions of the file it replaces, if any, or else gets the ones of any new file.
+     *
+     *  @param target The file to replace.
+     *  @param contents Writes the new contents of the file into the given stream.
+     *  @throws IOException If the file could not be written or replaced; the target file is left untouched in that case.
+     */
+    public static void replaceFile( final Path target, final CheckedConsumer< OutputStream, IOException > contents ) throws IOException {
+        final Path tmp = target.resolveSibling( target.getFileName() + "." + UUID.randomUUID() + ".tmp" );
+        try {
+            try( final OutputStream out = Files.newOutputStream( tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE ) ) {
+                contents.accept( out );
+            }
+            if( Files.exists( target ) && Files.getFileStore( tmp ).supportsFileAttributeView( PosixFileAttributeView.class ) ) {
+                Files.setPosixFilePermissions( tmp, Files.getPosixFilePermissions( target ) );
+            }
+            try {
+                Files.move( tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+            } catch( final AtomicMoveNotSupportedException e ) {
+                Files.move( tmp, target, StandardCopyOption.REPLACE_EXISTING );
+            }
+        } finally {
+            Files.deleteIfExists( tmp );
+        }
+    }
+
     /**
      *  Runs a simple command in given directory. The environment is inherited from the parent process (e.g. the
      *  one in which this Java VM runs).
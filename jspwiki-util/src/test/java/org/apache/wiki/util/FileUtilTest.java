@@ -29,6 +29,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 public class FileUtilTest
 {
@@ -111,4 +119,30 @@ public class FileUtilTest
         Assertions.assertEquals( data, result );
     }
 
+    @Test
+    @DisabledOnOs( OS.WINDOWS )
+    public void testReplaceFile() throws IOException {
+        final Path dir = Files.createDirectories( Paths.get( "target", "FileUtilTest" + UUID.randomUUID() ) );
+        final Path target = dir.resolve( "replaced.txt" );
+        FileUtil.replaceFile( target, out -> out.write( "first".getBytes( StandardCharsets.UTF_8 ) ) );
+        Assertions.assertEquals( "first", new String( Files.readAllBytes( target ), StandardCharsets.UTF_8 ) );
+
+        // the replaced file keeps its permissions
+        final Set< PosixFilePermission > permissions = PosixFilePermissions.fromString( "rw-r--r--" );
+        Files.setPosixFilePermissions( target, permissions );
+        FileUtil.replaceFile( target, out -> out.write( "second".getBytes( StandardCharsets.UTF_8 ) ) );
+        Assertions.assertEquals( "second", new String( Files.readAllBytes( target ), StandardCharsets.UTF_8 ) );
+        Assertions.assertEquals( permissions, Files.getPosixFilePermissions( target ) );
+
+        // a failed write leaves the file untouched, and no temporary files behind
+        Assertions.assertThrows( IOException.class, () -> FileUtil.replaceFile( target, out -> {
+            out.write( "partial".getBytes( StandardCharsets.UTF_8 ) );
+            throw new IOException( "disk full" );
+        } ) );
+        Assertions.assertEquals( "second", new String( Files.readAllBytes( target ), StandardCharsets.UTF_8 ) );
+        try( final Stream< Path > files = Files.list( dir ) ) {
+            Assertions.assertEquals( 1, files.count() );
+        }
+    }
+
 }
@@ -19,12 +19,13 @@
 
 <%@ page import="org.apache.logging.log4j.Logger" %>
 <%@ page import="org.apache.logging.log4j.LogManager" %>
-<%@ page import="org.apache.wiki.WatchDog" %>
 <%@ page import="org.apache.wiki.api.core.*" %>
 <%@ page import="org.apache.wiki.api.spi.Wiki" %>
 <%@ page import="org.apache.wiki.auth.AuthorizationManager" %>
 <%@ page import="org.apache.wiki.preferences.Preferences" %>
 <%@ page import="org.apache.wiki.tags.InsertDiffTag" %>
+<%@ page import="org.apache.wiki.tracing.RequestTracer" %>
+<%@ page import="org.apache.wiki.tracing.Span" %>
 <%@ page import="org.apache.wiki.ui.TemplateManager" %>
 <%@ page import="org.apache.wiki.util.*" %>
 <%@ page errorPage="/Error.jsp" %>
@@ -45,10 +46,9 @@
     }
     String pagereq = wikiContext.getName();
 
-    WatchDog w = WatchDog.getCurrentWatchDog( wiki );
+    Span span = wiki.getManager( RequestTracer.class ).span( "Generating DIFF response" );
     try
     {
-    w.enterState("Generating INFO response",60);
 
     // Notused ?
     // String pageurl = wiki.encodeName( pagereq );
@@ -88,4 +88,4 @@
     response.setContentType("text/html; charset="+wiki.getContentEncoding() );
     String contentPage = wiki.getManager( TemplateManager.class ).findJSP( pageContext, wikiContext.getTemplate(), "ViewTemplate.jsp" );
 %><wiki:Include page="<%=contentPage%>" />
-<% } finally { w.exitState(); } %>
\ No newline at end of file
+<% } finally { span.close(); } %>
\ No newline at end of file
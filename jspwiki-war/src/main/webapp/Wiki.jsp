@@ -20,11 +20,12 @@
 <%@ page import="org.apache.commons.lang3.time.StopWatch" %>
 <%@ page import="org.apache.logging.log4j.Logger" %>
 <%@ page import="org.apache.logging.log4j.LogManager" %>
-<%@ page import="org.apache.wiki.WatchDog" %>
 <%@ page import="org.apache.wiki.api.core.*" %>
 <%@ page import="org.apache.wiki.api.spi.Wiki" %>
 <%@ page import="org.apache.wiki.auth.AuthorizationManager" %>
 <%@ page import="org.apache.wiki.preferences.Preferences" %>
+<%@ page import="org.apache.wiki.tracing.RequestTracer" %>
+<%@ page import="org.apache.wiki.tracing.Span" %>
 <%@ page import="org.apache.wiki.ui.TemplateManager" %>
 <%@ page import="org.apache.wiki.util.*" %>
 <%@ page errorPage="/Error.jsp" %>
@@ -50,9 +51,8 @@
 
     StopWatch sw = new StopWatch();
     sw.start();
-    WatchDog w = WatchDog.getCurrentWatchDog( wiki );
+    Span span = wiki.getManager( RequestTracer.class ).span( "Generating VIEW response" );
     try {
-        w.enterState("Generating VIEW response for "+wikiContext.getPage(),60);
 
         // Set the content type and include the response content
         response.setContentType("text/html; charset="+wiki.getContentEncoding() );
@@ -64,7 +64,7 @@
     {
         sw.stop();
         if( log.isDebugEnabled() ) log.debug("Total response time from server on page "+pagereq+": "+sw);
-        w.exitState();
+        span.close();
     }
 %>
 
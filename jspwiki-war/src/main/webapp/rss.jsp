@@ -26,7 +26,6 @@
 <%@ page import="net.sf.ehcache.CacheManager" %>
 <%@ page import="org.apache.logging.log4j.Logger" %>
 <%@ page import="org.apache.logging.log4j.LogManager" %>
-<%@ page import="org.apache.wiki.WatchDog" %>
 <%@ page import="org.apache.wiki.api.core.*" %>
 <%@ page import="org.apache.wiki.api.spi.Wiki" %>
 <%@ page import="org.apache.wiki.auth.AuthorizationManager" %>
@@ -34,6 +33,8 @@
 <%@ page import="org.apache.wiki.pages.PageManager" %>
 <%@ page import="org.apache.wiki.preferences.Preferences" %>
 <%@ page import="org.apache.wiki.rss.*" %>
+<%@ page import="org.apache.wiki.tracing.RequestTracer" %>
+<%@ page import="org.apache.wiki.tracing.Span" %>
 <%@ page import="org.apache.wiki.util.*" %>
 
 <%!
@@ -70,8 +71,7 @@
         return;
     }
 
-    WatchDog w = WatchDog.getCurrentWatchDog( wiki );
-    w.enterState("Generating RSS",60);
+    Span span = wiki.getManager( RequestTracer.class ).span( "Generating RSS" );
     
     // Set the mode and type for the feed
     String      mode        = request.getParameter("mode");
@@ -120,7 +120,7 @@
 
     if( !hasChanged && !changed.isEmpty()) {
         response.sendError( HttpServletResponse.SC_NOT_MODIFIED );
-        w.exitState();
+        span.close();
         return;
     }
     response.addHeader("Content-Disposition", "attachment; filename=\"rss.xml\"");
@@ -148,5 +148,5 @@
     
     out.println( rss );
     
-    w.exitState(); 
+    span.close(); 
     %>
\ No newline at end of file
@@ -30,6 +30,8 @@ import org.jdom2.output.XMLOutputter;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Converting Html to Wiki Markup with NekoHtml for converting html to xhtml and
@@ -39,6 +41,16 @@ import java.io.StringReader;
 public class HtmlStringToWikiTranslator {
 
     private static final String CYBERNEKO_PARSER = SAXParser.class.getName();
+
+    /** Max number of idle builders kept around. */
+    private static final int MAX_POOLED_BUILDERS = 16;
+
+    /**
+     * Builders ready to be reused. Building one, and its CyberNeko parser, costs more than parsing most edited pages, and a
+     * {@link SAXBuilder} reuses its parser between builds, but it can't be used by two threads at the same time.
+     */
+    private static final BlockingQueue< SAXBuilder > BUILDERS = new ArrayBlockingQueue<>( MAX_POOLED_BUILDERS );
+
     private final Engine e;
 
     /**
@@ -102,10 +114,15 @@ public class HtmlStringToWikiTranslator {
      * @throws IOException when an I/O error prevents a document from being fully parsed
      */
     private Element htmlStringToElement( final String html ) throws JDOMException, IOException {
-        final SAXBuilder builder = new SAXBuilder( new XMLReaderSAX2Factory( true, CYBERNEKO_PARSER ), null, null );
-        //builder.setProperty( XMLConstants.ACCESS_EXTERNAL_DTD, "" );
-        //builder.setProperty( XMLConstants.ACCESS_EXTERNAL_SCHEMA, "" );
+        SAXBuilder builder = BUILDERS.poll();
+        if( builder == null ) {
+            builder = new SAXBuilder( new XMLReaderSAX2Factory( true, CYBERNEKO_PARSER ), null, null );
+            builder.setReuseParser( true );
+            //builder.setProperty( XMLConstants.ACCESS_EXTERNAL_DTD, "" );
+            //builder.setProperty( XMLConstants.ACCESS_EXTERNAL_SCHEMA, "" );
+        }
         final Document doc = builder.build( new StringReader( html ) );
+        BUILDERS.offer( builder ); // builders failing to parse aren't given back, as they may have been left in an unknown state
         return doc.getRootElement();
     }
 
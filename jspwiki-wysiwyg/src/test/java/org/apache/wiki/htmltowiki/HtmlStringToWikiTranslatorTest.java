@@ -24,7 +24,12 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * JUnit test cases for Converting Html to Wiki Markup.
@@ -331,4 +336,22 @@ public class HtmlStringToWikiTranslatorTest {
                 html2wiki.translate( "\n<dl><dt><b>New Page Name</b></dt><dd><input name=\"nbf_newPageName\" type=\"text\"></dd></dl>\n" ) );
     }
 
+    @Test
+    public void testConcurrentTranslations() throws Exception {
+        final String html = "<h2>Title</h2><p>Some <b>bold</b> and <i>italic</i> text.</p><ul><li>one</li><li>two</li></ul>";
+        final String expected = html2wiki.translate( html );
+        final ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try {
+            final List< Future< String > > translations = new ArrayList<>();
+            for( int i = 0; i < 200; i++ ) {
+                translations.add( executor.submit( () -> html2wiki.translate( html ) ) );
+            }
+            for( final Future< String > translation : translations ) {
+                Assertions.assertEquals( expected, translation.get() );
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
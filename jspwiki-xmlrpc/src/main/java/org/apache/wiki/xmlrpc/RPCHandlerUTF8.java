@@ -93,7 +93,6 @@ public class RPCHandlerUTF8 extends AbstractRPCHandler {
     public Vector< Hashtable< String, Object > > getRecentChanges( Date since ) {
         checkPermission( PagePermission.VIEW );
 
-        final Set< Page > pages = m_engine.getManager( PageManager.class ).getRecentChanges();
         final Vector< Hashtable< String, Object > > result = new Vector<>();
 
         final Calendar cal = Calendar.getInstance();
@@ -107,6 +106,7 @@ public class RPCHandlerUTF8 extends AbstractRPCHandler {
                   (cal.getTimeZone().inDaylightTime(since) ? cal.get( Calendar.DST_OFFSET ) : 0 ) ) );
         since = cal.getTime();
 
+        final Set< Page > pages = m_engine.getManager( PageManager.class ).getRecentChanges( since );
         for( final Page page : pages ) {
             if( page.getLastModified().after( since ) && !( page instanceof Attachment ) ) {
                 result.add( encodeWikiPage( page ) );